@@ -0,0 +1,72 @@
+package club.supreme.framework.benchmark;
+
+import club.supreme.framework.model.cache.CacheHashKey;
+import club.supreme.framework.model.cache.CacheKey;
+import club.supreme.framework.model.cache.CacheKeyBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CacheKeyBuilder 构建 key 的开销
+ *
+ * @author supreme
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheKeyBuilderBenchmark {
+
+    private final CacheKeyBuilder plain = new CacheKeyBuilder() {
+        @Override
+        public String getPrefix() {
+            return "bench_entity";
+        }
+
+        @Override
+        public Duration getExpire() {
+            return Duration.ofHours(1);
+        }
+    };
+
+    private final CacheKeyBuilder hashTag = new CacheKeyBuilder() {
+        @Override
+        public String getPrefix() {
+            return "bench_entity";
+        }
+
+        @Override
+        public boolean isHashTag() {
+            return true;
+        }
+    };
+
+    private long id = 1467000000000000001L;
+
+    @Benchmark
+    public CacheKey key() {
+        return plain.key(id++);
+    }
+
+    @Benchmark
+    public CacheKey keyWithHashTag() {
+        return hashTag.key(id++);
+    }
+
+    @Benchmark
+    public CacheHashKey hashFieldKey() {
+        return plain.hashFieldKey(id++, "bucket", 7);
+    }
+}
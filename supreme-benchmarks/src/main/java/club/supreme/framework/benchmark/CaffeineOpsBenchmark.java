@@ -0,0 +1,92 @@
+package club.supreme.framework.benchmark;
+
+import club.supreme.framework.benchmark.support.BenchEntity;
+import club.supreme.framework.cache.repository.impl.CaffeineOpsImpl;
+import club.supreme.framework.model.cache.CacheKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CaffeineOpsImpl 读、写、加载的开销，分别在单线程和所有 CPU 线程下测试
+ *
+ * @author supreme
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CaffeineOpsBenchmark {
+
+    /**
+     * 小于 CaffeineOpsImpl 的最大数量，读取全部命中
+     */
+    private static final int KEYS = 512;
+    private static final Duration EXPIRE = Duration.ofHours(1);
+
+    private final CaffeineOpsImpl cacheOps = new CaffeineOpsImpl();
+    private final CacheKey[] keys = new CacheKey[KEYS];
+    private final BenchEntity entity = BenchEntity.sample(1);
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = new CacheKey("bench:caffeine:" + i, EXPIRE);
+            cacheOps.set(keys[i], BenchEntity.sample(i));
+        }
+    }
+
+    private CacheKey randomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(KEYS)];
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object get() {
+        return cacheOps.get(randomKey());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object getContended() {
+        return cacheOps.get(randomKey());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void set() {
+        cacheOps.set(randomKey(), entity);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void setContended() {
+        cacheOps.set(randomKey(), entity);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object loader() {
+        return cacheOps.get(randomKey(), k -> entity);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object loaderContended() {
+        return cacheOps.get(randomKey(), k -> entity);
+    }
+}
@@ -0,0 +1,98 @@
+package club.supreme.framework.benchmark;
+
+import club.supreme.framework.benchmark.support.BenchEntity;
+import club.supreme.framework.cache.redis.RedisOps;
+import club.supreme.framework.cache.support.RedisStandIn;
+import club.supreme.framework.model.cache.CacheKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RedisOps 单个读写和批量读写的开销，连接进程内的 redis 替身
+ * <p>
+ * 替身的服务端开销与真实 redis 不同，这里关注的是客户端一侧(序列化、批量拆分、pipeline)的变化
+ *
+ * @author supreme
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisOpsBenchmark {
+
+    private static final int KEYS = 1000;
+    private static final int BATCH = 20;
+    private static final Duration EXPIRE = Duration.ofHours(1);
+
+    private RedisStandIn redis;
+    private RedisOps redisOps;
+    private final CacheKey[] keys = new CacheKey[KEYS];
+    private final BenchEntity entity = BenchEntity.sample(1);
+
+    @Setup
+    public void setUp() {
+        redis = new RedisStandIn();
+        redisOps = redis.getRedisOps();
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = new CacheKey("bench:redis:" + i, EXPIRE);
+            redisOps.set(keys[i], BenchEntity.sample(i), true);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        redis.close();
+    }
+
+    private List<CacheKey> randomBatch() {
+        int start = ThreadLocalRandom.current().nextInt(KEYS - BATCH);
+        List<CacheKey> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(keys[start + i]);
+        }
+        return batch;
+    }
+
+    @Benchmark
+    public Object get() {
+        return redisOps.get(keys[ThreadLocalRandom.current().nextInt(KEYS)]);
+    }
+
+    @Benchmark
+    public void set() {
+        redisOps.set(keys[ThreadLocalRandom.current().nextInt(KEYS)], entity, true);
+    }
+
+    @Benchmark
+    public List<Object> mGetByCacheKey() {
+        return redisOps.mGetByCacheKey(randomBatch());
+    }
+
+    @Benchmark
+    public void mSetCacheKeys() {
+        Map<CacheKey, Object> values = new LinkedHashMap<>();
+        for (CacheKey key : randomBatch()) {
+            values.put(key, entity);
+        }
+        redisOps.mSetCacheKeys(values, true);
+    }
+}
@@ -0,0 +1,95 @@
+package club.supreme.framework.benchmark;
+
+import club.supreme.framework.benchmark.support.BenchEntity;
+import club.supreme.framework.cache.redis.NullVal;
+import club.supreme.framework.cache.redis.serializer.NullValRedisSerializer;
+import club.supreme.framework.cache.redis.serializer.RedisObjectSerializer;
+import club.supreme.framework.enums.cache.SerializerType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各种 SerializerType 序列化、反序列化实体的开销
+ * <p>
+ * 序列化器的选择与 RedisAutoConfigure#redisSerializer 一致：JDK 使用 jdk 序列化，其他类型使用 RedisObjectSerializer。
+ * ProtoStuff 还没有实现(会回退到 RedisObjectSerializer)，不参与测试。
+ * 结合 -prof gc 查看每次调用分配的内存
+ *
+ * @author supreme
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+
+    @Param({"JACK_SON", "JDK"})
+    private SerializerType serializerType;
+
+    /**
+     * 1：getByIdCache 的单个实体；20：findByIds 一批的大小
+     */
+    @Param({"1", "20"})
+    private int size;
+
+    private RedisSerializer<Object> serializer;
+    private Object payload;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        serializer = new NullValRedisSerializer(SerializerType.JDK == serializerType
+                ? new JdkSerializationRedisSerializer(getClass().getClassLoader())
+                : new RedisObjectSerializer());
+        if (size == 1) {
+            payload = BenchEntity.sample(1);
+        } else {
+            List<BenchEntity> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(BenchEntity.sample(i));
+            }
+            payload = list;
+        }
+        bytes = serializer.serialize(payload);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(payload);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        return serializer.deserialize(serializer.serialize(payload));
+    }
+
+    /**
+     * 空值：写入和读取单字节的墓碑标记
+     */
+    @Benchmark
+    public Object nullValRoundTrip() {
+        return serializer.deserialize(serializer.serialize(NullVal.INSTANCE));
+    }
+}
@@ -0,0 +1,51 @@
+package club.supreme.framework.benchmark.support;
+
+import club.supreme.framework.model.SupremeBaseEntity;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 基准测试使用的实体，字段组成接近常见的业务表
+ *
+ * @author supreme
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class BenchEntity extends SupremeBaseEntity<Long> {
+
+    private static final long serialVersionUID = 1L;
+
+    private String code;
+    private String name;
+    private Integer status;
+    private BigDecimal amount;
+    private String remark;
+
+    /**
+     * 生成一个所有字段都有值的实体
+     *
+     * @param id 主键
+     */
+    public static BenchEntity sample(long id) {
+        BenchEntity entity = new BenchEntity();
+        entity.setId(id);
+        entity.setTenantId(1L);
+        entity.setCreatedAt(LocalDateTime.of(2021, 12, 1, 8, 30));
+        entity.setCreatedBy("admin");
+        entity.setUpdatedAt(LocalDateTime.of(2021, 12, 2, 9, 45));
+        entity.setUpdatedBy("admin");
+        entity.setDelFlag(0);
+        entity.setRevision(3L);
+        entity.code = "CODE-" + id;
+        entity.name = "示例数据-" + id;
+        entity.status = 1;
+        entity.amount = new BigDecimal("1234.56");
+        entity.remark = "基准测试使用的备注字段，长度接近常见的描述类字段";
+        return entity;
+    }
+}
@@ -1,7 +1,14 @@
 package club.supreme.framework.cache.config;
 
+import club.supreme.framework.cache.counter.CounterAggregator;
+import club.supreme.framework.cache.repository.CacheOps;
 import club.supreme.framework.constant.StrPool;
+import club.supreme.framework.props.SupremeCacheProperties;
+import club.supreme.framework.props.SupremeProperties;
+import cn.hutool.core.util.StrUtil;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.Bean;
@@ -41,4 +48,17 @@ public class CacheAutoConfigure {
         };
     }
 
+    /**
+     * 计数器合并写入
+     *
+     * @param cacheOps          缓存
+     * @param supremeProperties 配置
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = SupremeProperties.PREFIX + StrUtil.DOT + SupremeCacheProperties.PREFIX, name = "counter.enabled", havingValue = "true")
+    public CounterAggregator counterAggregator(CacheOps cacheOps, SupremeProperties supremeProperties) {
+        return new CounterAggregator(cacheOps, supremeProperties.getCache().getCounter());
+    }
+
 }
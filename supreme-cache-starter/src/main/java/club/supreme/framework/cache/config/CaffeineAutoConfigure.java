@@ -2,12 +2,17 @@ package club.supreme.framework.cache.config;
 
 import club.supreme.framework.cache.lock.DistributedLock;
 import club.supreme.framework.cache.lock.impl.CaffeineDistributedLockImpl;
+import club.supreme.framework.cache.offheap.OffHeapStore;
+import club.supreme.framework.cache.redis.serializer.RedisObjectSerializer;
 import club.supreme.framework.cache.repository.CacheOps;
 import club.supreme.framework.cache.repository.CachePlusOps;
 import club.supreme.framework.cache.repository.impl.CaffeineOpsImpl;
+import club.supreme.framework.cache.snapshot.LocalCacheSnapshot;
 import club.supreme.framework.config.SupremePropertiesAutoConfiguration;
+import club.supreme.framework.enums.cache.SerializerType;
 import club.supreme.framework.props.SupremeCacheProperties;
 import club.supreme.framework.props.SupremeProperties;
+import club.supreme.framework.utils.ArgumentAssert;
 import cn.hutool.core.util.StrUtil;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +24,8 @@ import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 
 /**
@@ -53,19 +60,57 @@ public class CaffeineAutoConfigure {
     @ConditionalOnMissingBean
     public CacheOps cacheOps() {
         log.warn("检查到缓存采用了 Caffeine(内存模式)");
-        return new CaffeineOpsImpl();
+        return caffeineOps();
     }
 
     /**
      * caffeine 增强持久库
      * 仅用于避免报错， 正式环境请勿使用
+     * <p>
+     * 与 cacheOps 共用同一个实例，保证两者读写的是同一份数据
      *
      * @return the redis repository
      */
     @Bean
     @ConditionalOnMissingBean
-    public CachePlusOps cachePlusOps() {
-        return new CaffeineOpsImpl();
+    public CachePlusOps cachePlusOps(CacheOps cacheOps) {
+        return cacheOps instanceof CachePlusOps ? (CachePlusOps) cacheOps : caffeineOps();
+    }
+
+    private CaffeineOpsImpl caffeineOps() {
+        SupremeCacheProperties.Structure structure = supremeProperties.getCache().getStructure();
+        return new CaffeineOpsImpl(offHeapStore(), structure.getMaxSize(), structure.getExpireAfterAccess());
+    }
+
+    private OffHeapStore offHeapStore() {
+        SupremeCacheProperties.OffHeap offHeap = supremeProperties.getCache().getOffHeap();
+        if (!offHeap.isEnabled()) {
+            return null;
+        }
+        return new OffHeapStore(offHeap.getCapacity().toBytes(), (int) offHeap.getSegmentSize().toBytes(), valueSerializer());
+    }
+
+    /**
+     * 本地缓存快照
+     *
+     * @param cacheOps caffeine 持久库
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = SupremeProperties.PREFIX + StrUtil.DOT + SupremeCacheProperties.PREFIX, name = "snapshot.enabled", havingValue = "true")
+    public LocalCacheSnapshot localCacheSnapshot(CacheOps cacheOps) {
+        ArgumentAssert.isTrue(cacheOps instanceof CaffeineOpsImpl, "缓存快照只支持 CaffeineOpsImpl");
+        return new LocalCacheSnapshot((CaffeineOpsImpl) cacheOps, valueSerializer(), supremeProperties.getCache().getSnapshot());
+    }
+
+    /**
+     * 堆外缓存和快照使用的序列化器，与 redis 模式的格式一致
+     */
+    private RedisSerializer<Object> valueSerializer() {
+        if (SerializerType.JDK == supremeProperties.getCache().getSerializerType()) {
+            return new JdkSerializationRedisSerializer(this.getClass().getClassLoader());
+        }
+        return new RedisObjectSerializer();
     }
 
     @SuppressWarnings("AlibabaRemoveCommentedCode")
@@ -1,8 +1,12 @@
 package club.supreme.framework.cache.config;
 
+import club.supreme.framework.cache.invalidation.CacheInvalidationBus;
+import club.supreme.framework.cache.invalidation.CacheInvalidationListener;
 import club.supreme.framework.cache.lock.DistributedLock;
 import club.supreme.framework.cache.lock.impl.RedisDistributedLockImpl;
 import club.supreme.framework.cache.redis.RedisOps;
+import club.supreme.framework.cache.redis.RedisReadReplica;
+import club.supreme.framework.cache.redis.serializer.NullValRedisSerializer;
 import club.supreme.framework.cache.redis.serializer.RedisObjectSerializer;
 import club.supreme.framework.cache.repository.CacheOps;
 import club.supreme.framework.cache.repository.CachePlusOps;
@@ -16,6 +20,7 @@ import cn.hutool.core.util.StrUtil;
 import com.google.common.collect.Maps;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -77,15 +82,18 @@ public class RedisAutoConfigure {
         return template;
     }
 
+    /**
+     * 值的序列化器，空值统一编码为单字节的墓碑标记
+     */
     @Bean
     @ConditionalOnMissingBean(RedisSerializer.class)
     public RedisSerializer<Object> redisSerializer() {
         SerializerType serializerType = supremeProperties.getCache().getSerializerType();
         if (SerializerType.JDK == serializerType) {
             ClassLoader classLoader = this.getClass().getClassLoader();
-            return new JdkSerializationRedisSerializer(classLoader);
+            return new NullValRedisSerializer(new JdkSerializationRedisSerializer(classLoader));
         }
-        return new RedisObjectSerializer();
+        return new NullValRedisSerializer(new RedisObjectSerializer());
     }
 
     private void setSerializer(RedisConnectionFactory factory, RedisTemplate template, RedisSerializer<Object> redisSerializer) {
@@ -187,9 +195,43 @@ public class RedisAutoConfigure {
         return config;
     }
 
+    /**
+     * redis 读写分离
+     *
+     * @param factory       redis链接工厂
+     * @param redisTemplate 主节点的 redisTemplate
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = SupremeProperties.PREFIX + StrUtil.DOT + SupremeCacheProperties.PREFIX, name = "replica.enabled", havingValue = "true")
+    public RedisReadReplica redisReadReplica(RedisConnectionFactory factory, @Qualifier("redisTemplate") RedisTemplate<String, Object> redisTemplate) {
+        return new RedisReadReplica(factory, redisTemplate, supremeProperties.getCache().getReplica());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RedisOps getRedisOps(@Qualifier("redisTemplate") RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate,
+                                ObjectProvider<RedisReadReplica> redisReadReplica) {
+        RedisReadReplica replica = redisReadReplica.getIfAvailable();
+        RedisOps redisOps = new RedisOps(redisTemplate, stringRedisTemplate, supremeProperties.getCache().getCacheNullVal(),
+                supremeProperties.getCache().getCluster(), replica == null ? null : replica.getRedisTemplate());
+        redisOps.setCoalesceReads(supremeProperties.getCache().isCoalesceReads());
+        redisOps.setNullValExpire(supremeProperties.getCache().getNullValExpire());
+        return redisOps;
+    }
+
+    /**
+     * 缓存失效广播
+     *
+     * @param stringRedisTemplate stringRedisTemplate
+     * @param factory             redis链接工厂
+     * @param listeners           失效消息的处理者
+     */
     @Bean
     @ConditionalOnMissingBean
-    public RedisOps getRedisOps(@Qualifier("redisTemplate") RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate) {
-        return new RedisOps(redisTemplate, stringRedisTemplate, supremeProperties.getCache().getCacheNullVal());
+    @ConditionalOnProperty(prefix = SupremeProperties.PREFIX + StrUtil.DOT + SupremeCacheProperties.PREFIX, name = "invalidation.enabled", havingValue = "true")
+    public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate stringRedisTemplate, RedisConnectionFactory factory,
+                                                     ObjectProvider<CacheInvalidationListener> listeners) {
+        return new CacheInvalidationBus(stringRedisTemplate, factory, supremeProperties.getCache().getInvalidation(), listeners);
     }
 }
@@ -0,0 +1,188 @@
+package club.supreme.framework.cache.counter;
+
+import club.supreme.framework.cache.repository.CacheOps;
+import club.supreme.framework.model.cache.CacheKey;
+import club.supreme.framework.props.SupremeCacheProperties;
+import cn.hutool.core.thread.NamedThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.NonNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 计数器合并写入
+ * <p>
+ * 浏览数、点赞数等允许毫秒级最终一致的计数器，每次请求都调用 CacheOps.incr 会对同一个热点 key 产生大量的 INCR + EXPIRE。
+ * 本类先把增量累积在本地的 LongAdder 中，每隔 flushInterval(或累积的 key 数量达到 maxPendingKeys 时)
+ * 通过 CacheOps.mIncrBy 在一个 pipeline 中批量写入。
+ * <p>
+ * 每轮写入时整体换上一个新的累积表，等仍在写旧表的线程退出后再取出旧表的全部增量，不会遗漏并发写入的增量。
+ * <p>
+ * 注意：应用异常退出时未写入的增量会丢失；按 BATCH_SIZE 分批写入，写入失败的批次放回本地，下一轮重试
+ *
+ * @author supreme
+ */
+@Slf4j
+public class CounterAggregator implements DisposableBean {
+
+    /**
+     * 每次 mIncrBy 写入的 key 数量，与 RedisOps 的 pipeline 分批大小一致
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    private final CacheOps cacheOps;
+    private final int maxPendingKeys;
+    /**
+     * 正在累积增量的表，flush 时整体替换
+     */
+    private volatile Generation current = new Generation();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+
+    public CounterAggregator(CacheOps cacheOps, SupremeCacheProperties.Counter properties) {
+        this.cacheOps = cacheOps;
+        this.maxPendingKeys = properties.getMaxPendingKeys();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("supreme-cache-counter-", true));
+        long interval = properties.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 计数器加一
+     *
+     * @param key 一定不能为 {@literal null}，过期时间在写入时设置
+     */
+    public void incr(@NonNull CacheKey key) {
+        incrBy(key, 1);
+    }
+
+    /**
+     * 计数器加上增量，不会立即写入缓存
+     *
+     * @param key       一定不能为 {@literal null}，过期时间在写入时设置
+     * @param increment 增量
+     */
+    public void incrBy(@NonNull CacheKey key, long increment) {
+        int size;
+        for (; ; ) {
+            Generation generation = current;
+            generation.writers.increment();
+            try {
+                if (generation != current) {
+                    // 表已被替换，flush 可能已经取走了它的增量，写到新表
+                    continue;
+                }
+                // 先 get：JDK 8 的 computeIfAbsent 即使 key 已存在也会锁住所在的桶
+                Pending counter = generation.counters.get(key.getKey());
+                if (counter == null) {
+                    counter = generation.counters.computeIfAbsent(key.getKey(), k -> new Pending(key));
+                }
+                counter.adder.add(increment);
+                size = generation.counters.size();
+                break;
+            } finally {
+                generation.writers.decrement();
+            }
+        }
+        if (size >= maxPendingKeys && flushing.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(() -> {
+                    try {
+                        flush();
+                    } finally {
+                        flushing.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // 已关闭，由 destroy 中的 flush 写入
+                flushing.set(false);
+            }
+        }
+    }
+
+    /**
+     * 读取计数器：缓存中的值加上本地尚未写入的增量
+     * <p>
+     * flush 正在写入的增量不计算在内，写入完成前读到的值可能略小
+     *
+     * @param key 一定不能为 {@literal null}.
+     * @return 计数器的值，不存在时返回 0
+     */
+    public long get(@NonNull CacheKey key) {
+        Long value = cacheOps.getCounter(key, k -> 0L);
+        Pending counter = current.counters.get(key.getKey());
+        return (value == null ? 0L : value) + (counter == null ? 0L : counter.adder.sum());
+    }
+
+    /**
+     * 立即把本地累积的增量写入缓存，需要读到准确值时先调用本方法再直接读缓存
+     */
+    public synchronized void flush() {
+        Generation old = current;
+        current = new Generation();
+        // 等待仍持有旧表的线程写完，之后旧表不会再有写入
+        while (old.writers.sum() != 0) {
+            Thread.yield();
+        }
+        Map<CacheKey, Long> increments = new LinkedHashMap<>();
+        for (Pending counter : old.counters.values()) {
+            long delta = counter.adder.sum();
+            if (delta != 0) {
+                increments.put(counter.key, delta);
+            }
+        }
+        if (increments.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<CacheKey, Long>> entries = new ArrayList<>(increments.entrySet());
+        for (int from = 0; from < entries.size(); from += BATCH_SIZE) {
+            Map<CacheKey, Long> batch = new LinkedHashMap<>();
+            for (Map.Entry<CacheKey, Long> entry : entries.subList(from, Math.min(from + BATCH_SIZE, entries.size()))) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+            try {
+                cacheOps.mIncrBy(batch);
+            } catch (Exception e) {
+                log.warn("计数器批量写入失败, {} 个key, 下一轮重试", batch.size(), e);
+                batch.forEach(this::incrBy);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        flush();
+        scheduler.shutdown();
+    }
+
+    /**
+     * 一轮累积的增量
+     */
+    private static final class Generation {
+        private final Map<String, Pending> counters = new ConcurrentHashMap<>();
+        /**
+         * 正在写入本表的线程数
+         */
+        private final LongAdder writers = new LongAdder();
+    }
+
+    private static final class Pending {
+        private final CacheKey key;
+        private final LongAdder adder = new LongAdder();
+
+        private Pending(CacheKey key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package club.supreme.framework.cache.invalidation;
+
+import club.supreme.framework.constant.StrPool;
+import club.supreme.framework.props.SupremeCacheProperties;
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.StrUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 缓存失效消息总线
+ * <p>
+ * 数据变更方通过 publish 把失效消息写入 Redis Stream；每个实例都从 Stream 的最新位置独立消费(不使用消费组)，
+ * 收到的消息先在合并窗口内按表和租户去重，窗口结束后统一回调 CacheInvalidationListener 批量淘汰缓存。
+ *
+ * @author supreme
+ */
+@Slf4j
+public class CacheInvalidationBus implements InitializingBean, DisposableBean {
+
+    private static final String FIELD_TABLE = "table";
+    private static final String FIELD_TENANT = "tenant";
+    private static final String FIELD_IDS = "ids";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+    private final SupremeCacheProperties.Invalidation properties;
+    private final ObjectProvider<CacheInvalidationListener> listeners;
+    private final ScheduledExecutorService scheduler;
+    private StreamMessageListenerContainer<String, MapRecord<String, String, String>> container;
+
+    /**
+     * 当前窗口内待处理的消息：表名 -> 租户 -> 主键(空集合表示整张表)
+     */
+    private Map<String, Map<Long, Set<String>>> pending = new HashMap<>();
+
+    public CacheInvalidationBus(StringRedisTemplate stringRedisTemplate, RedisConnectionFactory connectionFactory,
+                                SupremeCacheProperties.Invalidation properties, ObjectProvider<CacheInvalidationListener> listeners) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.connectionFactory = connectionFactory;
+        this.properties = properties;
+        this.listeners = listeners;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("supreme-cache-invalidation-", true));
+    }
+
+    /**
+     * 发布失效消息
+     *
+     * @param message 失效消息
+     */
+    public void publish(CacheInvalidationMessage message) {
+        Map<String, String> body = new HashMap<>(4);
+        body.put(FIELD_TABLE, message.getTable());
+        body.put(FIELD_TENANT, message.getTenantId() == null ? StrPool.EMPTY : String.valueOf(message.getTenantId()));
+        body.put(FIELD_IDS, CollUtil.join(message.getIds(), StrPool.COMMA));
+        stringRedisTemplate.opsForStream().add(StreamRecords.string(body).withStreamKey(properties.getStream()));
+    }
+
+    private void onMessage(MapRecord<String, String, String> record) {
+        Map<String, String> body = record.getValue();
+        String table = body.get(FIELD_TABLE);
+        if (StrUtil.isEmpty(table)) {
+            return;
+        }
+        Long tenantId = Convert.toLong(body.get(FIELD_TENANT), null);
+        List<String> ids = StrUtil.split(body.get(FIELD_IDS), StrPool.COMMA, true, true);
+        synchronized (this) {
+            Map<Long, Set<String>> tenants = pending.computeIfAbsent(table, k -> new HashMap<>(4));
+            Set<String> merged = tenants.get(tenantId);
+            if (ids.isEmpty()) {
+                // 整张表失效
+                tenants.put(tenantId, new LinkedHashSet<>());
+            } else if (merged == null) {
+                tenants.put(tenantId, new LinkedHashSet<>(ids));
+            } else if (!merged.isEmpty()) {
+                merged.addAll(ids);
+            }
+        }
+    }
+
+    private void dispatch() {
+        Map<String, Map<Long, Set<String>>> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        List<CacheInvalidationListener> listenerList = listeners.orderedStream().collect(Collectors.toList());
+        batch.forEach((table, tenants) -> tenants.forEach((tenantId, ids) -> {
+            for (CacheInvalidationListener listener : listenerList) {
+                try {
+                    listener.onInvalidate(table, tenantId, ids);
+                } catch (Exception e) {
+                    log.warn("淘汰缓存失败, table={}, tenant={}, ids={}", table, tenantId, ids.size(), e);
+                }
+            }
+        }));
+    }
+
+    private void trim() {
+        try {
+            stringRedisTemplate.opsForStream().trim(properties.getStream(), properties.getMaxLen(), true);
+        } catch (Exception e) {
+            log.warn("裁剪缓存失效 Stream 失败", e);
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        StreamMessageListenerContainer.StreamMessageListenerContainerOptions<String, MapRecord<String, String, String>> options =
+                StreamMessageListenerContainer.StreamMessageListenerContainerOptions.builder()
+                        .pollTimeout(Duration.ofSeconds(1))
+                        .errorHandler(e -> log.warn("消费缓存失效消息失败", e))
+                        .build();
+        container = StreamMessageListenerContainer.create(connectionFactory, options);
+        container.receive(StreamOffset.latest(properties.getStream()), this::onMessage);
+        container.start();
+
+        long window = Math.max(10, properties.getWindow().toMillis());
+        scheduler.scheduleWithFixedDelay(this::dispatch, window, window, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::trim, 1, 1, TimeUnit.MINUTES);
+        log.info("缓存失效广播已开启, stream={}", properties.getStream());
+    }
+
+    @Override
+    public void destroy() {
+        if (container != null) {
+            container.stop();
+        }
+        scheduler.shutdown();
+    }
+}
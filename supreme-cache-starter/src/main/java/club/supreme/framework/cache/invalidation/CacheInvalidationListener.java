@@ -0,0 +1,23 @@
+package club.supreme.framework.cache.invalidation;
+
+import java.util.Set;
+
+/**
+ * 缓存失效消息的处理者
+ *
+ * @author supreme
+ */
+@FunctionalInterface
+public interface CacheInvalidationListener {
+
+    /**
+     * 淘汰缓存
+     * <p>
+     * 同一合并窗口内、同一张表同一租户的消息只回调一次
+     *
+     * @param table    表名(小写)
+     * @param tenantId 租户id，与发生变更时的 TenantContextHolder 一致
+     * @param ids      主键，为空时表示整张表
+     */
+    void onInvalidate(String table, Long tenantId, Set<String> ids);
+}
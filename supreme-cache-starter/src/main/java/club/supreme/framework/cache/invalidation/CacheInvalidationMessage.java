@@ -0,0 +1,31 @@
+package club.supreme.framework.cache.invalidation;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.Set;
+
+/**
+ * 缓存失效消息
+ *
+ * @author supreme
+ */
+@Data
+@Accessors(chain = true)
+public class CacheInvalidationMessage {
+
+    /**
+     * 发生变更的表名(小写)
+     */
+    private String table;
+
+    /**
+     * 租户id，与发生变更时的 TenantContextHolder 一致
+     */
+    private Long tenantId;
+
+    /**
+     * 发生变更的主键，为空时表示整张表
+     */
+    private Set<String> ids;
+}
@@ -0,0 +1,245 @@
+package club.supreme.framework.cache.offheap;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.lang.Nullable;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 堆外缓存
+ * <p>
+ * 值序列化后顺序追加写入若干个固定大小的堆外内存段(direct ByteBuffer)，堆内只保存 key 到 段号+偏移量 的索引。
+ * 当前段写满后切换到下一个段，所有段都用过之后循环复用最早的段，被复用段中的数据整体淘汰(按段 FIFO)。
+ * 读取即将被复用的段中的数据时会重新写入当前段(second chance)，使热点数据不会随段一起被淘汰，效果接近 LRU。
+ * <p>
+ * 堆外内存不受 GC 管理，大容量缓存不会增加 GC 停顿；代价是每次读取都要反序列化
+ *
+ * @author supreme
+ */
+@Slf4j
+public class OffHeapStore {
+
+    private final RedisSerializer<Object> serializer;
+    private final int segmentBytes;
+    private final Segment[] segments;
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    /**
+     * 当前写入的段
+     */
+    private volatile int current;
+
+    /**
+     * @param capacityBytes 堆外内存总容量(字节)
+     * @param segmentBytes  每个段的大小(字节)，也是单个值序列化后的最大长度
+     * @param serializer    值的序列化器
+     */
+    public OffHeapStore(long capacityBytes, int segmentBytes, RedisSerializer<Object> serializer) {
+        this.serializer = serializer;
+        this.segmentBytes = segmentBytes;
+        int count = (int) Math.max(2, capacityBytes / segmentBytes);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment();
+        }
+        log.info("堆外缓存: {} 个段, 每段 {} 字节", count, segmentBytes);
+    }
+
+    /**
+     * 写入
+     *
+     * @param key    key
+     * @param value  值
+     * @param expire 过期时间，为 null 时不过期
+     */
+    public void put(String key, Object value, @Nullable Duration expire) {
+        long expireAt = expire == null ? 0 : System.currentTimeMillis() + expire.toMillis();
+        put(key, serializer.serialize(value), expireAt);
+    }
+
+    private synchronized void put(String key, byte[] bytes, long expireAt) {
+        if (bytes == null || bytes.length > segmentBytes) {
+            log.debug("值的长度超过了段的大小，不写入堆外缓存: {}", key);
+            index.remove(key);
+            return;
+        }
+        Segment segment = segments[current];
+        if (segment.buffer == null) {
+            segment.buffer = ByteBuffer.allocateDirect(segmentBytes);
+        }
+        if (segment.writePos + bytes.length > segmentBytes) {
+            current = (current + 1) % segments.length;
+            segment = segments[current];
+            recycle(current, segment);
+        }
+
+        ByteBuffer buffer = segment.buffer.duplicate();
+        buffer.position(segment.writePos);
+        buffer.put(bytes);
+        index.put(key, new Entry(current, segment.generation, segment.writePos, bytes.length, expireAt));
+        segment.writePos += bytes.length;
+        segment.keys.add(key);
+    }
+
+    /**
+     * 复用一个段，淘汰其中的全部数据
+     */
+    private void recycle(int segmentIndex, Segment segment) {
+        if (segment.buffer == null) {
+            segment.buffer = ByteBuffer.allocateDirect(segmentBytes);
+            return;
+        }
+        int oldGeneration;
+        segment.lock.writeLock().lock();
+        try {
+            oldGeneration = segment.generation++;
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+        for (String key : segment.keys) {
+            index.computeIfPresent(key, (k, entry) -> entry.segment == segmentIndex && entry.generation == oldGeneration ? null : entry);
+        }
+        segment.keys.clear();
+        segment.writePos = 0;
+    }
+
+    /**
+     * 读取
+     *
+     * @param key key
+     * @param <T> 值的类型
+     * @return 不存在或已过期时返回 null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key) {
+        Entry entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired()) {
+            index.remove(key, entry);
+            return null;
+        }
+        Segment segment = segments[entry.segment];
+        byte[] bytes = new byte[entry.length];
+        segment.lock.readLock().lock();
+        try {
+            if (segment.generation != entry.generation) {
+                index.remove(key, entry);
+                return null;
+            }
+            ByteBuffer buffer = segment.buffer.duplicate();
+            buffer.position(entry.offset);
+            buffer.get(bytes);
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+
+        // 即将被复用的段中的数据重新写入当前段
+        if (entry.segment == (current + 1) % segments.length) {
+            promote(key, entry, bytes);
+        }
+        return (T) serializer.deserialize(bytes);
+    }
+
+    private synchronized void promote(String key, Entry entry, byte[] bytes) {
+        // 读取期间没有被其他线程覆盖时才重新写入
+        if (index.get(key) == entry) {
+            put(key, bytes, entry.expireAt);
+        }
+    }
+
+    /**
+     * 剩余的过期时间
+     *
+     * @param key key
+     * @return 不存在时返回 Duration.ZERO，不过期时返回 null
+     */
+    @Nullable
+    public Duration ttl(String key) {
+        Entry entry = index.get(key);
+        if (entry == null || entry.isExpired()) {
+            return Duration.ZERO;
+        }
+        return entry.expireAt == 0 ? null : Duration.ofMillis(entry.expireAt - System.currentTimeMillis());
+    }
+
+    public boolean contains(String key) {
+        Entry entry = index.get(key);
+        return entry != null && !entry.isExpired() && segments[entry.segment].generation == entry.generation;
+    }
+
+    public void remove(String key) {
+        index.remove(key);
+    }
+
+    public Set<String> keys() {
+        return new HashSet<>(index.keySet());
+    }
+
+    public long size() {
+        return index.size();
+    }
+
+    /**
+     * 清空索引，已分配的堆外内存保留复用
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i].buffer != null) {
+                recycle(i, segments[i]);
+            }
+        }
+        index.clear();
+        current = 0;
+    }
+
+    private static final class Segment {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        /**
+         * 段被复用的次数，索引中记录的 generation 与之不同时说明数据已被淘汰
+         */
+        private volatile int generation;
+        /**
+         * 第一次写入时才分配
+         */
+        private ByteBuffer buffer;
+        private int writePos;
+        /**
+         * 写入过该段的 key，复用时从索引中移除
+         */
+        private final List<String> keys = new ArrayList<>();
+    }
+
+    private static final class Entry {
+        private final int segment;
+        private final int generation;
+        private final int offset;
+        private final int length;
+        /**
+         * 过期的时间戳，0 表示不过期
+         */
+        private final long expireAt;
+
+        private Entry(int segment, int generation, int offset, int length, long expireAt) {
+            this.segment = segment;
+            this.generation = generation;
+            this.offset = offset;
+            this.length = length;
+            this.expireAt = expireAt;
+        }
+
+        private boolean isExpired() {
+            return expireAt > 0 && System.currentTimeMillis() > expireAt;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package club.supreme.framework.cache.redis;
+
+import club.supreme.framework.props.SupremeCacheProperties;
+import cn.hutool.core.thread.NamedThreadFactory;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Redis Cluster 批量命令执行器
+ * <p>
+ * Redis Cluster 下，多 key 命令(MGET、DEL、UNLINK、MSET 等)的 key 不在同一个 slot 时，
+ * 要么返回 CROSSSLOT 错误，要么被客户端拆成逐个 key 的调用。
+ * 本类先按 hash slot 对 key 分组，每个分组发送一条多 key 命令；同一节点上的所有分组放在一个 pipeline 中，不同节点之间并行执行。
+ *
+ * @author supreme
+ */
+@Slf4j
+@SuppressWarnings("unchecked")
+public class ClusterSlotExecutor implements DisposableBean {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final boolean slotGrouping;
+    private final ExecutorService executor;
+    /**
+     * 是否连接的是 Redis Cluster，第一次使用时检测
+     */
+    private volatile Boolean cluster;
+
+    public ClusterSlotExecutor(RedisTemplate<String, Object> redisTemplate, SupremeCacheProperties.Cluster properties) {
+        this.redisTemplate = redisTemplate;
+        this.slotGrouping = properties != null && properties.isSlotGrouping();
+        this.executor = slotGrouping
+                ? Executors.newFixedThreadPool(Math.max(1, properties.getParallelism()), new NamedThreadFactory("supreme-redis-cluster-", true))
+                : null;
+    }
+
+    /**
+     * 是否需要按 slot 分组执行
+     *
+     * @return 开启了 slot 分组且连接的是 Redis Cluster 时返回 true
+     */
+    public boolean isCluster() {
+        if (!slotGrouping) {
+            return false;
+        }
+        Boolean isCluster = cluster;
+        if (isCluster == null) {
+            isCluster = Boolean.TRUE.equals(redisTemplate.execute((RedisCallback<Boolean>) connection -> connection instanceof RedisClusterConnection));
+            cluster = isCluster;
+            log.info("redis cluster slot grouping: {}", isCluster);
+        }
+        return isCluster;
+    }
+
+    /**
+     * 给定的 key 是否分布在多个 slot
+     *
+     * @param keys key
+     * @return 是否跨 slot
+     */
+    public boolean isCrossSlot(Collection<String> keys) {
+        if (keys.size() <= 1 || !isCluster()) {
+            return false;
+        }
+        int slot = -1;
+        for (String key : keys) {
+            int current = ClusterSlotHashUtil.calculateSlot(key);
+            if (slot != -1 && slot != current) {
+                return true;
+            }
+            slot = current;
+        }
+        return false;
+    }
+
+    /**
+     * 按 slot 分组执行多 key 命令
+     * <p>
+     * 每个 slot 分组只能发送一条命令，返回值按分组与 pipeline 结果一一对应
+     *
+     * @param keys    key，一定不能为空
+     * @param command 针对同一 slot 中的 key 发送的命令
+     * @return 每个 slot 分组的执行结果
+     */
+    public List<SlotResult> execute(List<String> keys, SlotCommand command) {
+        return execute(redisTemplate, keys, command);
+    }
+
+    /**
+     * 按 slot 分组，使用指定的 RedisTemplate 执行多 key 命令
+     *
+     * @param template 执行命令的 RedisTemplate，如只读命令使用从节点的 RedisTemplate
+     * @param keys     key，一定不能为空
+     * @param command  针对同一 slot 中的 key 发送的命令
+     * @return 每个 slot 分组的执行结果
+     */
+    public List<SlotResult> execute(RedisTemplate<String, Object> template, List<String> keys, SlotCommand command) {
+        Map<Integer, List<Integer>> slots = groupBySlot(keys);
+        Collection<List<List<Integer>>> nodes = groupByNode(slots);
+        if (nodes.size() == 1) {
+            return pipeline(template, keys, nodes.iterator().next(), command);
+        }
+
+        List<CompletableFuture<List<SlotResult>>> futures = new ArrayList<>(nodes.size());
+        for (List<List<Integer>> groups : nodes) {
+            futures.add(CompletableFuture.supplyAsync(() -> pipeline(template, keys, groups, command), executor));
+        }
+        List<SlotResult> results = new ArrayList<>(slots.size());
+        for (CompletableFuture<List<SlotResult>> future : futures) {
+            results.addAll(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * 按 slot 分组
+     *
+     * @param keys key
+     * @return slot -> 该 slot 下的 key 在 keys 中的下标
+     */
+    private Map<Integer, List<Integer>> groupBySlot(List<String> keys) {
+        Map<Integer, List<Integer>> slots = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            slots.computeIfAbsent(ClusterSlotHashUtil.calculateSlot(keys.get(i)), k -> new ArrayList<>()).add(i);
+        }
+        return slots;
+    }
+
+    /**
+     * 将 slot 分组归并到所属的主节点
+     *
+     * @param slots slot 分组
+     * @return 每个节点上的 slot 分组
+     */
+    private Collection<List<List<Integer>>> groupByNode(Map<Integer, List<Integer>> slots) {
+        Map<String, List<List<Integer>>> nodes = redisTemplate.execute((RedisCallback<Map<String, List<List<Integer>>>>) connection -> {
+            RedisClusterConnection clusterConnection = (RedisClusterConnection) connection;
+            Map<String, List<List<Integer>>> map = new LinkedHashMap<>();
+            slots.forEach((slot, group) -> {
+                RedisClusterNode node = clusterConnection.clusterGetNodeForSlot(slot);
+                map.computeIfAbsent(node == null ? String.valueOf(slot) : node.asString(), k -> new ArrayList<>()).add(group);
+            });
+            return map;
+        });
+        return nodes == null ? new ArrayList<>() : nodes.values();
+    }
+
+    private List<SlotResult> pipeline(RedisTemplate<String, Object> template, List<String> keys, List<List<Integer>> groups, SlotCommand command) {
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) template.getKeySerializer();
+        List<Object> values = template.executePipelined((RedisCallback<Object>) connection -> {
+            for (List<Integer> group : groups) {
+                byte[][] rawKeys = new byte[group.size()][];
+                for (int i = 0; i < group.size(); i++) {
+                    rawKeys[i] = keySerializer.serialize(keys.get(group.get(i)));
+                }
+                command.execute(connection, rawKeys, group);
+            }
+            return null;
+        });
+
+        List<SlotResult> results = new ArrayList<>(groups.size());
+        for (int i = 0; i < groups.size(); i++) {
+            results.add(new SlotResult(groups.get(i), i < values.size() ? values.get(i) : null));
+        }
+        return results;
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 针对同一 slot 中的 key 发送的命令
+     */
+    @FunctionalInterface
+    public interface SlotCommand {
+        /**
+         * 发送命令
+         *
+         * @param connection 处于 pipeline 模式的连接
+         * @param rawKeys    序列化后的 key
+         * @param indexes    rawKeys 对应的 key 在原 key 集合中的下标
+         */
+        void execute(RedisConnection connection, byte[][] rawKeys, List<Integer> indexes);
+    }
+
+    /**
+     * 一个 slot 分组的执行结果
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class SlotResult {
+        /**
+         * 该分组的 key 在原 key 集合中的下标
+         */
+        private final List<Integer> indexes;
+        /**
+         * 命令的返回值(已反序列化)
+         */
+        private final Object value;
+    }
+}
@@ -5,10 +5,14 @@ import java.io.Serializable;
 /**
  * 空值
  * 解决缓存穿透
+ * <p>
+ * 使用 NullValRedisSerializer 时写入 redis 的是一个字节的墓碑标记，读取时不经过反序列化直接还原为 {@link #INSTANCE}
  *
  * @author supreme
  * @date 2020/9/17 2:30 下午
  */
 public class NullVal implements Serializable {
     private static final long serialVersionUID = 1L;
+
+    public static final NullVal INSTANCE = new NullVal();
 }
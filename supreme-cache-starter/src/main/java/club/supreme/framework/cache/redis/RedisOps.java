@@ -1,9 +1,11 @@
 package club.supreme.framework.cache.redis;
 
 import club.supreme.framework.constant.StrPool;
+import club.supreme.framework.enums.cache.RateLimitAlgorithm;
 import club.supreme.framework.exception.BizException;
 import club.supreme.framework.model.cache.CacheHashKey;
 import club.supreme.framework.model.cache.CacheKey;
+import club.supreme.framework.props.SupremeCacheProperties;
 import club.supreme.framework.utils.ArgumentAssert;
 import club.supreme.framework.utils.CollHelper;
 import cn.hutool.core.collection.CollUtil;
@@ -12,21 +14,34 @@ import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import com.google.common.collect.Lists;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.data.redis.connection.DataType;
 import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
 import org.springframework.data.redis.core.*;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -44,13 +59,76 @@ import java.util.stream.Collectors;
 @Getter
 @Slf4j
 @SuppressWarnings({"unused", "SpellCheckingInspection", "unchecked"})
-public class RedisOps {
+public class RedisOps implements DisposableBean {
 
     private static final String KEY_NOT_NULL = "key不能为空";
     private static final String CACHE_KEY_NOT_NULL = "cacheKey不能为空";
     private static final int BATCH_SIZE = 1000;
+    /**
+     * 空值默认的超时时间
+     */
+    private static final Duration DEF_NULL_VAL_EXPIRE = Duration.ofMinutes(5);
 
     private static final Map<String, Object> KEY_LOCKS = new ConcurrentHashMap<>();
+    /**
+     * 限流和排行榜脚本的公共部分：使用 redis 服务端时间，避免各节点时钟不一致
+     */
+    private static final String SCRIPT_NOW = "redis.replicate_commands() "
+            + "local t = redis.call('TIME') "
+            + "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000) "
+            + "local limit = tonumber(ARGV[1]) local window = tonumber(ARGV[2]) local permits = tonumber(ARGV[3]) ";
+    /**
+     * 滑动日志：有序集中保存窗口内每个许可的时间
+     */
+    private static final RedisScript<Long> SLIDING_LOG_SCRIPT = new DefaultRedisScript<>(SCRIPT_NOW
+            + "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - window) "
+            + "local count = redis.call('ZCARD', KEYS[1]) "
+            + "if count + permits > limit then return 0 end "
+            + "for i = 1, permits do redis.call('ZADD', KEYS[1], now, t[1] .. t[2] .. '-' .. (count + i)) end "
+            + "redis.call('PEXPIRE', KEYS[1], window) "
+            + "return 1", Long.class);
+    /**
+     * 滑动窗口计数：hash 中保存当前窗口和上一个窗口的计数，field 为窗口序号
+     */
+    private static final RedisScript<Long> SLIDING_WINDOW_SCRIPT = new DefaultRedisScript<>(SCRIPT_NOW
+            + "local idx = math.floor(now / window) "
+            + "local curr = tonumber(redis.call('HGET', KEYS[1], tostring(idx)) or '0') "
+            + "local prev = tonumber(redis.call('HGET', KEYS[1], tostring(idx - 1)) or '0') "
+            + "if prev * (window - (now - idx * window)) / window + curr + permits > limit then return 0 end "
+            + "redis.call('HINCRBY', KEYS[1], tostring(idx), permits) "
+            + "if redis.call('HLEN', KEYS[1]) > 2 then "
+            + "for _, f in ipairs(redis.call('HKEYS', KEYS[1])) do "
+            + "if tonumber(f) < idx - 1 then redis.call('HDEL', KEYS[1], f) end end end "
+            + "redis.call('PEXPIRE', KEYS[1], window * 2) "
+            + "return 1", Long.class);
+    /**
+     * 令牌桶：hash 中保存剩余令牌数和上次补充的时间，空闲一个窗口后桶已满，key 直接过期
+     */
+    private static final RedisScript<Long> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>(SCRIPT_NOW
+            + "local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts') "
+            + "local tokens = tonumber(state[1]) or limit "
+            + "local ts = tonumber(state[2]) or now "
+            + "tokens = math.min(limit, tokens + math.max(0, now - ts) * limit / window) "
+            + "local allowed = 0 "
+            + "if tokens >= permits then tokens = tokens - permits allowed = 1 end "
+            + "redis.call('HMSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now)) "
+            + "redis.call('PEXPIRE', KEYS[1], window) "
+            + "return allowed", Long.class);
+    /**
+     * 排行榜：增加分数后只保留分数最高的 maxSize 个成员
+     */
+    private static final RedisScript<String> TOP_N_SCRIPT = new DefaultRedisScript<>(
+            "local score = redis.call('ZINCRBY', KEYS[1], ARGV[2], ARGV[1]) "
+                    + "local size = tonumber(ARGV[3]) "
+                    + "if size > 0 then redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -size - 1) end "
+                    + "if tonumber(ARGV[4]) > 0 then redis.call('PEXPIRE', KEYS[1], ARGV[4]) end "
+                    + "return score", String.class);
+    /**
+     * 原子地读取旧值并写入带过期时间的新值，兼容不支持 SET ... GET 的 redis(6.2 以下)
+     */
+    private static final byte[] GET_SET_PX_SCRIPT = ("local old = redis.call('GET', KEYS[1]) "
+            + "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) "
+            + "return old").getBytes(StandardCharsets.UTF_8);
     private final RedisTemplate<String, Object> redisTemplate;
     private final ValueOperations<String, Object> valueOps;
     private final HashOperations<String, Object, Object> hashOps;
@@ -62,8 +140,58 @@ public class RedisOps {
      * 全局配置是否缓存null值
      */
     private final boolean defaultCacheNullVal;
+    /**
+     * Redis Cluster 下按 slot 分组执行批量命令
+     */
+    private final ClusterSlotExecutor clusterSlotExecutor;
+    /**
+     * 只读命令使用的 RedisTemplate，未开启读写分离时与 redisTemplate 相同
+     */
+    private final RedisTemplate<String, Object> readTemplate;
+    private final ValueOperations<String, Object> readValueOps;
+    private final HashOperations<String, Object, Object> readHashOps;
+    private final SetOperations<String, Object> readSetOps;
+    private final ZSetOperations<String, Object> readZSetOps;
+    /**
+     * 正在进行中的读取：key -> 结果，同一个 key 的并发读取共享一次 redis 读取、反序列化和加载
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, CompletableFuture<Object>> inFlightReads = new ConcurrentHashMap<>();
+    /**
+     * 当前线程正在执行 reader 的合并标识，loader 中再次读取同一个 key 时直接执行，不能等待自己
+     */
+    @Getter(AccessLevel.NONE)
+    private final ThreadLocal<Set<String>> readingIds = ThreadLocal.withInitial(HashSet::new);
+    /**
+     * 是否合并同一个 key 的并发读取
+     */
+    private volatile boolean coalesceReads;
+    /**
+     * 空值(墓碑)的超时时间，CacheKey 未指定 nullExpire 时使用
+     */
+    private volatile Duration nullValExpire = DEF_NULL_VAL_EXPIRE;
+    /**
+     * 读到空值的次数
+     */
+    @Getter(AccessLevel.NONE)
+    private final LongAdder nullValHits = new LongAdder();
+    /**
+     * 写入空值的次数
+     */
+    @Getter(AccessLevel.NONE)
+    private final LongAdder nullValWrites = new LongAdder();
 
     public RedisOps(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate, boolean defaultCacheNullVal) {
+        this(redisTemplate, stringRedisTemplate, defaultCacheNullVal, new SupremeCacheProperties.Cluster());
+    }
+
+    public RedisOps(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate, boolean defaultCacheNullVal,
+                    SupremeCacheProperties.Cluster cluster) {
+        this(redisTemplate, stringRedisTemplate, defaultCacheNullVal, cluster, null);
+    }
+
+    public RedisOps(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate, boolean defaultCacheNullVal,
+                    SupremeCacheProperties.Cluster cluster, @Nullable RedisTemplate<String, Object> readTemplate) {
         this.redisTemplate = redisTemplate;
         ArgumentAssert.notNull(redisTemplate, "redisTemplate 为空");
         valueOps = redisTemplate.opsForValue();
@@ -73,6 +201,111 @@ public class RedisOps {
         zSetOps = redisTemplate.opsForZSet();
         this.stringRedisTemplate = stringRedisTemplate;
         this.defaultCacheNullVal = defaultCacheNullVal;
+        this.clusterSlotExecutor = new ClusterSlotExecutor(redisTemplate, cluster);
+        this.readTemplate = readTemplate == null ? redisTemplate : readTemplate;
+        readValueOps = this.readTemplate.opsForValue();
+        readHashOps = this.readTemplate.opsForHash();
+        readSetOps = this.readTemplate.opsForSet();
+        readZSetOps = this.readTemplate.opsForZSet();
+    }
+
+    /**
+     * 设置是否合并同一个 key 的并发读取
+     * <p>
+     * 开启后并发调用 get(CacheKey, loader)、hGet(CacheHashKey, loader) 读取同一个 key 的线程拿到的是同一个对象，调用方不能修改返回值
+     *
+     * @param coalesceReads 是否合并
+     */
+    public void setCoalesceReads(boolean coalesceReads) {
+        this.coalesceReads = coalesceReads;
+    }
+
+    /**
+     * 设置空值(墓碑)的超时时间
+     *
+     * @param nullValExpire 超时时间，不能为空
+     */
+    public void setNullValExpire(@NonNull Duration nullValExpire) {
+        ArgumentAssert.notNull(nullValExpire, "nullValExpire 不能为空");
+        this.nullValExpire = nullValExpire;
+    }
+
+    /**
+     * 读到空值的次数，即缓存穿透被拦截的次数
+     */
+    public long getNullValHits() {
+        return nullValHits.sum();
+    }
+
+    /**
+     * 写入空值的次数，即数据不存在导致的回源次数
+     */
+    public long getNullValWrites() {
+        return nullValWrites.sum();
+    }
+
+    @Override
+    public void destroy() {
+        clusterSlotExecutor.destroy();
+    }
+
+    /**
+     * 合并同一个 key 的并发读取：第一个线程执行 reader，其他线程等待并共享它的结果
+     * <p>
+     * 结果只在读取期间共享，读取完成后的请求重新读取；需要从主节点读取的 key 不合并。
+     * loader 在同一个线程中重入读取同一个 key 时直接执行 reader，避免等待自己的结果
+     *
+     * @param key    缓存key
+     * @param id     合并的标识
+     * @param reader 读取逻辑
+     */
+    private <T> T coalesce(CacheKey key, String id, Supplier<T> reader) {
+        if (!coalesceReads || key.isReadFromMaster()) {
+            return reader.get();
+        }
+        Set<String> reading = readingIds.get();
+        if (reading.contains(id)) {
+            return reader.get();
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlightReads.putIfAbsent(id, future);
+        if (existing != null) {
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        reading.add(id);
+        try {
+            T value = reader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightReads.remove(id, future);
+            reading.remove(id);
+            if (reading.isEmpty()) {
+                readingIds.remove();
+            }
+        }
+    }
+
+    /**
+     * 是否开启了读写分离
+     */
+    private boolean isReadReplica() {
+        return readTemplate != redisTemplate;
+    }
+
+    private ValueOperations<String, Object> readValueOps(@Nullable CacheKey key) {
+        return key != null && key.isReadFromMaster() ? valueOps : readValueOps;
+    }
+
+    private HashOperations<String, Object, Object> readHashOps(@Nullable CacheKey key) {
+        return key != null && key.isReadFromMaster() ? hashOps : readHashOps;
     }
 
     private void setExpire(CacheKey key) {
@@ -88,17 +321,32 @@ public class RedisOps {
      * @return 是否为空
      */
     private static <T> boolean isNullVal(T value) {
-        boolean isNull = value == null || NullVal.class.equals(value.getClass());
-        return isNull || value.getClass().equals(Object.class) || (value instanceof Map && ((Map<?, ?>) value).isEmpty());
+        return value == null || value instanceof NullVal;
     }
 
     /**
-     * new 一个空值
+     * 空值，每次调用记录一次空值写入
      *
      * @return 空对象
      */
     private NullVal newNullVal() {
-        return new NullVal();
+        nullValWrites.increment();
+        return NullVal.INSTANCE;
+    }
+
+    /**
+     * 空值的超时时间：CacheKey 指定的 nullExpire 或全局配置，且不超过 key 本身的超时时间
+     *
+     * @param key 缓存key
+     * @return 超时时间
+     */
+    private Duration nullValExpire(@Nullable CacheKey key) {
+        Duration expire = key != null && key.getNullExpire() != null ? key.getNullExpire() : nullValExpire;
+        return shorter(expire, key == null ? null : key.getExpire());
+    }
+
+    private static Duration shorter(Duration expire, @Nullable Duration other) {
+        return other != null && other.compareTo(expire) < 0 ? other : expire;
     }
 
     /**
@@ -108,7 +356,11 @@ public class RedisOps {
      * @return 对象
      */
     private <T> T returnVal(T value) {
-        return isNullVal(value) ? null : value;
+        if (value instanceof NullVal) {
+            nullValHits.increment();
+            return null;
+        }
+        return value;
     }
 
     // ---------------------------- common start ----------------------------
@@ -152,7 +404,11 @@ public class RedisOps {
         List<List<String>> partitionKeys = Lists.partition(keys, BATCH_SIZE);
         long count = 0;
         for (List<String> list : partitionKeys) {
-            count += redisTemplate.delete(list);
+            if (clusterSlotExecutor.isCrossSlot(list)) {
+                count += clusterCount(list, (connection, rawKeys, indexes) -> connection.keyCommands().del(rawKeys));
+            } else {
+                count += redisTemplate.delete(list);
+            }
         }
         return count;
     }
@@ -196,13 +452,27 @@ public class RedisOps {
     /**
      * 异步删除给定的一个 key 或 多个key
      * 不存在的 key 会被忽略。
+     * 分桶存放的 CacheHashKey 只删除 hash 中的 field，同一个 hash 的 field 合并为一条 HDEL
      *
      * @param keys 一定不能为 {@literal null}.
      * @return key 被删除返回true
      * @see <a href="https://redis.io/commands/unlink">Redis Documentation: DEL</a>
      */
     public Long unlinkCacheKeys(@NonNull Collection<CacheKey> keys) {
-        return unlinkStrs(keys.stream().map(CacheKey::getKey).collect(Collectors.toList()));
+        List<String> strKeys = new ArrayList<>(keys.size());
+        Map<String, List<Object>> hashFields = new LinkedHashMap<>();
+        for (CacheKey key : keys) {
+            if (CacheHashKey.isBucketField(key)) {
+                hashFields.computeIfAbsent(key.getKey(), k -> new ArrayList<>()).add(((CacheHashKey) key).getField());
+            } else {
+                strKeys.add(key.getKey());
+            }
+        }
+        long count = unlinkStrs(strKeys);
+        for (Map.Entry<String, List<Object>> entry : hashFields.entrySet()) {
+            count += hDel(entry.getKey(), entry.getValue().toArray());
+        }
+        return count;
     }
 
     /**
@@ -220,7 +490,26 @@ public class RedisOps {
         List<List<String>> partitionKeys = Lists.partition(keys, BATCH_SIZE);
         long count = 0;
         for (List<String> list : partitionKeys) {
-            count += redisTemplate.unlink(list);
+            if (clusterSlotExecutor.isCrossSlot(list)) {
+                count += clusterCount(list, (connection, rawKeys, indexes) -> connection.keyCommands().unlink(rawKeys));
+            } else {
+                count += redisTemplate.unlink(list);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 按 slot 分组执行返回数量的命令(DEL、UNLINK 等)，并汇总结果
+     *
+     * @param keys    key
+     * @param command 命令
+     * @return 各分组返回值之和
+     */
+    private long clusterCount(List<String> keys, ClusterSlotExecutor.SlotCommand command) {
+        long count = 0;
+        for (ClusterSlotExecutor.SlotResult result : clusterSlotExecutor.execute(keys, command)) {
+            count += Convert.toLong(result.getValue(), 0L);
         }
         return count;
     }
@@ -316,7 +605,7 @@ public class RedisOps {
      * @see <a href="https://redis.io/commands/exists">Redis Documentation: EXISTS</a>
      */
     public Boolean exists(@NonNull String key) {
-        return redisTemplate.hasKey(key);
+        return readTemplate.hasKey(key);
     }
 
     /**
@@ -482,7 +771,7 @@ public class RedisOps {
      * @see <a href="https://redis.io/commands/ttl">Redis Documentation: TTL</a>
      */
     public Long ttl(@NonNull String key) {
-        return redisTemplate.getExpire(key);
+        return readTemplate.getExpire(key);
     }
 
     /**
@@ -493,7 +782,7 @@ public class RedisOps {
      * @see <a href="https://redis.io/commands/pttl">Redis Documentation: PTTL</a>
      */
     public Long pTtl(@NonNull String key) {
-        return redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+        return readTemplate.getExpire(key, TimeUnit.MILLISECONDS);
     }
     // ---------------------------- common end ----------------------------
 
@@ -513,11 +802,14 @@ public class RedisOps {
     public void set(@NonNull String key, Object value, boolean... cacheNullValues) {
         ArgumentAssert.notNull(key, KEY_NOT_NULL);
         boolean cacheNullVal = cacheNullValues.length > 0 ? cacheNullValues[0] : defaultCacheNullVal;
-        if (!cacheNullVal && value == null) {
+        if (value == null) {
+            if (cacheNullVal) {
+                valueOps.set(key, newNullVal(), nullValExpire);
+            }
             return;
         }
 
-        valueOps.set(key, value == null ? newNullVal() : value);
+        valueOps.set(key, value);
     }
 
     /**
@@ -531,6 +823,12 @@ public class RedisOps {
         boolean cacheNullVal = cacheNullValues.length > 0 ? cacheNullValues[0] : defaultCacheNullVal;
         ArgumentAssert.notNull(cacheKey, CACHE_KEY_NOT_NULL);
         String key = cacheKey.getKey();
+        if (value == null) {
+            if (cacheNullVal) {
+                valueOps.set(key, newNullVal(), nullValExpire(cacheKey));
+            }
+            return;
+        }
         Duration expire = cacheKey.getExpire();
         if (expire == null) {
             set(key, value, cacheNullVal);
@@ -559,10 +857,13 @@ public class RedisOps {
     public void setEx(@NonNull String key, Object value, Duration timeout, boolean... cacheNullValues) {
         ArgumentAssert.notNull(key, KEY_NOT_NULL);
         boolean cacheNullVal = cacheNullValues.length > 0 ? cacheNullValues[0] : defaultCacheNullVal;
-        if (!cacheNullVal && value == null) {
+        if (value == null) {
+            if (cacheNullVal) {
+                valueOps.set(key, newNullVal(), shorter(nullValExpire, timeout));
+            }
             return;
         }
-        valueOps.set(key, value == null ? newNullVal() : value, timeout);
+        valueOps.set(key, value, timeout);
     }
 
     /**
@@ -598,7 +899,10 @@ public class RedisOps {
     @Nullable
     public Boolean setXx(@NonNull String key, String value, boolean... cacheNullValues) {
         boolean cacheNullVal = cacheNullValues.length > 0 ? cacheNullValues[0] : defaultCacheNullVal;
-        return valueOps.setIfPresent(key, cacheNullVal && value == null ? newNullVal() : value);
+        if (cacheNullVal && value == null) {
+            return valueOps.setIfPresent(key, newNullVal(), nullValExpire);
+        }
+        return valueOps.setIfPresent(key, value);
     }
 
     /**
@@ -615,7 +919,7 @@ public class RedisOps {
     @Nullable
     public Boolean setXx(@NonNull String key, String value, long seconds, boolean... cacheNullValues) {
         boolean cacheNullVal = cacheNullValues.length > 0 ? cacheNullValues[0] : defaultCacheNullVal;
-        return valueOps.setIfPresent(key, cacheNullVal && value == null ? newNullVal() : value, seconds, TimeUnit.SECONDS);
+        return setXx(key, value, Duration.ofSeconds(seconds), cacheNullVal);
     }
 
     /**
@@ -632,7 +936,10 @@ public class RedisOps {
     @Nullable
     public Boolean setXx(@NonNull String key, String value, Duration timeout, boolean... cacheNullValues) {
         boolean cacheNullVal = cacheNullValues.length > 0 ? cacheNullValues[0] : defaultCacheNullVal;
-        return valueOps.setIfPresent(key, cacheNullVal && value == null ? newNullVal() : value, timeout);
+        if (cacheNullVal && value == null) {
+            return valueOps.setIfPresent(key, newNullVal(), shorter(nullValExpire, timeout));
+        }
+        return valueOps.setIfPresent(key, value, timeout);
     }
 
     /**
@@ -650,7 +957,10 @@ public class RedisOps {
     @Nullable
     public Boolean setNx(@NonNull String key, String value, boolean... cacheNullValues) {
         boolean cacheNullVal = cacheNullValues.length > 0 ? cacheNullValues[0] : defaultCacheNullVal;
-        return valueOps.setIfAbsent(key, cacheNullVal && value == null ? newNullVal() : value);
+        if (cacheNullVal && value == null) {
+            return valueOps.setIfAbsent(key, newNullVal(), nullValExpire);
+        }
+        return valueOps.setIfAbsent(key, value);
     }
 
     /**
@@ -666,9 +976,13 @@ public class RedisOps {
     @Nullable
     public <T> T get(@NonNull String key, boolean... cacheNullValues) {
         boolean cacheNullVal = cacheNullValues.length > 0 ? cacheNullValues[0] : defaultCacheNullVal;
-        T value = (T) valueOps.get(key);
+        T value = (T) readValueOps.get(key);
+        if (value == null && cacheNullVal && isReadReplica()) {
+            // 副本上没有值时回主节点确认，避免复制延迟导致空值覆盖主节点上刚写入的值
+            value = (T) valueOps.get(key);
+        }
         if (value == null && cacheNullVal) {
-            set(key, newNullVal(), true);
+            set(key, null, true);
         }
         // NullVal 值
         return returnVal(value);
@@ -688,7 +1002,7 @@ public class RedisOps {
     @Nullable
     public <T> T get(@NonNull String key, Function<String, T> loader, boolean... cacheNullValues) {
         boolean cacheNullVal = cacheNullValues.length > 0 ? cacheNullValues[0] : defaultCacheNullVal;
-        T value = (T) valueOps.get(key);
+        T value = (T) readValueOps.get(key);
         if (value != null) {
             return returnVal(value);
         }
@@ -716,6 +1030,7 @@ public class RedisOps {
      * 返回给定键 key 的旧值。
      * 如果键 key 没有旧值， 也即是说， 键 key 在被设置之前并不存在， 那么命令返回 nil 。
      * 当键 key 存在但不是字符串类型时， 命令返回一个错误。
+     * value 为 null 时写入空值(墓碑)，读取旧值、写入和设置过期时间在一个 lua 脚本中原子完成
      *
      * @param key   一定不能为 {@literal null}.
      * @param value 值
@@ -724,8 +1039,15 @@ public class RedisOps {
      */
     public <T> T getSet(@NonNull String key, Object value) {
         ArgumentAssert.notNull(key, CACHE_KEY_NOT_NULL);
-        T val = (T) valueOps.getAndSet(key, value == null ? newNullVal() : value);
-        return returnVal(val);
+        if (value != null) {
+            return returnVal((T) valueOps.getAndSet(key, value));
+        }
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        byte[] raw = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.scriptingCommands().eval(
+                GET_SET_PX_SCRIPT, ReturnType.VALUE, 1, keySerializer.serialize(key), valueSerializer.serialize(newNullVal()),
+                String.valueOf(nullValExpire.toMillis()).getBytes(StandardCharsets.UTF_8)));
+        return returnVal((T) valueSerializer.deserialize(raw));
     }
 
     /**
@@ -743,9 +1065,13 @@ public class RedisOps {
         boolean cacheNullVal = cacheNullValues.length > 0 ? cacheNullValues[0] : defaultCacheNullVal;
         ArgumentAssert.notNull(key, CACHE_KEY_NOT_NULL);
         ArgumentAssert.notNull(key.getKey(), KEY_NOT_NULL);
-        T value = (T) valueOps.get(key.getKey());
+        T value = (T) readValueOps(key).get(key.getKey());
+        if (value == null && cacheNullVal && isReadReplica() && !key.isReadFromMaster()) {
+            // 副本上没有值时回主节点确认，避免复制延迟导致空值覆盖主节点上刚写入的值
+            value = (T) valueOps.get(key.getKey());
+        }
         if (value == null && cacheNullVal) {
-            set(key, newNullVal(), true);
+            set(key, null, true);
         }
         // NullVal 值
         return returnVal(value);
@@ -767,7 +1093,11 @@ public class RedisOps {
         ArgumentAssert.notNull(key, CACHE_KEY_NOT_NULL);
         ArgumentAssert.notNull(key.getKey(), KEY_NOT_NULL);
         boolean cacheNullVal = cacheNullValues.length > 0 ? cacheNullValues[0] : defaultCacheNullVal;
-        T value = (T) valueOps.get(key.getKey());
+        return coalesce(key, key.getKey(), () -> getOrLoad(key, loader, cacheNullVal));
+    }
+
+    private <T> T getOrLoad(CacheKey key, Function<CacheKey, T> loader, boolean cacheNullVal) {
+        T value = (T) readValueOps(key).get(key.getKey());
 
         if (value != null) {
             return returnVal(value);
@@ -860,10 +1190,55 @@ public class RedisOps {
         return mSetMap;
     }
 
+    /**
+     * MSET 不支持过期时间，为其中的空值单独设置过期时间，避免空值永久保存
+     *
+     * @param map 已处理过空值的 map
+     */
+    private void expireNullVals(Map<String, Object> map) {
+        List<String> nullKeys = map.entrySet().stream().filter(e -> e.getValue() instanceof NullVal).map(Map.Entry::getKey).collect(Collectors.toList());
+        if (nullKeys.isEmpty()) {
+            return;
+        }
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        long millis = nullValExpire.toMillis();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : nullKeys) {
+                connection.keyCommands().pExpire(keySerializer.serialize(key), millis);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Redis Cluster 下按 slot 分组执行 MSET / MSETNX
+     * <p>
+     * 注意：原子性只在同一 slot 内保证，不同 slot 的 key 分别设置
+     *
+     * @param map 已处理过空值的 map
+     * @param nx  是否为 MSETNX
+     */
+    private void clusterMSet(Map<String, Object> map, boolean nx) {
+        List<String> keys = new ArrayList<>(map.keySet());
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        clusterSlotExecutor.execute(keys, (connection, rawKeys, indexes) -> {
+            Map<byte[], byte[]> tuple = new LinkedHashMap<>(CollHelper.initialCapacity(rawKeys.length));
+            for (int i = 0; i < rawKeys.length; i++) {
+                tuple.put(rawKeys[i], valueSerializer.serialize(map.get(keys.get(indexes.get(i)))));
+            }
+            if (nx) {
+                connection.stringCommands().mSetNX(tuple);
+            } else {
+                connection.stringCommands().mSet(tuple);
+            }
+        });
+    }
+
     /**
      * 同时为一个或多个键设置值。
      * 如果某个给定键已经存在， 那么 MSET 将使用新值去覆盖旧值， 如果这不是你所希望的效果， 请考虑使用 MSETNX 命令， 这个命令只会在所有给定键都不存在的情况下进行设置。
      * MSET 是一个原子性(atomic)操作， 所有给定键都会在同一时间内被设置， 不会出现某些键被设置了但是另一些键没有被设置的情况。
+     * Redis Cluster 下原子性只在同一 slot 内保证。
      *
      * @param map          一定不能为 {@literal null}.
      * @param cacheNullVal 是否缓存空值
@@ -871,8 +1246,12 @@ public class RedisOps {
      */
     public void mSet(@NonNull Map<String, Object> map, boolean cacheNullVal) {
         Map<String, Object> mSetMap = mSetMap(map, cacheNullVal);
-
-        valueOps.multiSet(mSetMap);
+        if (clusterSlotExecutor.isCrossSlot(mSetMap.keySet())) {
+            clusterMSet(mSetMap, false);
+        } else {
+            valueOps.multiSet(mSetMap);
+        }
+        expireNullVals(mSetMap);
     }
 
     /**
@@ -887,6 +1266,60 @@ public class RedisOps {
         mSet(map, defaultCacheNullVal);
     }
 
+    /**
+     * 批量设置带过期时间的值
+     * <p>
+     * MSET 不支持过期时间，这里在一个 pipeline 中为每个 key 发送 SET key value [PX milliseconds]，只需一次网络往返。
+     * 分桶存放的 CacheHashKey 发送 HSET，每个 hash 只设置一次过期时间。
+     * 注意：不是原子操作
+     *
+     * @param map          一定不能为 {@literal null}.
+     * @param cacheNullVal 是否缓存空值
+     * @see <a href="https://redis.io/commands/set">Redis Documentation: SET</a>
+     */
+    public void mSetCacheKeys(@NonNull Map<CacheKey, Object> map, boolean cacheNullVal) {
+        if (MapUtil.isEmpty(map)) {
+            return;
+        }
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        RedisSerializer<Object> hashKeySerializer = (RedisSerializer<Object>) redisTemplate.getHashKeySerializer();
+        RedisSerializer<Object> hashValueSerializer = (RedisSerializer<Object>) redisTemplate.getHashValueSerializer();
+        for (List<Map.Entry<CacheKey, Object>> entries : Lists.partition(new ArrayList<>(map.entrySet()), BATCH_SIZE)) {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                Set<String> expiredHashes = new HashSet<>();
+                for (Map.Entry<CacheKey, Object> entry : entries) {
+                    Object value = entry.getValue();
+                    CacheKey cacheKey = entry.getKey();
+                    Duration expire = cacheKey.getExpire();
+                    if (value == null) {
+                        if (!cacheNullVal) {
+                            continue;
+                        }
+                        value = newNullVal();
+                        expire = nullValExpire(cacheKey);
+                    }
+                    byte[] rawKey = keySerializer.serialize(cacheKey.getKey());
+                    if (CacheHashKey.isBucketField(cacheKey)) {
+                        connection.hashCommands().hSet(rawKey, hashKeySerializer.serialize(((CacheHashKey) cacheKey).getField()), hashValueSerializer.serialize(value));
+                        if (cacheKey.getExpire() != null && expiredHashes.add(cacheKey.getKey())) {
+                            connection.keyCommands().pExpire(rawKey, cacheKey.getExpire().toMillis());
+                        }
+                        continue;
+                    }
+                    byte[] rawValue = valueSerializer.serialize(value);
+                    if (expire == null) {
+                        connection.stringCommands().set(rawKey, rawValue);
+                    } else {
+                        connection.stringCommands().set(rawKey, rawValue, Expiration.from(expire.toMillis(), TimeUnit.MILLISECONDS),
+                                RedisStringCommands.SetOption.upsert());
+                    }
+                }
+                return null;
+            });
+        }
+    }
+
     /**
      * 当且仅当所有给定键都不存在时， 为所有给定键设置值。
      * 即使只有一个给定键已经存在， MSETNX 命令也会拒绝执行对所有键的设置操作。
@@ -898,8 +1331,14 @@ public class RedisOps {
      */
     public void mSetNx(@NonNull Map<String, Object> map, boolean cacheNullVal) {
         Map<String, Object> mSetMap = mSetMap(map, cacheNullVal);
+        if (clusterSlotExecutor.isCrossSlot(mSetMap.keySet())) {
+            clusterMSet(mSetMap, true);
+            return;
+        }
 
-        valueOps.multiSetIfAbsent(mSetMap);
+        if (Boolean.TRUE.equals(valueOps.multiSetIfAbsent(mSetMap))) {
+            expireNullVals(mSetMap);
+        }
     }
 
     /**
@@ -948,10 +1387,43 @@ public class RedisOps {
      * @see <a href="https://redis.io/commands/mget">Redis Documentation: MGET</a>
      */
     public <T> List<T> mGet(@NonNull Collection<String> keys) {
-        List<T> list = (List<T>) valueOps.multiGet(keys);
+        return mGet(keys, readValueOps);
+    }
+
+    private <T> List<T> mGet(Collection<String> keys, ValueOperations<String, Object> ops) {
+        if (clusterSlotExecutor.isCrossSlot(keys)) {
+            return clusterMGet(ops == valueOps ? redisTemplate : readTemplate, new ArrayList<>(keys));
+        }
+        List<T> list = (List<T>) ops.multiGet(keys);
         return list == null ? Collections.emptyList() : list.stream().map(this::returnVal).collect(Collectors.toList());
     }
 
+    /**
+     * Redis Cluster 下按 slot 分组执行 MGET，并按 key 的顺序还原结果
+     *
+     * @param template 执行 MGET 的 RedisTemplate，开启读写分离时为从节点
+     * @param keys     key
+     * @return 与 keys 顺序一致的值
+     */
+    private <T> List<T> clusterMGet(RedisTemplate<String, Object> template, List<String> keys) {
+        Object[] values = new Object[keys.size()];
+        for (ClusterSlotExecutor.SlotResult result : clusterSlotExecutor.execute(template, keys,
+                (connection, rawKeys, indexes) -> connection.stringCommands().mGet(rawKeys))) {
+            List<Object> list = (List<Object>) result.getValue();
+            if (list == null) {
+                continue;
+            }
+            for (int i = 0; i < list.size(); i++) {
+                values[result.getIndexes().get(i)] = list.get(i);
+            }
+        }
+        List<T> list = new ArrayList<>(values.length);
+        for (Object value : values) {
+            list.add(returnVal((T) value));
+        }
+        return list;
+    }
+
     /**
      * 返回所有(一个或多个)给定 key 的值, 值按请求的键的顺序返回。
      * 如果给定的 key 里面，有某个 key 不存在，那么这个 key 返回特殊值 nil
@@ -962,8 +1434,8 @@ public class RedisOps {
      */
     public <T> List<T> mGetByCacheKey(@NonNull Collection<CacheKey> cacheKeys) {
         List<String> keys = cacheKeys.stream().map(CacheKey::getKey).collect(Collectors.toList());
-        List<T> list = (List<T>) valueOps.multiGet(keys);
-        return list == null ? Collections.emptyList() : list.stream().map(this::returnVal).collect(Collectors.toList());
+        boolean readFromMaster = cacheKeys.stream().anyMatch(CacheKey::isReadFromMaster);
+        return mGet(keys, readFromMaster ? valueOps : readValueOps);
     }
 
     /**
@@ -1002,6 +1474,35 @@ public class RedisOps {
         return incrBy;
     }
 
+    /**
+     * 批量为多个键储存的数字值加上各自的增量
+     * <p>
+     * 在一个 pipeline 中为每个 key 发送 INCRBY，设置了过期时间的 key 再发送 PEXPIRE，每批只需一次网络往返。
+     * 注意：不是原子操作
+     *
+     * @param increments 一定不能为 {@literal null}，key -> 增量
+     * @see <a href="https://redis.io/commands/incrby">Redis Documentation: INCRBY</a>
+     */
+    public void mIncrBy(@NonNull Map<CacheKey, Long> increments) {
+        if (MapUtil.isEmpty(increments)) {
+            return;
+        }
+        RedisSerializer<String> keySerializer = stringRedisTemplate.getStringSerializer();
+        for (List<Map.Entry<CacheKey, Long>> entries : Lists.partition(new ArrayList<>(increments.entrySet()), BATCH_SIZE)) {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Map.Entry<CacheKey, Long> entry : entries) {
+                    CacheKey cacheKey = entry.getKey();
+                    byte[] rawKey = keySerializer.serialize(cacheKey.getKey());
+                    connection.stringCommands().incrBy(rawKey, entry.getValue());
+                    if (cacheKey.getExpire() != null) {
+                        connection.keyCommands().pExpire(rawKey, cacheKey.getExpire().toMillis());
+                    }
+                }
+                return null;
+            });
+        }
+    }
+
     /**
      * 为键 key 储存的值加上浮点数增量 increment 。
      * 如果键 key 不存在， 那么 INCRBYFLOAT 会先将键 key 的值设为 0 ， 然后再执行加法操作。
@@ -1140,7 +1641,10 @@ public class RedisOps {
     @Nullable
     public <T> T hGet(@NonNull String key, @NonNull Object field, boolean... cacheNullValues) {
         boolean cacheNullVal = cacheNullValues.length > 0 ? cacheNullValues[0] : defaultCacheNullVal;
-        T value = (T) hashOps.get(key, field);
+        T value = (T) readHashOps.get(key, field);
+        if (value == null && cacheNullVal && isReadReplica()) {
+            value = (T) hashOps.get(key, field);
+        }
         if (value == null && cacheNullVal) {
             hSet(key, field, newNullVal(), true);
         }
@@ -1160,7 +1664,7 @@ public class RedisOps {
     @Nullable
     public <T> T hGet(@NonNull String key, @NonNull Object field, BiFunction<String, Object, T> loader, boolean... cacheNullValues) {
         boolean cacheNullVal = cacheNullValues.length > 0 ? cacheNullValues[0] : defaultCacheNullVal;
-        T value = (T) hashOps.get(key, field);
+        T value = (T) readHashOps.get(key, field);
         if (value != null) {
             return returnVal(value);
         }
@@ -1197,7 +1701,10 @@ public class RedisOps {
         ArgumentAssert.notEmpty(key.getKey(), KEY_NOT_NULL);
         ArgumentAssert.notNull(key.getField(), "field不能为空");
 
-        T value = (T) hashOps.get(key.getKey(), key.getField());
+        T value = (T) readHashOps(key).get(key.getKey(), key.getField());
+        if (value == null && cacheNullVal && isReadReplica() && !key.isReadFromMaster()) {
+            value = (T) hashOps.get(key.getKey(), key.getField());
+        }
         if (value == null && cacheNullVal) {
             hSet(key, newNullVal(), true);
         }
@@ -1217,11 +1724,15 @@ public class RedisOps {
     @Nullable
     public <T> T hGet(@NonNull CacheHashKey key, Function<CacheHashKey, T> loader, boolean... cacheNullValues) {
         boolean cacheNullVal = cacheNullValues.length > 0 ? cacheNullValues[0] : defaultCacheNullVal;
-        T value = (T) hashOps.get(key.getKey(), key.getField());
+        String lockKey = key.getKey() + "@" + key.getField();
+        return coalesce(key, lockKey, () -> hGetOrLoad(key, lockKey, loader, cacheNullVal));
+    }
+
+    private <T> T hGetOrLoad(CacheHashKey key, String lockKey, Function<CacheHashKey, T> loader, boolean cacheNullVal) {
+        T value = (T) readHashOps(key).get(key.getKey(), key.getField());
         if (value != null) {
             return returnVal(value);
         }
-        String lockKey = key.getKey() + "@" + key.getField();
         synchronized (KEY_LOCKS.computeIfAbsent(lockKey, v -> new Object())) {
             value = (T) hashOps.get(key.getKey(), key.getField());
             if (value != null) {
@@ -1231,7 +1742,7 @@ public class RedisOps {
                 value = loader.apply(key);
                 this.hSet(key, value, cacheNullVal);
             } finally {
-                KEY_LOCKS.remove(key.getKey());
+                KEY_LOCKS.remove(lockKey);
             }
         }
         return returnVal(value);
@@ -1395,6 +1906,19 @@ public class RedisOps {
         return list.stream().map(this::returnVal).collect(Collectors.toList());
     }
 
+    /**
+     * 返回哈希表 key 中，一个或多个给定域的值。
+     * 开启读写分离时从副本读取
+     *
+     * @param key    一定不能为 {@literal null}，忽略其中的 field
+     * @param fields 一定不能为 {@literal null}.
+     * @see <a href="https://redis.io/commands/hmget">Redis Documentation: hmget</a>
+     */
+    public List<Object> hmGet(@NonNull CacheHashKey key, @NonNull Collection<Object> fields) {
+        List<Object> list = readHashOps(key).multiGet(key.getKey(), fields);
+        return list.stream().map(this::returnVal).collect(Collectors.toList());
+    }
+
     /**
      * 返回哈希表 key 中的所有域。
      *
@@ -1428,12 +1952,12 @@ public class RedisOps {
      * @see <a href="https://redis.io/commands/hgetall">Redis Documentation: hgetall</a>
      */
     public <K, V> Map<K, V> hGetAll(@NonNull String key) {
-        Map<K, V> map = (Map<K, V>) hashOps.entries(key);
+        Map<K, V> map = (Map<K, V>) readHashOps.entries(key);
         return returnMapVal(map);
     }
 
     public <K, V> Map<K, V> hGetAll(@NonNull CacheHashKey key) {
-        Map<K, V> map = (Map<K, V>) hashOps.entries(key.getKey());
+        Map<K, V> map = (Map<K, V>) readHashOps(key).entries(key.getKey());
         return returnMapVal(map);
     }
 
@@ -1461,7 +1985,7 @@ public class RedisOps {
     @Nullable
     public <K, V> Map<K, V> hGetAll(@NonNull CacheHashKey key, Function<CacheHashKey, Map<K, V>> loader, boolean... cacheNullValues) {
         boolean cacheNullVal = cacheNullValues.length > 0 ? cacheNullValues[0] : defaultCacheNullVal;
-        Map<K, V> map = (Map<K, V>) hashOps.entries(key.getKey());
+        Map<K, V> map = (Map<K, V>) readHashOps(key).entries(key.getKey());
         if (MapUtil.isNotEmpty(map)) {
             return returnMapVal(map);
         }
@@ -1920,7 +2444,7 @@ public class RedisOps {
      */
     @Nullable
     public <V> Set<V> sMembers(@NonNull CacheKey key) {
-        return (Set<V>) setOps.members(key.getKey());
+        return (Set<V>) (key.isReadFromMaster() ? setOps : readSetOps).members(key.getKey());
     }
 
 
@@ -1938,6 +2462,10 @@ public class RedisOps {
      */
     @Nullable
     public <V> Set<V> sInter(@NonNull CacheKey key, @NonNull CacheKey otherKey) {
+        List<String> keys = Arrays.asList(key.getKey(), otherKey.getKey());
+        if (clusterSlotExecutor.isCrossSlot(keys)) {
+            return (Set<V>) clusterSInter(keys);
+        }
         return (Set<V>) setOps.intersect(key.getKey(), otherKey.getKey());
     }
 
@@ -1955,6 +2483,10 @@ public class RedisOps {
      */
     @Nullable
     public Set<Object> sInter(@NonNull CacheKey key, Collection<CacheKey> otherKeys) {
+        List<String> keys = setKeys(key, otherKeys);
+        if (clusterSlotExecutor.isCrossSlot(keys)) {
+            return clusterSInter(keys);
+        }
         return setOps.intersect(key.getKey(), otherKeys.stream().map(CacheKey::getKey).collect(Collectors.toList()));
     }
 
@@ -1971,7 +2503,11 @@ public class RedisOps {
      */
     @Nullable
     public <V> Set<V> sInter(Collection<CacheKey> otherKeys) {
-        return (Set<V>) setOps.intersect(otherKeys.stream().map(CacheKey::getKey).collect(Collectors.toList()));
+        List<String> keys = setKeys(null, otherKeys);
+        if (clusterSlotExecutor.isCrossSlot(keys)) {
+            return (Set<V>) clusterSInter(keys);
+        }
+        return (Set<V>) setOps.intersect(keys);
     }
 
 
@@ -1988,6 +2524,10 @@ public class RedisOps {
      */
     @Nullable
     public Long sInterStore(@NonNull CacheKey key, @NonNull CacheKey otherKey, @NonNull CacheKey destKey) {
+        List<String> keys = Arrays.asList(key.getKey(), otherKey.getKey());
+        if (clusterSlotExecutor.isCrossSlot(storeKeys(keys, destKey))) {
+            return clusterStore(destKey.getKey(), clusterSInter(keys));
+        }
         return setOps.intersectAndStore(key.getKey(), otherKey.getKey(), destKey.getKey());
     }
 
@@ -2004,6 +2544,10 @@ public class RedisOps {
      */
     @Nullable
     public Long sInterStore(@NonNull CacheKey key, @NonNull Collection<CacheKey> otherKeys, @NonNull CacheKey destKey) {
+        List<String> keys = setKeys(key, otherKeys);
+        if (clusterSlotExecutor.isCrossSlot(storeKeys(keys, destKey))) {
+            return clusterStore(destKey.getKey(), clusterSInter(keys));
+        }
         return setOps.intersectAndStore(key.getKey(),
                 otherKeys.stream().map(CacheKey::getKey).collect(Collectors.toList()), destKey.getKey());
     }
@@ -2020,7 +2564,11 @@ public class RedisOps {
      */
     @Nullable
     public Long sInterStore(Collection<CacheKey> otherKeys, @NonNull CacheKey destKey) {
-        return setOps.intersectAndStore(otherKeys.stream().map(CacheKey::getKey).collect(Collectors.toList()), destKey.getKey());
+        List<String> keys = setKeys(null, otherKeys);
+        if (clusterSlotExecutor.isCrossSlot(storeKeys(keys, destKey))) {
+            return clusterStore(destKey.getKey(), clusterSInter(keys));
+        }
+        return setOps.intersectAndStore(keys, destKey.getKey());
     }
 
 
@@ -2035,6 +2583,10 @@ public class RedisOps {
      */
     @Nullable
     public <V> Set<V> sUnion(@NonNull CacheKey key, @NonNull CacheKey otherKey) {
+        List<String> keys = Arrays.asList(key.getKey(), otherKey.getKey());
+        if (clusterSlotExecutor.isCrossSlot(keys)) {
+            return (Set<V>) clusterSUnion(keys);
+        }
         return (Set<V>) setOps.union(key.getKey(), otherKey.getKey());
     }
 
@@ -2049,6 +2601,10 @@ public class RedisOps {
      */
     @Nullable
     public <V> Set<V> sUnion(@NonNull CacheKey key, Collection<CacheKey> otherKeys) {
+        List<String> keys = setKeys(key, otherKeys);
+        if (clusterSlotExecutor.isCrossSlot(keys)) {
+            return (Set<V>) clusterSUnion(keys);
+        }
         return (Set<V>) setOps.union(key.getKey(), otherKeys.stream().map(CacheKey::getKey).collect(Collectors.toList()));
     }
 
@@ -2062,7 +2618,11 @@ public class RedisOps {
      */
     @Nullable
     public <V> Set<V> sUnion(Collection<CacheKey> otherKeys) {
-        return (Set<V>) setOps.union(otherKeys.stream().map(CacheKey::getKey).collect(Collectors.toList()));
+        List<String> keys = setKeys(null, otherKeys);
+        if (clusterSlotExecutor.isCrossSlot(keys)) {
+            return (Set<V>) clusterSUnion(keys);
+        }
+        return (Set<V>) setOps.union(keys);
     }
 
     /**
@@ -2077,6 +2637,10 @@ public class RedisOps {
      * @see <a href="https://redis.io/commands/sunionstore">Redis Documentation: SUNIONSTORE</a>
      */
     public Long sUnionStore(@NonNull CacheKey key, @NonNull CacheKey otherKey, @NonNull CacheKey distKey) {
+        List<String> keys = Arrays.asList(key.getKey(), otherKey.getKey());
+        if (clusterSlotExecutor.isCrossSlot(storeKeys(keys, distKey))) {
+            return clusterStore(distKey.getKey(), clusterSUnion(keys));
+        }
         return setOps.unionAndStore(key.getKey(), otherKey.getKey(), distKey.getKey());
     }
 
@@ -2091,7 +2655,11 @@ public class RedisOps {
      * @see <a href="https://redis.io/commands/sunionstore">Redis Documentation: SUNIONSTORE</a>
      */
     public Long sUnionStore(Collection<CacheKey> otherKeys, @NonNull CacheKey distKey) {
-        return setOps.unionAndStore(otherKeys.stream().map(CacheKey::getKey).collect(Collectors.toList()), distKey.getKey());
+        List<String> keys = setKeys(null, otherKeys);
+        if (clusterSlotExecutor.isCrossSlot(storeKeys(keys, distKey))) {
+            return clusterStore(distKey.getKey(), clusterSUnion(keys));
+        }
+        return setOps.unionAndStore(keys, distKey.getKey());
     }
 
     /**
@@ -2105,6 +2673,10 @@ public class RedisOps {
      */
     @Nullable
     public <V> Set<V> sDiff(@NonNull CacheKey key, @NonNull CacheKey otherKey) {
+        List<String> keys = Arrays.asList(key.getKey(), otherKey.getKey());
+        if (clusterSlotExecutor.isCrossSlot(keys)) {
+            return (Set<V>) clusterSDiff(keys);
+        }
         return (Set<V>) setOps.difference(key.getKey(), otherKey.getKey());
     }
 
@@ -2117,7 +2689,11 @@ public class RedisOps {
      * @see <a href="https://redis.io/commands/sdiff">Redis Documentation: SDIFF</a>
      */
     public <V> Set<V> sDiff(Collection<CacheKey> otherKeys) {
-        return (Set<V>) setOps.difference(otherKeys.stream().map(CacheKey::getKey).collect(Collectors.toList()));
+        List<String> keys = setKeys(null, otherKeys);
+        if (clusterSlotExecutor.isCrossSlot(keys)) {
+            return (Set<V>) clusterSDiff(keys);
+        }
+        return (Set<V>) setOps.difference(keys);
     }
 
     /**
@@ -2132,6 +2708,10 @@ public class RedisOps {
      * @see <a href="https://redis.io/commands/sdiffstore">Redis Documentation: sdiffstore</a>
      */
     public Long sDiffStore(@NonNull CacheKey key, @NonNull CacheKey otherKey, @NonNull CacheKey distKey) {
+        List<String> keys = Arrays.asList(key.getKey(), otherKey.getKey());
+        if (clusterSlotExecutor.isCrossSlot(storeKeys(keys, distKey))) {
+            return clusterStore(distKey.getKey(), clusterSDiff(keys));
+        }
         return setOps.differenceAndStore(key.getKey(), otherKey.getKey(), distKey.getKey());
     }
 
@@ -2144,8 +2724,96 @@ public class RedisOps {
      * @see <a href="https://redis.io/commands/sdiffstore">Redis Documentation: sdiffstore</a>
      */
     public Long sDiffStore(Collection<CacheKey> otherKeys, @NonNull CacheKey distKey) {
-        return setOps.differenceAndStore(otherKeys.stream().map(CacheKey::getKey).collect(Collectors.toList()),
-                distKey.getKey());
+        List<String> keys = setKeys(null, otherKeys);
+        if (clusterSlotExecutor.isCrossSlot(storeKeys(keys, distKey))) {
+            return clusterStore(distKey.getKey(), clusterSDiff(keys));
+        }
+        return setOps.differenceAndStore(keys, distKey.getKey());
+    }
+
+    private List<String> setKeys(@Nullable CacheKey key, Collection<CacheKey> otherKeys) {
+        List<String> keys = new ArrayList<>(otherKeys.size() + 1);
+        if (key != null) {
+            keys.add(key.getKey());
+        }
+        otherKeys.forEach(otherKey -> keys.add(otherKey.getKey()));
+        return keys;
+    }
+
+    private List<String> storeKeys(List<String> keys, CacheKey destKey) {
+        List<String> all = new ArrayList<>(keys);
+        all.add(destKey.getKey());
+        return all;
+    }
+
+    /**
+     * Redis Cluster 下跨 slot 求交集：同一 slot 内由 SINTER 在服务端计算，不同 slot 的结果在客户端求交集
+     *
+     * @param keys key
+     * @return 交集
+     */
+    private Set<Object> clusterSInter(List<String> keys) {
+        Set<Object> members = null;
+        for (ClusterSlotExecutor.SlotResult result : clusterSlotExecutor.execute(keys,
+                (connection, rawKeys, indexes) -> connection.setCommands().sInter(rawKeys))) {
+            Collection<Object> slotMembers = result.getValue() == null ? Collections.emptySet() : (Collection<Object>) result.getValue();
+            if (members == null) {
+                members = new LinkedHashSet<>(slotMembers);
+            } else {
+                members.retainAll(slotMembers);
+            }
+        }
+        return members == null ? new LinkedHashSet<>() : members;
+    }
+
+    /**
+     * Redis Cluster 下跨 slot 求并集：同一 slot 内由 SUNION 在服务端计算，不同 slot 的结果在客户端合并
+     *
+     * @param keys key
+     * @return 并集
+     */
+    private Set<Object> clusterSUnion(List<String> keys) {
+        Set<Object> members = new LinkedHashSet<>();
+        for (ClusterSlotExecutor.SlotResult result : clusterSlotExecutor.execute(keys,
+                (connection, rawKeys, indexes) -> connection.setCommands().sUnion(rawKeys))) {
+            if (result.getValue() != null) {
+                members.addAll((Collection<Object>) result.getValue());
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Redis Cluster 下跨 slot 求差集：第一个集合减去其余集合的并集
+     *
+     * @param keys key
+     * @return 差集
+     */
+    private Set<Object> clusterSDiff(List<String> keys) {
+        Set<Object> members = setOps.members(keys.get(0));
+        Set<Object> diff = members == null ? new LinkedHashSet<>() : new LinkedHashSet<>(members);
+        if (!diff.isEmpty() && keys.size() > 1) {
+            diff.removeAll(clusterSUnion(keys.subList(1, keys.size())));
+        }
+        return diff;
+    }
+
+    /**
+     * Redis Cluster 下将客户端计算出的集合写入 destKey，覆盖原有值
+     * <p>
+     * 注意：DEL 与 SADD 不是原子操作
+     *
+     * @param destKey 目标 key
+     * @param members 集合成员
+     * @return 结果集中的元素数量
+     */
+    private Long clusterStore(String destKey, Set<Object> members) {
+        redisTemplate.delete(destKey);
+        if (members.isEmpty()) {
+            return 0L;
+        }
+        setOps.add(destKey, members.toArray());
+        return (long) members.size();
     }
 
 
@@ -2261,7 +2929,7 @@ public class RedisOps {
      */
     @Nullable
     public Set<Object> zRange(@NonNull String key, long start, long end) {
-        return zSetOps.range(key, start, end);
+        return readZSetOps.range(key, start, end);
     }
 
     /**
@@ -2283,7 +2951,7 @@ public class RedisOps {
      */
     @Nullable
     public Set<ZSetOperations.TypedTuple<Object>> zRangeWithScores(@NonNull String key, long start, long end) {
-        return zSetOps.rangeWithScores(key, start, end);
+        return readZSetOps.rangeWithScores(key, start, end);
     }
 
     /**
@@ -2299,7 +2967,7 @@ public class RedisOps {
      */
     @Nullable
     public Set<Object> zRevrange(@NonNull String key, long start, long end) {
-        return zSetOps.reverseRange(key, start, end);
+        return readZSetOps.reverseRange(key, start, end);
     }
 
     /**
@@ -2315,7 +2983,7 @@ public class RedisOps {
      */
     @Nullable
     public Set<ZSetOperations.TypedTuple<Object>> zRevrangeWithScores(@NonNull String key, long start, long end) {
-        return zSetOps.reverseRangeWithScores(key, start, end);
+        return readZSetOps.reverseRangeWithScores(key, start, end);
     }
 
     /**
@@ -2330,7 +2998,7 @@ public class RedisOps {
      * @see <a href="https://redis.io/commands/zrangebyscore">Redis Documentation: ZRANGEBYSCORE</a>
      */
     public Set<Object> zRangeByScore(@NonNull String key, double min, double max) {
-        return zSetOps.rangeByScore(key, min, max);
+        return readZSetOps.rangeByScore(key, min, max);
     }
 
     /**
@@ -2345,7 +3013,7 @@ public class RedisOps {
      * @see <a href="https://redis.io/commands/zrangebyscore">Redis Documentation: ZRANGEBYSCORE</a>
      */
     public Set<ZSetOperations.TypedTuple<Object>> zRangeByScoreWithScores(@NonNull String key, double min, double max) {
-        return zSetOps.rangeByScoreWithScores(key, min, max);
+        return readZSetOps.rangeByScoreWithScores(key, min, max);
     }
 
     /**
@@ -2359,7 +3027,7 @@ public class RedisOps {
      * @see <a href="https://redis.io/commands/zrevrange">Redis Documentation: ZRANGEBYSCORE</a>
      */
     public Set<Object> zReverseRange(@NonNull String key, double min, double max) {
-        return zSetOps.reverseRangeByScore(key, min, max);
+        return readZSetOps.reverseRangeByScore(key, min, max);
     }
 
     /**
@@ -2373,7 +3041,7 @@ public class RedisOps {
      * @see <a href="https://redis.io/commands/zrevrangebyscore">Redis Documentation: ZRANGEBYSCORE</a>
      */
     public Set<ZSetOperations.TypedTuple<Object>> zReverseRangeByScoreWithScores(@NonNull String key, double min, double max) {
-        return zSetOps.reverseRangeByScoreWithScores(key, min, max);
+        return readZSetOps.reverseRangeByScoreWithScores(key, min, max);
     }
 
     /**
@@ -2446,4 +3114,76 @@ public class RedisOps {
     public Long zRemRangeByScore(@NonNull String key, double min, double max) {
         return zSetOps.removeRangeByScore(key, min, max);
     }
+
+    /**
+     * 限流，尝试获取 permits 个许可
+     * <p>
+     * 每次检查只执行一个 lua 脚本，一次网络往返，并发下也是原子的
+     *
+     * @param key       一定不能为 {@literal null}，忽略其中的过期时间
+     * @param algorithm 限流算法
+     * @param limit     每个窗口允许的许可数(令牌桶的容量)
+     * @param window    窗口大小
+     * @param permits   本次需要的许可数
+     * @return 是否获取成功，失败时不消耗许可
+     */
+    public boolean tryAcquire(@NonNull CacheKey key, @NonNull RateLimitAlgorithm algorithm, long limit, @NonNull Duration window, long permits) {
+        ArgumentAssert.notNull(key, CACHE_KEY_NOT_NULL);
+        ArgumentAssert.isTrue(limit > 0 && permits > 0 && window.toMillis() > 0, "limit、permits、window 必须大于 0");
+        RedisScript<Long> script;
+        switch (algorithm) {
+            case SLIDING_LOG:
+                script = SLIDING_LOG_SCRIPT;
+                break;
+            case SLIDING_WINDOW:
+                script = SLIDING_WINDOW_SCRIPT;
+                break;
+            default:
+                script = TOKEN_BUCKET_SCRIPT;
+                break;
+        }
+        Long allowed = stringRedisTemplate.execute(script, Collections.singletonList(key.getKey()),
+                String.valueOf(limit), String.valueOf(window.toMillis()), String.valueOf(permits));
+        return allowed != null && allowed == 1L;
+    }
+
+    /**
+     * 排行榜：为有序集 key 的成员 member 增加分数，并只保留分数最高的 maxSize 个成员
+     * <p>
+     * 被移出排行榜的成员再次增加分数时从 0 开始计算，结果是近似的 TopN。
+     * key 设置了过期时间时，每次增加分数都会刷新过期时间
+     *
+     * @param key       一定不能为 {@literal null}.
+     * @param member    成员
+     * @param increment 增量
+     * @param maxSize   保留的成员数量，小于等于 0 时不限制
+     * @return 成员增加后的分数
+     */
+    public Double zIncrTopN(@NonNull CacheKey key, Object member, double increment, long maxSize) {
+        ArgumentAssert.notNull(key, CACHE_KEY_NOT_NULL);
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        long expire = key.getExpire() == null ? 0 : key.getExpire().toMillis();
+        String score = redisTemplate.execute(TOP_N_SCRIPT, null, RedisSerializer.string(), Collections.singletonList(key.getKey()),
+                valueSerializer.serialize(member), StrUtil.utf8Bytes(String.valueOf(increment)),
+                StrUtil.utf8Bytes(String.valueOf(maxSize)), StrUtil.utf8Bytes(String.valueOf(expire)));
+        return score == null ? null : Double.valueOf(score);
+    }
+
+    /**
+     * 排行榜：返回有序集 key 中分数最高的 n 个成员
+     *
+     * @param key 一定不能为 {@literal null}.
+     * @param n   数量
+     * @return 成员 -> 分数，按分数从高到低排列
+     */
+    public Map<Object, Double> zTopN(@NonNull CacheKey key, long n) {
+        ArgumentAssert.notNull(key, CACHE_KEY_NOT_NULL);
+        ZSetOperations<String, Object> ops = key.isReadFromMaster() ? zSetOps : readZSetOps;
+        Set<ZSetOperations.TypedTuple<Object>> tuples = ops.reverseRangeWithScores(key.getKey(), 0, n - 1);
+        Map<Object, Double> result = new LinkedHashMap<>();
+        if (tuples != null) {
+            tuples.forEach(tuple -> result.put(tuple.getValue(), tuple.getScore()));
+        }
+        return result;
+    }
 }
@@ -0,0 +1,138 @@
+package club.supreme.framework.cache.redis;
+
+import club.supreme.framework.constant.StrPool;
+import club.supreme.framework.props.SupremeCacheProperties;
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import io.lettuce.core.ReadFrom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * Redis 只读副本
+ * <p>
+ * 复制主连接工厂的配置，再按 Lettuce 的 ReadFrom 策略创建一个只用于读命令的连接工厂。
+ * 哨兵和集群模式复用原有的拓扑配置，由 Lettuce 自动发现副本；单机模式需要通过 nodes 指定副本地址。
+ * <p>
+ * 连接工厂不注册为 Spring Bean，避免影响 RedisConnectionFactory 的自动配置和按类型注入
+ *
+ * @author supreme
+ */
+@Slf4j
+public class RedisReadReplica implements InitializingBean, DisposableBean {
+
+    private final RedisTemplate<String, Object> masterTemplate;
+    private final LettuceConnectionFactory connectionFactory;
+    private final RedisTemplate<String, Object> replicaTemplate;
+
+    public RedisReadReplica(RedisConnectionFactory factory, RedisTemplate<String, Object> masterTemplate, SupremeCacheProperties.Replica replica) {
+        this.masterTemplate = masterTemplate;
+        this.connectionFactory = createConnectionFactory(factory, replica);
+        if (connectionFactory == null) {
+            this.replicaTemplate = null;
+            return;
+        }
+
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setKeySerializer(masterTemplate.getKeySerializer());
+        template.setValueSerializer(masterTemplate.getValueSerializer());
+        template.setHashKeySerializer(masterTemplate.getHashKeySerializer());
+        template.setHashValueSerializer(masterTemplate.getHashValueSerializer());
+        template.setConnectionFactory(connectionFactory);
+        this.replicaTemplate = template;
+    }
+
+    /**
+     * 只读命令使用的 RedisTemplate
+     *
+     * @return 未能创建副本连接时返回主节点的 RedisTemplate
+     */
+    public RedisTemplate<String, Object> getRedisTemplate() {
+        return replicaTemplate == null ? masterTemplate : replicaTemplate;
+    }
+
+    private static LettuceConnectionFactory createConnectionFactory(RedisConnectionFactory factory, SupremeCacheProperties.Replica replica) {
+        if (!(factory instanceof LettuceConnectionFactory)) {
+            log.warn("redis 读写分离只支持 Lettuce，当前连接工厂为 {}，只读命令仍然发往主节点", factory.getClass().getName());
+            return null;
+        }
+        LettuceConnectionFactory master = (LettuceConnectionFactory) factory;
+        RedisConfiguration configuration;
+        if (master.isRedisSentinelAware()) {
+            configuration = master.getSentinelConfiguration();
+        } else if (master.isClusterAware()) {
+            configuration = master.getClusterConfiguration();
+        } else {
+            if (CollUtil.isEmpty(replica.getNodes())) {
+                log.warn("redis 单机模式未配置 supreme.cache.replica.nodes，只读命令仍然发往主节点");
+                return null;
+            }
+            RedisStandaloneConfiguration standalone = master.getStandaloneConfiguration();
+            RedisStaticMasterReplicaConfiguration staticConfiguration = new RedisStaticMasterReplicaConfiguration(standalone.getHostName(), standalone.getPort());
+            for (String node : replica.getNodes()) {
+                String host = StrUtil.subBefore(node, StrPool.COLON, true);
+                int port = Integer.parseInt(StrUtil.subAfter(node, StrPool.COLON, true));
+                staticConfiguration.addNode(host, port);
+            }
+            staticConfiguration.setDatabase(standalone.getDatabase());
+            staticConfiguration.setUsername(standalone.getUsername());
+            staticConfiguration.setPassword(standalone.getPassword());
+            configuration = staticConfiguration;
+        }
+
+        ReadFrom readFrom = ReadFrom.valueOf(replica.getReadFrom());
+        log.info("redis 只读命令按 ReadFrom={} 路由", replica.getReadFrom());
+        return new LettuceConnectionFactory(configuration, copyClientConfiguration(master.getClientConfiguration(), readFrom));
+    }
+
+    private static LettuceClientConfiguration copyClientConfiguration(LettuceClientConfiguration source, ReadFrom readFrom) {
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder builder;
+        if (source instanceof LettucePoolingClientConfiguration) {
+            builder = LettucePoolingClientConfiguration.builder().poolConfig(((LettucePoolingClientConfiguration) source).getPoolConfig());
+        } else {
+            builder = LettuceClientConfiguration.builder();
+        }
+        if (source.isUseSsl()) {
+            LettuceClientConfiguration.LettuceSslClientConfigurationBuilder ssl = builder.useSsl();
+            if (!source.isVerifyPeer()) {
+                ssl.disablePeerVerification();
+            }
+            if (source.isStartTls()) {
+                ssl.startTls();
+            }
+            builder = ssl.and();
+        }
+        source.getClientOptions().ifPresent(builder::clientOptions);
+        source.getClientResources().ifPresent(builder::clientResources);
+        source.getClientName().ifPresent(builder::clientName);
+        return builder.commandTimeout(source.getCommandTimeout())
+                .shutdownTimeout(source.getShutdownTimeout())
+                .shutdownQuietPeriod(source.getShutdownQuietPeriod())
+                .readFrom(readFrom)
+                .build();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (connectionFactory != null) {
+            connectionFactory.afterPropertiesSet();
+            replicaTemplate.afterPropertiesSet();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package club.supreme.framework.cache.redis.serializer;
+
+import club.supreme.framework.cache.redis.NullVal;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 空值使用单字节墓碑标记的序列化器
+ * <p>
+ * NullVal 不再经过 jackson/jdk 序列化(jackson 默认类型下需要写入完整的类名)，而是写入一个字节 {@link #TOMBSTONE}；
+ * 读取时先判断是否为墓碑标记，是则直接返回 NullVal.INSTANCE，不会调用被包装的序列化器。
+ * 0x00 不是合法的 json 开头，也不是 jdk 序列化的魔数，不会与正常值冲突；旧格式的 NullVal 仍由被包装的序列化器正常读取
+ *
+ * @author supreme
+ */
+public class NullValRedisSerializer implements RedisSerializer<Object> {
+
+    /**
+     * 墓碑标记
+     */
+    public static final byte TOMBSTONE = 0x00;
+
+    private final RedisSerializer<Object> delegate;
+
+    public NullValRedisSerializer(RedisSerializer<Object> delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * 是否为墓碑标记
+     *
+     * @param bytes redis 中的原始值
+     * @return 是否为墓碑标记
+     */
+    public static boolean isTombstone(byte[] bytes) {
+        return bytes != null && bytes.length == 1 && bytes[0] == TOMBSTONE;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value instanceof NullVal) {
+            return new byte[]{TOMBSTONE};
+        }
+        return delegate.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (isTombstone(bytes)) {
+            return NullVal.INSTANCE;
+        }
+        return delegate.deserialize(bytes);
+    }
+
+    public RedisSerializer<Object> getDelegate() {
+        return delegate;
+    }
+}
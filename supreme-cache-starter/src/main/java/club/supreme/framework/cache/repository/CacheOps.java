@@ -5,6 +5,7 @@ import org.springframework.lang.NonNull;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 /**
@@ -31,6 +32,16 @@ public interface CacheOps {
      */
     Long del(@NonNull String... keys);
 
+    /**
+     * 删除指定的key
+     * <p>
+     * redis 实现使用 UNLINK 在后台线程释放内存，并按批次发送
+     *
+     * @param keys 多个key
+     * @return 删除个数
+     */
+    Long unlink(@NonNull Collection<CacheKey> keys);
+
     /**
      * 判断指定的key 是否存在
      *
@@ -48,6 +59,16 @@ public interface CacheOps {
      */
     void set(@NonNull CacheKey key, Object value, boolean... cacheNullValues);
 
+    /**
+     * 批量添加到带有 过期时间的 缓存
+     * <p>
+     * redis 实现会在一个 pipeline 中完成写入
+     *
+     * @param map             key 和值
+     * @param cacheNullValues 是否缓存null对象
+     */
+    void mSet(@NonNull Map<CacheKey, Object> map, boolean... cacheNullValues);
+
     /**
      * 根据key获取对象
      *
@@ -116,6 +137,15 @@ public interface CacheOps {
      */
     Long incrBy(@NonNull CacheKey key, long increment);
 
+    /**
+     * 批量为多个键储存的数字值加上各自的增量
+     * <p>
+     * redis 实现会在一个 pipeline 中完成
+     *
+     * @param increments key -> 增量
+     */
+    void mIncrBy(@NonNull Map<CacheKey, Long> increments);
+
     /**
      * 为键 key 储存的数字值加上一。
      *
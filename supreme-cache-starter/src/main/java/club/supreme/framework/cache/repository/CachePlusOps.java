@@ -1,9 +1,12 @@
 package club.supreme.framework.cache.repository;
 
+import club.supreme.framework.enums.cache.RateLimitAlgorithm;
 import club.supreme.framework.model.cache.CacheHashKey;
 import club.supreme.framework.model.cache.CacheKey;
 import org.springframework.lang.NonNull;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -210,6 +213,16 @@ public interface CachePlusOps extends CacheOps {
      */
     <K, V> Map<K, V> hGetAll(@NonNull CacheHashKey key);
 
+    /**
+     * 返回哈希表 key 中，一个或多个给定域的值。
+     * 如果给定的域不存在于哈希表，那么对应位置返回 null。
+     *
+     * @param key    一定不能为 {@literal null}，忽略其中的 field
+     * @param fields 一定不能为 {@literal null}.
+     * @return 与 fields 一一对应的值
+     */
+    List<Object> hmGet(@NonNull CacheHashKey key, @NonNull Collection<Object> fields);
+
     /**
      * 返回哈希表 key 中，所有的域和值。
      * 在返回值里，紧跟每个域名(field name)之后是域的值(value)，所以返回值的长度是哈希表大小的两倍。
@@ -268,6 +281,54 @@ public interface CachePlusOps extends CacheOps {
      */
     Long sCard(@NonNull CacheKey key);
 
-}
+    /**
+     * 限流，尝试获取 permits 个许可
+     * <p>
+     * REDIS 模式下每次检查只执行一个 lua 脚本，一次网络往返，并发下也是原子的
+     *
+     * @param key       一定不能为 {@literal null}，忽略其中的过期时间
+     * @param algorithm 限流算法
+     * @param limit     每个窗口允许的许可数(令牌桶的容量)
+     * @param window    窗口大小
+     * @param permits   本次需要的许可数
+     * @return 是否获取成功，失败时不消耗许可
+     */
+    boolean tryAcquire(@NonNull CacheKey key, @NonNull RateLimitAlgorithm algorithm, long limit, @NonNull Duration window, long permits);
+
+    /**
+     * 限流，尝试获取 1 个许可
+     *
+     * @param key       一定不能为 {@literal null}，忽略其中的过期时间
+     * @param algorithm 限流算法
+     * @param limit     每个窗口允许的许可数(令牌桶的容量)
+     * @param window    窗口大小
+     * @return 是否获取成功
+     */
+    default boolean tryAcquire(@NonNull CacheKey key, @NonNull RateLimitAlgorithm algorithm, long limit, @NonNull Duration window) {
+        return tryAcquire(key, algorithm, limit, window, 1);
+    }
 
+    /**
+     * 排行榜：为成员 member 增加分数，并只保留分数最高的 maxSize 个成员
+     * <p>
+     * 被移出排行榜的成员再次增加分数时从 0 开始计算，结果是近似的 TopN。
+     * key 设置了过期时间时，每次增加分数都会刷新过期时间
+     *
+     * @param key       一定不能为 {@literal null}.
+     * @param member    成员
+     * @param increment 增量
+     * @param maxSize   保留的成员数量，小于等于 0 时不限制
+     * @return 成员增加后的分数
+     */
+    Double zIncrTopN(@NonNull CacheKey key, Object member, double increment, long maxSize);
 
+    /**
+     * 排行榜：返回分数最高的 n 个成员
+     *
+     * @param key 一定不能为 {@literal null}.
+     * @param n   数量
+     * @return 成员 -> 分数，按分数从高到低排列
+     */
+    Map<Object, Double> zTopN(@NonNull CacheKey key, long n);
+
+}
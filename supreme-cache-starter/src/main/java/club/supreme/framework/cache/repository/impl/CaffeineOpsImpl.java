@@ -1,17 +1,23 @@
 package club.supreme.framework.cache.repository.impl;
 
+import club.supreme.framework.cache.offheap.OffHeapStore;
 import club.supreme.framework.cache.repository.CacheOps;
 import club.supreme.framework.cache.repository.CachePlusOps;
 import club.supreme.framework.constant.StrPool;
+import club.supreme.framework.enums.cache.RateLimitAlgorithm;
 import club.supreme.framework.model.cache.CacheHashKey;
 import club.supreme.framework.model.cache.CacheKey;
+import club.supreme.framework.utils.ArgumentAssert;
 import cn.hutool.core.util.StrUtil;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -37,10 +43,77 @@ public class CaffeineOpsImpl implements CacheOps, CachePlusOps {
             .maximumSize(DEF_MAX_SIZE)
             .build();
 
+    /**
+     * 堆外缓存，未开启时为 null
+     * 开启后 cacheMap 只作为热点对象的一级缓存，全部数据都写入堆外缓存
+     */
+    @Nullable
+    private final OffHeapStore offHeapStore;
+
+    /**
+     * 限流器、排行榜状态的默认最大 key 数量
+     */
+    private static final long DEF_STRUCTURE_MAX_SIZE = 100_000;
+    /**
+     * 限流器、排行榜状态默认的空闲淘汰时间
+     */
+    private static final Duration DEF_STRUCTURE_EXPIRE_AFTER_ACCESS = Duration.ofMinutes(30);
+
+    /**
+     * 限流器、排行榜的状态，每个 key 按各自的过期时间淘汰，超过 expireAfterAccess 未访问也会淘汰
+     * <p>
+     * key 数量超过上限时按频率淘汰，被淘汰的限流器重新从满额开始计数(即对该 key 放行)，上限需要大于同时活跃的限流 key 数量
+     */
+    private final Cache<String, LocalStructure> structures;
+
+    public CaffeineOpsImpl() {
+        this(null);
+    }
+
+    public CaffeineOpsImpl(@Nullable OffHeapStore offHeapStore) {
+        this(offHeapStore, DEF_STRUCTURE_MAX_SIZE, DEF_STRUCTURE_EXPIRE_AFTER_ACCESS);
+    }
+
+    /**
+     * @param offHeapStore               堆外缓存，为 null 时不开启
+     * @param structureMaxSize           限流器、排行榜状态的最大 key 数量
+     * @param structureExpireAfterAccess 限流器、排行榜状态的空闲淘汰时间，为 null 时只按各自的过期时间淘汰
+     */
+    public CaffeineOpsImpl(@Nullable OffHeapStore offHeapStore, long structureMaxSize, @Nullable Duration structureExpireAfterAccess) {
+        ArgumentAssert.isTrue(structureMaxSize > 0, "structureMaxSize 必须大于 0");
+        this.offHeapStore = offHeapStore;
+        long idleNanos = structureExpireAfterAccess == null ? Long.MAX_VALUE : structureExpireAfterAccess.toNanos();
+        this.structures = Caffeine.newBuilder()
+                .maximumSize(structureMaxSize)
+                .expireAfter(new Expiry<String, LocalStructure>() {
+                    @Override
+                    public long expireAfterCreate(@NonNull String key, @NonNull LocalStructure value, long currentTime) {
+                        return expireAfterWrite(value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(@NonNull String key, @NonNull LocalStructure value, long currentTime, long currentDuration) {
+                        return expireAfterWrite(value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(@NonNull String key, @NonNull LocalStructure value, long currentTime, long currentDuration) {
+                        // 读取只延长空闲时间，不能超过写入时确定的过期时间
+                        return Math.max(0, Math.min(value.deadline - currentTime, idleNanos));
+                    }
+
+                    private long expireAfterWrite(LocalStructure value, long currentTime) {
+                        value.deadline = value.expireNanos > Long.MAX_VALUE - currentTime ? Long.MAX_VALUE : currentTime + value.expireNanos;
+                        return Math.min(value.expireNanos, idleNanos);
+                    }
+                })
+                .build();
+    }
+
     @Override
     public Long del(@NonNull CacheKey... keys) {
         for (CacheKey key : keys) {
-            cacheMap.invalidate(key.getKey());
+            invalidate(key.getKey());
         }
         return (long) keys.length;
     }
@@ -48,42 +121,144 @@ public class CaffeineOpsImpl implements CacheOps, CachePlusOps {
     @Override
     public Long del(String... keys) {
         for (String key : keys) {
-            cacheMap.invalidate(key);
+            invalidate(key);
         }
         return (long) keys.length;
     }
 
+    @Override
+    public Long unlink(@NonNull Collection<CacheKey> keys) {
+        for (CacheKey key : keys) {
+            invalidate(tran(key).getKey());
+        }
+        return (long) keys.size();
+    }
+
+    private void invalidate(String key) {
+        cacheMap.invalidate(key);
+        if (offHeapStore != null) {
+            offHeapStore.remove(key);
+        }
+    }
+
     @Override
     public void set(@NonNull CacheKey key, Object value, boolean... cacheNullValues) {
         if (value == null) {
             return;
         }
+        putHeap(key.getKey(), value, key.getExpire());
+        if (offHeapStore != null) {
+            offHeapStore.put(key.getKey(), value, key.getExpire());
+        }
+    }
+
+    private void putHeap(String key, Object value, @Nullable Duration expire) {
+        cacheMap.put(key, newHeapCache(key, value, expire));
+    }
+
+    private static Cache<String, Object> newHeapCache(String key, Object value, @Nullable Duration expire) {
         Caffeine<Object, Object> builder = Caffeine.newBuilder()
                 .maximumSize(DEF_MAX_SIZE);
-        if (key.getExpire() != null) {
-            builder.expireAfterWrite(key.getExpire());
+        if (expire != null) {
+            builder.expireAfterWrite(expire);
         }
         Cache<String, Object> cache = builder.build();
-        cache.put(key.getKey(), value);
-        cacheMap.put(key.getKey(), cache);
+        cache.put(key, value);
+        return cache;
     }
 
-    @Override
-    public <T> T get(@NonNull CacheKey key, boolean... cacheNullValues) {
-        Cache<String, Object> ifPresent = cacheMap.getIfPresent(key.getKey());
-        if (ifPresent == null) {
+    /**
+     * 一级缓存未命中时从堆外缓存读取，并放回一级缓存
+     */
+    @Nullable
+    private <T> T getOffHeap(String key) {
+        if (offHeapStore == null) {
             return null;
         }
-        return (T) ifPresent.getIfPresent(key.getKey());
+        T value = offHeapStore.get(key);
+        if (value != null) {
+            putHeap(key, value, offHeapStore.ttl(key));
+        }
+        return value;
+    }
+
+    /**
+     * 遍历所有未过期的缓存项，用于生成快照
+     *
+     * @param consumer 缓存项的处理者
+     */
+    public void forEachEntry(EntryConsumer consumer) {
+        Set<String> keys = new HashSet<>(cacheMap.asMap().keySet());
+        if (offHeapStore != null) {
+            keys.addAll(offHeapStore.keys());
+        }
+        for (String key : keys) {
+            Cache<String, Object> cache = cacheMap.getIfPresent(key);
+            Object value = cache == null ? null : cache.getIfPresent(key);
+            Duration ttl;
+            if (value != null) {
+                ttl = cache.policy().expireAfterWrite().map(expiration -> {
+                    long age = expiration.ageOf(key, TimeUnit.MILLISECONDS).orElse(0L);
+                    return Duration.ofMillis(expiration.getExpiresAfter(TimeUnit.MILLISECONDS) - age);
+                }).orElse(null);
+            } else if (offHeapStore != null && (value = offHeapStore.get(key)) != null) {
+                ttl = offHeapStore.ttl(key);
+            } else {
+                continue;
+            }
+            if (ttl == null || !ttl.isNegative() && !ttl.isZero()) {
+                consumer.accept(key, value, ttl);
+            }
+        }
+    }
+
+    /**
+     * 恢复快照中的缓存项，已存在的 key 不会被覆盖
+     *
+     * @param key   key
+     * @param value 值
+     * @param ttl   剩余过期时间，为 null 时不过期
+     */
+    public void restore(String key, Object value, @Nullable Duration ttl) {
+        if (cacheMap.getIfPresent(key) != null || offHeapStore != null && offHeapStore.contains(key)) {
+            return;
+        }
+        set(new CacheKey(key, ttl), value);
+    }
+
+    /**
+     * 缓存项的处理者
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /**
+         * 处理缓存项
+         *
+         * @param key   key
+         * @param value 值
+         * @param ttl   剩余过期时间，为 null 时不过期
+         */
+        void accept(String key, Object value, @Nullable Duration ttl);
+    }
+
+    @Override
+    public void mSet(@NonNull Map<CacheKey, Object> map, boolean... cacheNullValues) {
+        map.forEach((key, value) -> set(tran(key), value, cacheNullValues));
+    }
+
+    @Override
+    public <T> T get(@NonNull CacheKey key, boolean... cacheNullValues) {
+        return get(key.getKey(), cacheNullValues);
     }
 
     @Override
     public <T> T get(String key, boolean... cacheNullValues) {
         Cache<String, Object> ifPresent = cacheMap.getIfPresent(key);
         if (ifPresent == null) {
-            return null;
+            return getOffHeap(key);
         }
-        return (T) ifPresent.getIfPresent(key);
+        T value = (T) ifPresent.getIfPresent(key);
+        return value != null ? value : getOffHeap(key);
     }
 
     @Override
@@ -93,6 +268,14 @@ public class CaffeineOpsImpl implements CacheOps, CachePlusOps {
 
     @Override
     public <T> T get(@NonNull CacheKey key, Function<CacheKey, ? extends T> loader, boolean... cacheNullValues) {
+        if (offHeapStore != null) {
+            T value = get(key);
+            if (value == null) {
+                value = loader.apply(key);
+                set(key, value);
+            }
+            return value;
+        }
         Cache<String, Object> cache = cacheMap.get(key.getKey(), (k) -> {
             Caffeine<Object, Object> builder = Caffeine.newBuilder()
                     .maximumSize(DEF_MAX_SIZE);
@@ -110,10 +293,16 @@ public class CaffeineOpsImpl implements CacheOps, CachePlusOps {
     @Override
     public void flushDb() {
         cacheMap.invalidateAll();
+        if (offHeapStore != null) {
+            offHeapStore.clear();
+        }
     }
 
     @Override
     public Boolean exists(@NonNull final CacheKey key) {
+        if (offHeapStore != null && offHeapStore.contains(key.getKey())) {
+            return true;
+        }
         Cache<String, Object> cache = cacheMap.getIfPresent(key.getKey());
         if (cache == null) {
             return false;
@@ -124,10 +313,7 @@ public class CaffeineOpsImpl implements CacheOps, CachePlusOps {
 
     @Override
     public Long incr(@NonNull CacheKey key) {
-        Long old = get(key, k -> 0L);
-        Long newVal = old + 1;
-        set(key, newVal);
-        return newVal;
+        return incrBy(key, 1L);
     }
 
     @Override
@@ -137,35 +323,52 @@ public class CaffeineOpsImpl implements CacheOps, CachePlusOps {
 
     @Override
     public Long incrBy(@NonNull CacheKey key, long increment) {
-        Long old = get(key, k -> 0L);
-        Long newVal = old + increment;
-        set(key, newVal);
-        return newVal;
+        return (Long) add(key, old -> (old == null ? 0L : ((Number) old).longValue()) + increment);
+    }
+
+    @Override
+    public void mIncrBy(@NonNull Map<CacheKey, Long> increments) {
+        increments.forEach(this::incrBy);
     }
 
     @Override
     public Double incrByFloat(@NonNull CacheKey key, double increment) {
-        Double old = get(key, k -> 0D);
-        Double newVal = old + increment;
-        set(key, newVal);
-        return newVal;
+        return (Double) add(key, old -> (old == null ? 0D : ((Number) old).doubleValue()) + increment);
     }
 
     @Override
     public Long decr(@NonNull CacheKey key) {
-        Long old = get(key, k -> 0L);
-        Long newVal = old - 1;
-        set(key, newVal);
-        return newVal;
+        return incrBy(key, -1L);
     }
 
     @Override
     public Long decrBy(@NonNull CacheKey key, long decrement) {
-        Long old = get(key, k -> 0L);
-        Long newVal = old - decrement;
-        set(key, newVal);
-        return newVal;
+        return incrBy(key, -decrement);
+    }
+
+    /**
+     * 计数器的读-改-写，通过 cacheMap 的 compute 保证同一个 key 的原子性，不同 key 互不阻塞
+     *
+     * @param key      缓存key
+     * @param operator 旧值(不存在时为 null) -> 新值
+     * @return 新值
+     */
+    private Object add(CacheKey key, Function<Object, Object> operator) {
+        Object[] result = new Object[1];
+        cacheMap.asMap().compute(key.getKey(), (k, cache) -> {
+            Object old = cache == null ? null : cache.getIfPresent(k);
+            if (old == null && offHeapStore != null) {
+                old = offHeapStore.get(k);
+            }
+            result[0] = operator.apply(old);
+            if (offHeapStore != null) {
+                offHeapStore.put(k, result[0], key.getExpire());
+            }
+            return newHeapCache(k, result[0], key.getExpire());
+        });
+        return result[0];
     }
+
     // ---- 以下接口可能有问题，仅支持在开发环境使用
 
     /**
@@ -182,9 +385,12 @@ public class CaffeineOpsImpl implements CacheOps, CachePlusOps {
         if (StrUtil.isEmpty(pattern)) {
             return Collections.emptySet();
         }
-        ConcurrentMap<String, Cache<String, Object>> map = cacheMap.asMap();
+        Set<String> allKeys = new HashSet<>(cacheMap.asMap().keySet());
+        if (offHeapStore != null) {
+            allKeys.addAll(offHeapStore.keys());
+        }
         Set<String> list = new HashSet<>();
-        map.forEach((k, val) -> {
+        allKeys.forEach(k -> {
             // *
             if (StrPool.ASTERISK.equals(pattern)) {
                 list.add(k);
@@ -269,14 +475,14 @@ public class CaffeineOpsImpl implements CacheOps, CachePlusOps {
     @Override
     public Long hDel(@NonNull String key, Object... fields) {
         for (Object field : fields) {
-            cacheMap.invalidate(StrUtil.join(StrUtil.COLON, key, field));
+            invalidate(StrUtil.join(StrUtil.COLON, key, field));
         }
         return (long) fields.length;
     }
 
     @Override
     public Long hDel(@NonNull CacheHashKey cacheHashKey) {
-        cacheMap.invalidate(cacheHashKey.tran().getKey());
+        invalidate(cacheHashKey.tran().getKey());
         return 1L;
     }
 
@@ -310,6 +516,11 @@ public class CaffeineOpsImpl implements CacheOps, CachePlusOps {
         return Collections.emptyMap();
     }
 
+    @Override
+    public List<Object> hmGet(@NonNull CacheHashKey key, @NonNull Collection<Object> fields) {
+        return fields.stream().map(field -> (Object) get(new CacheHashKey(key.getKey(), field).tran(), false)).collect(Collectors.toList());
+    }
+
     @Override
     public <K, V> Map<K, V> hGetAll(CacheHashKey key, Function<CacheHashKey, Map<K, V>> loader, boolean... cacheNullValues) {
         return Collections.emptyMap();
@@ -339,4 +550,171 @@ public class CaffeineOpsImpl implements CacheOps, CachePlusOps {
     public Long sCard(@NonNull CacheKey key) {
         return 0L;
     }
+
+    @Override
+    public boolean tryAcquire(@NonNull CacheKey key, @NonNull RateLimitAlgorithm algorithm, long limit, @NonNull Duration window, long permits) {
+        ArgumentAssert.isTrue(limit > 0 && permits > 0 && window.toMillis() > 0, "limit、permits、window 必须大于 0");
+        long now = System.currentTimeMillis();
+        long windowMillis = window.toMillis();
+        boolean[] allowed = {false};
+        // compute 对同一个 key 是原子的
+        structures.asMap().compute(key.getKey(), (k, old) -> {
+            RateLimitState state = old instanceof RateLimitState && ((RateLimitState) old).algorithm == algorithm
+                    ? (RateLimitState) old : RateLimitState.of(algorithm);
+            allowed[0] = state.tryAcquire(now, limit, windowMillis, permits);
+            state.expireNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis * 2);
+            return state;
+        });
+        return allowed[0];
+    }
+
+    @Override
+    public Double zIncrTopN(@NonNull CacheKey key, Object member, double increment, long maxSize) {
+        double[] score = {0};
+        structures.asMap().compute(key.getKey(), (k, old) -> {
+            TopN topN = old instanceof TopN ? (TopN) old : new TopN();
+            synchronized (topN) {
+                score[0] = topN.scores.merge(member, increment, Double::sum);
+                if (maxSize > 0 && topN.scores.size() > maxSize) {
+                    topN.scores.entrySet().stream().min(Map.Entry.comparingByValue())
+                            .ifPresent(min -> topN.scores.remove(min.getKey()));
+                }
+            }
+            topN.expireNanos = key.getExpire() == null ? Long.MAX_VALUE : key.getExpire().toNanos();
+            return topN;
+        });
+        return score[0];
+    }
+
+    @Override
+    public Map<Object, Double> zTopN(@NonNull CacheKey key, long n) {
+        LocalStructure structure = structures.getIfPresent(key.getKey());
+        Map<Object, Double> result = new LinkedHashMap<>();
+        if (structure instanceof TopN) {
+            synchronized (structure) {
+                ((TopN) structure).scores.entrySet().stream()
+                        .sorted(Map.Entry.<Object, Double>comparingByValue().reversed())
+                        .limit(n)
+                        .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+            }
+        }
+        return result;
+    }
+
+    private abstract static class LocalStructure {
+        /**
+         * 过期时间(纳秒)，每次写入后重新计算
+         */
+        long expireNanos = Long.MAX_VALUE;
+        /**
+         * 按过期时间淘汰的时刻(Caffeine 的 ticker 时间)
+         */
+        long deadline = Long.MAX_VALUE;
+    }
+
+    private static final class TopN extends LocalStructure {
+        private final Map<Object, Double> scores = new HashMap<>();
+    }
+
+    /**
+     * 与 redis 模式的 lua 脚本逻辑一致，调用方保证同一个 key 不会并发调用
+     */
+    private abstract static class RateLimitState extends LocalStructure {
+        private final RateLimitAlgorithm algorithm;
+
+        RateLimitState(RateLimitAlgorithm algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        static RateLimitState of(RateLimitAlgorithm algorithm) {
+            switch (algorithm) {
+                case SLIDING_LOG:
+                    return new SlidingLog();
+                case SLIDING_WINDOW:
+                    return new SlidingWindow();
+                default:
+                    return new TokenBucket();
+            }
+        }
+
+        abstract boolean tryAcquire(long now, long limit, long window, long permits);
+    }
+
+    private static final class SlidingLog extends RateLimitState {
+        private final Deque<Long> times = new ArrayDeque<>();
+
+        SlidingLog() {
+            super(RateLimitAlgorithm.SLIDING_LOG);
+        }
+
+        @Override
+        boolean tryAcquire(long now, long limit, long window, long permits) {
+            while (!times.isEmpty() && times.peekFirst() <= now - window) {
+                times.pollFirst();
+            }
+            if (times.size() + permits > limit) {
+                return false;
+            }
+            for (long i = 0; i < permits; i++) {
+                times.addLast(now);
+            }
+            return true;
+        }
+    }
+
+    private static final class SlidingWindow extends RateLimitState {
+        private long index;
+        private long current;
+        private long previous;
+
+        SlidingWindow() {
+            super(RateLimitAlgorithm.SLIDING_WINDOW);
+        }
+
+        @Override
+        boolean tryAcquire(long now, long limit, long window, long permits) {
+            long idx = now / window;
+            if (idx != index) {
+                previous = idx == index + 1 ? current : 0;
+                current = 0;
+                index = idx;
+            }
+            if ((double) previous * (window - (now - idx * window)) / window + current + permits > limit) {
+                return false;
+            }
+            current += permits;
+            return true;
+        }
+    }
+
+    private static final class TokenBucket extends RateLimitState {
+        private double tokens = -1;
+        private long timestamp;
+
+        TokenBucket() {
+            super(RateLimitAlgorithm.TOKEN_BUCKET);
+        }
+
+        @Override
+        boolean tryAcquire(long now, long limit, long window, long permits) {
+            if (tokens < 0) {
+                tokens = limit;
+                timestamp = now;
+            }
+            tokens = Math.min(limit, tokens + (double) Math.max(0, now - timestamp) * limit / window);
+            timestamp = now;
+            if (tokens < permits) {
+                return false;
+            }
+            tokens -= permits;
+            return true;
+        }
+    }
+
+    /**
+     * 分桶存放的 CacheHashKey 与 hSet 一样按 key:field 存放
+     */
+    private static CacheKey tran(CacheKey key) {
+        return CacheHashKey.isBucketField(key) ? ((CacheHashKey) key).tran() : key;
+    }
 }
@@ -3,6 +3,7 @@ package club.supreme.framework.cache.repository.impl;
 import club.supreme.framework.cache.redis.RedisOps;
 import club.supreme.framework.cache.repository.CacheOps;
 import club.supreme.framework.cache.repository.CachePlusOps;
+import club.supreme.framework.enums.cache.RateLimitAlgorithm;
 import club.supreme.framework.model.cache.CacheHashKey;
 import club.supreme.framework.model.cache.CacheKey;
 import lombok.extern.slf4j.Slf4j;
@@ -10,6 +11,7 @@ import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.lang.NonNull;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -52,6 +54,11 @@ public class RedisOpsImpl implements CacheOps, CachePlusOps {
         return redisOps.del(keys);
     }
 
+    @Override
+    public Long unlink(@NonNull Collection<CacheKey> keys) {
+        return redisOps.unlinkCacheKeys(keys);
+    }
+
     @Override
     public Boolean exists(@NonNull CacheKey key) {
         return redisOps.exists(key.getKey());
@@ -62,6 +69,12 @@ public class RedisOpsImpl implements CacheOps, CachePlusOps {
         redisOps.set(key, value, cacheNullValues);
     }
 
+    @Override
+    public void mSet(@NonNull Map<CacheKey, Object> map, boolean... cacheNullValues) {
+        boolean cacheNullVal = cacheNullValues.length > 0 ? cacheNullValues[0] : redisOps.isDefaultCacheNullVal();
+        redisOps.mSetCacheKeys(map, cacheNullVal);
+    }
+
     @Override
     public <T> T get(@NonNull CacheKey key, boolean... cacheNullValues) {
         return redisOps.get(key, cacheNullValues);
@@ -108,6 +121,11 @@ public class RedisOpsImpl implements CacheOps, CachePlusOps {
         return redisOps.incrBy(key, increment);
     }
 
+    @Override
+    public void mIncrBy(@NonNull Map<CacheKey, Long> increments) {
+        redisOps.mIncrBy(increments);
+    }
+
     @Override
     public Double incrByFloat(@NonNull CacheKey key, double increment) {
         return redisOps.incrByFloat(key, increment);
@@ -225,6 +243,11 @@ public class RedisOpsImpl implements CacheOps, CachePlusOps {
         return redisOps.hGetAll(key);
     }
 
+    @Override
+    public List<Object> hmGet(@NonNull CacheHashKey key, @NonNull Collection<Object> fields) {
+        return redisOps.hmGet(key, fields);
+    }
+
     @Override
     public <K, V> Map<K, V> hGetAll(@NonNull CacheHashKey key, Function<CacheHashKey, Map<K, V>> loader, boolean... cacheNullValues) {
         return redisOps.hGetAll(key, loader, cacheNullValues);
@@ -259,4 +282,19 @@ public class RedisOpsImpl implements CacheOps, CachePlusOps {
     public Long sCard(@NonNull CacheKey key) {
         return redisOps.sCard(key);
     }
+
+    @Override
+    public boolean tryAcquire(@NonNull CacheKey key, @NonNull RateLimitAlgorithm algorithm, long limit, @NonNull Duration window, long permits) {
+        return redisOps.tryAcquire(key, algorithm, limit, window, permits);
+    }
+
+    @Override
+    public Double zIncrTopN(@NonNull CacheKey key, Object member, double increment, long maxSize) {
+        return redisOps.zIncrTopN(key, member, increment, maxSize);
+    }
+
+    @Override
+    public Map<Object, Double> zTopN(@NonNull CacheKey key, long n) {
+        return redisOps.zTopN(key, n);
+    }
 }
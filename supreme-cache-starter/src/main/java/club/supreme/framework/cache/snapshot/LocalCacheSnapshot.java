@@ -0,0 +1,196 @@
+package club.supreme.framework.cache.snapshot;
+
+import club.supreme.framework.cache.repository.impl.CaffeineOpsImpl;
+import club.supreme.framework.props.SupremeCacheProperties;
+import cn.hutool.core.thread.NamedThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地缓存快照
+ * <p>
+ * 定期把 CaffeineOpsImpl 中未过期的缓存项顺序写入快照文件，启动时在后台线程中映射(mmap)快照文件并恢复未过期的缓存项，
+ * 节点重启后不需要从数据库重新加载全部缓存。
+ * <p>
+ * 文件格式：魔数(int) + 若干条记录，每条记录为 key 长度(int)、key(UTF-8)、过期时间戳(long，0 表示不过期)、值长度(int)、值(序列化后)
+ *
+ * @author supreme
+ */
+@Slf4j
+public class LocalCacheSnapshot implements InitializingBean, DisposableBean {
+
+    private static final int MAGIC = 0x53435331;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CaffeineOpsImpl caffeineOps;
+    private final RedisSerializer<Object> serializer;
+    private final SupremeCacheProperties.Snapshot properties;
+    private final Path path;
+    private final ScheduledExecutorService scheduler;
+    /**
+     * 恢复完成前不生成快照，避免用不完整的数据覆盖上一次的快照
+     */
+    private volatile boolean restored;
+
+    public LocalCacheSnapshot(CaffeineOpsImpl caffeineOps, RedisSerializer<Object> serializer, SupremeCacheProperties.Snapshot properties) {
+        this.caffeineOps = caffeineOps;
+        this.serializer = serializer;
+        this.properties = properties;
+        this.path = Paths.get(properties.getPath());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("supreme-cache-snapshot-", true));
+    }
+
+    /**
+     * 生成快照
+     * <p>
+     * 先写入临时文件，完成后再替换原文件，生成过程中崩溃不会破坏上一次的快照
+     */
+    public synchronized void snapshot() {
+        if (!restored) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        long[] count = {0};
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                buffer.putInt(MAGIC);
+                long now = System.currentTimeMillis();
+                IOException[] error = {null};
+                caffeineOps.forEachEntry((key, value, ttl) -> {
+                    if (error[0] != null) {
+                        return;
+                    }
+                    byte[] rawValue = serializer.serialize(value);
+                    if (rawValue == null) {
+                        return;
+                    }
+                    byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+                    int length = 4 + rawKey.length + 8 + 4 + rawValue.length;
+                    try {
+                        ByteBuffer target = buffer;
+                        if (buffer.remaining() < length) {
+                            flush(channel, buffer);
+                            if (buffer.remaining() < length) {
+                                target = ByteBuffer.allocate(length);
+                            }
+                        }
+                        target.putInt(rawKey.length).put(rawKey)
+                                .putLong(ttl == null ? 0 : now + ttl.toMillis())
+                                .putInt(rawValue.length).put(rawValue);
+                        if (target != buffer) {
+                            flush(channel, target);
+                        }
+                        count[0]++;
+                    } catch (IOException e) {
+                        error[0] = e;
+                    }
+                });
+                if (error[0] != null) {
+                    throw error[0];
+                }
+                flush(channel, buffer);
+                channel.force(false);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("缓存快照已保存, {} 条, 耗时 {}ms", count[0], System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("保存缓存快照失败: {}", path, e);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * 从快照恢复
+     * <p>
+     * 已过期的记录直接跳过；恢复期间新写入的 key 不会被快照中的旧值覆盖
+     */
+    public void restore() {
+        try {
+            doRestore();
+        } finally {
+            restored = true;
+        }
+    }
+
+    private void doRestore() {
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                log.warn("缓存快照超过 2GB，不恢复: {}", path);
+                return;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 4 || buffer.getInt() != MAGIC) {
+                log.warn("缓存快照格式不正确: {}", path);
+                return;
+            }
+            while (buffer.remaining() >= 4) {
+                byte[] rawKey = new byte[buffer.getInt()];
+                buffer.get(rawKey);
+                long expireAt = buffer.getLong();
+                int valueLength = buffer.getInt();
+                long ttl = expireAt - System.currentTimeMillis();
+                if (expireAt != 0 && ttl <= 0) {
+                    buffer.position(buffer.position() + valueLength);
+                    continue;
+                }
+                byte[] rawValue = new byte[valueLength];
+                buffer.get(rawValue);
+                Object value = serializer.deserialize(rawValue);
+                if (value != null) {
+                    caffeineOps.restore(new String(rawKey, StandardCharsets.UTF_8), value, expireAt == 0 ? null : Duration.ofMillis(ttl));
+                    count++;
+                }
+            }
+            log.info("已从缓存快照恢复 {} 条, 耗时 {}ms", count, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("从缓存快照恢复失败(已恢复 {} 条): {}", count, path, e);
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        scheduler.execute(this::restore);
+        long interval = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::snapshot, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        snapshot();
+    }
+}
@@ -0,0 +1,321 @@
+package club.supreme.framework.cache;
+
+import club.supreme.framework.cache.counter.CounterAggregator;
+import club.supreme.framework.cache.repository.CachePlusOps;
+import club.supreme.framework.enums.cache.RateLimitAlgorithm;
+import club.supreme.framework.model.cache.CacheHashKey;
+import club.supreme.framework.model.cache.CacheKey;
+import club.supreme.framework.model.cache.CacheKeyBuilder;
+import club.supreme.framework.props.SupremeCacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CacheOps、CachePlusOps 的行为约定，每种缓存实现都要通过
+ *
+ * @author supreme
+ */
+public abstract class AbstractCacheOpsContractTest {
+
+    private static final int THREADS = 16;
+
+    /**
+     * 被测试的缓存实现
+     */
+    protected abstract CachePlusOps cacheOps();
+
+    /**
+     * 清空缓存中的数据
+     */
+    protected abstract void reset();
+
+    @BeforeEach
+    void setUp() {
+        reset();
+    }
+
+    @Test
+    void setThenGet() {
+        CacheKey key = new CacheKey("contract:string", Duration.ofMinutes(1));
+        cacheOps().set(key, "value");
+
+        assertThat((String) cacheOps().get(key)).isEqualTo("value");
+        assertThat(cacheOps().exists(key)).isTrue();
+    }
+
+    @Test
+    void missingKeyReturnsNull() {
+        CacheKey key = new CacheKey("contract:missing");
+
+        assertThat((Object) cacheOps().get(key)).isNull();
+    }
+
+    @Test
+    void expiredKeyIsGone() throws InterruptedException {
+        CacheKey key = new CacheKey("contract:expire", Duration.ofMillis(200));
+        cacheOps().set(key, "value");
+        Thread.sleep(500);
+
+        assertThat((Object) cacheOps().get(key, false)).isNull();
+    }
+
+    @Test
+    void delAndUnlink() {
+        CacheKey first = new CacheKey("contract:del:1", Duration.ofMinutes(1));
+        CacheKey second = new CacheKey("contract:del:2", Duration.ofMinutes(1));
+        cacheOps().set(first, "1");
+        cacheOps().set(second, "2");
+
+        cacheOps().del(first);
+        cacheOps().unlink(Collections.singletonList(second));
+
+        assertThat((Object) cacheOps().get(first, false)).isNull();
+        assertThat((Object) cacheOps().get(second, false)).isNull();
+    }
+
+    @Test
+    void mSetThenFind() {
+        Map<CacheKey, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            values.put(new CacheKey("contract:mset:" + i, Duration.ofMinutes(1)), "v" + i);
+        }
+        cacheOps().mSet(values);
+
+        List<String> found = cacheOps().find(values.keySet());
+        assertThat(found).containsExactly("v0", "v1", "v2", "v3", "v4");
+    }
+
+    @Test
+    void loaderIsCalledOnlyOnMiss() {
+        CacheKey key = new CacheKey("contract:loader", Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        String first = cacheOps().get(key, k -> "loaded-" + loads.incrementAndGet());
+        String second = cacheOps().get(key, k -> "loaded-" + loads.incrementAndGet());
+
+        assertThat(first).isEqualTo("loaded-1");
+        assertThat(second).isEqualTo("loaded-1");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void counters() {
+        CacheKey key = new CacheKey("contract:counter", Duration.ofMinutes(1));
+
+        assertThat(cacheOps().incr(key)).isEqualTo(1L);
+        assertThat(cacheOps().incrBy(key, 10)).isEqualTo(11L);
+        assertThat(cacheOps().decr(key)).isEqualTo(10L);
+
+        Map<CacheKey, Long> increments = new LinkedHashMap<>();
+        increments.put(key, 5L);
+        cacheOps().mIncrBy(increments);
+        assertThat(cacheOps().getCounter(key, k -> 0L)).isEqualTo(15L);
+    }
+
+    @Test
+    void hashFields() {
+        CacheHashKey first = new CacheHashKey("contract:hash", "f1", Duration.ofMinutes(1));
+        CacheHashKey second = new CacheHashKey("contract:hash", "f2", Duration.ofMinutes(1));
+        cacheOps().hSet(first, "v1");
+        cacheOps().hSet(second, "v2");
+
+        assertThat((String) cacheOps().hGet(first)).isEqualTo("v1");
+        assertThat(cacheOps().hmGet(first, Arrays.<Object>asList("f1", "f2", "f3"))).containsExactly("v1", "v2", null);
+
+        cacheOps().hDel(first);
+        assertThat((Object) cacheOps().hGet(first, false)).isNull();
+    }
+
+    @Test
+    void builderKeysAreStoredAsPlainKeys() {
+        // CacheKeyBuilder.key() 返回带 field 的 CacheHashKey，批量命令仍要按普通 key 处理
+        CacheKeyBuilder builder = () -> "contract:builder";
+        CacheKey first = builder.key(1L);
+        CacheKey second = builder.key(2L);
+        Map<CacheKey, Object> values = new LinkedHashMap<>();
+        values.put(first, "v1");
+        values.put(second, "v2");
+        cacheOps().mSet(values);
+
+        assertThat(cacheOps().<String>find(Arrays.asList(first, second))).containsExactly("v1", "v2");
+        assertThat((String) cacheOps().get(new CacheKey(first.getKey()))).isEqualTo("v1");
+
+        cacheOps().unlink(Collections.singletonList(first));
+        assertThat((Object) cacheOps().get(first, false)).isNull();
+        assertThat((String) cacheOps().get(second)).isEqualTo("v2");
+    }
+
+    @Test
+    void bucketKeysAreHashFields() {
+        CacheHashKey first = new CacheHashKey("contract:bucket:0", "1", Duration.ofMinutes(1));
+        CacheHashKey second = new CacheHashKey("contract:bucket:0", "2", Duration.ofMinutes(1));
+        first.setBucket(true);
+        second.setBucket(true);
+        Map<CacheKey, Object> values = new LinkedHashMap<>();
+        values.put(first, "v1");
+        values.put(second, "v2");
+        cacheOps().mSet(values);
+
+        assertThat(cacheOps().hmGet(first, Arrays.<Object>asList("1", "2"))).containsExactly("v1", "v2");
+
+        cacheOps().unlink(Collections.singletonList(first));
+        assertThat((Object) cacheOps().hGet(first, false)).isNull();
+        assertThat((String) cacheOps().hGet(second)).isEqualTo("v2");
+    }
+
+    @ParameterizedTest
+    @EnumSource(RateLimitAlgorithm.class)
+    void rateLimiterAllowsExactlyLimit(RateLimitAlgorithm algorithm) {
+        CacheKey key = new CacheKey("contract:limit:" + algorithm);
+        int allowed = 0;
+        for (int i = 0; i < 20; i++) {
+            if (cacheOps().tryAcquire(key, algorithm, 10, Duration.ofHours(1))) {
+                allowed++;
+            }
+        }
+
+        assertThat(allowed).isEqualTo(10);
+    }
+
+    @Test
+    void topNKeepsHighestScores() {
+        CacheKey key = new CacheKey("contract:top", Duration.ofMinutes(1));
+        for (int i = 1; i <= 10; i++) {
+            cacheOps().zIncrTopN(key, "m" + i, i, 3);
+        }
+        cacheOps().zIncrTopN(key, "m10", 5, 3);
+
+        Map<Object, Double> top = cacheOps().zTopN(key, 3);
+        assertThat(top.keySet()).containsExactly("m10", "m9", "m8");
+        assertThat(top.get("m10")).isEqualTo(15D);
+    }
+
+    // ---- 并发下的一致性
+
+    @Test
+    void concurrentIncrIsLinearizable() throws Exception {
+        CacheKey key = new CacheKey("contract:concurrent:counter", Duration.ofMinutes(1));
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(THREADS, () -> {
+            for (int i = 0; i < 500; i++) {
+                // 每次返回的值都不同，说明没有两次自增读到同一个旧值
+                assertThat(seen.add(cacheOps().incr(key))).isTrue();
+            }
+        });
+
+        assertThat(cacheOps().getCounter(key, k -> 0L)).isEqualTo(THREADS * 500L);
+        assertThat(seen).hasSize(THREADS * 500);
+    }
+
+    @Test
+    void concurrentLoaderLoadsOnce() throws Exception {
+        CacheKey key = new CacheKey("contract:concurrent:loader", Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        Set<Object> results = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(THREADS, () -> results.add(cacheOps().get(key, k -> {
+            sleep(50);
+            return "loaded-" + loads.incrementAndGet();
+        })));
+
+        assertThat(loads).hasValue(1);
+        assertThat(results).containsExactly("loaded-1");
+    }
+
+    @ParameterizedTest
+    @EnumSource(RateLimitAlgorithm.class)
+    void concurrentRateLimiterNeverOverAdmits(RateLimitAlgorithm algorithm) throws Exception {
+        CacheKey key = new CacheKey("contract:concurrent:limit:" + algorithm);
+        AtomicInteger allowed = new AtomicInteger();
+
+        runConcurrently(THREADS, () -> {
+            for (int i = 0; i < 50; i++) {
+                if (cacheOps().tryAcquire(key, algorithm, 100, Duration.ofHours(1))) {
+                    allowed.incrementAndGet();
+                }
+            }
+        });
+
+        assertThat(allowed).hasValue(100);
+    }
+
+    @Test
+    void counterAggregatorLosesNoIncrements() throws Exception {
+        CacheKey key = new CacheKey("contract:concurrent:aggregated", Duration.ofMinutes(1));
+        SupremeCacheProperties.Counter properties = new SupremeCacheProperties.Counter();
+        properties.setFlushInterval(Duration.ofMillis(5));
+        CounterAggregator aggregator = new CounterAggregator(cacheOps(), properties);
+        try {
+            runConcurrently(THREADS, () -> {
+                for (int i = 0; i < 1000; i++) {
+                    aggregator.incr(key);
+                }
+            });
+            assertThat(aggregator.get(key)).isEqualTo(THREADS * 1000L);
+        } finally {
+            aggregator.destroy();
+        }
+        assertThat(cacheOps().getCounter(key, k -> 0L)).isEqualTo(THREADS * 1000L);
+    }
+
+    /**
+     * 多个线程同时开始执行 task，任一线程的异常(包括断言失败)都会抛出
+     */
+    protected static void runConcurrently(int threads, Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                try {
+                    future.get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
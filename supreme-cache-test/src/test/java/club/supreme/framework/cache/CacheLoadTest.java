@@ -0,0 +1,115 @@
+package club.supreme.framework.cache;
+
+import club.supreme.framework.cache.repository.CachePlusOps;
+import club.supreme.framework.cache.repository.impl.CaffeineOpsImpl;
+import club.supreme.framework.cache.repository.impl.RedisOpsImpl;
+import club.supreme.framework.cache.support.LatencyRecorder;
+import club.supreme.framework.cache.support.RedisStandIn;
+import club.supreme.framework.enums.cache.RateLimitAlgorithm;
+import club.supreme.framework.model.cache.CacheKey;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+/**
+ * 缓存压测：按操作分别统计吞吐量和耗时分位数
+ * <p>
+ * 默认不执行，运行方式：mvn test -pl supreme-cache-test -am -Dgroups=load -Dsurefire.excludedGroups=
+ * <p>
+ * 可选参数：-Dcache.load.threads=8 -Dcache.load.seconds=5 -Dcache.load.keys=10000
+ * <p>
+ * redis 替身与真实 redis 的性能差别很大，redis 的结果只适合同一台机器上前后对比，不代表线上的绝对值
+ *
+ * @author supreme
+ */
+@Slf4j
+@Tag("load")
+class CacheLoadTest {
+
+    private static final int THREADS = Integer.getInteger("cache.load.threads", 8);
+    private static final int SECONDS = Integer.getInteger("cache.load.seconds", 5);
+    private static final int KEYS = Integer.getInteger("cache.load.keys", 10000);
+    private static final Duration EXPIRE = Duration.ofMinutes(10);
+
+    @Test
+    void caffeine() throws Exception {
+        run("caffeine", new CaffeineOpsImpl());
+    }
+
+    @Test
+    void redis() throws Exception {
+        try (RedisStandIn redis = new RedisStandIn()) {
+            run("redis", new RedisOpsImpl(redis.getRedisOps()));
+        }
+    }
+
+    private void run(String backend, CachePlusOps cacheOps) throws Exception {
+        Map<String, IntConsumer> operations = new LinkedHashMap<>();
+        operations.put("set", i -> cacheOps.set(key(i), "value-" + i));
+        operations.put("get", i -> cacheOps.get(key(i)));
+        operations.put("loader", i -> cacheOps.get(key(i), k -> "loaded-" + i));
+        operations.put("find", i -> {
+            List<CacheKey> keys = new ArrayList<>(20);
+            for (int j = 0; j < 20; j++) {
+                keys.add(key(i + j));
+            }
+            cacheOps.find(keys);
+        });
+        operations.put("incr", i -> cacheOps.incr(new CacheKey("load:counter:" + (i % 100), EXPIRE)));
+        operations.put("limiter", i -> cacheOps.tryAcquire(new CacheKey("load:limit:" + (i % 100)), RateLimitAlgorithm.TOKEN_BUCKET, 1000, Duration.ofSeconds(1)));
+
+        log.info("==== {}: {} 个线程, 每个操作 {} 秒, {} 个 key", backend, THREADS, SECONDS, KEYS);
+        for (Map.Entry<String, IntConsumer> operation : operations.entrySet()) {
+            long start = System.currentTimeMillis();
+            LatencyRecorder recorder = measure(operation.getValue());
+            log.info("{} {}", backend, recorder.report(operation.getKey(), System.currentTimeMillis() - start));
+        }
+    }
+
+    private static CacheKey key(int i) {
+        return new CacheKey("load:key:" + (i % KEYS), EXPIRE);
+    }
+
+    private static LatencyRecorder measure(IntConsumer operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + Duration.ofSeconds(SECONDS).toNanos();
+        try {
+            List<Future<LatencyRecorder>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    LatencyRecorder recorder = new LatencyRecorder();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    start.await();
+                    while (System.nanoTime() < deadline) {
+                        int i = random.nextInt(KEYS);
+                        long begin = System.nanoTime();
+                        operation.accept(i);
+                        recorder.record(System.nanoTime() - begin);
+                    }
+                    return recorder;
+                }));
+            }
+            start.countDown();
+            LatencyRecorder total = new LatencyRecorder();
+            for (Future<LatencyRecorder> future : futures) {
+                total.merge(future.get());
+            }
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
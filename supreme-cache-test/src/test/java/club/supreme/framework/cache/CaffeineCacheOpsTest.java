@@ -0,0 +1,49 @@
+package club.supreme.framework.cache;
+
+import club.supreme.framework.cache.offheap.OffHeapStore;
+import club.supreme.framework.cache.repository.CachePlusOps;
+import club.supreme.framework.cache.repository.impl.CaffeineOpsImpl;
+import club.supreme.framework.model.cache.CacheHashKey;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CaffeineOpsImpl 的行为约定
+ *
+ * @author supreme
+ */
+class CaffeineCacheOpsTest extends AbstractCacheOpsContractTest {
+
+    private final CaffeineOpsImpl cacheOps = new CaffeineOpsImpl();
+
+    @Override
+    protected CachePlusOps cacheOps() {
+        return cacheOps;
+    }
+
+    @Override
+    protected void reset() {
+        cacheOps.flushDb();
+    }
+
+    @Test
+    void deletedHashFieldsAreNotRestoredFromOffHeap() {
+        CaffeineOpsImpl offHeapOps = new CaffeineOpsImpl(new OffHeapStore(1 << 20, 64 << 10, new JdkSerializationRedisSerializer()));
+        CacheHashKey first = new CacheHashKey("contract:offheap:bucket:0", "1", Duration.ofMinutes(1));
+        CacheHashKey second = new CacheHashKey("contract:offheap:bucket:0", "2", Duration.ofMinutes(1));
+        offHeapOps.hSet(first, "v1");
+        offHeapOps.hSet(second, "v2");
+        assertThat((String) offHeapOps.hGet(first)).isEqualTo("v1");
+
+        // 一级缓存未命中时会从堆外缓存读取，删除必须同时删除堆外的数据
+        offHeapOps.hDel(first);
+        offHeapOps.hDel(second.getKey(), second.getField());
+
+        assertThat((Object) offHeapOps.hGet(first, false)).isNull();
+        assertThat((Object) offHeapOps.hGet(second, false)).isNull();
+    }
+}
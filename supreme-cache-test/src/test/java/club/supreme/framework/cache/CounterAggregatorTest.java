@@ -0,0 +1,101 @@
+package club.supreme.framework.cache;
+
+import club.supreme.framework.cache.counter.CounterAggregator;
+import club.supreme.framework.cache.repository.impl.CaffeineOpsImpl;
+import club.supreme.framework.model.cache.CacheKey;
+import club.supreme.framework.props.SupremeCacheProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CounterAggregator 的合并写入
+ *
+ * @author supreme
+ */
+class CounterAggregatorTest {
+
+    private final RecordingOps cacheOps = new RecordingOps();
+    private final CounterAggregator aggregator = new CounterAggregator(cacheOps, properties());
+
+    private static SupremeCacheProperties.Counter properties() {
+        SupremeCacheProperties.Counter counter = new SupremeCacheProperties.Counter();
+        // 只由测试调用 flush
+        counter.setFlushInterval(Duration.ofHours(1));
+        counter.setMaxPendingKeys(Integer.MAX_VALUE);
+        return counter;
+    }
+
+    @AfterEach
+    void tearDown() {
+        aggregator.destroy();
+    }
+
+    @Test
+    void failedBatchIsRequeuedAlone() {
+        for (int i = 0; i < 1500; i++) {
+            aggregator.incrBy(new CacheKey("counter:" + i), i + 1);
+        }
+        cacheOps.failures.set(1);
+
+        aggregator.flush();
+        assertThat(cacheOps.totals).hasSize(500);
+
+        aggregator.flush();
+        assertThat(cacheOps.totals).hasSize(1500);
+        for (int i = 0; i < 1500; i++) {
+            assertThat(cacheOps.totals.get("counter:" + i).get()).isEqualTo(i + 1);
+        }
+    }
+
+    @Test
+    void concurrentIncrementsSurviveFlushes() throws InterruptedException {
+        int threads = 8;
+        int perThread = 20000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    aggregator.incr(new CacheKey("counter:" + (i % 16)));
+                }
+                done.countDown();
+            });
+        }
+        while (!done.await(1, TimeUnit.MILLISECONDS)) {
+            aggregator.flush();
+        }
+        pool.shutdown();
+        aggregator.flush();
+
+        long total = cacheOps.totals.values().stream().mapToLong(AtomicLong::get).sum();
+        assertThat(total).isEqualTo((long) threads * perThread);
+    }
+
+    /**
+     * 记录每个 key 写入的增量，前 failures 次 mIncrBy 失败
+     */
+    private static final class RecordingOps extends CaffeineOpsImpl {
+        private final Map<String, AtomicLong> totals = new ConcurrentHashMap<>();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        @Override
+        public void mIncrBy(Map<CacheKey, Long> increments) {
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("mIncrBy failed");
+            }
+            increments.forEach((key, delta) -> totals.computeIfAbsent(key.getKey(), k -> new AtomicLong()).addAndGet(delta));
+        }
+    }
+}
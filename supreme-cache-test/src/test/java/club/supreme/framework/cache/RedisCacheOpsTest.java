@@ -0,0 +1,119 @@
+package club.supreme.framework.cache;
+
+import club.supreme.framework.cache.redis.RedisOps;
+import club.supreme.framework.cache.redis.serializer.NullValRedisSerializer;
+import club.supreme.framework.cache.repository.CachePlusOps;
+import club.supreme.framework.cache.repository.impl.RedisOpsImpl;
+import club.supreme.framework.cache.support.RedisStandIn;
+import club.supreme.framework.model.cache.CacheKey;
+import club.supreme.framework.model.cache.CacheKeyBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisCallback;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * RedisOpsImpl 的行为约定，连接进程内的 redis 替身
+ *
+ * @author supreme
+ */
+class RedisCacheOpsTest extends AbstractCacheOpsContractTest {
+
+    private static RedisStandIn redis;
+    private static RedisOpsImpl cacheOps;
+
+    @BeforeAll
+    static void startRedis() {
+        redis = new RedisStandIn();
+        cacheOps = new RedisOpsImpl(redis.getRedisOps());
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        redis.close();
+    }
+
+    @Override
+    protected CachePlusOps cacheOps() {
+        return cacheOps;
+    }
+
+    @Override
+    protected void reset() {
+        redis.flushAll();
+    }
+
+    @Test
+    void coalescedReadReentersOnSameThread() {
+        redis.getRedisOps().setCoalesceReads(true);
+        try {
+            CacheKey key = new CacheKey("coalesce:reentrant");
+            String value = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> cacheOps.get(key, k -> cacheOps.get(key, k2 -> "inner") + ":outer"));
+
+            assertThat(value).isEqualTo("inner:outer");
+        } finally {
+            redis.getRedisOps().setCoalesceReads(false);
+        }
+    }
+
+    @Test
+    void getSetNullWritesExpiringTombstone() {
+        RedisOps redisOps = redis.getRedisOps();
+        redisOps.set("getset:null", "old");
+
+        assertThat((String) redisOps.getSet("getset:null", null)).isEqualTo("old");
+        assertThat((Object) redisOps.get("getset:null")).isNull();
+        assertThat(redisOps.pTtl("getset:null")).isPositive();
+    }
+
+    @Test
+    void builderKeyIsRedisString() {
+        CacheKeyBuilder builder = () -> "plain";
+        CacheKey key = builder.key(1L);
+        cacheOps.mSet(Collections.singletonMap(key, "value"));
+
+        assertThat(cacheOps.type(key)).isEqualTo("string");
+        assertThat((String) redis.getRedisOps().get(key.getKey())).isEqualTo("value");
+    }
+
+    @Test
+    void nullValIsSingleByteTombstoneWithShortExpire() {
+        RedisOps redisOps = redis.getRedisOps();
+        CacheKeyBuilder builder = new CacheKeyBuilder() {
+            @Override
+            public String getPrefix() {
+                return "tombstone";
+            }
+
+            @Override
+            public Duration getExpire() {
+                return Duration.ofDays(1);
+            }
+
+            @Override
+            public Duration getNullExpire() {
+                return Duration.ofSeconds(30);
+            }
+        };
+        CacheKey key = builder.key(1L);
+        long hits = redisOps.getNullValHits();
+        long writes = redisOps.getNullValWrites();
+
+        assertThat((Object) redisOps.get(key, k -> null)).isNull();
+        assertThat((Object) redisOps.get(key, k -> "loaded")).isNull();
+
+        byte[] raw = redisOps.getRedisTemplate().execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(key.getKey().getBytes()), true);
+        assertThat(NullValRedisSerializer.isTombstone(raw)).isTrue();
+        assertThat(redisOps.ttl(key.getKey())).isBetween(1L, 30L);
+        assertThat(redisOps.getNullValWrites() - writes).isEqualTo(1);
+        assertThat(redisOps.getNullValHits() - hits).isEqualTo(1);
+    }
+}
@@ -0,0 +1,212 @@
+package club.supreme.framework.cache;
+
+import club.supreme.framework.cache.repository.impl.RedisOpsImpl;
+import club.supreme.framework.cache.support.RedisStandIn;
+import club.supreme.framework.context.TenantContext;
+import club.supreme.framework.context.TenantContextHolder;
+import club.supreme.framework.crud.datasource.ReadWriteRoutingDataSource;
+import club.supreme.framework.crud.datasource.ReplicaDataSource;
+import club.supreme.framework.crud.mapper.SupremeBaseMapper;
+import club.supreme.framework.crud.service.impl.SupremeCacheServiceImpl;
+import club.supreme.framework.enums.crud.ReplicaBalanceEnumI;
+import club.supreme.framework.model.SupremeBaseEntity;
+import club.supreme.framework.model.cache.CacheKeyBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Serializable;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * SupremeCacheServiceImpl 通过 CacheKeyBuilder.key(id) 读写 redis 替身的行为
+ *
+ * @author supreme
+ */
+class SupremeCacheServiceTest {
+
+    private static final long TENANT = 1L;
+
+    private static RedisStandIn redis;
+    private static RedisOpsImpl cacheOps;
+
+    private final DictMapper mapper = mock(DictMapper.class);
+
+    @BeforeAll
+    static void startRedis() {
+        redis = new RedisStandIn();
+        cacheOps = new RedisOpsImpl(redis.getRedisOps());
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        redis.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis.flushAll();
+        TenantContextHolder.setTenantContext(new TenantContext().setTenantId(TENANT));
+        when(mapper.selectById(1L)).thenReturn(dict(1L));
+        when(mapper.selectBatchIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<? extends Serializable> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> dict((Long) id)).collect(Collectors.toList());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.setTenantContext(null);
+    }
+
+    @Test
+    void getByIdCacheStoresPlainString() {
+        DictService service = new DictService(mapper, 0);
+
+        assertThat(service.getByIdCache(1L).getName()).isEqualTo("dict-1");
+        assertThat(service.getByIdCache(1L).getName()).isEqualTo("dict-1");
+
+        verify(mapper, times(1)).selectById(1L);
+        assertThat(cacheOps.type(new DictKeyBuilder().key(1L))).isEqualTo("string");
+    }
+
+    @Test
+    void findByIdsHitsEntriesWrittenByGetByIdCache() {
+        DictService service = new DictService(mapper, 0);
+        service.getByIdCache(1L);
+
+        List<Dict> first = service.findByIds(Arrays.asList(1L, 2L), null);
+        List<Dict> second = service.findByIds(Arrays.asList(1L, 2L), null);
+
+        assertThat(first).extracting(Dict::getName).containsExactlyInAnyOrder("dict-1", "dict-2");
+        assertThat(second).extracting(Dict::getName).containsExactly("dict-1", "dict-2");
+        verify(mapper, times(1)).selectBatchIds(Collections.singleton(2L));
+    }
+
+    @Test
+    void evictCacheReloadsFromMapper() {
+        DictService service = new DictService(mapper, 0);
+        service.getByIdCache(1L);
+
+        service.evictCache(Collections.singletonList(1L));
+        service.getByIdCache(1L);
+
+        verify(mapper, times(2)).selectById(1L);
+    }
+
+    @Test
+    void bucketedEntitiesShareHashes() {
+        DictService service = new DictService(mapper, 4);
+        service.getByIdCache(1L);
+
+        List<Dict> found = service.findByIds(Arrays.asList(1L, 2L), null);
+
+        assertThat(found).extracting(Dict::getName).containsExactlyInAnyOrder("dict-1", "dict-2");
+        assertThat(redis.getRedisOps().type(TENANT + ":dict:bucket:1")).isEqualTo("hash");
+        assertThat(service.findByIds(Arrays.asList(1L, 2L), null)).hasSize(2);
+        verify(mapper, times(1)).selectBatchIds(anyCollection());
+    }
+
+    @Test
+    void readsInReplicaTransactionAreNotCached() throws Exception {
+        DictService service = new DictService(mapper, 0);
+        DataSource replica = mock(DataSource.class);
+        // 定时检查也使用这个连接，需要通过检查
+        Connection connection = mock(Connection.class, RETURNS_DEEP_STUBS);
+        when(connection.getMetaData().getURL()).thenReturn("jdbc:h2:mem:replica");
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(replica.getConnection()).thenReturn(connection);
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(mock(DataSource.class),
+                Collections.singletonList(new ReplicaDataSource("r1", 1, replica)), ReplicaBalanceEnumI.WEIGHTED,
+                Duration.ofSeconds(5), Duration.ofHours(1));
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            // 只读事务的第一条查询拿到了从库连接
+            routing.getConnection();
+
+            service.getByIdCache(1L);
+            service.findByIds(Collections.singletonList(2L), null);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            routing.destroy();
+        }
+
+        assertThat(cacheOps.get(new DictKeyBuilder().key(1L))).isNull();
+        assertThat(cacheOps.get(new DictKeyBuilder().key(2L))).isNull();
+    }
+
+    private static Dict dict(Long id) {
+        Dict dict = new Dict();
+        dict.setId(id);
+        dict.setName("dict-" + id);
+        return dict;
+    }
+
+    public static class Dict extends SupremeBaseEntity<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public interface DictMapper extends SupremeBaseMapper<Dict> {
+    }
+
+    private static class DictKeyBuilder implements CacheKeyBuilder {
+        @Override
+        public String getPrefix() {
+            return "dict";
+        }
+    }
+
+    private static class DictService extends SupremeCacheServiceImpl<DictMapper, Dict> {
+        private final int buckets;
+
+        DictService(DictMapper mapper, int buckets) {
+            this.baseMapper = mapper;
+            this.cacheOps = SupremeCacheServiceTest.cacheOps;
+            this.cachePlusOps = SupremeCacheServiceTest.cacheOps;
+            this.buckets = buckets;
+        }
+
+        @Override
+        protected CacheKeyBuilder cacheKeyBuilder() {
+            return new DictKeyBuilder();
+        }
+
+        @Override
+        protected int cacheHashBuckets() {
+            return buckets;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package club.supreme.framework.cache.support;
+
+import java.util.Arrays;
+
+/**
+ * 记录一个操作的每次耗时，计算吞吐量和分位数
+ * <p>
+ * 每个线程使用自己的实例，结束后通过 merge 合并，记录时不加锁
+ *
+ * @author supreme
+ */
+public class LatencyRecorder {
+
+    private long[] nanos = new long[1024];
+    private int size;
+
+    public void record(long elapsedNanos) {
+        if (size == nanos.length) {
+            nanos = Arrays.copyOf(nanos, size * 2);
+        }
+        nanos[size++] = elapsedNanos;
+    }
+
+    public void merge(LatencyRecorder other) {
+        for (int i = 0; i < other.size; i++) {
+            record(other.nanos[i]);
+        }
+    }
+
+    public int count() {
+        return size;
+    }
+
+    /**
+     * 分位数(微秒)
+     *
+     * @param percentile 0 ~ 100
+     */
+    public double percentileMicros(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(nanos, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * size) - 1;
+        return sorted[Math.max(0, Math.min(index, size - 1))] / 1000.0;
+    }
+
+    /**
+     * 一行报告：操作、次数、吞吐量、p50/p90/p99/p99.9/max
+     *
+     * @param operation     操作名
+     * @param elapsedMillis 总耗时
+     */
+    public String report(String operation, long elapsedMillis) {
+        return String.format("%-10s %9d ops %11.0f ops/s   p50 %8.1fus  p90 %8.1fus  p99 %8.1fus  p99.9 %8.1fus  max %9.1fus",
+                operation, size, size * 1000.0 / Math.max(1, elapsedMillis),
+                percentileMicros(50), percentileMicros(90), percentileMicros(99), percentileMicros(99.9), percentileMicros(100));
+    }
+}
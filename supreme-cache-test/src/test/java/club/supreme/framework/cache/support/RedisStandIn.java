@@ -0,0 +1,76 @@
+package club.supreme.framework.cache.support;
+
+import club.supreme.framework.cache.redis.RedisOps;
+import club.supreme.framework.cache.redis.serializer.NullValRedisSerializer;
+import club.supreme.framework.cache.redis.serializer.RedisObjectSerializer;
+import com.github.fppt.jedismock.RedisServer;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * 进程内的 redis 替身
+ * <p>
+ * 基于 jedis-mock 在随机端口启动一个兼容 RESP 协议的服务端，RedisOps 通过 lettuce 正常连接，序列化方式与 RedisAutoConfigure 一致
+ *
+ * @author supreme
+ */
+public class RedisStandIn implements AutoCloseable {
+
+    private final RedisServer server;
+    private final LettuceConnectionFactory connectionFactory;
+    private final RedisOps redisOps;
+
+    public RedisStandIn() {
+        try {
+            server = RedisServer.newRedisServer();
+            server.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(server.getHost(), server.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+
+        NullValRedisSerializer valueSerializer = new NullValRedisSerializer(new RedisObjectSerializer());
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setKeySerializer(StringRedisSerializer.UTF_8);
+        redisTemplate.setHashKeySerializer(StringRedisSerializer.UTF_8);
+        redisTemplate.setValueSerializer(valueSerializer);
+        redisTemplate.setHashValueSerializer(valueSerializer);
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+
+        StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+        redisOps = new RedisOps(redisTemplate, stringRedisTemplate, true);
+    }
+
+    public RedisOps getRedisOps() {
+        return redisOps;
+    }
+
+    /**
+     * 清空所有数据，每个测试用例开始前调用
+     */
+    public void flushAll() {
+        redisOps.getRedisTemplate().execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+    }
+
+    @Override
+    public void close() {
+        connectionFactory.destroy();
+        try {
+            server.stop();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package club.supreme.framework.enums.cache;
+
+/**
+ * 缓存预热策略
+ *
+ * @author supreme
+ */
+public enum CacheWarmUpStrategy {
+    /**
+     * 不预热
+     */
+    NONE,
+    /**
+     * 按排序字段倒序加载最近的 N 条数据
+     */
+    RECENT_TOP_N,
+    /**
+     * 通过游标流式加载全表数据
+     */
+    FULL_TABLE,
+    /**
+     * 加载上次运行时记录的热点 key
+     */
+    HOT_KEY_SNAPSHOT,
+    ;
+}
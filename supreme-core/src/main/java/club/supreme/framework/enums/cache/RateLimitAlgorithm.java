@@ -0,0 +1,22 @@
+package club.supreme.framework.enums.cache;
+
+/**
+ * 限流算法
+ *
+ * @author supreme
+ */
+public enum RateLimitAlgorithm {
+    /**
+     * 滑动日志：记录窗口内每一次请求的时间，精确但占用的内存与 limit 成正比
+     */
+    SLIDING_LOG,
+    /**
+     * 滑动窗口计数：按上一个窗口的计数加权估算，只保存两个计数
+     */
+    SLIDING_WINDOW,
+    /**
+     * 令牌桶：容量为 limit，每个窗口匀速补充 limit 个令牌，允许突发
+     */
+    TOKEN_BUCKET,
+    ;
+}
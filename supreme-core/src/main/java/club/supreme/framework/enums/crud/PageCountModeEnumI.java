@@ -0,0 +1,29 @@
+package club.supreme.framework.enums.crud;
+
+
+import club.supreme.framework.enums.ISupremeBaseEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 分页查询总数的方式枚举类
+ * @author supreme
+ */
+@AllArgsConstructor
+@Getter
+public enum PageCountModeEnumI implements ISupremeBaseEnum<Integer> {
+
+    EXACT(1, "精确(每次执行 COUNT 查询)"),
+
+    NONE(2, "不查询总数(多查询一条判断是否有下一页, total 为已知的最少条数)"),
+
+    ASYNC(3, "精确(COUNT 查询与数据查询在不同连接上并发执行)"),
+
+    CACHED(4, "缓存(按表、租户和查询条件缓存 COUNT 结果, 表有写入或过期后重新查询)"),
+
+    ESTIMATE(5, "估算(服务端允许的表没有查询条件时使用数据库的统计信息, 否则同 CACHED)");
+
+    private final Integer value;
+    private final String label;
+
+}
@@ -0,0 +1,23 @@
+package club.supreme.framework.enums.crud;
+
+
+import club.supreme.framework.enums.ISupremeBaseEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 读写分离从库负载均衡策略枚举类
+ * @author supreme
+ */
+@AllArgsConstructor
+@Getter
+public enum ReplicaBalanceEnumI implements ISupremeBaseEnum<Integer> {
+
+    WEIGHTED(1, "按权重随机"),
+
+    LEAST_CONNECTIONS(2, "最少活动连接");
+
+    private final Integer value;
+    private final String label;
+
+}
@@ -27,6 +27,11 @@ public class CacheHashKey extends CacheKey {
      */
     @NonNull
     private Object field;
+    /**
+     * 是否为分桶存放的缓存项：为 true 时 mSet、unlink 等批量命令按 hash 的 field 写入和删除；
+     * CacheKeyBuilder.key() 构建的 key 虽然也带有 field，仍按普通 key 存取
+     */
+    private boolean bucket;
 
     public CacheHashKey(@NonNull String key, final @NonNull Object field) {
         super(key);
@@ -38,7 +43,20 @@ public class CacheHashKey extends CacheKey {
         this.field = field;
     }
 
+    /**
+     * 是否按 hash 的 field 写入和删除
+     *
+     * @param key 缓存 key
+     * @return 分桶存放的 CacheHashKey 返回 true
+     */
+    public static boolean isBucketField(CacheKey key) {
+        return key instanceof CacheHashKey && ((CacheHashKey) key).isBucket() && ((CacheHashKey) key).getField() != null;
+    }
+
     public CacheKey tran() {
-        return new CacheKey(StrUtil.join(COLON, getKey(), getField()), getExpire());
+        CacheKey cacheKey = new CacheKey(StrUtil.join(COLON, getKey(), getField()), getExpire());
+        cacheKey.setReadFromMaster(isReadFromMaster());
+        cacheKey.setNullExpire(getNullExpire());
+        return cacheKey;
     }
 }
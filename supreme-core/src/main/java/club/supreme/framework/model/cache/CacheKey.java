@@ -1,6 +1,5 @@
 package club.supreme.framework.model.cache;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.lang.NonNull;
@@ -13,7 +12,6 @@ import java.time.Duration;
  * @author supreme
  */
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 public class CacheKey {
     /**
@@ -25,10 +23,22 @@ public class CacheKey {
      * 超时时间 秒
      */
     private Duration expire;
+    /**
+     * 空值(墓碑)的超时时间，为空时使用全局配置 cache.nullValExpire
+     */
+    private Duration nullExpire;
+    /**
+     * 开启 redis 读写分离时，是否仍然从主节点读取(需要读己之写的 key)
+     */
+    private boolean readFromMaster;
 
     public CacheKey(final @NonNull String key) {
         this.key = key;
     }
 
+    public CacheKey(final @NonNull String key, final Duration expire) {
+        this.key = key;
+        this.expire = expire;
+    }
 
 }
@@ -57,12 +57,52 @@ public interface CacheKeyBuilder {
         return null;
     }
 
+    /**
+     * 空值(墓碑)的超时时间
+     * <p>
+     * 数据不存在时缓存的空值用于防止缓存穿透，过期时间应远小于正常值，数据新增后最迟在该时间后可以读到。
+     * 为空时使用全局配置 cache.nullValExpire；hash 的 field 没有独立的过期时间，对 hash field 无效
+     *
+     * @return 空值的超时时间
+     */
+    @Nullable
+    default Duration getNullExpire() {
+        return null;
+    }
+
+    /**
+     * 是否使用 hash tag
+     * <p>
+     * 开启后 key 的格式为 {租户:前缀}:参数， Redis Cluster 只对 {} 中的内容计算 slot，
+     * 同一租户同一前缀的 key 会落在同一个 slot 上，MGET、DEL 等批量命令可以一次发往同一个节点。
+     * 注意：同一前缀的 key 会集中在同一个节点，数据量大的前缀请谨慎开启
+     *
+     * @return 是否使用 hash tag
+     */
+    default boolean isHashTag() {
+        return false;
+    }
+
+    /**
+     * 开启 redis 读写分离时，是否仍然从主节点读取
+     * <p>
+     * 写入后需要立即读到最新值(读己之写)的 key 返回 true，避免读到副本上复制延迟的旧值
+     *
+     * @return 是否从主节点读取
+     */
+    default boolean isReadFromMaster() {
+        return false;
+    }
+
     /**
      * 获取通配符
      *
      * @return key 前缀
      */
     default String getPattern() {
+        if (isHashTag()) {
+            return StrPool.DELIM_START + StrPool.STAR + COLON + getPrefix() + StrPool.DELIM_END + COLON + StrPool.STAR;
+        }
         return StrUtil.format("*:{}:*", getPrefix());
     }
 
@@ -80,12 +120,15 @@ public interface CacheKeyBuilder {
 
         List<String> regionList = new ArrayList<>();
         tenant = StrUtil.isEmpty(tenant) ? StrPool.STAR : tenant;
-        // 企业id
-        if (StrUtil.isNotEmpty(tenant)) {
+        if (isHashTag()) {
+            // {企业id:缓存前缀}
+            regionList.add(hashTag(tenant, prefix));
+        } else {
+            // 企业id
             regionList.add(tenant);
+            // 缓存前缀
+            regionList.add(prefix);
         }
-        // 缓存前缀
-        regionList.add(prefix);
 
         for (Object s : suffix) {
             regionList.add(ObjectUtil.isNotEmpty(s) ? String.valueOf(s) : StrPool.STAR);
@@ -117,7 +160,10 @@ public interface CacheKeyBuilder {
 
         ArgumentAssert.notEmpty(key, "key 不能为空");
         ArgumentAssert.notNull(field, "field 不能为空");
-        return new CacheHashKey(key, field, getExpire());
+        CacheHashKey cacheHashKey = new CacheHashKey(key, field, getExpire());
+        cacheHashKey.setReadFromMaster(isReadFromMaster());
+        cacheHashKey.setNullExpire(getNullExpire());
+        return cacheHashKey;
     }
 
     /**
@@ -130,7 +176,10 @@ public interface CacheKeyBuilder {
         String key = getKey(suffix);
 
         ArgumentAssert.notEmpty(key, "key 不能为空");
-        return new CacheHashKey(key, null, getExpire());
+        CacheHashKey cacheHashKey = new CacheHashKey(key, null, getExpire());
+        cacheHashKey.setReadFromMaster(isReadFromMaster());
+        cacheHashKey.setNullExpire(getNullExpire());
+        return cacheHashKey;
     }
 
     /**
@@ -142,13 +191,17 @@ public interface CacheKeyBuilder {
     default String getKey(Object... suffix) {
         ArrayList<String> regionList = new ArrayList<>();
         Long tenant = this.getTenant();
-        regionList.add(String.valueOf(tenant));
-        /*if (StrUtil.isNotEmpty(tenant)) {
-            regionList.add(tenant);
-        }*/
         String prefix = this.getPrefix();
         ArgumentAssert.notEmpty(prefix, "缓存前缀不能为空");
-        regionList.add(prefix);
+        if (isHashTag()) {
+            regionList.add(hashTag(String.valueOf(tenant), prefix));
+        } else {
+            regionList.add(String.valueOf(tenant));
+            /*if (StrUtil.isNotEmpty(tenant)) {
+                regionList.add(tenant);
+            }*/
+            regionList.add(prefix);
+        }
 
         for (Object s : suffix) {
             if (ObjectUtil.isNotEmpty(s)) {
@@ -157,4 +210,15 @@ public interface CacheKeyBuilder {
         }
         return CollUtil.join(regionList, COLON);
     }
+
+    /**
+     * 拼接 hash tag
+     *
+     * @param tenant 租户
+     * @param prefix 前缀
+     * @return {租户:前缀}
+     */
+    static String hashTag(String tenant, String prefix) {
+        return StrPool.DELIM_START + tenant + COLON + prefix + StrPool.DELIM_END;
+    }
 }
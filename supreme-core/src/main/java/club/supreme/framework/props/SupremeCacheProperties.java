@@ -4,8 +4,10 @@ import club.supreme.framework.enums.cache.CacheType;
 import club.supreme.framework.enums.cache.SerializerType;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -32,6 +34,19 @@ public class SupremeCacheProperties {
      * 是否缓存 null 值
      */
     private Boolean cacheNullVal = true;
+    /**
+     * 空值的过期时间，CacheKeyBuilder#getNullExpire 可以为某类 key 单独指定
+     * <p>
+     * 该属性只对 redis 有效！！！
+     */
+    private Duration nullValExpire = Duration.ofMinutes(5);
+    /**
+     * 是否合并同一个 key 的并发读取(getByIdCache 等带加载器的读取)
+     * <p>
+     * 开启后并发读取同一个 key 的线程共享一次 redis 读取、反序列化和加载，拿到的是同一个对象，调用方不能修改返回值。
+     * 该属性只对 redis 有效！！！
+     */
+    private boolean coalesceReads = false;
 
     /**
      * 通过 @Cacheable 注解标注的方法的缓存策略
@@ -45,6 +60,63 @@ public class SupremeCacheProperties {
      */
     private Map<String, Cache> configs;
 
+    /**
+     * Redis Cluster 相关配置
+     * <p>
+     * 该属性只对 redis 有效！！！
+     */
+    private Cluster cluster = new Cluster();
+
+    /**
+     * 读写分离配置
+     * <p>
+     * 该属性只对 redis 有效！！！
+     */
+    private Replica replica = new Replica();
+
+    /**
+     * 缓存预热配置
+     */
+    private WarmUp warmUp = new WarmUp();
+
+    /**
+     * 事务内缓存变更的配置
+     */
+    private Transaction transaction = new Transaction();
+
+    /**
+     * 缓存失效广播配置
+     * <p>
+     * 该属性只对 redis 有效！！！
+     */
+    private Invalidation invalidation = new Invalidation();
+
+    /**
+     * 堆外缓存配置
+     * <p>
+     * 该属性只对 caffeine 有效！！！
+     */
+    private OffHeap offHeap = new OffHeap();
+
+    /**
+     * 本地缓存快照配置
+     * <p>
+     * 该属性只对 caffeine 有效！！！
+     */
+    private Snapshot snapshot = new Snapshot();
+
+    /**
+     * 本地限流器、排行榜配置
+     * <p>
+     * 该属性只对 caffeine 有效！！！
+     */
+    private Structure structure = new Structure();
+
+    /**
+     * 计数器合并写入配置
+     */
+    private Counter counter = new Counter();
+
     @Data
     public static class Cache {
 
@@ -81,4 +153,206 @@ public class SupremeCacheProperties {
 
     }
 
+    @Data
+    public static class Cluster {
+
+        /**
+         * 批量命令(MGET、DEL、UNLINK、MSET、SINTER 等)是否按 hash slot 分组执行
+         * 开启后，同一节点上的 slot 分组合并为一个 pipeline，不同节点之间并行发送；
+         * 只在连接的是 Redis Cluster 时生效
+         */
+        private boolean slotGrouping = true;
+
+        /**
+         * 并行向各节点发送 pipeline 的线程数
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    @Data
+    public static class Replica {
+
+        /**
+         * 是否将只读命令(get、mGet、hGet、hGetAll、sMembers、exists、ttl、zRange* 等)路由到副本节点
+         */
+        private boolean enabled = false;
+
+        /**
+         * Lettuce ReadFrom 策略
+         * 可选值：MASTER、MASTER_PREFERRED、REPLICA、REPLICA_PREFERRED、NEAREST、ANY、ANY_REPLICA
+         */
+        private String readFrom = "REPLICA_PREFERRED";
+
+        /**
+         * 副本节点地址，格式 host:port
+         * <p>
+         * 只在单机模式(spring.redis.host)下需要配置；哨兵和集群模式自动发现副本
+         */
+        private List<String> nodes;
+    }
+
+    @Data
+    public static class WarmUp {
+
+        /**
+         * 是否在启动时预热标注了 @CacheWarmUp 的 Service
+         */
+        private boolean enabled = false;
+
+        /**
+         * 同时预热的 Service 数量
+         */
+        private int parallelism = 2;
+
+        /**
+         * 每批从数据库读取并写入缓存的条数
+         */
+        private int chunkSize = 500;
+
+        /**
+         * 每秒最多写入缓存的条数，小于等于 0 表示不限流
+         */
+        private int rowsPerSecond = 5000;
+
+        /**
+         * 启动时最多等待预热完成的时间，超时后应用开始接收流量，预热在后台继续执行
+         */
+        private Duration awaitTimeout = Duration.ofMinutes(5);
+
+        /**
+         * 每个缓存前缀最多统计的热点 key 数量
+         */
+        private int hotKeyCapacity = 10000;
+
+        /**
+         * 热点 key 快照的保存间隔
+         */
+        private Duration hotKeySnapshotInterval = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Transaction {
+
+        /**
+         * 是否将事务内的缓存变更(写入、删除)推迟到事务提交后批量执行
+         * 事务回滚时丢弃这些变更
+         */
+        private boolean enabled = true;
+
+        /**
+         * 是否延时双删：提交后删除一次，延时 doubleDeleteDelay 后再删除一次，
+         * 用于清理提交前后被并发读请求回填的旧值
+         */
+        private boolean doubleDelete = false;
+
+        /**
+         * 延时双删的间隔，应大于一次读请求从数据库加载并回填缓存的耗时
+         */
+        private Duration doubleDeleteDelay = Duration.ofMillis(500);
+    }
+
+    @Data
+    public static class Invalidation {
+
+        /**
+         * 是否拦截 UPDATE、DELETE 语句，并通过 Redis Stream 广播缓存失效消息
+         * 开启后，绕过 Service 的数据变更(Mapper、批量更新等)也能及时淘汰缓存
+         */
+        private boolean enabled = false;
+
+        /**
+         * 失效消息使用的 Redis Stream key
+         */
+        private String stream = "supreme:cache:invalidation";
+
+        /**
+         * Stream 最多保留的消息数(近似裁剪)
+         */
+        private long maxLen = 10000;
+
+        /**
+         * 合并窗口，同一窗口内收到的失效消息按表和租户去重后批量淘汰
+         */
+        private Duration window = Duration.ofMillis(100);
+
+        /**
+         * 同一张表同一租户整表失效(SCAN + UNLINK)的最小间隔，间隔内再次收到整表失效时推迟到间隔结束后执行一次；
+         * 为 0 时不限制
+         */
+        private Duration fullEvictInterval = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class OffHeap {
+
+        /**
+         * 是否开启堆外缓存
+         * 开启后值序列化(使用 serializerType 指定的格式)后存放在堆外内存中，堆内只保留少量热点对象和索引
+         */
+        private boolean enabled = false;
+
+        /**
+         * 堆外内存总容量
+         */
+        private DataSize capacity = DataSize.ofMegabytes(512);
+
+        /**
+         * 每个内存段的大小，淘汰时以段为单位；单个值序列化后不能超过该大小
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(8);
+    }
+
+    @Data
+    public static class Snapshot {
+
+        /**
+         * 是否定期把缓存写入本地快照文件，并在启动时从快照恢复
+         */
+        private boolean enabled = false;
+
+        /**
+         * 快照文件路径
+         */
+        private String path = System.getProperty("java.io.tmpdir") + "/supreme-cache.snapshot";
+
+        /**
+         * 生成快照的间隔；应用关闭时也会生成一次
+         */
+        private Duration interval = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Structure {
+
+        /**
+         * 限流器、排行榜状态的最大 key 数量
+         * 超过后按频率淘汰，被淘汰的限流器重新从满额开始计数，需要大于同时活跃的限流 key 数量
+         */
+        private long maxSize = 100_000;
+
+        /**
+         * 超过该时间未访问的状态会被淘汰
+         */
+        private Duration expireAfterAccess = Duration.ofMinutes(30);
+    }
+
+    @Data
+    public static class Counter {
+
+        /**
+         * 是否开启计数器合并写入(CounterAggregator)
+         */
+        private boolean enabled = false;
+
+        /**
+         * 合并的时间窗口，到期后把累积的增量批量写入缓存
+         */
+        private Duration flushInterval = Duration.ofMillis(100);
+
+        /**
+         * 累积的 key 数量达到该值时提前写入
+         */
+        private int maxPendingKeys = 10000;
+    }
+
 }
@@ -1,6 +1,7 @@
 package club.supreme.framework.props;
 
 import club.supreme.framework.enums.crud.IdGeneratorStrategyEnumI;
+import club.supreme.framework.enums.crud.ReplicaBalanceEnumI;
 import club.supreme.framework.enums.crud.TenantIsolateLevelEnumI;
 import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.annotation.DbType;
@@ -10,6 +11,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 import org.springframework.util.ClassUtils;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
@@ -76,6 +78,16 @@ public class SupremeProperties {
          */
         private String dbType = DbType.MYSQL.getDb();
 
+        /**
+         * 分页查询总数
+         */
+        private final PageCount pageCount = new PageCount();
+
+        /**
+         * 读写分离
+         */
+        private final ReadWrite readWrite = new ReadWrite();
+
 
         @Data
         public static class OptimisticLock {
@@ -88,6 +100,83 @@ public class SupremeProperties {
 
         }
 
+        @Data
+        public static class PageCount {
+
+            /**
+             * CACHED、ESTIMATE 模式缓存总数的时间
+             * 默认为30秒
+             */
+            private Duration cacheExpire = Duration.ofSeconds(30);
+            /**
+             * 缓存的总数最多条数
+             * 默认为10000
+             */
+            private Long cacheMaximumSize = 10000L;
+            /**
+             * ASYNC 模式执行 COUNT 查询的线程数
+             * 默认为4
+             */
+            private Integer asyncThreads = 4;
+            /**
+             * 允许使用 ESTIMATE 模式的表，其他表的 ESTIMATE 请求按 CACHED 处理；
+             * 行级多租户隔离时，除 ignoredTables 外的表不使用 ESTIMATE(统计信息不区分租户)
+             * 默认为空，即不允许
+             */
+            private List<String> estimateTables = new ArrayList<>();
+
+        }
+
+        @Data
+        public static class ReadWrite {
+
+            /**
+             * 是否启用读写分离：只读事务和事务外的查询路由到从库
+             * 默认为false
+             */
+            private Boolean enabled = false;
+            /**
+             * 从库负载均衡策略
+             * 默认为WEIGHTED
+             */
+            private ReplicaBalanceEnumI balance = ReplicaBalanceEnumI.WEIGHTED;
+            /**
+             * 从库最大复制延迟，超过时不再路由到该从库
+             * 默认为5秒
+             */
+            private Duration maxLag = Duration.ofSeconds(5);
+            /**
+             * 检查从库状态(可用性、复制延迟)的间隔
+             * 默认为5秒
+             */
+            private Duration checkInterval = Duration.ofSeconds(5);
+            /**
+             * 从库
+             */
+            private List<Replica> replicas = new ArrayList<>();
+
+            @Data
+            public static class Replica {
+                /**
+                 * 名称
+                 */
+                private String name;
+                private String url;
+                private String username;
+                private String password;
+                private String driverClassName;
+                /**
+                 * 连接池类型(类名)，为空时自动选择
+                 */
+                private String type;
+                /**
+                 * 权重
+                 * 默认为1
+                 */
+                private Integer weight = 1;
+            }
+        }
+
         @Data
         public static class IdGenerator {
 
@@ -154,6 +243,37 @@ public class SupremeProperties {
          */
         private List<String> ignoredTables = new ArrayList<>(64);
 
+        /**
+         * 数据源级隔离时租户的数据源
+         */
+        private final TenantDataSource datasource = new TenantDataSource();
+
+        @Data
+        public static class TenantDataSource {
+            /**
+             * 租户数据库的 url 模板，{tenantId} 会替换为租户ID
+             * 如：jdbc:mysql://127.0.0.1:3306/app_{tenantId}
+             */
+            private String urlTemplate;
+            private String username;
+            private String password;
+            private String driverClassName;
+            /**
+             * 连接池类型(类名)，为空时自动选择
+             */
+            private String type;
+            /**
+             * 同时保持连接池的租户数，超过时关闭最久未使用的租户的连接池
+             * 默认为50
+             */
+            private Integer maxActiveTenants = 50;
+            /**
+             * 租户的连接池空闲多久后关闭
+             * 默认为10分钟
+             */
+            private Duration idleTimeout = Duration.ofMinutes(10);
+        }
+
     }
 
     @Data
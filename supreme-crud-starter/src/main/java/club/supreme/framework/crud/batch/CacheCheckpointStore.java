@@ -0,0 +1,53 @@
+package club.supreme.framework.crud.batch;
+
+import club.supreme.framework.cache.repository.CacheOps;
+import club.supreme.framework.constant.StrPool;
+import club.supreme.framework.model.cache.CacheKey;
+import cn.hutool.core.convert.Convert;
+
+import java.time.Duration;
+
+/**
+ * 保存在缓存(redis)中的进度，进程重启或换一个节点后也能继续
+ *
+ * @author supreme
+ */
+public class CacheCheckpointStore implements CheckpointStore {
+
+    private static final String PREFIX = "table_processor";
+
+    private final CacheOps cacheOps;
+    /**
+     * 进度的过期时间
+     */
+    private final Duration expire;
+
+    public CacheCheckpointStore(CacheOps cacheOps) {
+        this(cacheOps, Duration.ofDays(7));
+    }
+
+    public CacheCheckpointStore(CacheOps cacheOps, Duration expire) {
+        this.cacheOps = cacheOps;
+        this.expire = expire;
+    }
+
+    @Override
+    public Long get(String job, String name) {
+        Object value = cacheOps.get(key(job, name));
+        return value == null ? null : Convert.toLong(value);
+    }
+
+    @Override
+    public void put(String job, String name, long value) {
+        cacheOps.set(key(job, name), value);
+    }
+
+    @Override
+    public void remove(String job, String name) {
+        cacheOps.del(key(job, name));
+    }
+
+    private CacheKey key(String job, String name) {
+        return new CacheKey(PREFIX + StrPool.COLON + job + StrPool.COLON + name, expire);
+    }
+}
@@ -0,0 +1,37 @@
+package club.supreme.framework.crud.batch;
+
+/**
+ * 批处理任务的进度存储
+ * <p>
+ * 以 任务名 + 名称 保存一个 long 值，用于任务中断后从上次的位置继续
+ *
+ * @author supreme
+ */
+public interface CheckpointStore {
+
+    /**
+     * 读取进度
+     *
+     * @param job  任务名
+     * @param name 名称
+     * @return 进度，不存在时返回 null
+     */
+    Long get(String job, String name);
+
+    /**
+     * 保存进度
+     *
+     * @param job   任务名
+     * @param name  名称
+     * @param value 进度
+     */
+    void put(String job, String name, long value);
+
+    /**
+     * 删除进度
+     *
+     * @param job  任务名
+     * @param name 名称
+     */
+    void remove(String job, String name);
+}
@@ -0,0 +1,31 @@
+package club.supreme.framework.crud.batch;
+
+import club.supreme.framework.constant.StrPool;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 保存在内存中的进度，只能在同一个进程内继续
+ *
+ * @author supreme
+ */
+public class MemoryCheckpointStore implements CheckpointStore {
+
+    private final Map<String, Long> checkpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public Long get(String job, String name) {
+        return checkpoints.get(job + StrPool.COLON + name);
+    }
+
+    @Override
+    public void put(String job, String name, long value) {
+        checkpoints.put(job + StrPool.COLON + name, value);
+    }
+
+    @Override
+    public void remove(String job, String name) {
+        checkpoints.remove(job + StrPool.COLON + name);
+    }
+}
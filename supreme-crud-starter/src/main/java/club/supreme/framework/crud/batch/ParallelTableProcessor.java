@@ -0,0 +1,228 @@
+package club.supreme.framework.crud.batch;
+
+import club.supreme.framework.constant.StrPool;
+import club.supreme.framework.context.TenantContextHolder;
+import club.supreme.framework.crud.service.SupremeBaseService;
+import club.supreme.framework.exception.BizException;
+import club.supreme.framework.utils.ArgumentAssert;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.thread.NamedThreadFactory;
+import com.alibaba.ttl.threadpool.TtlExecutors;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.toolkit.ReflectionKit;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 按主键范围并行处理整张表
+ * <p>
+ * 1，查询主键的最小值、最大值，平均拆分成 partitions 个范围(雪花ID随时间递增，每个范围大致对应一段时间的数据)；
+ * 2，每个范围在线程池中按主键顺序分批读取：id &gt; 上一批最后的id AND id &lt;= 范围上限 ORDER BY id LIMIT chunkSize，
+ * 不使用 OFFSET，每一批的代价相同；
+ * 3，每处理完一批，把该范围的进度保存到 CheckpointStore，任务中断后以相同的任务名再次执行时从进度处继续，全部完成后删除进度；
+ * 4，线程池通过 TtlExecutors 包装，工作线程中可以读取到调用方的租户上下文(TenantContextHolder)。
+ * <p>
+ * 用法：
+ * <pre>
+ * long rows = new ParallelTableProcessor&lt;&gt;(userService, "user-backfill")
+ *         .setPartitions(16).setParallelism(8).setCheckpointStore(new CacheCheckpointStore(cacheOps))
+ *         .process(chunk -&gt; ...);
+ * </pre>
+ * 注意：主键必须是数值类型；handler 不在事务中执行，需要事务时由 handler 自行开启
+ *
+ * @param <ENTITY> 实体
+ * @author supreme
+ */
+@Slf4j
+@Setter
+@Accessors(chain = true)
+public class ParallelTableProcessor<ENTITY> {
+
+    private static final String MIN = "min";
+    private static final String MAX = "max";
+    private static final String PARTITIONS = "partitions";
+    private static final String PARTITION = "p";
+
+    private final SupremeBaseService<ENTITY> service;
+    /**
+     * 任务名，同一个任务名(同一个租户)共用进度
+     */
+    private final String job;
+    /**
+     * 拆分的范围个数
+     */
+    private int partitions = Runtime.getRuntime().availableProcessors();
+    /**
+     * 并行处理的线程数
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    /**
+     * 每批读取的条数
+     */
+    private int chunkSize = 1000;
+    /**
+     * 进度存储
+     */
+    private CheckpointStore checkpointStore = new MemoryCheckpointStore();
+    /**
+     * 额外的查询条件，每次查询都会调用一次，整体作为一个括号与主键范围 AND，
+     * 其中的 OR 不会越过主键范围；只能添加 where 条件，如：w -&gt; w.eq("state", 1).or().eq("type", 2)
+     */
+    private Consumer<QueryWrapper<ENTITY>> condition;
+
+    public ParallelTableProcessor(SupremeBaseService<ENTITY> service, String job) {
+        ArgumentAssert.notNull(service, "service不能为空");
+        ArgumentAssert.notEmpty(job, "任务名不能为空");
+        this.service = service;
+        this.job = job;
+    }
+
+    /**
+     * 执行
+     *
+     * @param handler 处理一批数据
+     * @return 本次处理的条数(不含之前已完成的部分)
+     */
+    public long process(Consumer<List<ENTITY>> handler) {
+        ArgumentAssert.isTrue(partitions > 0 && parallelism > 0 && chunkSize > 0, "partitions、parallelism、chunkSize 必须大于0");
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(service.getEntityClass());
+        ArgumentAssert.isTrue(tableInfo != null && tableInfo.havePK(), "实体[{}]没有主键", service.getEntityClass().getName());
+        Class<?> keyType = tableInfo.getKeyType();
+        ArgumentAssert.isTrue(Long.class == keyType || long.class == keyType || Integer.class == keyType || int.class == keyType,
+                "实体[{}]的主键不是数值类型", service.getEntityClass().getName());
+
+        String jobKey = job + StrPool.COLON + TenantContextHolder.getTenantId();
+        long[][] ranges = plan(jobKey, tableInfo);
+        if (ranges.length == 0) {
+            return 0;
+        }
+
+        LongAdder processed = new LongAdder();
+        ExecutorService executor = TtlExecutors.getTtlExecutorService(Executors.newFixedThreadPool(Math.min(parallelism, ranges.length),
+                new NamedThreadFactory("supreme-table-processor-", true)));
+        try {
+            List<Future<?>> futures = new ArrayList<>(ranges.length);
+            for (int i = 0; i < ranges.length; i++) {
+                final int partition = i;
+                futures.add(executor.submit(() -> processPartition(jobKey, tableInfo, partition, ranges[partition], handler, processed)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw BizException.wrap("任务[{}]被中断, 已处理 {} 条", job, processed.sum());
+        } catch (ExecutionException e) {
+            log.error("任务[{}]执行失败, 已处理 {} 条, 再次执行时从进度处继续", job, processed.sum(), e.getCause());
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw BizException.wrap("任务[{}]执行失败: {}", job, e.getCause().getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        clear(jobKey, ranges.length);
+        log.info("任务[{}]完成, 处理 {} 条", job, processed.sum());
+        return processed.sum();
+    }
+
+    /**
+     * 拆分主键范围，有进度时使用上次的拆分结果
+     *
+     * @return [下限, 上限] 数组，都包含
+     */
+    private long[][] plan(String jobKey, TableInfo tableInfo) {
+        Long min = checkpointStore.get(jobKey, MIN);
+        Long max = checkpointStore.get(jobKey, MAX);
+        Long count = checkpointStore.get(jobKey, PARTITIONS);
+        if (min == null || max == null || count == null) {
+            String keyColumn = tableInfo.getKeyColumn().trim();
+            min = aggregate("MIN(" + keyColumn + ")");
+            max = aggregate("MAX(" + keyColumn + ")");
+            if (min == null || max == null) {
+                return new long[0][];
+            }
+            count = Math.min((long) partitions, max - min + 1);
+            checkpointStore.put(jobKey, MIN, min);
+            checkpointStore.put(jobKey, MAX, max);
+            checkpointStore.put(jobKey, PARTITIONS, count);
+        } else {
+            log.info("任务[{}]从上次的进度继续", job);
+        }
+
+        long step = (max - min) / count + 1;
+        List<long[]> ranges = new ArrayList<>();
+        for (long lower = min; lower <= max && lower >= min; lower += step) {
+            ranges.add(new long[]{lower, Math.min(max, lower + step - 1)});
+        }
+        return ranges.toArray(new long[0][]);
+    }
+
+    private Long aggregate(String select) {
+        QueryWrapper<ENTITY> wrapper = newWrapper();
+        wrapper.select(select);
+        List<Long> values = service.listObjs(wrapper, Convert::toLong);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * 只包含额外查询条件的 wrapper
+     */
+    private QueryWrapper<ENTITY> newWrapper() {
+        QueryWrapper<ENTITY> wrapper = new QueryWrapper<>();
+        if (condition != null) {
+            wrapper.and(condition);
+        }
+        return wrapper;
+    }
+
+    private void processPartition(String jobKey, TableInfo tableInfo, int partition, long[] range,
+                                  Consumer<List<ENTITY>> handler, LongAdder processed) {
+        String keyColumn = tableInfo.getKeyColumn().trim();
+        String name = PARTITION + partition;
+        Long checkpoint = checkpointStore.get(jobKey, name);
+        // 进度是已处理的最后一个主键，不包含
+        long last = checkpoint == null ? range[0] - 1 : checkpoint;
+        while (last < range[1] && !Thread.currentThread().isInterrupted()) {
+            QueryWrapper<ENTITY> wrapper = newWrapper();
+            wrapper.gt(keyColumn, last).le(keyColumn, range[1]).orderByAsc(keyColumn);
+            List<ENTITY> records = service.page(new Page<>(1, chunkSize, false), wrapper).getRecords();
+            if (records.isEmpty()) {
+                break;
+            }
+            handler.accept(records);
+            processed.add(records.size());
+            last = Convert.toLong(ReflectionKit.getFieldValue(records.get(records.size() - 1), tableInfo.getKeyProperty()));
+            checkpointStore.put(jobKey, name, last);
+            if (records.size() < chunkSize) {
+                break;
+            }
+        }
+        if (!Thread.currentThread().isInterrupted()) {
+            checkpointStore.put(jobKey, name, range[1]);
+        }
+    }
+
+    private void clear(String jobKey, int count) {
+        for (int i = 0; i < count; i++) {
+            checkpointStore.remove(jobKey, PARTITION + i);
+        }
+        checkpointStore.remove(jobKey, MIN);
+        checkpointStore.remove(jobKey, MAX);
+        checkpointStore.remove(jobKey, PARTITIONS);
+    }
+}
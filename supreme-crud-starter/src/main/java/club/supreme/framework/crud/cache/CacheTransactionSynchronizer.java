@@ -0,0 +1,197 @@
+package club.supreme.framework.crud.cache;
+
+import club.supreme.framework.cache.repository.CacheOps;
+import club.supreme.framework.constant.StrPool;
+import club.supreme.framework.model.cache.CacheHashKey;
+import club.supreme.framework.model.cache.CacheKey;
+import club.supreme.framework.props.SupremeCacheProperties;
+import cn.hutool.core.thread.NamedThreadFactory;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 事务感知的缓存变更
+ * <p>
+ * 在事务中调用时，缓存的写入和删除先记录在当前事务的缓冲区中，同一个 key 只保留最后一次变更；
+ * 事务提交后(afterCommit)一次性批量执行，事务回滚时直接丢弃。
+ * 这样既不会在提交前删除缓存后被并发读请求回填旧值，也不会把最终回滚的数据写入缓存；
+ * 事务中缓存未命中后从数据库读到的值(可能是本事务未提交的数据)同样经 set 推迟到提交后回填。
+ * <p>
+ * 没有事务时立即执行。分桶存放的 CacheHashKey 按 hash 的 field 写入和删除
+ *
+ * @author supreme
+ */
+@Slf4j
+public class CacheTransactionSynchronizer implements DisposableBean {
+
+    private final CacheOps cacheOps;
+    private final long doubleDeleteDelay;
+    /**
+     * 延时双删的调度线程，未开启时为 null
+     */
+    private final ScheduledExecutorService scheduler;
+
+    public CacheTransactionSynchronizer(CacheOps cacheOps, SupremeCacheProperties.Transaction properties) {
+        this.cacheOps = cacheOps;
+        this.doubleDeleteDelay = properties.getDoubleDeleteDelay().toMillis();
+        this.scheduler = properties.isDoubleDelete()
+                ? Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("supreme-cache-double-delete-", true))
+                : null;
+    }
+
+    /**
+     * 写入缓存
+     *
+     * @param key   缓存key
+     * @param value 值
+     */
+    public void set(CacheKey key, Object value) {
+        Buffer buffer = currentBuffer();
+        if (buffer == null) {
+            cacheOps.mSet(Collections.singletonMap(key, value));
+            return;
+        }
+        buffer.mutations.put(mutationKey(key), new Mutation(key, value, false));
+    }
+
+    /**
+     * 删除缓存
+     *
+     * @param keys 缓存key
+     */
+    public void del(Collection<CacheKey> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        Buffer buffer = currentBuffer();
+        if (buffer == null) {
+            cacheOps.unlink(keys);
+            scheduleDoubleDelete(new ArrayList<>(keys));
+            return;
+        }
+        for (CacheKey key : keys) {
+            buffer.mutations.put(mutationKey(key), new Mutation(key, null, true));
+        }
+    }
+
+    /**
+     * 获取当前事务的缓冲区，第一次使用时注册到事务同步中
+     *
+     * @return 没有事务同步时返回 null
+     */
+    private Buffer currentBuffer() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Buffer buffer = (Buffer) TransactionSynchronizationManager.getResource(this);
+        if (buffer == null) {
+            buffer = new Buffer();
+            TransactionSynchronizationManager.bindResource(this, buffer);
+            TransactionSynchronizationManager.registerSynchronization(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * 同一个 hash 中的不同 field 是不同的缓存项
+     */
+    private static String mutationKey(CacheKey key) {
+        if (CacheHashKey.isBucketField(key)) {
+            return key.getKey() + StrPool.AT + ((CacheHashKey) key).getField();
+        }
+        return key.getKey();
+    }
+
+    private void flush(Map<String, Mutation> mutations) {
+        List<CacheKey> deletes = new ArrayList<>();
+        Map<CacheKey, Object> sets = new LinkedHashMap<>();
+        for (Mutation mutation : mutations.values()) {
+            if (mutation.delete) {
+                deletes.add(mutation.key);
+            } else {
+                sets.put(mutation.key, mutation.value);
+            }
+        }
+        try {
+            if (!deletes.isEmpty()) {
+                cacheOps.unlink(deletes);
+            }
+            if (!sets.isEmpty()) {
+                cacheOps.mSet(sets);
+            }
+        } catch (Exception e) {
+            // 事务已经提交，这里只能记录日志，由缓存过期时间兜底
+            log.error("事务提交后更新缓存失败, 删除 {} 个, 写入 {} 个", deletes.size(), sets.size(), e);
+        }
+        scheduleDoubleDelete(deletes);
+    }
+
+    private void scheduleDoubleDelete(List<CacheKey> keys) {
+        if (scheduler == null || keys.isEmpty()) {
+            return;
+        }
+        scheduler.schedule(() -> {
+            try {
+                cacheOps.unlink(keys);
+            } catch (Exception e) {
+                log.warn("延时双删失败, {} 个key", keys.size(), e);
+            }
+        }, doubleDeleteDelay, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Mutation {
+        private final CacheKey key;
+        private final Object value;
+        private final boolean delete;
+    }
+
+    /**
+     * 一个事务内的缓存变更
+     */
+    private class Buffer implements TransactionSynchronization {
+        private final Map<String, Mutation> mutations = new LinkedHashMap<>();
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(CacheTransactionSynchronizer.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(CacheTransactionSynchronizer.this, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            if (!mutations.isEmpty()) {
+                flush(mutations);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CacheTransactionSynchronizer.this);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package club.supreme.framework.crud.cache.invalidation;
+
+import club.supreme.framework.cache.invalidation.CacheInvalidationBus;
+import club.supreme.framework.cache.invalidation.CacheInvalidationMessage;
+import club.supreme.framework.constant.StrPool;
+import club.supreme.framework.constant.SupremeConstant;
+import club.supreme.framework.context.TenantContextHolder;
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.baomidou.mybatisplus.core.toolkit.ReflectionKit;
+import com.baomidou.mybatisplus.extension.plugins.inner.InnerInterceptor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.delete.Delete;
+import net.sf.jsqlparser.statement.update.Update;
+import net.sf.jsqlparser.statement.update.UpdateSet;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存失效拦截器
+ * <p>
+ * 拦截 UPDATE、DELETE 语句，解析出表名；updateById、updateAllById、deleteById、deleteBatchIds 能从参数中取得主键，
+ * 其他语句(条件更新、自定义 SQL 等)按整张表失效处理，只修改了实体中没有的字段的 UPDATE 不影响缓存，不发布消息。
+ * 租户优先取实体的租户字段；取不到时使用 TenantContextHolder 中的租户，特权租户的变更淘汰所有租户的缓存。
+ * 事务中的变更在提交后按表和租户合并，再发布到 CacheInvalidationBus；事务回滚时丢弃。
+ *
+ * @author supreme
+ */
+@Slf4j
+public class CacheInvalidationInnerInterceptor implements InnerInterceptor {
+
+    /**
+     * 参数中带有主键的 mapper 方法
+     */
+    private static final Set<String> BY_ID_METHODS = CollUtil.newHashSet("updateById", "updateAllById", "deleteById", "deleteBatchIds");
+    private static final int MAX_CACHED_SQL = 10000;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final CacheInvalidationRegistry cacheInvalidationRegistry;
+    /**
+     * MappedStatement id -> 语句修改的表
+     */
+    private final Map<String, String> tables = new ConcurrentHashMap<>();
+    /**
+     * UPDATE 的 SQL -> 修改的字段
+     * <p>
+     * updateById、update(entity, wrapper) 等同一个 MappedStatement 的 SET 字段随参数变化，只能按 SQL 缓存
+     */
+    private final Cache<String, Set<String>> updatedColumns = Caffeine.newBuilder().maximumSize(MAX_CACHED_SQL).build();
+
+    public CacheInvalidationInnerInterceptor(CacheInvalidationBus cacheInvalidationBus, CacheInvalidationRegistry cacheInvalidationRegistry) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.cacheInvalidationRegistry = cacheInvalidationRegistry;
+    }
+
+    @Override
+    public void beforeUpdate(Executor executor, MappedStatement ms, Object parameter) {
+        SqlCommandType sqlCommandType = ms.getSqlCommandType();
+        if (sqlCommandType != SqlCommandType.UPDATE && sqlCommandType != SqlCommandType.DELETE) {
+            return;
+        }
+        String sql = ms.getBoundSql(parameter).getSql();
+        String table = tables.computeIfAbsent(ms.getId(), k -> parse(sql).table);
+        if (!cacheInvalidationRegistry.isCached(table)) {
+            return;
+        }
+        TableInfo tableInfo = cacheInvalidationRegistry.getTableInfo(table);
+        if (sqlCommandType == SqlCommandType.UPDATE && !touchesCachedColumns(updatedColumns.get(sql, k -> parse(k).columns), tableInfo)) {
+            return;
+        }
+        Long tenantId = TenantContextHolder.getTenantId();
+        Map<Long, Set<String>> ids = extractIds(ms, parameter, tableInfo, tenantId);
+
+        Buffer buffer = null;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            buffer = (Buffer) TransactionSynchronizationManager.getResource(this);
+            if (buffer == null) {
+                buffer = new Buffer();
+                TransactionSynchronizationManager.bindResource(this, buffer);
+                TransactionSynchronizationManager.registerSynchronization(buffer);
+            }
+        }
+        if (ids.isEmpty()) {
+            ids = Collections.singletonMap(tenantId, Collections.emptySet());
+        }
+        for (Map.Entry<Long, Set<String>> entry : ids.entrySet()) {
+            if (buffer == null) {
+                publish(table, entry.getKey(), entry.getValue());
+            } else {
+                buffer.add(table, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private StatementInfo parse(String sql) {
+        try {
+            Statement statement = CCJSqlParserUtil.parse(sql);
+            Table table = null;
+            Set<String> columns = null;
+            if (statement instanceof Update) {
+                Update update = (Update) statement;
+                table = update.getTable();
+                columns = new HashSet<>();
+                for (UpdateSet updateSet : update.getUpdateSets()) {
+                    for (Column column : updateSet.getColumns()) {
+                        columns.add(unquote(column.getColumnName()));
+                    }
+                }
+            } else if (statement instanceof Delete) {
+                table = ((Delete) statement).getTable();
+            }
+            return new StatementInfo(table == null ? StrPool.EMPTY : unquote(table.getName()), columns);
+        } catch (JSQLParserException e) {
+            log.debug("无法解析 SQL 中的表名: {}", sql, e);
+            return new StatementInfo(StrPool.EMPTY, null);
+        }
+    }
+
+    private static String unquote(String name) {
+        return StrUtil.removeAll(name, '`', '"').toLowerCase();
+    }
+
+    /**
+     * UPDATE 只有修改了实体中的字段(即缓存的内容)才影响缓存
+     *
+     * @param columns UPDATE 修改的字段，无法解析时为 null
+     */
+    private static boolean touchesCachedColumns(Set<String> columns, TableInfo tableInfo) {
+        if (columns == null || tableInfo == null) {
+            return true;
+        }
+        for (TableFieldInfo field : tableInfo.getFieldList()) {
+            if (columns.contains(unquote(field.getColumn()))) {
+                return true;
+            }
+        }
+        return tableInfo.havePK() && columns.contains(unquote(tableInfo.getKeyColumn()));
+    }
+
+    /**
+     * 从参数中取出主键，按租户分组：参数是实体且租户字段有值时使用实体的租户，否则使用当前租户
+     *
+     * @return 无法取得主键时返回空集合，表示整张表失效
+     */
+    private Map<Long, Set<String>> extractIds(MappedStatement ms, Object parameter, TableInfo tableInfo, Long tenantId) {
+        String method = StrUtil.subAfter(ms.getId(), StrPool.DOT, true);
+        if (tableInfo == null || !BY_ID_METHODS.contains(method)) {
+            return Collections.emptyMap();
+        }
+        Collection<?> values;
+        if (parameter instanceof Map && ((Map<?, ?>) parameter).containsKey(Constants.ENTITY)) {
+            values = Collections.singletonList(((Map<?, ?>) parameter).get(Constants.ENTITY));
+        } else if (parameter instanceof Map && ((Map<?, ?>) parameter).containsKey(Constants.COLLECTION)) {
+            values = (Collection<?>) ((Map<?, ?>) parameter).get(Constants.COLLECTION);
+        } else {
+            values = Collections.singletonList(parameter);
+        }
+
+        String tenantProperty = tenantProperty(tableInfo);
+        Map<Long, Set<String>> ids = new LinkedHashMap<>();
+        for (Object value : values) {
+            boolean entity = value != null && tableInfo.getEntityType().isInstance(value);
+            Object id = entity ? ReflectionKit.getFieldValue(value, tableInfo.getKeyProperty()) : value;
+            if (id == null) {
+                return Collections.emptyMap();
+            }
+            Long owner = entity && tenantProperty != null ? Convert.toLong(ReflectionKit.getFieldValue(value, tenantProperty), null) : null;
+            ids.computeIfAbsent(owner == null ? tenantId : owner, k -> new LinkedHashSet<>()).add(String.valueOf(id));
+        }
+        return ids;
+    }
+
+    /**
+     * 实体中租户字段的属性名
+     *
+     * @return 没有租户字段时返回 null
+     */
+    private static String tenantProperty(TableInfo tableInfo) {
+        for (TableFieldInfo field : tableInfo.getFieldList()) {
+            if (SupremeConstant.CRUD.COLUMN_TENANT_ID.equalsIgnoreCase(unquote(field.getColumn()))) {
+                return field.getProperty();
+            }
+        }
+        return null;
+    }
+
+    private void publish(String table, Long tenantId, Set<String> ids) {
+        try {
+            cacheInvalidationBus.publish(new CacheInvalidationMessage().setTable(table).setTenantId(tenantId).setIds(ids));
+        } catch (Exception e) {
+            log.error("发布缓存失效消息失败, table={}, tenant={}", table, tenantId, e);
+        }
+    }
+
+    /**
+     * 语句修改的表和字段
+     */
+    @AllArgsConstructor
+    private static class StatementInfo {
+        /**
+         * 表名(小写)，无法解析时为空字符串
+         */
+        private final String table;
+        /**
+         * UPDATE 修改的字段(小写)，DELETE 为 null
+         */
+        private final Set<String> columns;
+    }
+
+    /**
+     * 一个事务内的失效消息
+     */
+    private class Buffer implements TransactionSynchronization {
+        /**
+         * 表名 -> 租户 -> 主键(空集合表示整张表)
+         */
+        private final Map<String, Map<Long, Set<String>>> pending = new HashMap<>();
+
+        private void add(String table, Long tenantId, Set<String> ids) {
+            Map<Long, Set<String>> tenants = pending.computeIfAbsent(table, k -> new HashMap<>(4));
+            Set<String> merged = tenants.get(tenantId);
+            if (ids.isEmpty()) {
+                tenants.put(tenantId, Collections.emptySet());
+            } else if (merged == null) {
+                tenants.put(tenantId, new LinkedHashSet<>(ids));
+            } else if (!merged.isEmpty()) {
+                merged.addAll(ids);
+            }
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(CacheInvalidationInnerInterceptor.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(CacheInvalidationInnerInterceptor.this, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            pending.forEach((table, tenants) -> tenants.forEach((tenantId, ids) -> publish(table, tenantId, ids)));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationInnerInterceptor.this);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package club.supreme.framework.crud.cache.invalidation;
+
+import club.supreme.framework.cache.invalidation.CacheInvalidationListener;
+import club.supreme.framework.constant.StrPool;
+import club.supreme.framework.constant.SupremeConstant;
+import club.supreme.framework.context.TenantContext;
+import club.supreme.framework.context.TenantContextHolder;
+import club.supreme.framework.crud.service.impl.SupremeCacheServiceImpl;
+import club.supreme.framework.props.SupremeCacheProperties;
+import cn.hutool.core.thread.NamedThreadFactory;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 表名与缓存 Service 的对应关系
+ * <p>
+ * 启动后收集所有 SupremeCacheServiceImpl，收到失效消息时按表名找到对应的 Service 淘汰缓存。
+ * 特权租户的失效消息表示无法确定数据所属的租户，淘汰所有租户的缓存；
+ * 整表失效需要 SCAN 表的全部 key，同一张表同一租户在 fullEvictInterval 内最多执行一次，间隔内的请求合并到间隔结束后执行
+ *
+ * @author supreme
+ */
+@Slf4j
+public class CacheInvalidationRegistry implements CacheInvalidationListener, SmartInitializingSingleton, DisposableBean {
+
+    private final ApplicationContext applicationContext;
+    private final long fullEvictInterval;
+    private final ScheduledExecutorService scheduler;
+    /**
+     * 表名(小写) -> 使用该表的缓存 Service
+     */
+    private final Map<String, List<SupremeCacheServiceImpl<?, ?>>> services = new ConcurrentHashMap<>();
+    /**
+     * 表名(小写) -> 表信息
+     */
+    private final Map<String, TableInfo> tables = new ConcurrentHashMap<>();
+    /**
+     * 表名:租户 -> 上次整表失效的时间
+     */
+    private final Map<String, Long> lastFullEvictions = new ConcurrentHashMap<>();
+    /**
+     * 已推迟到间隔结束后执行的整表失效
+     */
+    private final Set<String> delayedFullEvictions = ConcurrentHashMap.newKeySet();
+
+    public CacheInvalidationRegistry(ApplicationContext applicationContext, SupremeCacheProperties.Invalidation properties) {
+        this.applicationContext = applicationContext;
+        this.fullEvictInterval = properties.getFullEvictInterval() == null ? 0 : properties.getFullEvictInterval().toMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("supreme-cache-full-evict-", true));
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (SupremeCacheServiceImpl<?, ?> service : applicationContext.getBeansOfType(SupremeCacheServiceImpl.class).values()) {
+            TableInfo tableInfo = TableInfoHelper.getTableInfo(service.getEntityClass());
+            if (tableInfo == null) {
+                continue;
+            }
+            String table = tableInfo.getTableName().toLowerCase();
+            tables.put(table, tableInfo);
+            services.computeIfAbsent(table, k -> new ArrayList<>()).add(service);
+        }
+        log.info("缓存失效广播监听的表: {}", services.keySet());
+    }
+
+    /**
+     * 表是否有对应的缓存 Service
+     *
+     * @param table 表名(小写)
+     * @return 是否需要广播失效消息
+     */
+    public boolean isCached(String table) {
+        return services.containsKey(table);
+    }
+
+    /**
+     * 表信息
+     *
+     * @param table 表名(小写)
+     * @return 表信息
+     */
+    public TableInfo getTableInfo(String table) {
+        return tables.get(table);
+    }
+
+    @Override
+    public void onInvalidate(String table, Long tenantId, Set<String> ids) {
+        if (!services.containsKey(table)) {
+            return;
+        }
+        if (!ids.isEmpty() || fullEvictInterval <= 0) {
+            evict(table, tenantId, ids);
+            return;
+        }
+        String key = table + StrPool.COLON + tenantId;
+        long now = System.currentTimeMillis();
+        Long last = lastFullEvictions.get(key);
+        if (last != null && now - last < fullEvictInterval) {
+            // 间隔内只保留一次推迟的整表失效，保证间隔内的最后一次变更也会被淘汰
+            if (delayedFullEvictions.add(key)) {
+                scheduler.schedule(() -> {
+                    delayedFullEvictions.remove(key);
+                    lastFullEvictions.put(key, System.currentTimeMillis());
+                    evict(table, tenantId, Collections.emptySet());
+                }, last + fullEvictInterval - now, TimeUnit.MILLISECONDS);
+            }
+            return;
+        }
+        lastFullEvictions.put(key, now);
+        evict(table, tenantId, ids);
+    }
+
+    private void evict(String table, Long tenantId, Set<String> ids) {
+        List<SupremeCacheServiceImpl<?, ?>> list = services.get(table);
+        if (list == null) {
+            return;
+        }
+        try {
+            if (SupremeConstant.Tenant.DEFAULT_PRIVILEGED_TENANT_ID.equals(tenantId)) {
+                for (SupremeCacheServiceImpl<?, ?> service : list) {
+                    service.evictCacheAcrossTenants(ids);
+                }
+                return;
+            }
+            TenantContext old = TenantContextHolder.getTenantContext();
+            try {
+                TenantContextHolder.setTenantContext(new TenantContext().setTenantId(tenantId));
+                for (SupremeCacheServiceImpl<?, ?> service : list) {
+                    service.evictCache(ids);
+                }
+            } finally {
+                TenantContextHolder.setTenantContext(old);
+            }
+        } catch (Exception e) {
+            log.warn("淘汰缓存失败, table={}, tenant={}, ids={}", table, tenantId, ids.size(), e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
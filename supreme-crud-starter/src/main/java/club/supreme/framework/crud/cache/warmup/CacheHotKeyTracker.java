@@ -0,0 +1,125 @@
+package club.supreme.framework.crud.cache.warmup;
+
+import club.supreme.framework.cache.repository.CacheOps;
+import club.supreme.framework.model.cache.CacheKey;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 热点 key 统计
+ * <p>
+ * 只统计 HOT_KEY_SNAPSHOT 策略的缓存前缀。getByIdCache 命中时累加计数，定期把访问次数最多的 id 保存到缓存中，
+ * 下次启动时按保存的 id 预热。每个前缀统计的 id 数量有上限，超过上限后新的 id 不再统计
+ *
+ * @author supreme
+ */
+@Slf4j
+public class CacheHotKeyTracker {
+
+    private static final String SNAPSHOT_KEY_PREFIX = "warmup:hot:";
+    private static final Duration SNAPSHOT_EXPIRE = Duration.ofDays(7);
+
+    private final CacheOps cacheOps;
+    private final int capacity;
+    /**
+     * 缓存前缀 -> (id -> 访问次数)
+     */
+    private final Map<String, Map<Object, LongAdder>> counters = new ConcurrentHashMap<>();
+    /**
+     * 缓存前缀 -> 快照保存的 id 数量
+     */
+    private final Map<String, Integer> limits = new ConcurrentHashMap<>();
+
+    public CacheHotKeyTracker(CacheOps cacheOps, int capacity) {
+        this.cacheOps = cacheOps;
+        this.capacity = capacity;
+    }
+
+    /**
+     * 开始统计指定前缀
+     *
+     * @param prefix 缓存前缀
+     * @param limit  快照保存的 id 数量
+     */
+    public void track(String prefix, int limit) {
+        counters.putIfAbsent(prefix, new ConcurrentHashMap<>());
+        limits.put(prefix, limit);
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @param prefix 缓存前缀
+     * @param id     主键
+     */
+    public void record(String prefix, Object id) {
+        Map<Object, LongAdder> counter = counters.get(prefix);
+        if (counter == null || id == null) {
+            return;
+        }
+        LongAdder adder = counter.get(id);
+        if (adder == null) {
+            if (counter.size() >= capacity) {
+                return;
+            }
+            adder = counter.computeIfAbsent(id, k -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    /**
+     * 保存所有前缀的热点 id 快照，并重新开始统计
+     * <p>
+     * 本次统计的热点 id 排在前面，不足 limit 时用上次快照中的 id 补齐
+     */
+    public void snapshot() {
+        counters.forEach((prefix, counter) -> {
+            if (counter.isEmpty()) {
+                return;
+            }
+            counters.put(prefix, new ConcurrentHashMap<>());
+            int limit = limits.getOrDefault(prefix, capacity);
+            List<Object> hot = counter.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<Object, LongAdder> e) -> e.getValue().sum()).reversed())
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+
+            Set<Object> ids = new LinkedHashSet<>(hot);
+            for (Object id : load(prefix)) {
+                if (ids.size() >= limit) {
+                    break;
+                }
+                ids.add(id);
+            }
+            cacheOps.set(snapshotKey(prefix), new ArrayList<>(ids));
+            log.debug("缓存前缀 {} 保存热点 key {} 个", prefix, ids.size());
+        });
+    }
+
+    /**
+     * 读取上次保存的热点 id
+     *
+     * @param prefix 缓存前缀
+     * @return 热点 id
+     */
+    public List<Object> load(String prefix) {
+        List<Object> ids = cacheOps.get(snapshotKey(prefix), false);
+        return ids == null ? Collections.emptyList() : ids;
+    }
+
+    private CacheKey snapshotKey(String prefix) {
+        return new CacheKey(SNAPSHOT_KEY_PREFIX + prefix, SNAPSHOT_EXPIRE);
+    }
+}
@@ -0,0 +1,37 @@
+package club.supreme.framework.crud.cache.warmup;
+
+import club.supreme.framework.enums.cache.CacheWarmUpStrategy;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标注在 SupremeCacheServiceImpl 的子类上，开启启动时的缓存预热
+ * <p>
+ * 需要同时配置 supreme.cache.warm-up.enabled=true
+ *
+ * @author supreme
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CacheWarmUp {
+
+    /**
+     * 预热策略
+     */
+    CacheWarmUpStrategy strategy() default CacheWarmUpStrategy.RECENT_TOP_N;
+
+    /**
+     * RECENT_TOP_N、HOT_KEY_SNAPSHOT 策略最多加载的条数
+     */
+    int limit() default 1000;
+
+    /**
+     * RECENT_TOP_N 策略的排序字段(数据库列名)，默认为主键
+     */
+    String orderBy() default "";
+}
@@ -0,0 +1,103 @@
+package club.supreme.framework.crud.cache.warmup;
+
+import club.supreme.framework.enums.cache.CacheWarmUpStrategy;
+import com.google.common.util.concurrent.RateLimiter;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个 Service 的预热上下文
+ *
+ * @author supreme
+ */
+@Getter
+@Setter
+@Accessors(chain = true)
+public class CacheWarmUpContext {
+    /**
+     * Service 名称
+     */
+    private String name;
+    /**
+     * 预热策略
+     */
+    private CacheWarmUpStrategy strategy = CacheWarmUpStrategy.NONE;
+    /**
+     * 最多加载的条数
+     */
+    private int limit;
+    /**
+     * 排序字段
+     */
+    private String orderBy;
+    /**
+     * 每批条数
+     */
+    private int chunkSize = 500;
+    /**
+     * 是否按实体的租户拼接缓存 key
+     */
+    private boolean tenantAware;
+    /**
+     * 限流器，所有 Service 共用
+     */
+    private RateLimiter rateLimiter;
+    /**
+     * 已写入缓存的条数
+     */
+    private final AtomicLong loaded = new AtomicLong();
+    /**
+     * 是否已取消
+     */
+    private volatile boolean cancelled;
+    /**
+     * 预热状态
+     */
+    private volatile Status status = Status.PENDING;
+    /**
+     * 失败原因
+     */
+    private String error;
+
+    /**
+     * 写入一批数据前调用，按限流器等待
+     *
+     * @param rows 本批条数
+     */
+    public void acquire(int rows) {
+        if (rateLimiter != null && rows > 0) {
+            rateLimiter.acquire(rows);
+        }
+    }
+
+    /**
+     * 写入一批数据后调用，累计进度
+     *
+     * @param rows 本批条数
+     */
+    public void progress(int rows) {
+        loaded.addAndGet(rows);
+    }
+
+    public enum Status {
+        /**
+         * 等待中
+         */
+        PENDING,
+        /**
+         * 预热中
+         */
+        RUNNING,
+        /**
+         * 已完成
+         */
+        DONE,
+        /**
+         * 失败
+         */
+        FAILED,
+    }
+}
@@ -0,0 +1,44 @@
+package club.supreme.framework.crud.cache.warmup;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 缓存预热健康检查
+ * <p>
+ * 预热中返回 OUT_OF_SERVICE，可加入 readiness 分组：
+ * management.endpoint.health.group.readiness.include=readinessState,cacheWarmUp
+ *
+ * @author supreme
+ */
+public class CacheWarmUpHealthIndicator extends AbstractHealthIndicator {
+
+    private final CacheWarmUpRunner cacheWarmUpRunner;
+
+    public CacheWarmUpHealthIndicator(CacheWarmUpRunner cacheWarmUpRunner) {
+        super("缓存预热健康检查失败");
+        this.cacheWarmUpRunner = cacheWarmUpRunner;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        if (cacheWarmUpRunner.isRunning()) {
+            builder.outOfService();
+        } else {
+            builder.up();
+        }
+        cacheWarmUpRunner.getContexts().forEach(context -> {
+            Map<String, Object> detail = new LinkedHashMap<>();
+            detail.put("strategy", context.getStrategy());
+            detail.put("status", context.getStatus());
+            detail.put("loaded", context.getLoaded().get());
+            if (context.getError() != null) {
+                detail.put("error", context.getError());
+            }
+            builder.withDetail(context.getName(), detail);
+        });
+    }
+}
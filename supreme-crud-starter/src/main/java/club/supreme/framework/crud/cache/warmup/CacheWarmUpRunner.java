@@ -0,0 +1,183 @@
+package club.supreme.framework.crud.cache.warmup;
+
+import club.supreme.framework.constant.SupremeConstant;
+import club.supreme.framework.context.TenantContext;
+import club.supreme.framework.context.TenantContextHolder;
+import club.supreme.framework.crud.service.SupremeCacheService;
+import club.supreme.framework.enums.cache.CacheWarmUpStrategy;
+import club.supreme.framework.props.SupremeCacheProperties;
+import club.supreme.framework.props.SupremeProperties;
+import cn.hutool.core.thread.NamedThreadFactory;
+import com.google.common.util.concurrent.RateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotationUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 缓存预热
+ * <p>
+ * 启动时找出所有标注了 {@link CacheWarmUp} 的 SupremeCacheService，在有界线程池中并行预热，所有 Service 共用一个限流器。
+ * 启动时 ApplicationRunner 会等待预热完成(最多 awaitTimeout)，在此之前应用的 readiness 状态为 REFUSING_TRAFFIC；
+ * 运行期间(如 redis 故障切换后)调用 {@link #warmUp()} 重新预热时，会主动发布 REFUSING_TRAFFIC，完成后恢复 ACCEPTING_TRAFFIC。
+ * <p>
+ * 预热进度可通过 {@link #getContexts()} 或健康检查 cacheWarmUp 查看
+ *
+ * @author supreme
+ */
+@Slf4j
+public class CacheWarmUpRunner implements ApplicationRunner, DisposableBean {
+
+    private final ApplicationContext applicationContext;
+    private final SupremeProperties supremeProperties;
+    private final SupremeCacheProperties.WarmUp properties;
+    private final CacheHotKeyTracker hotKeyTracker;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile Map<String, CacheWarmUpContext> contexts = Collections.emptyMap();
+    private volatile CompletableFuture<Void> running;
+
+    public CacheWarmUpRunner(ApplicationContext applicationContext, SupremeProperties supremeProperties, CacheHotKeyTracker hotKeyTracker) {
+        this.applicationContext = applicationContext;
+        this.supremeProperties = supremeProperties;
+        this.properties = supremeProperties.getCache().getWarmUp();
+        this.hotKeyTracker = hotKeyTracker;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, properties.getParallelism()), new NamedThreadFactory("supreme-cache-warmup-", true));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("supreme-cache-hotkey-", true));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long interval = properties.getHotKeySnapshotInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::snapshotHotKeys, interval, interval, TimeUnit.MILLISECONDS);
+
+        CompletableFuture<Void> future = start();
+        try {
+            future.get(properties.getAwaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("缓存预热超过 {} 仍未完成，应用开始接收流量，预热在后台继续执行", properties.getAwaitTimeout());
+        }
+    }
+
+    /**
+     * 运行期间重新预热，预热完成前 readiness 状态为 REFUSING_TRAFFIC
+     *
+     * @return 预热结果
+     */
+    public CompletableFuture<Void> warmUp() {
+        AvailabilityChangeEvent.publish(applicationContext, ReadinessState.REFUSING_TRAFFIC);
+        return start().whenComplete((v, e) -> AvailabilityChangeEvent.publish(applicationContext, ReadinessState.ACCEPTING_TRAFFIC));
+    }
+
+    /**
+     * 取消正在执行的预热
+     */
+    public void cancel() {
+        contexts.values().forEach(context -> context.setCancelled(true));
+    }
+
+    /**
+     * 是否正在预热
+     */
+    public boolean isRunning() {
+        CompletableFuture<Void> future = running;
+        return future != null && !future.isDone();
+    }
+
+    /**
+     * 各 Service 的预热进度
+     */
+    public Collection<CacheWarmUpContext> getContexts() {
+        return contexts.values();
+    }
+
+    private synchronized CompletableFuture<Void> start() {
+        if (isRunning()) {
+            return running;
+        }
+        RateLimiter rateLimiter = properties.getRowsPerSecond() > 0 ? RateLimiter.create(properties.getRowsPerSecond()) : null;
+        boolean tenantAware = Boolean.TRUE.equals(supremeProperties.getTenant().getEnabled());
+
+        Map<String, CacheWarmUpContext> newContexts = new LinkedHashMap<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        applicationContext.getBeansOfType(SupremeCacheService.class).forEach((name, service) -> {
+            CacheWarmUp warmUp = AnnotationUtils.findAnnotation(AopUtils.getTargetClass(service), CacheWarmUp.class);
+            if (warmUp == null || warmUp.strategy() == CacheWarmUpStrategy.NONE) {
+                return;
+            }
+            CacheWarmUpContext context = new CacheWarmUpContext()
+                    .setName(name)
+                    .setStrategy(warmUp.strategy())
+                    .setLimit(warmUp.limit())
+                    .setOrderBy(warmUp.orderBy())
+                    .setChunkSize(properties.getChunkSize())
+                    .setTenantAware(tenantAware)
+                    .setRateLimiter(rateLimiter);
+            newContexts.put(name, context);
+            futures.add(CompletableFuture.runAsync(() -> warmUp(service, context), executor));
+        });
+        contexts = newContexts;
+        log.info("开始预热缓存，共 {} 个 Service", newContexts.size());
+
+        long start = System.currentTimeMillis();
+        running = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .whenComplete((v, e) -> log.info("缓存预热结束，耗时 {} ms", System.currentTimeMillis() - start));
+        return running;
+    }
+
+    private void warmUp(SupremeCacheService<?> service, CacheWarmUpContext context) {
+        context.setStatus(CacheWarmUpContext.Status.RUNNING);
+        long start = System.currentTimeMillis();
+        try {
+            if (context.isTenantAware()) {
+                // 特权租户不拼接租户条件，可以读取所有租户的数据
+                TenantContextHolder.setTenantContext(new TenantContext().setTenantId(SupremeConstant.Tenant.DEFAULT_PRIVILEGED_TENANT_ID));
+            }
+            service.warmUpCache(context);
+            context.setStatus(CacheWarmUpContext.Status.DONE);
+            log.info("{} 缓存预热完成，策略 {}，写入 {} 条，耗时 {} ms", context.getName(), context.getStrategy(),
+                    context.getLoaded().get(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            context.setStatus(CacheWarmUpContext.Status.FAILED);
+            context.setError(e.getMessage());
+            log.error(context.getName() + " 缓存预热失败", e);
+        } finally {
+            TenantContextHolder.setTenantContext(null);
+        }
+    }
+
+    private void snapshotHotKeys() {
+        try {
+            hotKeyTracker.snapshot();
+        } catch (Exception e) {
+            log.warn("保存热点 key 快照失败", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        cancel();
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+        snapshotHotKeys();
+    }
+}
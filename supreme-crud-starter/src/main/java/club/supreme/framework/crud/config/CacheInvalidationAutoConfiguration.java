@@ -0,0 +1,39 @@
+package club.supreme.framework.crud.config;
+
+import club.supreme.framework.cache.config.CacheAutoConfigure;
+import club.supreme.framework.cache.invalidation.CacheInvalidationBus;
+import club.supreme.framework.crud.cache.invalidation.CacheInvalidationInnerInterceptor;
+import club.supreme.framework.crud.cache.invalidation.CacheInvalidationRegistry;
+import club.supreme.framework.props.SupremeProperties;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 缓存失效广播配置类
+ * <p>
+ * 只在 supreme.cache.invalidation.enabled=true 且使用 redis 缓存时生效
+ *
+ * @author supreme
+ */
+@Configuration
+@AutoConfigureAfter(CacheAutoConfigure.class)
+@ConditionalOnBean(CacheInvalidationBus.class)
+public class CacheInvalidationAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheInvalidationRegistry cacheInvalidationRegistry(ApplicationContext applicationContext, SupremeProperties supremeProperties) {
+        return new CacheInvalidationRegistry(applicationContext, supremeProperties.getCache().getInvalidation());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheInvalidationInnerInterceptor cacheInvalidationInnerInterceptor(CacheInvalidationBus cacheInvalidationBus,
+                                                                               CacheInvalidationRegistry cacheInvalidationRegistry) {
+        return new CacheInvalidationInnerInterceptor(cacheInvalidationBus, cacheInvalidationRegistry);
+    }
+}
@@ -0,0 +1,27 @@
+package club.supreme.framework.crud.config;
+
+import club.supreme.framework.cache.repository.CacheOps;
+import club.supreme.framework.crud.cache.CacheTransactionSynchronizer;
+import club.supreme.framework.props.SupremeCacheProperties;
+import club.supreme.framework.props.SupremeProperties;
+import cn.hutool.core.util.StrUtil;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 事务内缓存变更配置类
+ *
+ * @author supreme
+ */
+@Configuration
+@ConditionalOnProperty(prefix = SupremeProperties.PREFIX + StrUtil.DOT + SupremeCacheProperties.PREFIX + ".transaction", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CacheTransactionAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheTransactionSynchronizer cacheTransactionSynchronizer(CacheOps cacheOps, SupremeProperties supremeProperties) {
+        return new CacheTransactionSynchronizer(cacheOps, supremeProperties.getCache().getTransaction());
+    }
+}
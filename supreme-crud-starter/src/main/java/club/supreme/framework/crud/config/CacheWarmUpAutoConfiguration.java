@@ -0,0 +1,50 @@
+package club.supreme.framework.crud.config;
+
+import club.supreme.framework.cache.repository.CacheOps;
+import club.supreme.framework.crud.cache.warmup.CacheHotKeyTracker;
+import club.supreme.framework.crud.cache.warmup.CacheWarmUpHealthIndicator;
+import club.supreme.framework.crud.cache.warmup.CacheWarmUpRunner;
+import club.supreme.framework.props.SupremeCacheProperties;
+import club.supreme.framework.props.SupremeProperties;
+import cn.hutool.core.util.StrUtil;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 缓存预热配置类
+ *
+ * @author supreme
+ */
+@Configuration
+@ConditionalOnProperty(prefix = SupremeProperties.PREFIX + StrUtil.DOT + SupremeCacheProperties.PREFIX + ".warm-up", name = "enabled", havingValue = "true")
+public class CacheWarmUpAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheHotKeyTracker cacheHotKeyTracker(CacheOps cacheOps, SupremeProperties supremeProperties) {
+        return new CacheHotKeyTracker(cacheOps, supremeProperties.getCache().getWarmUp().getHotKeyCapacity());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheWarmUpRunner cacheWarmUpRunner(ApplicationContext applicationContext, SupremeProperties supremeProperties,
+                                               CacheHotKeyTracker cacheHotKeyTracker) {
+        return new CacheWarmUpRunner(applicationContext, supremeProperties, cacheHotKeyTracker);
+    }
+
+    @Configuration
+    @ConditionalOnClass(HealthIndicator.class)
+    static class CacheWarmUpHealthConfiguration {
+
+        @Bean("cacheWarmUpHealthIndicator")
+        @ConditionalOnMissingBean(name = "cacheWarmUpHealthIndicator")
+        public CacheWarmUpHealthIndicator cacheWarmUpHealthIndicator(CacheWarmUpRunner cacheWarmUpRunner) {
+            return new CacheWarmUpHealthIndicator(cacheWarmUpRunner);
+        }
+    }
+}
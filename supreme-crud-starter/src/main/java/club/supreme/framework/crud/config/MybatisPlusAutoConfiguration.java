@@ -1,9 +1,13 @@
 package club.supreme.framework.crud.config;
 
+import club.supreme.framework.crud.cache.invalidation.CacheInvalidationInnerInterceptor;
+import club.supreme.framework.crud.datasource.ReadWriteRoutingInnerInterceptor;
 import club.supreme.framework.crud.handler.SupremeIdentifierGeneratorHandler;
 import club.supreme.framework.crud.handler.MybatisPlusAutoFillColumnHandler;
 import club.supreme.framework.crud.handler.SupremeTenantLineHandler;
+import club.supreme.framework.crud.handler.SupremeTenantLineInnerInterceptor;
 import club.supreme.framework.crud.injector.SupremeSqlInjector;
+import club.supreme.framework.crud.page.PageCounter;
 import club.supreme.framework.enums.crud.TenantIsolateLevelEnumI;
 import club.supreme.framework.props.SupremeProperties;
 import com.baomidou.mybatisplus.annotation.DbType;
@@ -12,8 +16,8 @@ import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.BlockAttackInnerInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.OptimisticLockerInnerInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
-import com.baomidou.mybatisplus.extension.plugins.inner.TenantLineInnerInterceptor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -40,9 +44,14 @@ public class MybatisPlusAutoConfiguration {
 
 
     @Bean
-    public MybatisPlusInterceptor mybatisPlusInterceptor() {
+    public MybatisPlusInterceptor mybatisPlusInterceptor(ObjectProvider<CacheInvalidationInnerInterceptor> cacheInvalidationInnerInterceptor,
+                                                         ObjectProvider<PageCounter> pageCounter,
+                                                         ObjectProvider<ReadWriteRoutingInnerInterceptor> readWriteRoutingInnerInterceptor) {
         MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
 
+        // 读写分离，需要在分页插件执行 COUNT 之前标记查询
+        readWriteRoutingInnerInterceptor.ifAvailable(interceptor::addInnerInterceptor);
+
         /*
         https://mybatis.plus/guide/interceptor.html#mybatisplusinterceptor
         使用多个功能需要注意顺序关系,建议使用如下顺序
@@ -56,7 +65,7 @@ public class MybatisPlusAutoConfiguration {
                 && TenantIsolateLevelEnumI.LINE.equals(supremeProperties.getTenant().getIsolateLevel())
         ) {
             log.info("检查到租户已启用采用了行模式（line）");
-            interceptor.addInnerInterceptor(new TenantLineInnerInterceptor(supremeTenantLineHandler));
+            interceptor.addInnerInterceptor(new SupremeTenantLineInnerInterceptor(supremeTenantLineHandler));
         }
 
         // 分页插件
@@ -73,10 +82,24 @@ public class MybatisPlusAutoConfiguration {
         // 防止全表更新与删除
         interceptor.addInnerInterceptor(new BlockAttackInnerInterceptor());
 
+        // 缓存失效广播
+        cacheInvalidationInnerInterceptor.ifAvailable(interceptor::addInnerInterceptor);
+
+        // 分页总数缓存失效
+        pageCounter.ifAvailable(interceptor::addInnerInterceptor);
 
         return interceptor;
     }
 
+    /**
+     * 分页总数(缓存、异步、估算)
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public PageCounter pageCounter() {
+        return new PageCounter(supremeProperties.getCrud().getPageCount(), supremeProperties.getTenant());
+    }
+
     /**
      * 自定义ID生成器
      */
@@ -104,6 +127,6 @@ public class MybatisPlusAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean
     public SupremeSqlInjector getMySqlInjector() {
-        return new SupremeSqlInjector();
+        return new SupremeSqlInjector(DbType.getDbType(supremeProperties.getCrud().getDbType()));
     }
 }
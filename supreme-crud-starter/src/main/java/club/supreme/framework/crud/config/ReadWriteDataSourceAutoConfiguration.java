@@ -0,0 +1,115 @@
+package club.supreme.framework.crud.config;
+
+import club.supreme.framework.crud.datasource.DataSourceFactory;
+import club.supreme.framework.crud.datasource.ReadWriteRoutingDataSource;
+import club.supreme.framework.crud.datasource.ReadWriteRoutingInnerInterceptor;
+import club.supreme.framework.crud.datasource.ReplicaDataSource;
+import club.supreme.framework.crud.datasource.TenantDataSourcePostProcessor;
+import club.supreme.framework.crud.datasource.TenantRoutingDataSource;
+import club.supreme.framework.props.SupremeProperties;
+import cn.hutool.core.util.StrUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static club.supreme.framework.props.SupremeProperties.PREFIX;
+
+/**
+ * 读写分离配置类
+ * <p>
+ * 只在 supreme.crud.read-write.enabled=true 时生效：把应用的 DataSource 包装为 ReadWriteRoutingDataSource，
+ * 外层再包装 LazyConnectionDataSourceProxy
+ *
+ * @author supreme
+ */
+@Configuration
+@ConditionalOnProperty(prefix = PREFIX + ".crud.read-write", name = "enabled", havingValue = "true")
+public class ReadWriteDataSourceAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReadWriteRoutingInnerInterceptor readWriteRoutingInnerInterceptor() {
+        return new ReadWriteRoutingInnerInterceptor();
+    }
+
+    @Bean
+    public static ReadWriteDataSourcePostProcessor readWriteDataSourcePostProcessor() {
+        return new ReadWriteDataSourcePostProcessor();
+    }
+
+    /**
+     * 包装应用的 DataSource
+     * <p>
+     * BeanPostProcessor 初始化得早，配置直接从 Environment 绑定；
+     * 同时启用数据源级租户隔离时先于 TenantDataSourcePostProcessor 执行，已被包装为 TenantRoutingDataSource 的不再包装
+     */
+    @Slf4j
+    public static class ReadWriteDataSourcePostProcessor implements BeanPostProcessor, EnvironmentAware, DisposableBean, Ordered {
+
+        /**
+         * 在 TenantDataSourcePostProcessor 之前执行
+         */
+        public static final int ORDER = TenantDataSourcePostProcessor.ORDER - 10;
+
+        private final List<ReadWriteRoutingDataSource> routingDataSources = new ArrayList<>();
+        private Environment environment;
+
+        @Override
+        public void setEnvironment(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource) || bean instanceof ReadWriteRoutingDataSource || bean instanceof LazyConnectionDataSourceProxy
+                    || bean instanceof TenantRoutingDataSource) {
+                return bean;
+            }
+            SupremeProperties.Crud.ReadWrite properties = Binder.get(environment)
+                    .bind(PREFIX + ".crud.read-write", SupremeProperties.Crud.ReadWrite.class)
+                    .orElseGet(SupremeProperties.Crud.ReadWrite::new);
+            if (properties.getReplicas().isEmpty()) {
+                log.warn("已启用读写分离, 但没有配置从库");
+                return bean;
+            }
+
+            List<ReplicaDataSource> replicas = new ArrayList<>(properties.getReplicas().size());
+            for (SupremeProperties.Crud.ReadWrite.Replica replica : properties.getReplicas()) {
+                String name = StrUtil.blankToDefault(replica.getName(), "replica-" + replicas.size());
+                DataSource dataSource = DataSourceFactory.create(replica.getUrl(), replica.getUsername(), replica.getPassword(),
+                        replica.getDriverClassName(), replica.getType());
+                replicas.add(new ReplicaDataSource(name, replica.getWeight() == null ? 1 : replica.getWeight(), dataSource));
+            }
+            ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource((DataSource) bean, replicas,
+                    properties.getBalance(), properties.getMaxLag(), properties.getCheckInterval());
+            routingDataSources.add(routingDataSource);
+            log.info("数据源[{}]启用读写分离, 从库: {}", beanName, replicas.stream().map(ReplicaDataSource::getName).toArray());
+            return new LazyConnectionDataSourceProxy(routingDataSource);
+        }
+
+        @Override
+        public int getOrder() {
+            return ORDER;
+        }
+
+        @Override
+        public void destroy() throws Exception {
+            for (ReadWriteRoutingDataSource routingDataSource : routingDataSources) {
+                routingDataSource.destroy();
+            }
+        }
+    }
+}
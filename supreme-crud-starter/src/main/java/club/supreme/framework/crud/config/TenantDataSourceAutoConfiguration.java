@@ -0,0 +1,57 @@
+package club.supreme.framework.crud.config;
+
+import club.supreme.framework.crud.datasource.TenantDataSourceHealthIndicator;
+import club.supreme.framework.crud.datasource.TenantDataSourcePostProcessor;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.AllNestedConditions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+
+import static club.supreme.framework.props.SupremeProperties.PREFIX;
+
+/**
+ * 数据源级租户隔离配置类
+ * <p>
+ * 只在 supreme.tenant.enabled=true 且 supreme.tenant.isolate-level=DATASOURCE 时生效
+ *
+ * @author supreme
+ */
+@Configuration
+@Conditional(TenantDataSourceAutoConfiguration.OnDataSourceIsolation.class)
+public class TenantDataSourceAutoConfiguration {
+
+    @Bean
+    public static TenantDataSourcePostProcessor tenantDataSourcePostProcessor() {
+        return new TenantDataSourcePostProcessor();
+    }
+
+    @Configuration
+    @ConditionalOnClass(HealthIndicator.class)
+    static class TenantDataSourceHealthConfiguration {
+
+        @Bean("tenantDataSourceHealthIndicator")
+        @ConditionalOnMissingBean(name = "tenantDataSourceHealthIndicator")
+        public TenantDataSourceHealthIndicator tenantDataSourceHealthIndicator(TenantDataSourcePostProcessor tenantDataSourcePostProcessor) {
+            return new TenantDataSourceHealthIndicator(tenantDataSourcePostProcessor);
+        }
+    }
+
+    static class OnDataSourceIsolation extends AllNestedConditions {
+
+        OnDataSourceIsolation() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(prefix = PREFIX + ".tenant", name = "enabled", havingValue = "true")
+        static class Enabled {
+        }
+
+        @ConditionalOnProperty(prefix = PREFIX + ".tenant", name = "isolate-level", havingValue = "DATASOURCE")
+        static class DataSourceLevel {
+        }
+    }
+}
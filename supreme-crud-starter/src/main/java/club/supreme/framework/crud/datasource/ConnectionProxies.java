@@ -0,0 +1,38 @@
+package club.supreme.framework.crud.datasource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 连接代理
+ *
+ * @author supreme
+ */
+final class ConnectionProxies {
+
+    private ConnectionProxies() {
+    }
+
+    /**
+     * 连接第一次关闭时回调
+     *
+     * @param connection 连接
+     * @param onClose    关闭时的回调
+     * @return 代理后的连接
+     */
+    static Connection onClose(Connection connection, Runnable onClose) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                onClose.run();
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        });
+    }
+}
@@ -0,0 +1,40 @@
+package club.supreme.framework.crud.datasource;
+
+import cn.hutool.core.util.ClassUtil;
+import cn.hutool.core.util.StrUtil;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+
+import javax.sql.DataSource;
+
+/**
+ * 按连接信息创建数据源(连接池)
+ *
+ * @author supreme
+ */
+public final class DataSourceFactory {
+
+    private DataSourceFactory() {
+    }
+
+    /**
+     * 创建数据源
+     *
+     * @param url             url
+     * @param username        用户名
+     * @param password        密码
+     * @param driverClassName 驱动类名，为空时根据 url 识别
+     * @param type            连接池类型(类名)，为空时自动选择
+     * @return 数据源
+     */
+    @SuppressWarnings("unchecked")
+    public static DataSource create(String url, String username, String password, String driverClassName, String type) {
+        DataSourceBuilder<?> builder = DataSourceBuilder.create().url(url).username(username).password(password);
+        if (StrUtil.isNotEmpty(driverClassName)) {
+            builder.driverClassName(driverClassName);
+        }
+        if (StrUtil.isNotEmpty(type)) {
+            builder.type((Class<? extends DataSource>) ClassUtil.loadClass(type));
+        }
+        return builder.build();
+    }
+}
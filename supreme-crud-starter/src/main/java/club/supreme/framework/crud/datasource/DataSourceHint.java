@@ -0,0 +1,135 @@
+package club.supreme.framework.crud.datasource;
+
+import com.alibaba.ttl.TransmittableThreadLocal;
+import lombok.experimental.UtilityClass;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * 读写分离的路由提示
+ * <p>
+ * 1，强制主库：写入后需要立即读到最新数据(从库有复制延迟)时使用，如：
+ * DataSourceHint.primary(() -&gt; userService.getById(id))
+ * 2，查询标记：ReadWriteRoutingInnerInterceptor 在事务外的 SELECT 执行前标记，获取连接时读取并清除，查询结束后无论是否获取连接都清除；
+ * 3，从库事务：只读事务获取了从库连接后，事务中之后的查询都复用该连接，强制主库不再生效，回填缓存前需要判断
+ *
+ * @author supreme
+ */
+@UtilityClass
+public class DataSourceHint {
+
+    private final ThreadLocal<Boolean> FORCE_PRIMARY = new TransmittableThreadLocal<>();
+    private final ThreadLocal<Boolean> READ = new ThreadLocal<>();
+    /**
+     * 事务同步资源的 key：当前事务已使用从库连接
+     */
+    private final Object REPLICA_TRANSACTION = new Object();
+
+    /**
+     * 在主库上执行
+     *
+     * @param supplier 执行的操作
+     * @return 操作的返回值
+     */
+    public <T> T primary(Supplier<T> supplier) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return supplier.get();
+        } finally {
+            if (previous == null) {
+                FORCE_PRIMARY.remove();
+            } else {
+                FORCE_PRIMARY.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 在主库上执行
+     *
+     * @param runnable 执行的操作
+     */
+    public void primary(Runnable runnable) {
+        primary(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * 当前线程之后的操作都使用主库，需要调用 clear 恢复
+     */
+    public void forcePrimary() {
+        FORCE_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public void clear() {
+        FORCE_PRIMARY.remove();
+        READ.remove();
+    }
+
+    public boolean isForcePrimary() {
+        return Boolean.TRUE.equals(FORCE_PRIMARY.get());
+    }
+
+    /**
+     * 标记接下来获取的连接用于查询
+     */
+    void markRead() {
+        READ.set(Boolean.TRUE);
+    }
+
+    /**
+     * 标记接下来获取的连接用于写入
+     */
+    void markWrite() {
+        READ.remove();
+    }
+
+    /**
+     * 读取并清除查询标记
+     */
+    boolean consumeRead() {
+        boolean read = Boolean.TRUE.equals(READ.get());
+        READ.remove();
+        return read;
+    }
+
+    /**
+     * 当前事务是否已经使用从库连接
+     *
+     * @return 是否使用从库
+     */
+    public boolean isReplicaTransaction() {
+        return TransactionSynchronizationManager.hasResource(REPLICA_TRANSACTION);
+    }
+
+    /**
+     * 标记当前事务已使用从库连接，事务结束时清除
+     */
+    void markReplicaTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || isReplicaTransaction()) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REPLICA_TRANSACTION, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_TRANSACTION);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(REPLICA_TRANSACTION, Boolean.TRUE);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_TRANSACTION);
+            }
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package club.supreme.framework.crud.datasource;
+
+import club.supreme.framework.props.SupremeProperties;
+import club.supreme.framework.utils.ArgumentAssert;
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.StrUtil;
+
+import javax.sql.DataSource;
+
+/**
+ * 按 url 模板创建租户的数据源
+ *
+ * @author supreme
+ */
+public class PropertiesTenantDataSourceProvider implements TenantDataSourceProvider {
+
+    private static final String TENANT_ID = "tenantId";
+
+    private final SupremeProperties.Tenant.TenantDataSource properties;
+
+    public PropertiesTenantDataSourceProvider(SupremeProperties.Tenant.TenantDataSource properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public DataSource create(Long tenantId) {
+        ArgumentAssert.notEmpty(properties.getUrlTemplate(), "未配置 supreme.tenant.datasource.url-template");
+        String url = StrUtil.format(properties.getUrlTemplate(), MapUtil.of(TENANT_ID, tenantId));
+        return DataSourceFactory.create(url, properties.getUsername(), properties.getPassword(),
+                properties.getDriverClassName(), properties.getType());
+    }
+}
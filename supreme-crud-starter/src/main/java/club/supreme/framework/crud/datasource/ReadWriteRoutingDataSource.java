@@ -0,0 +1,237 @@
+package club.supreme.framework.crud.datasource;
+
+import club.supreme.framework.enums.crud.ReplicaBalanceEnumI;
+import cn.hutool.core.thread.NamedThreadFactory;
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.extension.toolkit.JdbcUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 读写分离数据源
+ * <p>
+ * 获取连接时按以下规则选择主库或从库：
+ * 1，DataSourceHint 强制主库时使用主库；
+ * 2，事务中：只读事务使用从库，其他使用主库；
+ * 3，事务外：ReadWriteRoutingInnerInterceptor 标记为查询时使用从库，其他(写入、JdbcTemplate 等)使用主库。
+ * 从库按权重随机或最少活动连接选择，定时检查从库的可用性和复制延迟，不可用或延迟超过上限的从库暂停使用，
+ * 获取从库连接失败时立即暂停该从库并改用主库，没有可用的从库时使用主库。
+ * 事务中获取了从库连接时标记该事务(DataSourceHint.isReplicaTransaction)，事务中读到的数据不回填缓存。
+ * <p>
+ * 事务开始时就会获取连接，此时事务的只读标记还未设置，需要使用 LazyConnectionDataSourceProxy 包装，
+ * 在第一次执行 SQL 时才真正获取连接
+ *
+ * @author supreme
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    /**
+     * MySQL 8.0.22、MariaDB 10.5.1 及以上
+     */
+    private static final String MYSQL_LAG_SQL = "SHOW REPLICA STATUS";
+    private static final String MYSQL_LEGACY_LAG_SQL = "SHOW SLAVE STATUS";
+    private static final String SECONDS_BEHIND_SOURCE = "Seconds_Behind_Source";
+    private static final String SECONDS_BEHIND_MASTER = "Seconds_Behind_Master";
+    /**
+     * 已回放完收到的 WAL 时没有延迟：主库长时间没有写入时 pg_last_xact_replay_timestamp() 不再变化，不能按它计算
+     */
+    private static final String POSTGRE_SQL_LAG_SQL = "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+    private static final int VALID_TIMEOUT_SECONDS = 3;
+
+    private final DataSource primary;
+    private final List<ReplicaDataSource> replicas;
+    private final ReplicaBalanceEnumI balance;
+    private final long maxLagMillis;
+    private final ScheduledExecutorService checker;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<ReplicaDataSource> replicas, ReplicaBalanceEnumI balance,
+                                      Duration maxLag, Duration checkInterval) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas);
+        this.balance = balance == null ? ReplicaBalanceEnumI.WEIGHTED : balance;
+        this.maxLagMillis = maxLag.toMillis();
+        this.checker = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("supreme-replica-checker-", true));
+        if (!this.replicas.isEmpty()) {
+            checker.scheduleWithFixedDelay(this::checkReplicas, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        ReplicaDataSource replica = isRead() ? chooseReplica() : null;
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            // 事务中之后的查询都复用这个连接
+            DataSourceHint.markReplicaTransaction();
+            return connection;
+        } catch (SQLException e) {
+            replica.setHealthy(false);
+            log.warn("从库[{}]获取连接失败, 暂停使用并改用主库", replica.getName(), e);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<ReplicaDataSource> getReplicas() {
+        return replicas;
+    }
+
+    private boolean isRead() {
+        // 无论是否使用，都清除查询标记，避免影响下一次获取连接
+        boolean read = DataSourceHint.consumeRead();
+        if (DataSourceHint.isForcePrimary()) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+        return read;
+    }
+
+    /**
+     * 选择从库
+     *
+     * @return 没有可用的从库时返回 null
+     */
+    private ReplicaDataSource chooseReplica() {
+        List<ReplicaDataSource> available = new ArrayList<>(replicas.size());
+        int totalWeight = 0;
+        for (ReplicaDataSource replica : replicas) {
+            if (replica.isHealthy()) {
+                available.add(replica);
+                totalWeight += replica.getWeight();
+            }
+        }
+        if (available.isEmpty()) {
+            return null;
+        }
+        if (ReplicaBalanceEnumI.LEAST_CONNECTIONS == balance) {
+            ReplicaDataSource least = available.get(0);
+            for (ReplicaDataSource replica : available) {
+                if (replica.getActiveConnections() < least.getActiveConnections()) {
+                    least = replica;
+                }
+            }
+            return least;
+        }
+        int random = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (ReplicaDataSource replica : available) {
+            random -= replica.getWeight();
+            if (random < 0) {
+                return replica;
+            }
+        }
+        return available.get(available.size() - 1);
+    }
+
+    /**
+     * 检查从库的可用性和复制延迟
+     */
+    private void checkReplicas() {
+        for (ReplicaDataSource replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.getDataSource().getConnection()) {
+                long lag = lagMillis(connection);
+                replica.setLagMillis(lag);
+                healthy = lag >= 0 && lag <= maxLagMillis;
+                if (!healthy) {
+                    log.warn("从库[{}]复制延迟 {}ms 超过上限 {}ms, 暂停使用", replica.getName(), lag, maxLagMillis);
+                }
+            } catch (Exception e) {
+                healthy = false;
+                log.warn("从库[{}]不可用, 暂停使用", replica.getName(), e);
+            }
+            if (healthy && !replica.isHealthy()) {
+                log.info("从库[{}]已恢复", replica.getName());
+            }
+            replica.setHealthy(healthy);
+        }
+    }
+
+    /**
+     * 复制延迟
+     *
+     * @return 毫秒，复制已停止时返回 -1
+     */
+    private long lagMillis(Connection connection) throws SQLException {
+        DbType dbType = JdbcUtils.getDbType(connection.getMetaData().getURL());
+        if (DbType.MYSQL == dbType || DbType.MARIADB == dbType) {
+            try {
+                return mysqlLagMillis(connection, MYSQL_LAG_SQL);
+            } catch (SQLException e) {
+                log.debug("不支持 {}, 改用 {}", MYSQL_LAG_SQL, MYSQL_LEGACY_LAG_SQL, e);
+                return mysqlLagMillis(connection, MYSQL_LEGACY_LAG_SQL);
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            if (DbType.POSTGRE_SQL == dbType) {
+                try (ResultSet resultSet = statement.executeQuery(POSTGRE_SQL_LAG_SQL)) {
+                    return resultSet.next() ? resultSet.getLong(1) : 0;
+                }
+            }
+        }
+        return connection.isValid(VALID_TIMEOUT_SECONDS) ? 0 : -1;
+    }
+
+    private static long mysqlLagMillis(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+            if (!resultSet.next()) {
+                // 不是从库
+                return 0;
+            }
+            // MariaDB 的 SHOW REPLICA STATUS 仍然是 Seconds_Behind_Master
+            long seconds = resultSet.getLong(hasColumn(resultSet, SECONDS_BEHIND_SOURCE) ? SECONDS_BEHIND_SOURCE : SECONDS_BEHIND_MASTER);
+            return resultSet.wasNull() ? -1 : seconds * 1000;
+        }
+    }
+
+    private static boolean hasColumn(ResultSet resultSet, String column) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (column.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        checker.shutdownNow();
+        for (ReplicaDataSource replica : replicas) {
+            if (replica.getDataSource() instanceof Closeable) {
+                ((Closeable) replica.getDataSource()).close();
+            }
+        }
+    }
+}
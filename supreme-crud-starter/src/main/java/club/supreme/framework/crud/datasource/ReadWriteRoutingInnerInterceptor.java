@@ -0,0 +1,60 @@
+package club.supreme.framework.crud.datasource;
+
+import com.baomidou.mybatisplus.extension.plugins.inner.InnerInterceptor;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+
+/**
+ * 读写分离拦截器
+ * <p>
+ * 事务外(且没有事务同步)的 SELECT 在获取连接前标记为查询，由 ReadWriteRoutingDataSource 路由到从库；写入语句清除标记。
+ * 需要放在分页插件之前：分页插件在 willDoQuery 中执行 COUNT，会先获取连接。
+ * <p>
+ * 同时作为 mybatis 插件注册(Spring 容器中的 Interceptor 会自动注册)：查询结束后清除查询标记，
+ * 命中一级/二级缓存等没有获取连接的查询不会把标记遗留给下一次获取连接(如 JdbcTemplate 的写入)
+ *
+ * @author supreme
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class,
+                CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor", args = {MappedStatement.class, Object.class, RowBounds.class})
+})
+public class ReadWriteRoutingInnerInterceptor implements InnerInterceptor, Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        try {
+            return invocation.proceed();
+        } finally {
+            DataSourceHint.markWrite();
+        }
+    }
+
+    @Override
+    public boolean willDoQuery(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds,
+                               ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
+        // 有事务同步时(如 SUPPORTS 传播)连接会在多条语句之间复用，不能路由到从库
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            DataSourceHint.markRead();
+        }
+        return true;
+    }
+
+    @Override
+    public void beforeUpdate(Executor executor, MappedStatement ms, Object parameter) throws SQLException {
+        DataSourceHint.markWrite();
+    }
+}
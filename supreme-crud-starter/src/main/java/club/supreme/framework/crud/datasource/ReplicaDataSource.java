@@ -0,0 +1,56 @@
+package club.supreme.framework.crud.datasource;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 从库
+ * <p>
+ * 统计从该从库借出且未关闭的连接数(最少连接策略使用)，保存健康检查的结果
+ *
+ * @author supreme
+ */
+@Getter
+public class ReplicaDataSource {
+
+    private final String name;
+    private final int weight;
+    private final DataSource dataSource;
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger active = new AtomicInteger();
+    /**
+     * 是否可用：连接正常且复制延迟不超过上限
+     */
+    @Setter
+    private volatile boolean healthy = true;
+    /**
+     * 最近一次检查到的复制延迟(毫秒)
+     */
+    @Setter
+    private volatile long lagMillis;
+
+    public ReplicaDataSource(String name, int weight, DataSource dataSource) {
+        this.name = name;
+        this.weight = Math.max(1, weight);
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * 获取连接，连接关闭时活动连接数减一
+     */
+    public Connection getConnection() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        active.incrementAndGet();
+        return ConnectionProxies.onClose(connection, active::decrementAndGet);
+    }
+
+    public int getActiveConnections() {
+        return active.get();
+    }
+}
@@ -0,0 +1,36 @@
+package club.supreme.framework.crud.datasource;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 租户数据源健康检查
+ * <p>
+ * 按数据源的 bean 名称输出：连接池个数、累计淘汰个数、每个租户连接池的统计(活动连接数、累计借出次数、创建时间、最后借出时间)
+ *
+ * @author supreme
+ */
+public class TenantDataSourceHealthIndicator extends AbstractHealthIndicator {
+
+    private final TenantDataSourcePostProcessor tenantDataSourcePostProcessor;
+
+    public TenantDataSourceHealthIndicator(TenantDataSourcePostProcessor tenantDataSourcePostProcessor) {
+        super("租户数据源健康检查失败");
+        this.tenantDataSourcePostProcessor = tenantDataSourcePostProcessor;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        builder.up();
+        tenantDataSourcePostProcessor.getRoutingDataSources().forEach((beanName, routingDataSource) -> {
+            Map<String, Object> detail = new LinkedHashMap<>();
+            detail.put("pools", routingDataSource.getPoolCount());
+            detail.put("evictions", routingDataSource.getEvictions());
+            detail.put("tenants", routingDataSource.getMetrics());
+            builder.withDetail(beanName, detail);
+        });
+    }
+}
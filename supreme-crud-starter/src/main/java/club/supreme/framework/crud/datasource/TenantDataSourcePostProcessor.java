@@ -0,0 +1,91 @@
+package club.supreme.framework.crud.datasource;
+
+import club.supreme.framework.props.SupremeProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static club.supreme.framework.props.SupremeProperties.PREFIX;
+
+/**
+ * 把应用的 DataSource 包装为 TenantRoutingDataSource
+ * <p>
+ * BeanPostProcessor 初始化得早，配置直接从 Environment 绑定；TenantDataSourceProvider 在第一次创建租户连接池时才从容器中获取。
+ * 同时启用读写分离时在 ReadWriteDataSourcePostProcessor 之后执行，包装在最外层：默认数据源(没有租户、特权租户)读写分离，租户的数据源不读写分离
+ *
+ * @author supreme
+ */
+@Slf4j
+public class TenantDataSourcePostProcessor implements BeanPostProcessor, BeanFactoryAware, EnvironmentAware, DisposableBean, Ordered {
+
+    /**
+     * 在 ReadWriteDataSourcePostProcessor 之后执行
+     */
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 10;
+
+    /**
+     * bean 名称 -&gt; 包装后的数据源
+     */
+    private final Map<String, TenantRoutingDataSource> routingDataSources = new LinkedHashMap<>();
+    private BeanFactory beanFactory;
+    private Environment environment;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource) || bean instanceof TenantRoutingDataSource) {
+            return bean;
+        }
+        SupremeProperties.Tenant.TenantDataSource properties = Binder.get(environment)
+                .bind(PREFIX + ".tenant.datasource", SupremeProperties.Tenant.TenantDataSource.class)
+                .orElseGet(SupremeProperties.Tenant.TenantDataSource::new);
+        ObjectProvider<TenantDataSourceProvider> provider = beanFactory.getBeanProvider(TenantDataSourceProvider.class);
+        TenantRoutingDataSource routingDataSource = new TenantRoutingDataSource((DataSource) bean,
+                () -> provider.getIfAvailable(() -> new PropertiesTenantDataSourceProvider(properties)),
+                properties.getMaxActiveTenants(), properties.getIdleTimeout());
+        routingDataSources.put(beanName, routingDataSource);
+        log.info("数据源[{}]启用数据源级租户隔离, 最多保持 {} 个租户的连接池", beanName, properties.getMaxActiveTenants());
+        return routingDataSource;
+    }
+
+    /**
+     * 包装后的数据源
+     *
+     * @return bean 名称 -&gt; 数据源
+     */
+    public Map<String, TenantRoutingDataSource> getRoutingDataSources() {
+        return Collections.unmodifiableMap(routingDataSources);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public void destroy() {
+        routingDataSources.values().forEach(TenantRoutingDataSource::destroy);
+    }
+}
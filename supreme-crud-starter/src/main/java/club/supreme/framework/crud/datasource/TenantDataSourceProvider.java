@@ -0,0 +1,21 @@
+package club.supreme.framework.crud.datasource;
+
+import javax.sql.DataSource;
+
+/**
+ * 创建租户的数据源
+ * <p>
+ * 默认使用 supreme.tenant.datasource 中的 url 模板，租户的连接信息保存在其他地方(如：租户表)时可以注册自己的实现
+ *
+ * @author supreme
+ */
+public interface TenantDataSourceProvider {
+
+    /**
+     * 创建租户的数据源(连接池)，不再使用时会被关闭
+     *
+     * @param tenantId 租户ID
+     * @return 数据源
+     */
+    DataSource create(Long tenantId);
+}
@@ -0,0 +1,206 @@
+package club.supreme.framework.crud.datasource;
+
+import club.supreme.framework.constant.SupremeConstant;
+import club.supreme.framework.context.TenantContextHolder;
+import cn.hutool.core.thread.NamedThreadFactory;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 数据源级租户隔离：按 TenantContextHolder.getTenantId() 路由到租户自己的数据源
+ * <p>
+ * 1，租户的连接池在第一次使用时创建(TenantDataSourceProvider)，没有租户或特权租户(DEFAULT_PRIVILEGED_TENANT_ID)时使用默认数据源；
+ * 2，最多同时保持 maxActiveTenants 个租户的连接池，超过时淘汰最久未使用的，空闲超过 idleTimeout 的也会被淘汰；
+ * 被淘汰的连接池等借出的连接全部归还后再关闭，总连接数有上限；
+ * 3，SQL 不需要租户条件，不经过 TenantLineInnerInterceptor 改写。
+ * 注意：事务开始时就会获取连接，同一个事务中不能切换租户
+ *
+ * @author supreme
+ */
+@Slf4j
+public class TenantRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    /**
+     * 连接池被淘汰时重新获取的次数
+     */
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final DataSource defaultDataSource;
+    private final LoadingCache<Long, TenantPool> pools;
+    private final ScheduledExecutorService cleaner;
+    private final LongAdder evictions = new LongAdder();
+
+    public TenantRoutingDataSource(DataSource defaultDataSource, Supplier<TenantDataSourceProvider> provider,
+                                   int maxActiveTenants, Duration idleTimeout) {
+        this.defaultDataSource = defaultDataSource;
+        this.pools = Caffeine.newBuilder()
+                .maximumSize(maxActiveTenants)
+                .expireAfterAccess(idleTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .<Long, TenantPool>removalListener((tenantId, pool, cause) -> {
+                    if (pool != null) {
+                        evictions.increment();
+                        log.info("租户[{}]的连接池被淘汰({}), 借出的连接归还后关闭", tenantId, cause);
+                        pool.retire();
+                    }
+                })
+                .build(tenantId -> {
+                    log.info("创建租户[{}]的连接池", tenantId);
+                    return new TenantPool(provider.get().create(tenantId));
+                });
+        // 没有访问时 caffeine 不会主动淘汰过期的连接池
+        this.cleaner = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("supreme-tenant-datasource-", true));
+        long interval = Math.max(1000L, idleTimeout.toMillis() / 2);
+        cleaner.scheduleWithFixedDelay(pools::cleanUp, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Long tenantId = TenantContextHolder.getTenantId();
+        // 特权租户(如缓存预热、后台任务)访问的是平台库，不是某个租户的库
+        if (tenantId == null || SupremeConstant.Tenant.DEFAULT_PRIVILEGED_TENANT_ID.equals(tenantId)) {
+            return defaultDataSource.getConnection();
+        }
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            TenantPool pool;
+            try {
+                pool = pools.get(tenantId);
+            } catch (RuntimeException e) {
+                throw new SQLException("创建租户[" + tenantId + "]的数据源失败", e);
+            }
+            Connection connection = pool.borrow();
+            if (connection != null) {
+                return connection;
+            }
+        }
+        throw new SQLException("租户[" + tenantId + "]的连接池已关闭");
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return defaultDataSource.getConnection(username, password);
+    }
+
+    /**
+     * 每个租户连接池的统计
+     *
+     * @return 租户ID -&gt; 统计项
+     */
+    public Map<Long, Map<String, Object>> getMetrics() {
+        Map<Long, Map<String, Object>> metrics = new LinkedHashMap<>();
+        pools.asMap().forEach((tenantId, pool) -> {
+            Map<String, Object> detail = new LinkedHashMap<>();
+            detail.put("active", pool.active.get());
+            detail.put("borrowed", pool.borrowed.sum());
+            detail.put("createdAt", pool.createdAt);
+            detail.put("lastBorrowedAt", pool.lastBorrowedAt);
+            metrics.put(tenantId, detail);
+        });
+        return metrics;
+    }
+
+    /**
+     * 当前保持的连接池个数
+     */
+    public long getPoolCount() {
+        return pools.estimatedSize();
+    }
+
+    /**
+     * 累计淘汰的连接池个数
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public void destroy() {
+        cleaner.shutdownNow();
+        pools.invalidateAll();
+        pools.cleanUp();
+    }
+
+    /**
+     * 一个租户的连接池
+     */
+    private static class TenantPool {
+        private final DataSource dataSource;
+        private final AtomicInteger active = new AtomicInteger();
+        private final LongAdder borrowed = new LongAdder();
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long lastBorrowedAt;
+        private volatile boolean retired;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private TenantPool(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        /**
+         * 借出连接
+         *
+         * @return 连接池已关闭时返回 null
+         */
+        private Connection borrow() throws SQLException {
+            active.incrementAndGet();
+            if (closed.get()) {
+                active.decrementAndGet();
+                return null;
+            }
+            Connection connection;
+            try {
+                connection = dataSource.getConnection();
+            } catch (SQLException e) {
+                release();
+                if (closed.get()) {
+                    return null;
+                }
+                throw e;
+            }
+            borrowed.increment();
+            lastBorrowedAt = System.currentTimeMillis();
+            return ConnectionProxies.onClose(connection, this::release);
+        }
+
+        private void release() {
+            if (active.decrementAndGet() == 0 && retired) {
+                close();
+            }
+        }
+
+        private void retire() {
+            retired = true;
+            if (active.get() == 0) {
+                close();
+            }
+        }
+
+        private void close() {
+            if (!closed.compareAndSet(false, true) || !(dataSource instanceof Closeable)) {
+                return;
+            }
+            try {
+                ((Closeable) dataSource).close();
+            } catch (Exception e) {
+                log.warn("关闭租户连接池失败", e);
+            }
+        }
+    }
+}
@@ -8,6 +8,8 @@ import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.LongValue;
 
 import javax.annotation.Resource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 行级租户拦截器
@@ -18,6 +20,11 @@ public class SupremeTenantLineHandler implements TenantLineHandler {
     @Resource
     private SupremeProperties supremeProperties;
 
+    /**
+     * 表名 -> 是否忽略租户条件
+     */
+    private final Map<String, Boolean> ignoredTables = new ConcurrentHashMap<>();
+
 
     @Override
     public Expression getTenantId() {
@@ -31,11 +38,27 @@ public class SupremeTenantLineHandler implements TenantLineHandler {
 
     @Override
     public boolean ignoreTable(String tableName) {
-        if (SupremeConstant.Tenant.DEFAULT_PRIVILEGED_TENANT_ID.equals(TenantContextHolder.getTenantId())) {
+        if (isPrivileged()) {
             return true;
         }
 
-        return supremeProperties.getTenant().getIgnoredTables().contains(tableName);
+        return isIgnoredTable(tableName);
+    }
+
+    /**
+     * 当前租户是否为特权租户，特权租户的 SQL 不追加租户条件
+     */
+    public boolean isPrivileged() {
+        return SupremeConstant.Tenant.DEFAULT_PRIVILEGED_TENANT_ID.equals(TenantContextHolder.getTenantId());
+    }
+
+    /**
+     * 表是否配置为忽略租户条件，与当前租户无关，按表名缓存
+     *
+     * @param tableName 表名
+     */
+    public boolean isIgnoredTable(String tableName) {
+        return ignoredTables.computeIfAbsent(tableName, k -> supremeProperties.getTenant().getIgnoredTables().contains(k));
     }
 
 }
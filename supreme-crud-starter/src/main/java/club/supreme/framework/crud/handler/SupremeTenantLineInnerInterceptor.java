@@ -0,0 +1,223 @@
+package club.supreme.framework.crud.handler;
+
+import club.supreme.framework.constant.StrPool;
+import club.supreme.framework.context.TenantContextHolder;
+import club.supreme.framework.crud.injector.method.UpsertBatch;
+import club.supreme.framework.utils.ArgumentAssert;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.plugins.InterceptorIgnoreHelper;
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import com.baomidou.mybatisplus.extension.plugins.handler.TenantLineHandler;
+import com.baomidou.mybatisplus.extension.plugins.inner.TenantLineInnerInterceptor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.schema.Column;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 缓存改写结果的行级租户拦截器
+ * <p>
+ * 1，按 MappedStatement + 原始 SQL 缓存 JSqlParser 改写后的 SQL，相同的 SQL 只解析一次；
+ * 2，租户ID以绑定参数(tenant_id = ?)而不是字面量追加，不同租户执行相同的 SQL，数据库可以复用预编译语句和执行计划；
+ * 3，表是否忽略租户条件按表名缓存(SupremeTenantLineHandler.isIgnoredTable)，特权租户不改写 SQL。
+ * <p>
+ * 改写时租户条件的值是一个占位列，缓存时替换为 ? 并记录它在所有参数中的位置，执行时在对应位置插入租户ID的 ParameterMapping。
+ * 原始 SQL 中 ? 的个数与 ParameterMapping 不一致时(如 SQL 中有无法识别的 ?)，退回到字面量。
+ * 写入语句在 prepare 和 getBoundSql 时都会改写(批量执行复用预编译语句时不会 prepare)，已改写的 BoundSql 不再改写
+ *
+ * @author supreme
+ */
+public class SupremeTenantLineInnerInterceptor extends TenantLineInnerInterceptor {
+
+    /**
+     * 改写时代替租户ID的占位列
+     */
+    static final String MARKER = "__supreme_tenant_id__";
+    /**
+     * 租户ID的绑定参数名，同时标记 BoundSql 已改写
+     */
+    static final String TENANT_PARAMETER = "__supremeTenantId";
+    private static final int MAX_CACHED_SQL = 10000;
+
+    private final SupremeTenantLineHandler handler;
+    /**
+     * MappedStatement id + 原始 SQL -> 改写结果
+     */
+    private final Cache<String, Rewrite> rewrites = Caffeine.newBuilder().maximumSize(MAX_CACHED_SQL).build();
+
+    public SupremeTenantLineInnerInterceptor(SupremeTenantLineHandler handler) {
+        super(new TenantLineHandler() {
+            @Override
+            public Expression getTenantId() {
+                return new Column(MARKER);
+            }
+
+            @Override
+            public String getTenantIdColumn() {
+                return handler.getTenantIdColumn();
+            }
+
+            @Override
+            public boolean ignoreTable(String tableName) {
+                return handler.isIgnoredTable(tableName);
+            }
+        });
+        this.handler = handler;
+    }
+
+    @Override
+    public void beforeQuery(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
+        if (InterceptorIgnoreHelper.willIgnoreTenantLine(ms.getId())) {
+            return;
+        }
+        rewrite(ms, boundSql, false);
+    }
+
+    @Override
+    public void beforePrepare(StatementHandler sh, Connection connection, Integer transactionTimeout) {
+        rewrite(sh);
+    }
+
+    /**
+     * BatchExecutor、ReuseExecutor 先取 BoundSql 判断能否复用已经预编译的语句，复用时不会再调用 prepare，
+     * 需要在这里改写，每一次执行都绑定租户参数
+     */
+    @Override
+    public void beforeGetBoundSql(StatementHandler sh) {
+        rewrite(sh);
+    }
+
+    private void rewrite(StatementHandler sh) {
+        PluginUtils.MPStatementHandler mpSh = PluginUtils.mpStatementHandler(sh);
+        MappedStatement ms = mpSh.mappedStatement();
+        SqlCommandType sct = ms.getSqlCommandType();
+        if (sct != SqlCommandType.INSERT && sct != SqlCommandType.UPDATE && sct != SqlCommandType.DELETE) {
+            return;
+        }
+        if (InterceptorIgnoreHelper.willIgnoreTenantLine(ms.getId()) || isUpsertWithTenant(ms)) {
+            return;
+        }
+        rewrite(ms, mpSh.boundSql(), true);
+    }
+
+    /**
+     * upsertBatch 插入的列中已经包含租户字段(由自动填充写入)，不需要改写；
+     * 它的 ON DUPLICATE KEY / ON CONFLICT 子句和行别名也不一定能被 JSqlParser 解析
+     */
+    private boolean isUpsertWithTenant(MappedStatement ms) {
+        if (!ms.getId().endsWith(StrPool.DOT + UpsertBatch.METHOD) || ms.getParameterMap().getType() == null) {
+            return false;
+        }
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(ms.getParameterMap().getType());
+        return tableInfo != null && tableInfo.getFieldList().stream()
+                .anyMatch(field -> field.getColumn().equalsIgnoreCase(handler.getTenantIdColumn()));
+    }
+
+    private void rewrite(MappedStatement ms, BoundSql boundSql, boolean multi) {
+        // 同一个 BoundSql 可能先后经过 getBoundSql 和 prepare，只改写一次
+        if (handler.isPrivileged() || boundSql.hasAdditionalParameter(TENANT_PARAMETER)) {
+            return;
+        }
+        PluginUtils.MPBoundSql mpBs = PluginUtils.mpBoundSql(boundSql);
+        String original = mpBs.sql();
+        Rewrite rewrite = rewrites.get(ms.getId() + StrPool.AT + original,
+                k -> Rewrite.of(multi ? parserMulti(original, null) : parserSingle(original, null)));
+        if (rewrite.tenantIndexes.length == 0) {
+            // 所有表都忽略租户条件
+            return;
+        }
+
+        Long tenantId = ArgumentAssert.notNull(TenantContextHolder.getTenantId(), "租户ID不能为空");
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        int size = mappings == null ? 0 : mappings.size();
+        boundSql.setAdditionalParameter(TENANT_PARAMETER, tenantId);
+        if (size != rewrite.parameterCount - rewrite.tenantIndexes.length) {
+            mpBs.sql(rewrite.template.replace(MARKER, String.valueOf(tenantId)));
+            return;
+        }
+
+        List<ParameterMapping> parameterMappings = new ArrayList<>(rewrite.parameterCount);
+        if (mappings != null) {
+            parameterMappings.addAll(mappings);
+        }
+        ParameterMapping tenantMapping = new ParameterMapping.Builder(ms.getConfiguration(), TENANT_PARAMETER, Long.class).build();
+        // 位置是最终 SQL 中的序号，按升序插入
+        for (int index : rewrite.tenantIndexes) {
+            parameterMappings.add(index, tenantMapping);
+        }
+        mpBs.sql(rewrite.sql);
+        mpBs.parameterMappings(parameterMappings);
+    }
+
+    /**
+     * 改写结果
+     */
+    static final class Rewrite {
+        /**
+         * 带占位列的 SQL
+         */
+        final String template;
+        /**
+         * 占位列替换为 ? 的 SQL
+         */
+        final String sql;
+        /**
+         * 租户ID在所有参数中的位置(从0开始，升序)
+         */
+        final int[] tenantIndexes;
+        /**
+         * 最终 SQL 中 ? 的个数
+         */
+        final int parameterCount;
+
+        private Rewrite(String template, String sql, int[] tenantIndexes, int parameterCount) {
+            this.template = template;
+            this.sql = sql;
+            this.tenantIndexes = tenantIndexes;
+            this.parameterCount = parameterCount;
+        }
+
+        static Rewrite of(String template) {
+            StringBuilder sql = new StringBuilder(template.length());
+            List<Integer> indexes = new ArrayList<>();
+            int count = 0;
+            char quote = 0;
+            for (int i = 0; i < template.length(); i++) {
+                char c = template.charAt(i);
+                if (quote != 0) {
+                    // 引号内的 ? 不是参数，'' 转义时会连续进出一次
+                    if (c == quote) {
+                        quote = 0;
+                    }
+                    sql.append(c);
+                } else if (c == '\'' || c == '"' || c == '`') {
+                    quote = c;
+                    sql.append(c);
+                } else if (c == '?') {
+                    count++;
+                    sql.append(c);
+                } else if (template.startsWith(MARKER, i)) {
+                    indexes.add(count++);
+                    sql.append('?');
+                    i += MARKER.length() - 1;
+                } else {
+                    sql.append(c);
+                }
+            }
+            return new Rewrite(template, sql.toString(), indexes.stream().mapToInt(Integer::intValue).toArray(), count);
+        }
+    }
+}
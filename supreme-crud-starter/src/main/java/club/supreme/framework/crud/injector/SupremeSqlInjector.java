@@ -1,16 +1,22 @@
 package club.supreme.framework.crud.injector;
 
 import club.supreme.framework.constant.SupremeConstant;
+import club.supreme.framework.crud.injector.method.BulkUpdateById;
+import club.supreme.framework.crud.injector.method.SelectCursor;
 import club.supreme.framework.crud.injector.method.UpdateAllById;
+import club.supreme.framework.crud.injector.method.UpsertBatch;
 import club.supreme.framework.model.SupremeBaseEntity;
 import cn.hutool.core.util.ArrayUtil;
+import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.annotation.FieldFill;
 import com.baomidou.mybatisplus.core.injector.AbstractMethod;
 import com.baomidou.mybatisplus.core.injector.DefaultSqlInjector;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
 import com.baomidou.mybatisplus.core.metadata.TableInfo;
 import com.baomidou.mybatisplus.extension.injector.methods.InsertBatchSomeColumn;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * 自定义sql 注入器
@@ -19,15 +25,65 @@ import java.util.List;
  * @date 2020年02月19日15:39:49
  */
 public class SupremeSqlInjector extends DefaultSqlInjector {
+    /**
+     * 流式查询默认每次获取的行数
+     */
+    private static final int CURSOR_FETCH_SIZE = 1000;
+    /**
+     * 批量修改时可以修改的字段：创建时间、创建人只在新增时写入
+     */
+    public static final Predicate<TableFieldInfo> UPDATE_PREDICATE = field -> !ArrayUtil.containsAny(new String[]{
+            SupremeConstant.CRUD.COLUMN_CREATED_AT, SupremeConstant.CRUD.COLUMN_CREATED_BY
+    }, field.getColumn());
+
+    private final DbType dbType;
+
+    public SupremeSqlInjector() {
+        this(DbType.MYSQL);
+    }
+
+    public SupremeSqlInjector(DbType dbType) {
+        this.dbType = dbType;
+    }
+
+    /**
+     * 生成 SQL 使用的数据库类型
+     *
+     * @return 数据库类型
+     */
+    public DbType getDbType() {
+        return dbType;
+    }
+
     @Override
     public List<AbstractMethod> getMethodList(Class<?> mapperClass, TableInfo tableInfo) {
         List<AbstractMethod> methodList = super.getMethodList(mapperClass, tableInfo);
 
         //增加自定义方法
-        methodList.add(new InsertBatchSomeColumn(i -> i.getFieldFill() != FieldFill.UPDATE));
-        methodList.add(new UpdateAllById(field -> !ArrayUtil.containsAny(new String[]{
-                SupremeConstant.CRUD.COLUMN_CREATED_AT, SupremeConstant.CRUD.COLUMN_CREATED_BY
-        }, field.getColumn())));
+        Predicate<TableFieldInfo> insertPredicate = i -> i.getFieldFill() != FieldFill.UPDATE;
+        methodList.add(new InsertBatchSomeColumn(insertPredicate));
+        methodList.add(new UpdateAllById(UPDATE_PREDICATE));
+        methodList.add(new SelectCursor(cursorFetchSize()));
+        methodList.add(new BulkUpdateById(dbType, UPDATE_PREDICATE));
+        if (UpsertBatch.supports(dbType)) {
+            // 冲突时不修改只在新增时填充的字段(租户、创建人、创建时间)
+            methodList.add(new UpsertBatch(dbType, insertPredicate, UPDATE_PREDICATE.and(i -> i.getFieldFill() != FieldFill.INSERT)));
+        }
         return methodList;
     }
+
+    /**
+     * 流式查询的 fetchSize
+     * <p>
+     * MySQL 驱动只有 fetchSize = Integer.MIN_VALUE 时才逐行读取，否则会把结果集全部读到内存；
+     * PostgreSQL 需要在事务中(关闭自动提交)才会按 fetchSize 分批读取
+     *
+     * @return fetchSize
+     */
+    protected Integer cursorFetchSize() {
+        if (DbType.MYSQL == dbType || DbType.MARIADB == dbType) {
+            return Integer.MIN_VALUE;
+        }
+        return CURSOR_FETCH_SIZE;
+    }
 }
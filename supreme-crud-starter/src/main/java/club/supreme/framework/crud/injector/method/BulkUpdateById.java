@@ -0,0 +1,162 @@
+package club.supreme.framework.crud.injector.method;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.injector.AbstractMethod;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.toolkit.sql.SqlScriptUtils;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 一条 SQL 根据id批量修改多行
+ * <p>
+ * mapper 方法：bulkUpdateById(@Param("list") List&lt;ENTITY&gt; list, @Param("columns") Set&lt;String&gt; columns)，
+ * columns 为本批要修改的字段名(属性名)，同一批实体修改相同的字段。
+ * <p>
+ * 默认生成：UPDATE t SET col = CASE id WHEN ? THEN ? ... END, ... WHERE id IN (...)；
+ * PostgreSQL 生成：UPDATE t SET col = v.c0, ... FROM (VALUES (CAST(? AS bigint), CAST(? AS varchar)), ...) AS v(k, c0, ...) WHERE t.id = v.k，
+ * VALUES 中的参数按字段的 java 类型显式转换，否则参数全为 null 或类型无法推断时 PostgreSQL 会按 text 处理而修改失败。
+ * 注意：不支持乐观锁，不会自动填充
+ *
+ * @author supreme
+ */
+public class BulkUpdateById extends AbstractMethod {
+
+    /**
+     * mapper 方法名
+     */
+    public static final String METHOD = "bulkUpdateById";
+    /**
+     * 本批要修改的字段名参数
+     */
+    public static final String COLUMNS = "columns";
+    private static final String LIST = "list";
+    private static final String ITEM = ENTITY;
+    /**
+     * java 类型 -> PostgreSQL 类型，用于 VALUES 中参数的显式转换
+     */
+    private static final Map<Class<?>, String> PG_TYPES = new HashMap<>();
+
+    static {
+        PG_TYPES.put(Long.class, "bigint");
+        PG_TYPES.put(long.class, "bigint");
+        PG_TYPES.put(Integer.class, "integer");
+        PG_TYPES.put(int.class, "integer");
+        PG_TYPES.put(Short.class, "smallint");
+        PG_TYPES.put(short.class, "smallint");
+        PG_TYPES.put(Boolean.class, "boolean");
+        PG_TYPES.put(boolean.class, "boolean");
+        PG_TYPES.put(Double.class, "double precision");
+        PG_TYPES.put(double.class, "double precision");
+        PG_TYPES.put(Float.class, "real");
+        PG_TYPES.put(float.class, "real");
+        PG_TYPES.put(BigDecimal.class, "numeric");
+        PG_TYPES.put(BigInteger.class, "numeric");
+        PG_TYPES.put(String.class, "varchar");
+        PG_TYPES.put(LocalDateTime.class, "timestamp");
+        PG_TYPES.put(Date.class, "timestamp");
+        PG_TYPES.put(OffsetDateTime.class, "timestamptz");
+        PG_TYPES.put(LocalDate.class, "date");
+        PG_TYPES.put(LocalTime.class, "time");
+        PG_TYPES.put(UUID.class, "uuid");
+        PG_TYPES.put(byte[].class, "bytea");
+    }
+
+    private final DbType dbType;
+    /**
+     * 可以修改的字段
+     */
+    private final Predicate<TableFieldInfo> predicate;
+
+    public BulkUpdateById(DbType dbType, Predicate<TableFieldInfo> predicate) {
+        this.dbType = dbType;
+        this.predicate = predicate;
+    }
+
+    /**
+     * 每行使用的绑定参数个数
+     *
+     * @param dbType  数据库类型
+     * @param columns 修改的字段数
+     * @return 参数个数
+     */
+    public static int parametersPerRow(DbType dbType, int columns) {
+        // VALUES 形式：id + 每个字段一个；CASE 形式：每个字段 WHEN id THEN 值 两个 + IN 中的 id
+        return DbType.POSTGRE_SQL == dbType ? columns + 1 : columns * 2 + 1;
+    }
+
+    @Override
+    public MappedStatement injectMappedStatement(Class<?> mapperClass, Class<?> modelClass, TableInfo tableInfo) {
+        if (!tableInfo.havePK()) {
+            logger.warn(String.format("%s ,Not found @TableId annotation, Cannot use Mybatis-Plus 'bulkUpdateById' method.", modelClass.toString()));
+            return null;
+        }
+        List<TableFieldInfo> fieldList = tableInfo.getFieldList().stream().filter(predicate).collect(Collectors.toList());
+        String sql = DbType.POSTGRE_SQL == dbType ? valuesSql(tableInfo, fieldList) : caseWhenSql(tableInfo, fieldList);
+        SqlSource sqlSource = languageDriver.createSqlSource(configuration, sql, modelClass);
+        return addUpdateMappedStatement(mapperClass, modelClass, METHOD, sqlSource);
+    }
+
+    private static String keyParam(TableInfo tableInfo) {
+        return SqlScriptUtils.safeParam(ITEM + DOT + tableInfo.getKeyProperty());
+    }
+
+    private static String ifColumn(TableFieldInfo field, String script) {
+        return SqlScriptUtils.convertIf(script, String.format("%s.contains('%s')", COLUMNS, field.getProperty()), false);
+    }
+
+    private String caseWhenSql(TableInfo tableInfo, List<TableFieldInfo> fieldList) {
+        String keyColumn = tableInfo.getKeyColumn().trim();
+        String keyParam = keyParam(tableInfo);
+        String sets = fieldList.stream().map(field -> {
+            String when = SqlScriptUtils.convertForeach("WHEN " + keyParam + " THEN " + SqlScriptUtils.safeParam(ITEM + DOT + field.getEl()),
+                    LIST, null, ITEM, SPACE);
+            return ifColumn(field, field.getColumn() + EQUALS + "CASE " + keyColumn + SPACE + when + " END" + COMMA);
+        }).collect(Collectors.joining(NEWLINE));
+        String ids = SqlScriptUtils.convertForeach(keyParam, LIST, null, ITEM, COMMA);
+        return String.format("<script>\nUPDATE %s %s WHERE %s IN (%s) %s\n</script>", tableInfo.getTableName(),
+                SqlScriptUtils.convertTrim(sets, "SET", null, null, COMMA), keyColumn, ids, tableInfo.getLogicDeleteSql(true, true));
+    }
+
+    private String valuesSql(TableInfo tableInfo, List<TableFieldInfo> fieldList) {
+        String table = tableInfo.getTableName();
+        StringBuilder sets = new StringBuilder();
+        StringBuilder row = new StringBuilder(cast(keyParam(tableInfo), tableInfo.getKeyType()));
+        StringBuilder alias = new StringBuilder("k");
+        for (int i = 0; i < fieldList.size(); i++) {
+            TableFieldInfo field = fieldList.get(i);
+            // VALUES 中的列按序号命名，避免与表中的列重名
+            String valueColumn = "c" + i;
+            sets.append(ifColumn(field, field.getColumn() + EQUALS + "v." + valueColumn + COMMA));
+            row.append(ifColumn(field, COMMA + cast(SqlScriptUtils.safeParam(ITEM + DOT + field.getEl()), field.getPropertyType())));
+            alias.append(ifColumn(field, COMMA + valueColumn));
+        }
+        String values = SqlScriptUtils.convertForeach(LEFT_BRACKET + row + RIGHT_BRACKET, LIST, null, ITEM, COMMA);
+        return String.format("<script>\nUPDATE %s %s FROM (VALUES %s) AS v(%s) WHERE %s.%s = v.k %s\n</script>", table,
+                SqlScriptUtils.convertTrim(sets.toString(), "SET", null, null, COMMA), values, alias, table,
+                tableInfo.getKeyColumn().trim(), tableInfo.getLogicDeleteSql(true, true));
+    }
+
+    /**
+     * 按 java 类型显式转换参数，未知的类型(如枚举、自定义 TypeHandler)交给数据库推断
+     */
+    private static String cast(String param, Class<?> type) {
+        String pgType = PG_TYPES.get(type);
+        return pgType == null ? param : "CAST(" + param + " AS " + pgType + RIGHT_BRACKET;
+    }
+}
@@ -0,0 +1,51 @@
+package club.supreme.framework.crud.injector.method;
+
+import com.baomidou.mybatisplus.core.injector.AbstractMethod;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.mapping.StatementType;
+
+/**
+ * 流式查询
+ * <p>
+ * 与 selectList 的 SQL 相同，但使用只进游标(FORWARD_ONLY)并指定 fetchSize，
+ * mapper 方法返回 org.apache.ibatis.cursor.Cursor，逐行从数据库读取，不会一次把全部结果加载到内存
+ *
+ * @author supreme
+ */
+public class SelectCursor extends AbstractMethod {
+
+    /**
+     * mapper 方法名
+     */
+    private static final String METHOD = "selectCursor";
+
+    /**
+     * 每次从数据库获取的行数
+     * MySQL 驱动只有在 fetchSize 为 Integer.MIN_VALUE 时才会逐行读取
+     */
+    private final Integer fetchSize;
+
+    public SelectCursor(Integer fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public MappedStatement injectMappedStatement(Class<?> mapperClass, Class<?> modelClass, TableInfo tableInfo) {
+        // 与 SqlMethod.SELECT_LIST 相同的 SQL
+        String sql = String.format("<script>%s SELECT %s FROM %s %s %s\n</script>", sqlFirst(), sqlSelectColumns(tableInfo, true),
+                tableInfo.getTableName(), sqlWhereEntityWrapper(true, tableInfo), sqlComment());
+        SqlSource sqlSource = languageDriver.createSqlSource(configuration, sql, modelClass);
+
+        String id = mapperClass.getName() + DOT + METHOD;
+        if (configuration.hasStatement(id, false)) {
+            return null;
+        }
+        return builderAssistant.addMappedStatement(METHOD, sqlSource, StatementType.PREPARED, SqlCommandType.SELECT,
+                fetchSize, null, null, null, null, modelClass, ResultSetType.FORWARD_ONLY,
+                false, false, false, null, null, null, configuration.getDatabaseId(), languageDriver, null);
+    }
+}
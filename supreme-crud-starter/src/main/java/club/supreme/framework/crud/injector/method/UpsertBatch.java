@@ -0,0 +1,121 @@
+package club.supreme.framework.crud.injector.method;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.enums.SqlMethod;
+import com.baomidou.mybatisplus.core.injector.AbstractMethod;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.toolkit.sql.SqlScriptUtils;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 批量插入或修改
+ * <p>
+ * 多行 INSERT，主键冲突时修改已存在的行：
+ * MySQL 使用 INSERT ... VALUES ... AS new ON DUPLICATE KEY UPDATE c = COALESCE(new.c, c)(需要 8.0.19 及以上)，
+ * MariaDB 使用 ON DUPLICATE KEY UPDATE c = COALESCE(VALUES(c), c)，
+ * PostgreSQL 使用 INSERT INTO t AS t ... ON CONFLICT (主键) DO UPDATE SET c = COALESCE(EXCLUDED.c, t.c)。
+ * 插入的列与 InsertBatchSomeColumn 相同，冲突时修改的列由 updatePredicate 决定(主键除外)；
+ * 与 updateById 一致，值为 null 的字段不覆盖已存在的值。
+ * 注意：实体必须有主键，且主键在 SQL 执行前已经有值；不支持乐观锁
+ *
+ * @author supreme
+ */
+public class UpsertBatch extends AbstractMethod {
+
+    /**
+     * mapper 方法名
+     */
+    public static final String METHOD = "upsertBatch";
+    /**
+     * MySQL 新行的别名、PostgreSQL 目标表的别名
+     */
+    private static final String NEW_ROW = "new";
+    private static final String TARGET = "t";
+
+    private final DbType dbType;
+    /**
+     * 插入的字段
+     */
+    private final Predicate<TableFieldInfo> insertPredicate;
+    /**
+     * 冲突时修改的字段
+     */
+    private final Predicate<TableFieldInfo> updatePredicate;
+
+    public UpsertBatch(DbType dbType, Predicate<TableFieldInfo> insertPredicate, Predicate<TableFieldInfo> updatePredicate) {
+        this.dbType = dbType;
+        this.insertPredicate = insertPredicate;
+        this.updatePredicate = updatePredicate;
+    }
+
+    /**
+     * 是否支持该数据库
+     *
+     * @param dbType 数据库类型
+     * @return 是否支持
+     */
+    public static boolean supports(DbType dbType) {
+        return DbType.MYSQL == dbType || DbType.MARIADB == dbType || DbType.POSTGRE_SQL == dbType;
+    }
+
+    @Override
+    public MappedStatement injectMappedStatement(Class<?> mapperClass, Class<?> modelClass, TableInfo tableInfo) {
+        if (!tableInfo.havePK()) {
+            logger.warn(String.format("%s ,Not found @TableId annotation, Cannot use Mybatis-Plus 'upsertBatch' method.", modelClass.toString()));
+            return null;
+        }
+        List<TableFieldInfo> fieldList = tableInfo.getFieldList();
+        // 与 InsertBatchSomeColumn 相同的 INSERT 部分
+        String insertSqlColumn = tableInfo.getKeyInsertSqlColumn(true, false)
+                + filterTableFieldInfo(fieldList, insertPredicate, TableFieldInfo::getInsertSqlColumn, EMPTY);
+        String columnScript = LEFT_BRACKET + insertSqlColumn.substring(0, insertSqlColumn.length() - 1) + RIGHT_BRACKET;
+        String insertSqlProperty = tableInfo.getKeyInsertSqlProperty(true, ENTITY_DOT, false)
+                + filterTableFieldInfo(fieldList, insertPredicate, i -> i.getInsertSqlProperty(ENTITY_DOT), EMPTY);
+        insertSqlProperty = LEFT_BRACKET + insertSqlProperty.substring(0, insertSqlProperty.length() - 1) + RIGHT_BRACKET;
+        String valuesScript = SqlScriptUtils.convertForeach(insertSqlProperty, "list", null, ENTITY, COMMA);
+
+        String table = DbType.POSTGRE_SQL == dbType ? tableInfo.getTableName() + " AS " + TARGET : tableInfo.getTableName();
+        String rowAlias = DbType.MYSQL == dbType ? " AS " + NEW_ROW : EMPTY;
+        String sql = String.format(SqlMethod.INSERT_ONE.getSql(), table, columnScript,
+                valuesScript + rowAlias + NEWLINE + upsertClause(tableInfo, fieldList));
+        SqlSource sqlSource = languageDriver.createSqlSource(configuration, sql, modelClass);
+        return addInsertMappedStatement(mapperClass, modelClass, METHOD, sqlSource, NoKeyGenerator.INSTANCE, null, null);
+    }
+
+    /**
+     * 主键冲突时的修改语句
+     */
+    private String upsertClause(TableInfo tableInfo, List<TableFieldInfo> fieldList) {
+        List<String> columns = fieldList.stream().filter(insertPredicate.and(updatePredicate))
+                .map(TableFieldInfo::getColumn).collect(Collectors.toList());
+        String keyColumn = tableInfo.getKeyColumn().trim();
+        if (DbType.POSTGRE_SQL == dbType) {
+            if (columns.isEmpty()) {
+                return String.format("ON CONFLICT (%s) DO NOTHING", keyColumn);
+            }
+            return String.format("ON CONFLICT (%s) DO UPDATE SET %s", keyColumn,
+                    columns.stream().map(c -> c + "=COALESCE(EXCLUDED." + c + COMMA + TARGET + DOT + c + RIGHT_BRACKET)
+                            .collect(Collectors.joining(COMMA)));
+        }
+        if (columns.isEmpty()) {
+            // 没有可修改的列时修改主键为自身，相当于忽略冲突的行
+            return String.format("ON DUPLICATE KEY UPDATE %s=%s", keyColumn, keyColumn);
+        }
+        return "ON DUPLICATE KEY UPDATE " + columns.stream().map(c -> c + "=COALESCE(" + newValue(c) + COMMA + c + RIGHT_BRACKET)
+                .collect(Collectors.joining(COMMA));
+    }
+
+    /**
+     * 冲突时新插入行的列值
+     */
+    private String newValue(String column) {
+        return DbType.MYSQL == dbType ? NEW_ROW + DOT + column : "VALUES(" + column + RIGHT_BRACKET;
+    }
+}
@@ -1,10 +1,13 @@
 package club.supreme.framework.crud.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.toolkit.Constants;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.util.List;
+import java.util.Set;
 
 public interface SupremeBaseMapper<ENTITY> extends BaseMapper<ENTITY> {
     /**
@@ -24,4 +27,33 @@ public interface SupremeBaseMapper<ENTITY> extends BaseMapper<ENTITY> {
      */
     int updateAllById(@Param(Constants.ENTITY) ENTITY entity);
 
+    /**
+     * 流式查询
+     * <p>
+     * 游标在 SqlSession 关闭时失效，必须在事务中调用并在事务结束前读取完毕
+     *
+     * @param queryWrapper 实体对象封装操作类（可以为 null）
+     * @return 游标
+     */
+    Cursor<ENTITY> selectCursor(@Param(Constants.WRAPPER) Wrapper<ENTITY> queryWrapper);
+
+    /**
+     * 批量插入或修改(多行 INSERT，主键冲突时修改)
+     * <p>
+     * 只有 MySQL、MariaDB、PostgreSQL 会注入该方法，实体的主键必须有值
+     *
+     * @param entityList 实体
+     * @return 影响的行数(MySQL 中修改的行计为 2)
+     */
+    int upsertBatch(List<ENTITY> entityList);
+
+    /**
+     * 一条 SQL 根据id批量修改多行(CASE WHEN，PostgreSQL 使用 VALUES 关联)
+     *
+     * @param entityList 实体，主键必须有值
+     * @param columns    要修改的字段名(属性名)，同一批实体修改相同的字段
+     * @return 修改的行数
+     */
+    int bulkUpdateById(@Param("list") List<ENTITY> entityList, @Param("columns") Set<String> columns);
+
 }
@@ -0,0 +1,179 @@
+package club.supreme.framework.crud.page;
+
+import club.supreme.framework.exception.BizException;
+import club.supreme.framework.jackson.JsonUtil;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.ReflectUtil;
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.AbstractWrapper;
+import com.baomidou.mybatisplus.core.metadata.OrderItem;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 游标(keyset)分页对象
+ * <p>
+ * 不使用 OFFSET，也不查询总数：根据上一页最后一行的排序字段和主键生成查询条件，
+ * 如：排序 created_at desc 时，条件为 created_at &lt; ? OR (created_at = ? AND id &lt; ?)，ORDER BY created_at DESC, id DESC LIMIT n，
+ * 任意一页的代价都与第一页相同。
+ * <p>
+ * 游标是排序字段值和主键值的 JSON 数组经 Base64 编码后的字符串，对前端不透明。
+ * 注意：排序字段不能为 null，否则会漏掉数据
+ *
+ * @author supreme
+ */
+@SuppressWarnings("serial")
+public class CursorPage<T> extends Page<T> {
+
+    @ApiModelProperty(value = "下一页的游标, 没有下一页时为空")
+    private String nextCursor;
+
+    /**
+     * 实体类
+     */
+    private final Class<?> entityClazz;
+    /**
+     * 排序字段(属性名)，最后一个是主键
+     */
+    private final List<String> properties;
+    /**
+     * 排序字段(数据库字段)，与 properties 一一对应
+     */
+    private final List<OrderItem> sortOrders;
+    /**
+     * 本页的游标
+     */
+    private final String cursor;
+
+    /**
+     * @param cursor      上一页返回的游标，第一页为空
+     * @param size        每页条数
+     * @param entityClazz 实体类
+     * @param properties  排序字段(属性名)，最后一个是主键
+     * @param sortOrders  排序字段(数据库字段)，与 properties 一一对应
+     */
+    public CursorPage(String cursor, long size, Class<?> entityClazz, List<String> properties, List<OrderItem> sortOrders) {
+        // 多查询一条，用于判断是否有下一页
+        super(1, size + 1, false);
+        this.cursor = cursor;
+        this.entityClazz = entityClazz;
+        this.properties = properties;
+        this.sortOrders = sortOrders;
+        setOrders(new ArrayList<>(sortOrders));
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * 追加游标对应的查询条件，第一页不追加
+     *
+     * @param wrapper 查询条件
+     */
+    public <W extends AbstractWrapper<T, String, W>> W seek(W wrapper) {
+        if (StrUtil.isEmpty(cursor)) {
+            return wrapper;
+        }
+        List<Object> values = decode(cursor);
+        if (values.size() != properties.size()) {
+            throw BizException.wrap("游标与排序字段不一致");
+        }
+        // (s1 < v1) OR (s1 = v1 AND s2 < v2) OR ... 每个字段可以有不同的排序方向，且所有数据库都支持
+        wrapper.and(w -> {
+            for (int i = 0; i < sortOrders.size(); i++) {
+                final int last = i;
+                w.or(c -> {
+                    for (int j = 0; j < last; j++) {
+                        c.eq(sortOrders.get(j).getColumn(), values.get(j));
+                    }
+                    OrderItem order = sortOrders.get(last);
+                    if (order.isAsc()) {
+                        c.gt(order.getColumn(), values.get(last));
+                    } else {
+                        c.lt(order.getColumn(), values.get(last));
+                    }
+                });
+            }
+        });
+        return wrapper;
+    }
+
+    /**
+     * 查询完成后调用：去掉多查询的一条，生成下一页的游标
+     */
+    public CursorPage<T> complete() {
+        List<T> records = getRecords();
+        long pageSize = getSize() - 1;
+        if (records.size() > pageSize) {
+            records = new ArrayList<>(records.subList(0, (int) pageSize));
+            setRecords(records);
+            nextCursor = encode(records.get(records.size() - 1));
+        } else {
+            nextCursor = null;
+        }
+        setSize(pageSize);
+        return this;
+    }
+
+    private String encode(T row) {
+        List<Object> values = new ArrayList<>(properties.size());
+        for (String property : properties) {
+            Object value = ReflectUtil.getFieldValue(row, property);
+            // 日期按 ISO 格式保留完整精度，避免全局的 jackson 日期格式截断毫秒
+            if (value instanceof Date) {
+                value = ((Date) value).getTime();
+            } else if (value instanceof LocalDateTime || value instanceof LocalDate || value instanceof LocalTime) {
+                value = value.toString();
+            }
+            values.add(value);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(JsonUtil.toJson(values).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<Object> decode(String cursor) {
+        List<Object> raw;
+        try {
+            raw = JsonUtil.parse(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8), new TypeReference<List<Object>>() {
+            });
+        } catch (RuntimeException e) {
+            throw BizException.wrap("游标格式错误");
+        }
+        List<Object> values = new ArrayList<>(raw.size());
+        for (int i = 0; i < raw.size() && i < properties.size(); i++) {
+            Field field = ReflectUtil.getField(entityClazz, properties.get(i));
+            values.add(convert(field.getType(), raw.get(i)));
+        }
+        return values;
+    }
+
+    private static Object convert(Class<?> type, Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (LocalDateTime.class == type) {
+            return LocalDateTime.parse(value.toString());
+        }
+        if (LocalDate.class == type) {
+            return LocalDate.parse(value.toString());
+        }
+        if (LocalTime.class == type) {
+            return LocalTime.parse(value.toString());
+        }
+        if (Date.class.isAssignableFrom(type)) {
+            return new Date(Convert.toLong(value));
+        }
+        return Convert.convert(type, value);
+    }
+}
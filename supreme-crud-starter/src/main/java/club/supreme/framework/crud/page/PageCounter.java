@@ -0,0 +1,345 @@
+package club.supreme.framework.crud.page;
+
+import club.supreme.framework.constant.StrPool;
+import club.supreme.framework.context.TenantContextHolder;
+import club.supreme.framework.enums.crud.TenantIsolateLevelEnumI;
+import club.supreme.framework.exception.BizException;
+import club.supreme.framework.props.SupremeProperties;
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.alibaba.ttl.threadpool.TtlExecutors;
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.conditions.AbstractWrapper;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.extension.plugins.inner.InnerInterceptor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.delete.Delete;
+import net.sf.jsqlparser.statement.insert.Insert;
+import net.sf.jsqlparser.statement.update.Update;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 分页总数
+ * <p>
+ * 1，CACHED：按 表 + 租户 + 查询条件 缓存 COUNT 的结果。作为拦截器监听 INSERT、UPDATE、DELETE，
+ * 表有写入时递增该表的版本号(事务结束时再递增一次)，旧版本的缓存不再命中；其他节点的写入只能等缓存过期。
+ * 2，ASYNC：在独立的线程(独立的连接)中执行 COUNT，与数据查询并发。
+ * 3，ESTIMATE：从数据库的统计信息中读取表的行数(MySQL: information_schema.TABLES，PostgreSQL: pg_class)，
+ * 只适合没有查询条件的列表，统计信息不区分租户和逻辑删除，是近似值。
+ * 只有 supreme.crud.page-count.estimate-tables 中的表可以使用；行级多租户隔离时统计信息包含所有租户的行，不使用(忽略租户的表除外)，
+ * 其他情况按 CACHED 处理。
+ *
+ * @author supreme
+ */
+@Slf4j
+public class PageCounter implements InnerInterceptor, DisposableBean {
+
+    private static final String MYSQL_ESTIMATE_SQL = "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+    private static final String POSTGRE_SQL_ESTIMATE_SQL = "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)";
+
+    private final Cache<String, Long> counts;
+    private final ExecutorService executor;
+    /**
+     * 表名(小写) -> 版本号
+     */
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    /**
+     * 无法解析表名的写入，所有表的缓存都失效
+     */
+    private final AtomicLong globalGeneration = new AtomicLong();
+    /**
+     * MappedStatement id -> 表名(小写)，无法解析时为空字符串
+     */
+    private final Map<String, String> statementTables = new ConcurrentHashMap<>();
+    /**
+     * 允许使用 ESTIMATE 模式的表(小写)
+     */
+    private final Set<String> estimateTables;
+    /**
+     * 行级隔离时不区分租户的表(小写)，为 null 时没有启用行级隔离
+     */
+    private final Set<String> tenantIgnoredTables;
+
+    public PageCounter(SupremeProperties.Crud.PageCount properties, SupremeProperties.Tenant tenant) {
+        this.estimateTables = lowerCase(properties.getEstimateTables());
+        this.tenantIgnoredTables = Boolean.TRUE.equals(tenant.getEnabled()) && TenantIsolateLevelEnumI.LINE == tenant.getIsolateLevel()
+                ? lowerCase(tenant.getIgnoredTables()) : null;
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getCacheExpire().toMillis(), TimeUnit.MILLISECONDS)
+                .maximumSize(properties.getCacheMaximumSize())
+                .build();
+        this.executor = TtlExecutors.getTtlExecutorService(newExecutor(Math.max(1, properties.getAsyncThreads())));
+    }
+
+    /**
+     * 队列满时由调用方线程执行，退化为同步查询总数
+     */
+    private static ExecutorService newExecutor(int threads) {
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(threads * 4),
+                new NamedThreadFactory("supreme-page-count-", true), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Override
+    public void beforeUpdate(Executor executor, MappedStatement ms, Object parameter) {
+        SqlCommandType sqlCommandType = ms.getSqlCommandType();
+        if (sqlCommandType != SqlCommandType.INSERT && sqlCommandType != SqlCommandType.UPDATE && sqlCommandType != SqlCommandType.DELETE) {
+            return;
+        }
+        String table = statementTables.computeIfAbsent(ms.getId(), k -> parseTable(ms.getBoundSql(parameter).getSql()));
+        invalidate(table);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 事务中查询的总数包含未提交的数据，事务结束(提交或回滚)后再失效一次；
+            // 每个事务只注册一次，记录事务中写过的表
+            @SuppressWarnings("unchecked")
+            Set<String> tables = (Set<String>) TransactionSynchronizationManager.getResource(this);
+            if (tables == null) {
+                tables = new HashSet<>();
+                TransactionSynchronizationManager.bindResource(this, tables);
+                TransactionSynchronizationManager.registerSynchronization(new WrittenTablesSynchronization(tables));
+            }
+            tables.add(table);
+        }
+    }
+
+    /**
+     * 是否可以从统计信息中估算表的行数
+     *
+     * @param table 表名
+     * @return 是否可以
+     */
+    public boolean estimateAllowed(String table) {
+        String name = table.toLowerCase();
+        return estimateTables.contains(name) && (tenantIgnoredTables == null || tenantIgnoredTables.contains(name));
+    }
+
+    /**
+     * 使表的缓存总数失效
+     *
+     * @param table 表名，为空时所有表失效
+     */
+    public void invalidate(String table) {
+        if (StrUtil.isEmpty(table)) {
+            globalGeneration.incrementAndGet();
+            return;
+        }
+        generations.computeIfAbsent(table.toLowerCase(), k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * 带缓存的总数
+     *
+     * @param table   表名
+     * @param wrapper 查询条件
+     * @param counter 缓存未命中时查询总数
+     * @return 总数
+     */
+    public long cachedCount(String table, Wrapper<?> wrapper, Callable<Long> counter) {
+        String key = key(table, wrapper);
+        if (key == null) {
+            return call(counter);
+        }
+        return counts.get(key, k -> call(counter));
+    }
+
+    /**
+     * 在独立的线程中查询总数
+     * <p>
+     * 线程池通过 TtlExecutors 包装，工作线程中可以读取到调用方的租户、用户上下文和 DataSourceHint
+     *
+     * @param counter 查询总数
+     * @return 总数
+     */
+    public Future<Long> countAsync(Callable<Long> counter) {
+        return executor.submit(counter);
+    }
+
+    /**
+     * 等待异步查询的总数
+     */
+    public long await(Future<Long> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw BizException.wrap("查询总数被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw BizException.wrap(cause.getMessage());
+        }
+    }
+
+    /**
+     * 从数据库统计信息中估算表的行数，结果同样缓存
+     *
+     * @param sqlSessionFactory sqlSessionFactory
+     * @param dbType            数据库类型
+     * @param table             表名
+     * @return 行数，表不允许估算、数据库不支持或没有统计信息时返回 null
+     */
+    public Long estimate(SqlSessionFactory sqlSessionFactory, DbType dbType, String table) {
+        if (!estimateAllowed(table)) {
+            return null;
+        }
+        String sql;
+        if (DbType.MYSQL == dbType || DbType.MARIADB == dbType) {
+            sql = MYSQL_ESTIMATE_SQL;
+        } else if (DbType.POSTGRE_SQL == dbType) {
+            sql = POSTGRE_SQL_ESTIMATE_SQL;
+        } else {
+            return null;
+        }
+        // 数据源级隔离时每个租户的库有各自的统计信息
+        String key = "estimate:" + table.toLowerCase() + StrPool.COLON + generation(table) + StrPool.COLON + TenantContextHolder.getTenantId();
+        Long rows = counts.getIfPresent(key);
+        if (rows != null) {
+            return rows;
+        }
+        SqlSession sqlSession = SqlSessionUtils.getSqlSession(sqlSessionFactory);
+        try (PreparedStatement statement = sqlSession.getConnection().prepareStatement(sql)) {
+            statement.setString(1, table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                // PostgreSQL 未 ANALYZE 的表为 -1
+                rows = resultSet.next() ? resultSet.getLong(1) : -1L;
+            }
+        } catch (SQLException e) {
+            log.warn("读取表 {} 的统计信息失败", table, e);
+            return null;
+        } finally {
+            SqlSessionUtils.closeSqlSession(sqlSession, sqlSessionFactory);
+        }
+        if (rows < 0) {
+            return null;
+        }
+        counts.put(key, rows);
+        return rows;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private long generation(String table) {
+        AtomicLong generation = generations.get(table.toLowerCase());
+        return globalGeneration.get() * 31 + (generation == null ? 0 : generation.get());
+    }
+
+    /**
+     * 缓存 key：表、版本号、租户、SQL 片段、参数值、实体中的条件
+     *
+     * @return 无法生成时返回 null，不缓存
+     */
+    private String key(String table, Wrapper<?> wrapper) {
+        StringBuilder key = new StringBuilder(table.toLowerCase()).append(StrPool.COLON).append(generation(table))
+                .append(StrPool.COLON).append(TenantContextHolder.getTenantId());
+        if (wrapper != null) {
+            if (!(wrapper instanceof AbstractWrapper)) {
+                return null;
+            }
+            // 参数名(MPGENVAL1...)由构造顺序决定，相同的查询条件生成相同的 SQL 片段和参数
+            key.append(StrPool.COLON).append(wrapper.getCustomSqlSegment())
+                    .append(StrPool.COLON).append(new TreeMap<>(((AbstractWrapper<?, ?, ?>) wrapper).getParamNameValuePairs()));
+            if (wrapper.getEntity() != null) {
+                key.append(StrPool.COLON).append(new TreeMap<>(BeanUtil.beanToMap(wrapper.getEntity(), false, true)));
+            }
+        }
+        return DigestUtil.md5Hex(key.toString());
+    }
+
+    private static Set<String> lowerCase(Collection<String> tables) {
+        return tables == null ? new HashSet<>() : tables.stream().map(String::toLowerCase).collect(Collectors.toSet());
+    }
+
+    private static long call(Callable<Long> counter) {
+        try {
+            return counter.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw BizException.wrap(e.getMessage());
+        }
+    }
+
+    private String parseTable(String sql) {
+        try {
+            Statement statement = CCJSqlParserUtil.parse(sql);
+            Table table = null;
+            if (statement instanceof Insert) {
+                table = ((Insert) statement).getTable();
+            } else if (statement instanceof Update) {
+                table = ((Update) statement).getTable();
+            } else if (statement instanceof Delete) {
+                table = ((Delete) statement).getTable();
+            }
+            return table == null ? StrPool.EMPTY : StrUtil.removeAll(table.getName(), '`', '"').toLowerCase();
+        } catch (JSQLParserException e) {
+            log.debug("无法解析 SQL 中的表名: {}", sql, e);
+            return StrPool.EMPTY;
+        }
+    }
+
+    /**
+     * 事务结束后使事务中写过的表失效，事务挂起时解绑记录的表
+     */
+    private final class WrittenTablesSynchronization implements TransactionSynchronization {
+        private final Set<String> tables;
+
+        private WrittenTablesSynchronization(Set<String> tables) {
+            this.tables = tables;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(PageCounter.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(PageCounter.this, tables);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(PageCounter.this);
+            tables.forEach(PageCounter.this::invalidate);
+        }
+    }
+}
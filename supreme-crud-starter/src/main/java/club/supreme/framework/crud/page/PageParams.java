@@ -3,11 +3,15 @@ package club.supreme.framework.crud.page;
 import club.supreme.framework.constant.StrPool;
 import club.supreme.framework.constant.SupremeConstant;
 import club.supreme.framework.crud.conditions.Wraps;
+import club.supreme.framework.enums.crud.PageCountModeEnumI;
 import club.supreme.framework.model.SupremeBaseEntity;
+import club.supreme.framework.utils.ArgumentAssert;
 import cn.hutool.core.annotation.Alias;
 import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.core.metadata.OrderItem;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.annotations.ApiModel;
@@ -51,6 +55,12 @@ public class PageParams<T> {
     @ApiModelProperty(value = "排序规则, 默认descending", allowableValues = "descending,ascending", example = "descending")
     private String order = "descending";
 
+    @ApiModelProperty(value = "查询总数的方式, 默认EXACT", allowableValues = "EXACT,NONE,ASYNC,CACHED,ESTIMATE", example = "EXACT")
+    private PageCountModeEnumI countMode = PageCountModeEnumI.EXACT;
+
+    @ApiModelProperty(value = "游标, 不为null时使用游标分页(不查询总数, 忽略current)。第一页传空字符串, 之后传上一页返回的nextCursor")
+    private String cursor;
+
     @ApiModelProperty("扩展参数")
     private Map<String, Object> extra = new HashMap<>(16);
 
@@ -92,10 +102,58 @@ public class PageParams<T> {
         }
 
         Page<E> page = new Page(params.getCurrent(), params.getSize());
+        page.setOrders(buildOrders(entityClazz, new ArrayList<>()));
+
+        return page;
+    }
+
+    /**
+     * 是否使用游标分页
+     */
+    @JsonIgnore
+    public boolean isCursorMode() {
+        return this.cursor != null;
+    }
+
+    /**
+     * 构建游标分页对象
+     * <p>
+     * 排序规则与 buildPage(entityClazz) 相同，并追加主键作为最后一个排序字段，保证排序唯一。
+     * 查询前调用 CursorPage#seek 追加游标条件，查询后调用 CursorPage#complete 生成下一页的游标
+     *
+     * @param entityClazz 字段中标注了@TableName 或 @TableId 注解的实体类。
+     * @return 游标分页对象
+     */
+    @JsonIgnore
+    public <E> CursorPage<E> buildCursorPage(Class<?> entityClazz) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClazz);
+        ArgumentAssert.isTrue(tableInfo != null && tableInfo.havePK(), "{} 没有主键, 不能使用游标分页", entityClazz.getSimpleName());
+
+        List<String> properties = new ArrayList<>();
+        List<OrderItem> orders = buildOrders(entityClazz, properties);
+        if (!properties.contains(tableInfo.getKeyProperty())) {
+            boolean asc = !orders.isEmpty() && orders.get(orders.size() - 1).isAsc();
+            String keyColumn = tableInfo.getKeyColumn().trim();
+            properties.add(tableInfo.getKeyProperty());
+            orders.add(asc ? OrderItem.asc(keyColumn) : OrderItem.desc(keyColumn));
+        }
+        return new CursorPage<>(this.cursor, this.size, entityClazz, properties, orders);
+    }
 
+    /**
+     * 解析排序参数
+     *
+     * @param entityClazz 实体类
+     * @param properties  排序的属性名，与返回值一一对应
+     * @return 排序字段
+     */
+    private List<OrderItem> buildOrders(Class<?> entityClazz, List<String> properties) {
         List<OrderItem> orders = new ArrayList<>();
-        String[] sortArr = StrUtil.splitToArray(params.getSort(), StrPool.COMMA);
-        String[] orderArr = StrUtil.splitToArray(params.getOrder(), StrPool.COMMA);
+        if (StrUtil.isEmpty(this.sort)) {
+            return orders;
+        }
+        String[] sortArr = StrUtil.splitToArray(this.sort, StrPool.COMMA);
+        String[] orderArr = StrUtil.splitToArray(this.order, StrPool.COMMA);
 
         int len = Math.min(sortArr.length, orderArr.length);
         for (int i = 0; i < len; i++) {
@@ -103,11 +161,9 @@ public class PageParams<T> {
             // 简单的 驼峰 转 下划线
             String underlineSort = Wraps.getDbField(humpSort, entityClazz);
             orders.add(StrUtil.equalsAny(orderArr[i], "ascending", "ascend") ? OrderItem.asc(underlineSort) : OrderItem.desc(underlineSort));
+            properties.add(humpSort);
         }
-
-        page.setOrders(orders);
-
-        return page;
+        return orders;
     }
 
     /**
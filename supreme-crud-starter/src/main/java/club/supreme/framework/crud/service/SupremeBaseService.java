@@ -1,12 +1,17 @@
 package club.supreme.framework.crud.service;
 
 import club.supreme.framework.crud.mapper.SupremeBaseMapper;
+import club.supreme.framework.enums.crud.PageCountModeEnumI;
 import club.supreme.framework.exception.BizException;
 import club.supreme.framework.exception.code.ExceptionCode;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 最高基础服务
@@ -47,6 +52,43 @@ public interface SupremeBaseService<ENTITY> extends IService<ENTITY> {
         return SqlHelper.retBool(((SupremeBaseMapper) getBaseMapper()).insertBatchSomeColumn(entityList));
     }
 
+    /**
+     * 多行 INSERT 批量保存
+     * <p>
+     * 通过 insertBatchSomeColumn 每条 SQL 插入多行(INSERT ... VALUES (...),(...))，每条 SQL 的行数根据列数和数据库的绑定参数上限计算，
+     * 比 saveBatch 逐行 INSERT 快得多，适合导入大量数据。
+     * 注意：Oracle 等不支持多行 VALUES 的数据库不能使用；不在事务中调用时每条 SQL 单独提交
+     *
+     * @param entityList 实体
+     * @return 是否成功
+     */
+    default boolean saveBatchBulk(Collection<ENTITY> entityList) {
+        return saveBatchBulk(entityList, 1);
+    }
+
+    /**
+     * 多行 INSERT 批量保存
+     *
+     * @param entityList  实体
+     * @param parallelism 并行写入的线程数。大于 1 时每条 SQL 使用单独的连接写入并各自提交，失败时已写入的部分不会回滚；
+     *                    当前存在事务时忽略该参数，在事务中顺序写入；所有调用共用一个线程数为 CPU 核数的线程池
+     * @return 是否成功
+     * @see #saveBatchBulk(Collection)
+     */
+    boolean saveBatchBulk(Collection<ENTITY> entityList, int parallelism);
+
+    /**
+     * 根据id批量修改
+     * <p>
+     * 按每个实体要修改的字段分组(与 updateById 相同：默认只修改非空字段)，每组按数据库的绑定参数上限分批，
+     * 每批一条 SQL(CASE WHEN，PostgreSQL 使用 VALUES 关联)。
+     * 实体有乐观锁字段或没有注入 bulkUpdateById 时逐行修改
+     *
+     * @param entityList 实体，主键为空的实体会被忽略
+     * @return 是否成功
+     */
+    boolean updateBatchByIdBulk(Collection<ENTITY> entityList);
+
     /**
      * 根据id修改 entity 的所有字段
      *
@@ -54,4 +96,39 @@ public interface SupremeBaseService<ENTITY> extends IService<ENTITY> {
      * @return
      */
     boolean updateAllById(ENTITY entity);
+
+    /**
+     * 流式查询：以游标逐行读取并回调，不会一次把全部结果加载到内存
+     * <p>
+     * 在只读事务中执行(PostgreSQL 需要关闭自动提交才会使用服务端游标)，MySQL 使用 fetchSize = Integer.MIN_VALUE 逐行读取。
+     * 读取期间连接被占用，consumer 中不要执行耗时操作，也不要使用同一个连接执行其他 SQL
+     *
+     * @param queryWrapper 查询条件，可以为 null
+     * @param consumer     处理一行数据
+     */
+    void stream(Wrapper<ENTITY> queryWrapper, Consumer<ENTITY> consumer);
+
+    /**
+     * 流式查询：以游标逐行读取，每凑满 chunkSize 条回调一次，内存中最多只保留一批数据
+     *
+     * @param queryWrapper 查询条件，可以为 null
+     * @param chunkSize    每批条数
+     * @param consumer     处理一批数据
+     * @see #stream(Wrapper, Consumer)
+     */
+    void streamChunks(Wrapper<ENTITY> queryWrapper, int chunkSize, Consumer<List<ENTITY>> consumer);
+
+    /**
+     * 分页查询，指定查询总数的方式
+     * <p>
+     * NONE 时多查询一条判断是否有下一页，total 为 已跳过的条数 + 本页条数 (+1 表示还有下一页)；
+     * ASYNC、CACHED、ESTIMATE 需要 PageCounter，page 需要是 Page 类型，否则与 EXACT 相同；
+     * ESTIMATE 只对 supreme.crud.page-count.estimate-tables 中的表生效，否则同 CACHED
+     *
+     * @param page         分页对象
+     * @param queryWrapper 查询条件
+     * @param countMode    查询总数的方式，为空时同 EXACT
+     * @return 分页对象
+     */
+    <E extends IPage<ENTITY>> E page(E page, Wrapper<ENTITY> queryWrapper, PageCountModeEnumI countMode);
 }
@@ -1,5 +1,6 @@
 package club.supreme.framework.crud.service;
 
+import club.supreme.framework.crud.cache.warmup.CacheWarmUpContext;
 import club.supreme.framework.model.cache.CacheKey;
 import org.springframework.lang.NonNull;
 
@@ -7,6 +8,7 @@ import java.io.Serializable;
 import java.util.Collection;
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.LongPredicate;
 
 /**
  * 基于MP的 IService 新增了3个方法： getByIdCache
@@ -51,8 +53,44 @@ public interface SupremeCacheService<ENTITY> extends SupremeBaseService<ENTITY>
      */
     void refreshCache();
 
+    /**
+     * 刷新缓存
+     * <p>
+     * 以游标分批读取全表数据并批量写入缓存，内存中最多只保留一批数据
+     *
+     * @param progress 每写完一批回调一次，参数为已刷新的条数；返回 false 时停止刷新
+     * @return 已刷新的条数
+     */
+    long refreshCache(LongPredicate progress);
+
     /**
      * 清理缓存
      */
     void clearCache();
+
+    /**
+     * 清理缓存
+     * <p>
+     * 以游标分批读取全表主键，并批量 UNLINK 对应的缓存
+     *
+     * @param progress 每清理完一批回调一次，参数为已清理的条数；返回 false 时停止清理
+     * @return 已清理的条数
+     */
+    long clearCache(LongPredicate progress);
+
+    /**
+     * 淘汰缓存，不查询数据库
+     * <p>
+     * 用于响应绕过 Service 的数据变更(其他实例、Mapper、批量更新等)
+     *
+     * @param ids 主键，为空时淘汰当前租户下该表的全部缓存
+     */
+    void evictCache(Collection<? extends Serializable> ids);
+
+    /**
+     * 按预热策略加载数据并批量写入缓存
+     *
+     * @param context 预热上下文
+     */
+    void warmUpCache(CacheWarmUpContext context);
 }
@@ -1,15 +1,62 @@
 package club.supreme.framework.crud.service.impl;
 
-import club.supreme.framework.exception.BizException;
+import club.supreme.framework.crud.injector.SupremeSqlInjector;
+import club.supreme.framework.crud.injector.method.BulkUpdateById;
+import club.supreme.framework.crud.injector.method.UpsertBatch;
 import club.supreme.framework.crud.mapper.SupremeBaseMapper;
+import club.supreme.framework.crud.page.PageCounter;
 import club.supreme.framework.crud.service.SupremeBaseService;
+import club.supreme.framework.crud.utils.BatchSqlHelper;
+import club.supreme.framework.enums.crud.PageCountModeEnumI;
+import club.supreme.framework.exception.BizException;
 import club.supreme.framework.model.response.R;
+import club.supreme.framework.utils.ArgumentAssert;
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import com.alibaba.ttl.threadpool.TtlExecutors;
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.handlers.MetaObjectHandler;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import com.baomidou.mybatisplus.core.toolkit.ReflectionKit;
+import com.baomidou.mybatisplus.core.toolkit.StringPool;
+import com.baomidou.mybatisplus.core.toolkit.StringUtils;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
+import com.google.common.collect.Lists;
 import lombok.NoArgsConstructor;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
 import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import static club.supreme.framework.exception.code.ExceptionCode.SERVICE_MAPPER_ERROR;
 
@@ -21,6 +68,11 @@ import static club.supreme.framework.exception.code.ExceptionCode.SERVICE_MAPPER
  * 3，removeByIds：重写 ServiceImpl 类的方法，删除db
  * 4，updateAllById： 新增的方法： 修改数据（所有字段）
  * 5，updateById：重写 ServiceImpl 类的方法，修改db后
+ * 6，saveBatchBulk：新增的方法：多行 INSERT 批量保存
+ * 7，saveOrUpdateBatch：重写 ServiceImpl 类的方法，支持时使用多行 UPSERT
+ * 8，updateBatchById：重写 ServiceImpl 类的方法，支持时每批一条 SQL 修改多行
+ * 9，page(page, wrapper, countMode)：新增的方法：指定查询总数方式的分页查询
+ * 10，stream、streamChunks：新增的方法：游标流式查询
  *
  * @param <MAPPER> Mapper
  * @param <ENTITY> 实体
@@ -30,8 +82,15 @@ import static club.supreme.framework.exception.code.ExceptionCode.SERVICE_MAPPER
 @NoArgsConstructor
 public class SupremeBaseServiceImpl<MAPPER extends SupremeBaseMapper<ENTITY>, ENTITY>
         extends ServiceImpl<MAPPER, ENTITY> implements SupremeBaseService<ENTITY> {
+    /**
+     * 流式处理时每批的条数
+     */
+    protected static final int STREAM_CHUNK_SIZE = 1000;
     private Class<ENTITY> entityClass = null;
 
+    @Autowired(required = false)
+    protected PageCounter pageCounter;
+
     public SupremeBaseMapper getSuperMapper() {
         if (baseMapper instanceof SupremeBaseMapper) {
             return baseMapper;
@@ -106,4 +165,393 @@ public class SupremeBaseServiceImpl<MAPPER extends SupremeBaseMapper<ENTITY>, EN
         }
         return result.getData();
     }
+
+    /**
+     * 多行 INSERT 批量保存
+     * <p>
+     * 不加 @Transactional：由调用方决定是否在事务中执行，只有不在事务中时才能并行写入
+     */
+    @Override
+    public boolean saveBatchBulk(Collection<ENTITY> entityList, int parallelism) {
+        if (CollUtil.isEmpty(entityList)) {
+            return true;
+        }
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(getEntityClass());
+        ArgumentAssert.notNull(tableInfo, "实体[{}]没有对应的表信息", getEntityClass().getName());
+        SqlSessionFactory sqlSessionFactory = SqlHelper.sqlSessionFactory(getEntityClass());
+        int chunkSize = BatchSqlHelper.chunkSize(BatchSqlHelper.getDbType(sqlSessionFactory),
+                BatchSqlHelper.insertColumns(tableInfo), BatchSqlHelper.DEFAULT_MAX_ROWS);
+        // 自动填充由 mybatis-plus 在执行 insertBatchSomeColumn 时完成，并行写入时租户、用户等上下文经 TTL 传递到工作线程
+        List<List<ENTITY>> chunks = Lists.partition(new ArrayList<>(entityList), chunkSize);
+        if (parallelism <= 1 || chunks.size() == 1 || TransactionSynchronizationManager.isActualTransactionActive()) {
+            long rows = 0;
+            for (List<ENTITY> chunk : chunks) {
+                rows += baseMapper.insertBatchSomeColumn(chunk);
+            }
+            return rows > 0;
+        }
+        return saveChunksInParallel(sqlSessionFactory, chunks, Math.min(parallelism, chunks.size()));
+    }
+
+    /**
+     * 批量新增或修改
+     * <p>
+     * 注入了 upsertBatch 且实体没有乐观锁字段时(MySQL、MariaDB、PostgreSQL)：没有主键的实体使用 saveBatchBulk 插入，
+     * 有主键的实体分批执行多行 UPSERT，不再逐行 SELECT 判断是否存在；否则使用 ServiceImpl 的逐行实现
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean saveOrUpdateBatch(Collection<ENTITY> entityList, int batchSize) {
+        if (!supportsUpsert()) {
+            return super.saveOrUpdateBatch(entityList, batchSize);
+        }
+        return upsertBatch(entityList);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void stream(Wrapper<ENTITY> queryWrapper, Consumer<ENTITY> consumer) {
+        try (Cursor<ENTITY> cursor = baseMapper.selectCursor(queryWrapper)) {
+            cursor.forEach(consumer);
+        } catch (IOException e) {
+            throw BizException.wrap("关闭游标失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamChunks(Wrapper<ENTITY> queryWrapper, int chunkSize, Consumer<List<ENTITY>> consumer) {
+        ArgumentAssert.isTrue(chunkSize > 0, "chunkSize 必须大于0");
+        forEachChunk(queryWrapper, chunkSize, chunk -> {
+            consumer.accept(chunk);
+            return true;
+        });
+    }
+
+    /**
+     * 以游标逐行读取数据，每凑满 chunkSize 条回调一次，内存中最多只保留一批数据
+     * <p>
+     * 游标需要在事务(同一个 SqlSession)中使用
+     *
+     * @param wrapper   查询条件，可以为 null
+     * @param chunkSize 每批条数
+     * @param consumer  处理一批数据，返回 false 时停止读取
+     */
+    protected void forEachChunk(Wrapper<ENTITY> wrapper, int chunkSize, Predicate<List<ENTITY>> consumer) {
+        try (Cursor<ENTITY> cursor = baseMapper.selectCursor(wrapper)) {
+            List<ENTITY> chunk = new ArrayList<>(chunkSize);
+            for (ENTITY entity : cursor) {
+                chunk.add(entity);
+                if (chunk.size() >= chunkSize) {
+                    if (!consumer.test(chunk)) {
+                        return;
+                    }
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                consumer.test(chunk);
+            }
+        } catch (IOException e) {
+            throw BizException.wrap("关闭游标失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public <E extends IPage<ENTITY>> E page(E page, Wrapper<ENTITY> queryWrapper, PageCountModeEnumI countMode) {
+        if (countMode == null || countMode == PageCountModeEnumI.EXACT || !(page instanceof Page) || page.getSize() <= 0) {
+            return page(page, queryWrapper);
+        }
+        Page<ENTITY> target = (Page<ENTITY>) page;
+        if (countMode == PageCountModeEnumI.NONE) {
+            pageWithoutCount(target, queryWrapper);
+            return page;
+        }
+        if (pageCounter == null) {
+            return page(page, queryWrapper);
+        }
+
+        long total;
+        if (countMode == PageCountModeEnumI.ASYNC && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            // 先生成 SQL 片段，两个线程只读取 wrapper
+            if (queryWrapper != null) {
+                queryWrapper.getCustomSqlSegment();
+            }
+            Future<Long> countFuture = pageCounter.countAsync(() -> (long) count(queryWrapper));
+            target.setSearchCount(false);
+            baseMapper.selectPage(target, queryWrapper);
+            total = pageCounter.await(countFuture);
+        } else {
+            total = countOf(countMode, queryWrapper);
+            target.setSearchCount(false);
+            baseMapper.selectPage(target, queryWrapper);
+        }
+        target.setTotal(total);
+        return page;
+    }
+
+    private long countOf(PageCountModeEnumI countMode, Wrapper<ENTITY> queryWrapper) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(getEntityClass());
+        if (countMode == PageCountModeEnumI.ESTIMATE && (queryWrapper == null || queryWrapper.isEmptyOfWhere())) {
+            SqlSessionFactory sqlSessionFactory = SqlHelper.sqlSessionFactory(getEntityClass());
+            Long rows = pageCounter.estimate(sqlSessionFactory, BatchSqlHelper.getDbType(sqlSessionFactory), tableInfo.getTableName());
+            if (rows != null) {
+                return rows;
+            }
+        }
+        if (countMode == PageCountModeEnumI.ASYNC) {
+            // 事务中使用当前连接查询，能看到事务中未提交的数据
+            return count(queryWrapper);
+        }
+        return pageCounter.cachedCount(tableInfo.getTableName(), queryWrapper, () -> (long) count(queryWrapper));
+    }
+
+    /**
+     * 不查询总数：多查询一条判断是否有下一页
+     */
+    private void pageWithoutCount(Page<ENTITY> page, Wrapper<ENTITY> queryWrapper) {
+        long size = page.getSize();
+        long offset = page.offset();
+        Page<ENTITY> probe = new Page<ENTITY>(page.getCurrent(), size + 1, false) {
+            @Override
+            public long offset() {
+                // 偏移量仍按原来的每页条数计算
+                return offset;
+            }
+        };
+        probe.setOrders(page.getOrders());
+        List<ENTITY> records = baseMapper.selectPage(probe, queryWrapper).getRecords();
+        boolean hasNext = records.size() > size;
+        if (hasNext) {
+            records = new ArrayList<>(records.subList(0, (int) size));
+        }
+        page.setSearchCount(false);
+        page.setRecords(records);
+        page.setTotal(offset + records.size() + (hasNext ? 1 : 0));
+    }
+
+    /**
+     * 是否可以使用 upsertBatch：已注入且实体没有乐观锁字段
+     */
+    protected boolean supportsUpsert() {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(getEntityClass());
+        return tableInfo != null && !tableInfo.isWithVersion() && hasStatement(UpsertBatch.METHOD);
+    }
+
+    /**
+     * 是否可以使用 bulkUpdateById：已注入且实体没有乐观锁字段
+     */
+    protected boolean supportsBulkUpdate() {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(getEntityClass());
+        return tableInfo != null && !tableInfo.isWithVersion() && hasStatement(BulkUpdateById.METHOD);
+    }
+
+    private boolean hasStatement(String method) {
+        return SqlHelper.sqlSessionFactory(getEntityClass()).getConfiguration().hasStatement(mapperClass.getName() + StringPool.DOT + method, false);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean updateBatchById(Collection<ENTITY> entityList, int batchSize) {
+        if (supportsBulkUpdate()) {
+            return updateBatchByIdBulk(entityList);
+        }
+        return super.updateBatchById(entityList, batchSize);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean updateBatchByIdBulk(Collection<ENTITY> entityList) {
+        if (CollUtil.isEmpty(entityList)) {
+            return true;
+        }
+        if (!supportsBulkUpdate()) {
+            return updateBatchById(entityList, DEFAULT_BATCH_SIZE);
+        }
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(getEntityClass());
+        SqlSessionFactory sqlSessionFactory = SqlHelper.sqlSessionFactory(getEntityClass());
+        DbType dbType = BatchSqlHelper.getDbType(sqlSessionFactory);
+        // 不能删除：MybatisParameterHandler 执行时也会填充 list 中的实体，但那时已经分组完毕，
+        // 必须在 updateColumns 分组前填充，否则 updated_at、updated_by 等字段不会出现在 SET 中
+        fill(sqlSessionFactory.getConfiguration(), entityList, false);
+
+        // 按要修改的字段分组，同一组使用同一条 SQL
+        Map<Set<String>, List<ENTITY>> groups = new LinkedHashMap<>();
+        for (ENTITY entity : entityList) {
+            if (StringUtils.checkValNull(ReflectionKit.getFieldValue(entity, tableInfo.getKeyProperty()))) {
+                continue;
+            }
+            Set<String> columns = updateColumns(tableInfo, entity);
+            // 没有可修改的字段时生成的 SQL 没有 SET
+            if (!columns.isEmpty()) {
+                groups.computeIfAbsent(columns, k -> new ArrayList<>()).add(entity);
+            }
+        }
+        long rows = 0;
+        for (Map.Entry<Set<String>, List<ENTITY>> group : groups.entrySet()) {
+            int chunkSize = BatchSqlHelper.chunkSize(dbType, BulkUpdateById.parametersPerRow(dbType, group.getKey().size()),
+                    BatchSqlHelper.DEFAULT_MAX_ROWS);
+            for (List<ENTITY> chunk : Lists.partition(group.getValue(), chunkSize)) {
+                rows += baseMapper.bulkUpdateById(chunk, group.getKey());
+            }
+        }
+        return rows > 0;
+    }
+
+    /**
+     * 实体要修改的字段，规则与 updateById 的字段策略相同，且只取 bulkUpdateById 中可以修改的字段
+     */
+    private Set<String> updateColumns(TableInfo tableInfo, ENTITY entity) {
+        Set<String> columns = new HashSet<>();
+        for (TableFieldInfo field : tableInfo.getFieldList()) {
+            if (!SupremeSqlInjector.UPDATE_PREDICATE.test(field)) {
+                continue;
+            }
+            Object value = ReflectionKit.getFieldValue(entity, field.getProperty());
+            boolean update;
+            switch (field.getUpdateStrategy()) {
+                case IGNORED:
+                    update = true;
+                    break;
+                case NEVER:
+                    update = false;
+                    break;
+                case NOT_EMPTY:
+                    update = value != null && !(value instanceof CharSequence && ((CharSequence) value).length() == 0);
+                    break;
+                default:
+                    update = value != null;
+                    break;
+            }
+            if (update) {
+                columns.add(field.getProperty());
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * 没有主键的实体多行 INSERT，有主键的实体多行 UPSERT
+     *
+     * @param entityList 实体
+     * @return 是否成功
+     */
+    protected boolean upsertBatch(Collection<ENTITY> entityList) {
+        if (CollUtil.isEmpty(entityList)) {
+            return true;
+        }
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(getEntityClass());
+        ArgumentAssert.notNull(tableInfo, "实体[{}]没有对应的表信息", getEntityClass().getName());
+        String keyProperty = tableInfo.getKeyProperty();
+        ArgumentAssert.notEmpty(keyProperty, "实体[{}]没有主键", getEntityClass().getName());
+
+        List<ENTITY> inserts = new ArrayList<>();
+        List<ENTITY> upserts = new ArrayList<>();
+        for (ENTITY entity : entityList) {
+            if (StringUtils.checkValNull(ReflectionKit.getFieldValue(entity, keyProperty))) {
+                inserts.add(entity);
+            } else {
+                upserts.add(entity);
+            }
+        }
+        if (!inserts.isEmpty()) {
+            saveBatchBulk(inserts);
+        }
+        if (!upserts.isEmpty()) {
+            // upsertBatch 是 INSERT 语句，mybatis-plus 只执行 insertFill；冲突时按修改处理，补上 updateFill
+            fill(SqlHelper.sqlSessionFactory(getEntityClass()).getConfiguration(), upserts, false);
+            int chunkSize = BatchSqlHelper.chunkSize(BatchSqlHelper.getDbType(SqlHelper.sqlSessionFactory(getEntityClass())),
+                    BatchSqlHelper.insertColumns(tableInfo), BatchSqlHelper.DEFAULT_MAX_ROWS);
+            for (List<ENTITY> chunk : Lists.partition(upserts, chunkSize)) {
+                baseMapper.upsertBatch(chunk);
+                afterUpsertChunk(chunk);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 每批 UPSERT 执行后的处理
+     *
+     * @param chunk 本批实体(有主键)
+     */
+    protected void afterUpsertChunk(List<ENTITY> chunk) {
+    }
+
+    /**
+     * 为整批实体执行 MetaObjectHandler 的自动填充
+     *
+     * @param insert true: insertFill，false: updateFill
+     */
+    private void fill(Configuration configuration, Collection<ENTITY> entityList, boolean insert) {
+        MetaObjectHandler metaObjectHandler = GlobalConfigUtils.getGlobalConfig(configuration).getMetaObjectHandler();
+        if (metaObjectHandler == null || !(insert ? metaObjectHandler.openInsertFill() : metaObjectHandler.openUpdateFill())) {
+            return;
+        }
+        for (ENTITY entity : entityList) {
+            if (insert) {
+                metaObjectHandler.insertFill(configuration.newMetaObject(entity));
+            } else {
+                metaObjectHandler.updateFill(configuration.newMetaObject(entity));
+            }
+        }
+    }
+
+    /**
+     * 多个线程并行写入，每个分片使用单独的 SqlSession(连接)并各自提交
+     * <p>
+     * 所有 Service 共用 BulkInsertExecutor 的线程池，本次调用最多占用 parallelism 个线程，线程池满时由调用方线程写入
+     */
+    private boolean saveChunksInParallel(SqlSessionFactory sqlSessionFactory, List<List<ENTITY>> chunks, int parallelism) {
+        AtomicInteger next = new AtomicInteger();
+        List<Future<Long>> futures = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            futures.add(BulkInsertExecutor.INSTANCE.submit(() -> {
+                long rows = 0;
+                for (int index = next.getAndIncrement(); index < chunks.size(); index = next.getAndIncrement()) {
+                    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.SIMPLE, true)) {
+                        rows += sqlSession.getMapper(mapperClass).insertBatchSomeColumn(chunks.get(index));
+                        sqlSession.commit();
+                    }
+                }
+                return rows;
+            }));
+        }
+        try {
+            long rows = 0;
+            for (Future<Long> future : futures) {
+                rows += future.get();
+            }
+            return rows > 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw BizException.wrap("批量保存被中断");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new BizException(-1, "批量保存失败", e.getCause());
+        } finally {
+            // 一个分片失败时其余线程不再领取新的分片
+            next.set(chunks.size());
+        }
+    }
+
+    /**
+     * saveBatchBulk 并行写入共用的线程池
+     * <p>
+     * 线程数为 CPU 核数，空闲 60 秒后回收；通过 TtlExecutors 包装，工作线程中可以读取到调用方的租户、用户上下文
+     */
+    private static final class BulkInsertExecutor {
+        private static final int THREADS = Runtime.getRuntime().availableProcessors();
+        private static final ExecutorService INSTANCE = TtlExecutors.getTtlExecutorService(newExecutor());
+
+        private static ExecutorService newExecutor() {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(THREADS * 4), new NamedThreadFactory("supreme-bulk-insert-", true),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
 }
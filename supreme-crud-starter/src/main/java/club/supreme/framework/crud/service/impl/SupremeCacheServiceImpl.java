@@ -1,18 +1,34 @@
 package club.supreme.framework.crud.service.impl;
 
 import club.supreme.framework.cache.repository.CacheOps;
+import club.supreme.framework.cache.repository.CachePlusOps;
+import club.supreme.framework.constant.StrPool;
+import club.supreme.framework.context.TenantContext;
+import club.supreme.framework.context.TenantContextHolder;
+import club.supreme.framework.crud.cache.CacheTransactionSynchronizer;
+import club.supreme.framework.crud.cache.warmup.CacheHotKeyTracker;
+import club.supreme.framework.crud.cache.warmup.CacheWarmUpContext;
+import club.supreme.framework.crud.datasource.DataSourceHint;
 import club.supreme.framework.crud.mapper.SupremeBaseMapper;
 import club.supreme.framework.crud.service.SupremeCacheService;
+import club.supreme.framework.exception.BizException;
 import club.supreme.framework.model.SupremeBaseEntity;
+import club.supreme.framework.model.cache.CacheHashKey;
 import club.supreme.framework.model.cache.CacheKey;
 import club.supreme.framework.model.cache.CacheKeyBuilder;
+import club.supreme.framework.utils.ArgumentAssert;
+import club.supreme.framework.utils.CollHelper;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.util.ReflectUtil;
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.enums.SqlMethod;
 import com.baomidou.mybatisplus.core.metadata.TableInfo;
 import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
 import com.baomidou.mybatisplus.core.toolkit.*;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -21,6 +37,7 @@ import org.apache.ibatis.session.SqlSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.NonNull;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
@@ -28,6 +45,7 @@ import java.util.*;
 import java.util.function.BiConsumer;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
 /**
@@ -50,8 +68,25 @@ public abstract class SupremeCacheServiceImpl<MAPPER extends SupremeBaseMapper<E
 
     @Autowired
     protected CacheOps cacheOps;
+    @Autowired(required = false)
+    protected CachePlusOps cachePlusOps;
+
+    /**
+     * 热点 key 统计，开启缓存预热时才存在
+     */
+    @Autowired(required = false)
+    protected CacheHotKeyTracker hotKeyTracker;
+    /**
+     * 事务内的缓存变更推迟到提交后执行，关闭 supreme.cache.transaction.enabled 时不存在
+     */
+    @Autowired(required = false)
+    protected CacheTransactionSynchronizer cacheTransactionSynchronizer;
 
     protected static final int MAX_BATCH_KEY_SIZE = 20;
+    /**
+     * 分桶存放时 key 中桶号前的固定段
+     */
+    private static final String BUCKET = "bucket";
 
     /**
      * 缓存key 构造器
@@ -60,11 +95,104 @@ public abstract class SupremeCacheServiceImpl<MAPPER extends SupremeBaseMapper<E
      */
     protected abstract CacheKeyBuilder cacheKeyBuilder();
 
+    /**
+     * 实体按 id 分桶存放在 hash 中时的桶数量
+     * <p>
+     * 默认 0 表示每个实体一个 key(租户:前缀:id)；
+     * 大于 0 时实体存放在 租户:前缀:bucket:桶号 这个 hash 中，field 为 id，桶号为 id 对桶数量取模。
+     * 适合字典等体积小、条目多的实体：key 的数量大幅减少，桶内条目不多时 redis 使用紧凑编码，内存占用更小，
+     * findByIds 也只需每个桶一条 HMGET。
+     * 注意：同一个桶共用一个过期时间；桶数量建议让每个桶的条目数不超过 hash-max-listpack-entries(默认 128)
+     *
+     * @return 桶数量
+     */
+    protected int cacheHashBuckets() {
+        return 0;
+    }
+
+    /**
+     * 实体的缓存 key
+     *
+     * @param id 主键
+     * @return 开启分桶时返回标记为分桶的 CacheHashKey，否则返回普通的 CacheKey
+     */
+    protected CacheKey cacheKey(Object id) {
+        int buckets = cacheHashBuckets();
+        if (buckets <= 0) {
+            // CacheKeyBuilder.key() 返回的是带 field 的 CacheHashKey，转成普通 key，按字符串存取
+            CacheKey key = cacheKeyBuilder().key(id);
+            CacheKey plain = new CacheKey(key.getKey(), key.getExpire());
+            plain.setNullExpire(key.getNullExpire());
+            plain.setReadFromMaster(key.isReadFromMaster());
+            return plain;
+        }
+        CacheHashKey key = cacheKeyBuilder().hashFieldKey(String.valueOf(id), BUCKET, bucket(id, buckets));
+        key.setBucket(true);
+        return key;
+    }
+
+    /**
+     * 是否分桶存放在 hash 中
+     */
+    private boolean isBucketed() {
+        return cacheHashBuckets() > 0;
+    }
+
+    /**
+     * id 所在的桶号
+     */
+    private static long bucket(Object id, int buckets) {
+        Long number = Convert.toLong(id, null);
+        return number != null ? Math.floorMod(number, (long) buckets) : Math.floorMod(String.valueOf(id).hashCode(), buckets);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ENTITY getByIdCache(Serializable id) {
-        CacheKey cacheKey = cacheKeyBuilder().key(id);
-        return cacheOps.get(cacheKey, k -> super.getById(id));
+        CacheKey cacheKey = cacheKey(id);
+        if (hotKeyTracker != null) {
+            hotKeyTracker.record(cacheKeyBuilder().getPrefix(), id);
+        }
+        if (isWritableTransaction()) {
+            return getByIdInTransaction(cacheKey, id);
+        }
+        if (DataSourceHint.isReplicaTransaction()) {
+            // 只读事务已经在从库上查询过，之后复用从库连接，读到的可能是复制延迟前的旧数据，不回填
+            ENTITY cached = getCached(cacheKey);
+            return cached != null ? cached : super.getById(id);
+        }
+        // 回填缓存的数据从主库读取，避免把从库的旧数据写入缓存
+        if (isBucketed()) {
+            return cachePlusOps.hGet((CacheHashKey) cacheKey, k -> DataSourceHint.primary(() -> super.getById(id)));
+        }
+        return cacheOps.get(cacheKey, k -> DataSourceHint.primary(() -> super.getById(id)));
+    }
+
+    private ENTITY getCached(CacheKey cacheKey) {
+        return isBucketed() ? cachePlusOps.hGet((CacheHashKey) cacheKey) : cacheOps.get(cacheKey);
+    }
+
+    /**
+     * 可写事务中读到的数据可能随事务回滚，缓存未命中时不直接回填：
+     * 回填交给 CacheTransactionSynchronizer 推迟到事务提交后，回滚时丢弃；关闭事务感知时不回填
+     */
+    private ENTITY getByIdInTransaction(CacheKey cacheKey, Serializable id) {
+        ENTITY cached = getCached(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        ENTITY entity = super.getById(id);
+        if (entity != null && cacheTransactionSynchronizer != null) {
+            cacheTransactionSynchronizer.set(cacheKey, entity);
+        }
+        return entity;
+    }
+
+    /**
+     * 当前是否处于可写事务中
+     */
+    private static boolean isWritableTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive() && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
     }
 
     @Override
@@ -73,16 +201,20 @@ public abstract class SupremeCacheServiceImpl<MAPPER extends SupremeBaseMapper<E
         if (ids.isEmpty()) {
             return Collections.emptyList();
         }
-        // 拼接keys
-        List<CacheKey> keys = ids.stream().map(cacheKeyBuilder()::key).collect(Collectors.toList());
-        // 切割
-        List<List<CacheKey>> partitionKeys = Lists.partition(keys, MAX_BATCH_KEY_SIZE);
-
-        // 用切割后的 partitionKeys 分批去缓存查， 返回的是缓存中存在的数据
-        List<ENTITY> valueList = partitionKeys.stream().map(ks -> new ArrayList<ENTITY>(cacheOps.find(ks))).flatMap(Collection::stream).collect(Collectors.toList());
-
         // 所有的key
         List<Serializable> keysList = Lists.newArrayList(ids);
+        List<ENTITY> valueList;
+        if (isBucketed()) {
+            valueList = findInBuckets(keysList);
+        } else {
+            // 拼接keys
+            List<CacheKey> keys = ids.stream().map(this::cacheKey).collect(Collectors.toList());
+            // 切割
+            List<List<CacheKey>> partitionKeys = Lists.partition(keys, MAX_BATCH_KEY_SIZE);
+
+            // 用切割后的 partitionKeys 分批去缓存查， 返回的是缓存中存在的数据
+            valueList = partitionKeys.stream().map(ks -> new ArrayList<ENTITY>(cacheOps.find(ks))).flatMap(Collection::stream).collect(Collectors.toList());
+        }
         // 缓存不存在的key
         Set<Serializable> missedKeys = Sets.newLinkedHashSet();
 
@@ -98,20 +230,61 @@ public abstract class SupremeCacheServiceImpl<MAPPER extends SupremeBaseMapper<E
         }
         // 加载miss 的数据，并设置到缓存
         if (CollUtil.isNotEmpty(missedKeys)) {
-            if (loader == null) {
-                loader = this::listByIds;
+            Function<Collection<? extends Serializable>, Collection<ENTITY>> missLoader = loader == null ? this::listByIds : loader;
+            // 已经使用从库连接的只读事务中读到的可能是旧数据，不回填；否则从主库读取
+            boolean fill = !DataSourceHint.isReplicaTransaction() && (cacheTransactionSynchronizer != null || !isWritableTransaction());
+            Collection<ENTITY> missList = fill ? DataSourceHint.primary(() -> missLoader.apply(missedKeys)) : missLoader.apply(missedKeys);
+            // 可写事务中只能经 CacheTransactionSynchronizer 在提交后回填
+            if (fill) {
+                missList.forEach(this::setCache);
             }
-            Collection<ENTITY> missList = loader.apply(missedKeys);
-            missList.forEach(this::setCache);
             allList.addAll(missList);
         }
         return allList;
     }
 
+    /**
+     * 按桶分组查询缓存，每个桶一条 HMGET
+     *
+     * @param ids 主键
+     * @return 与 ids 一一对应的缓存值，不存在时为 null
+     */
+    @SuppressWarnings("unchecked")
+    private List<ENTITY> findInBuckets(List<Serializable> ids) {
+        List<CacheHashKey> keys = new ArrayList<>(ids.size());
+        Map<String, List<Integer>> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            CacheHashKey key = (CacheHashKey) cacheKey(ids.get(i));
+            keys.add(key);
+            buckets.computeIfAbsent(key.getKey(), k -> new ArrayList<>()).add(i);
+        }
+
+        List<ENTITY> valueList = new ArrayList<>(Collections.nCopies(ids.size(), null));
+        buckets.forEach((bucket, indexes) -> {
+            List<Object> fields = indexes.stream().map(i -> keys.get(i).getField()).collect(Collectors.toList());
+            List<Object> values = cachePlusOps.hmGet(keys.get(indexes.get(0)), fields);
+            for (int i = 0; i < indexes.size() && i < values.size(); i++) {
+                valueList.set(indexes.get(i), (ENTITY) values.get(i));
+            }
+        });
+        return valueList;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ENTITY getByKey(CacheKey key, Function<CacheKey, Object> loader) {
-        Object id = cacheOps.get(key, loader);
+        Object id;
+        if (isWritableTransaction()) {
+            id = cacheOps.get(key);
+            if (id == null) {
+                id = loader.apply(key);
+                if (id != null && cacheTransactionSynchronizer != null) {
+                    cacheTransactionSynchronizer.set(key, id);
+                }
+            }
+        } else {
+            id = cacheOps.get(key, loader);
+        }
         return id == null ? null : getByIdCache(Convert.toLong(id));
     }
 
@@ -173,9 +346,24 @@ public abstract class SupremeCacheServiceImpl<MAPPER extends SupremeBaseMapper<E
         });
     }
 
+    @Override
+    public boolean saveBatchBulk(Collection<ENTITY> entityList, int parallelism) {
+        boolean saved = super.saveBatchBulk(entityList, parallelism);
+        // 事务中推迟到提交后写入缓存
+        if (cacheTransactionSynchronizer != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityList.forEach(this::setCache);
+        } else if (CollUtil.isNotEmpty(entityList)) {
+            setCacheBatch(entityList, false);
+        }
+        return saved;
+    }
+
     @Transactional(rollbackFor = Exception.class)
     @Override
     public boolean saveOrUpdateBatch(Collection<ENTITY> entityList, int batchSize) {
+        if (supportsUpsert()) {
+            return super.saveOrUpdateBatch(entityList, batchSize);
+        }
         TableInfo tableInfo = TableInfoHelper.getTableInfo(getEntityClass());
         Assert.notNull(tableInfo, "error: can not execute. because can not find cache of TableInfo for entity!");
         String keyProperty = tableInfo.getKeyProperty();
@@ -210,9 +398,45 @@ public abstract class SupremeCacheServiceImpl<MAPPER extends SupremeBaseMapper<E
 
     }
 
+    /**
+     * 无法区分新增还是修改，本批的缓存统一删除(一次批量删除)
+     */
+    @Override
+    protected void afterUpsertChunk(List<ENTITY> chunk) {
+        delCacheKeys(cacheKeys(chunk));
+    }
+
+    /**
+     * 实体对应的缓存 key，主键为空的实体忽略
+     */
+    private List<CacheKey> cacheKeys(Collection<ENTITY> entityList) {
+        List<CacheKey> keys = new ArrayList<>(entityList.size());
+        for (ENTITY entity : entityList) {
+            Object id = getId(entity);
+            if (id != null) {
+                keys.add(cacheKey(id));
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean updateBatchByIdBulk(Collection<ENTITY> entityList) {
+        boolean result = super.updateBatchByIdBulk(entityList);
+        if (CollUtil.isNotEmpty(entityList) && supportsBulkUpdate()) {
+            // 一次清理整批缓存；不支持时 super 逐行修改，会经过下面的 updateBatchById 逐个清理
+            delCacheKeys(cacheKeys(entityList));
+        }
+        return result;
+    }
+
     @Transactional(rollbackFor = Exception.class)
     @Override
     public boolean updateBatchById(Collection<ENTITY> entityList, int batchSize) {
+        if (supportsBulkUpdate()) {
+            return updateBatchByIdBulk(entityList);
+        }
         String sqlStatement = getSqlStatement(SqlMethod.UPDATE_BY_ID);
         return executeBatch(entityList, batchSize, (sqlSession, entity) -> {
             MapperMethod.ParamMap<ENTITY> param = new MapperMethod.ParamMap<>();
@@ -224,14 +448,204 @@ public abstract class SupremeCacheServiceImpl<MAPPER extends SupremeBaseMapper<E
         });
     }
 
+    /**
+     * 回填缓存的数据必须读主库：只读事务会被读写分离路由到从库，而事务开始时已获取连接，方法内再用 DataSourceHint 强制主库已经来不及
+     */
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void refreshCache() {
-        list().forEach(this::setCache);
+        refreshCache(count -> true);
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
+    public long refreshCache(LongPredicate progress) {
+        long[] count = {0};
+        forEachChunk(null, STREAM_CHUNK_SIZE, chunk -> {
+            setCacheBatch(chunk, false);
+            count[0] += chunk.size();
+            return progress.test(count[0]);
+        });
+        return count[0];
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public void clearCache() {
-        list().forEach(this::delCache);
+        clearCache(count -> true);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long clearCache(LongPredicate progress) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(getEntityClass());
+        ArgumentAssert.notNull(tableInfo, "实体[{}]没有对应的表信息", getEntityClass().getName());
+        // 只查询主键
+        QueryWrapper<ENTITY> wrapper = new QueryWrapper<>();
+        wrapper.select(tableInfo.getKeyColumn());
+
+        long[] count = {0};
+        forEachChunk(wrapper, STREAM_CHUNK_SIZE, chunk -> {
+            List<CacheKey> keys = new ArrayList<>(chunk.size());
+            for (ENTITY entity : chunk) {
+                Object id = getId(entity);
+                if (id != null) {
+                    keys.add(cacheKey(id));
+                }
+            }
+            cacheOps.unlink(keys);
+            count[0] += chunk.size();
+            return progress.test(count[0]);
+        });
+        return count[0];
+    }
+
+    @Override
+    public void evictCache(Collection<? extends Serializable> ids) {
+        if (CollUtil.isNotEmpty(ids)) {
+            cacheOps.unlink(ids.stream().map(id -> cacheKey(id)).collect(Collectors.toList()));
+        } else if (cachePlusOps != null) {
+            cachePlusOps.scanUnlink(cacheKeyBuilder().getPattern(String.valueOf(cacheKeyBuilder().getTenant()), StrPool.STAR));
+        } else {
+            clearCache();
+        }
+    }
+
+    /**
+     * 淘汰所有租户的缓存，无法确定数据所属的租户时(如特权租户的变更)使用
+     * <p>
+     * 需要 SCAN 本前缀下所有租户的 key，只应在低频的场景中调用
+     *
+     * @param ids 主键，为空时淘汰所有租户的整张表
+     */
+    public void evictCacheAcrossTenants(Collection<? extends Serializable> ids) {
+        if (cachePlusOps == null) {
+            log.warn("没有 CachePlusOps, 只能淘汰当前租户的缓存");
+            evictCache(ids);
+            return;
+        }
+        CacheKeyBuilder builder = cacheKeyBuilder();
+        if (CollUtil.isEmpty(ids)) {
+            cachePlusOps.scanUnlink(builder.getPattern(null, StrPool.STAR));
+            return;
+        }
+        int buckets = cacheHashBuckets();
+        if (buckets > 0) {
+            // 桶的 key 为 租户:前缀:bucket:桶号，每个桶号 SCAN 一次，删除各租户桶中的 field
+            Map<Long, List<Object>> fields = new LinkedHashMap<>();
+            for (Serializable id : ids) {
+                fields.computeIfAbsent(bucket(id, buckets), k -> new ArrayList<>()).add(String.valueOf(id));
+            }
+            fields.forEach((bucket, bucketFields) -> {
+                for (String key : cachePlusOps.scan(builder.getPattern(null, BUCKET, bucket))) {
+                    cachePlusOps.hDel(key, bucketFields.toArray());
+                }
+            });
+            return;
+        }
+        // 一次 SCAN 本前缀下所有租户的 key，按 :前缀:id 结尾匹配
+        String separator = builder.isHashTag() ? StrPool.DELIM_END + StrPool.COLON : StrPool.COLON;
+        String prefix = StrPool.COLON + builder.getPrefix() + separator;
+        Set<String> suffixes = ids.stream().map(id -> prefix + id).collect(Collectors.toSet());
+        List<CacheKey> keys = new ArrayList<>();
+        for (String key : cachePlusOps.scan(builder.getPattern(null, StrPool.STAR))) {
+            int index = key.indexOf(prefix);
+            if (index >= 0 && suffixes.contains(key.substring(index))) {
+                keys.add(new CacheKey(key));
+            }
+        }
+        if (!keys.isEmpty()) {
+            cacheOps.unlink(keys);
+        }
+    }
+
+    /**
+     * 与 refreshCache 相同，使用读写事务从主库加载
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void warmUpCache(CacheWarmUpContext context) {
+        switch (context.getStrategy()) {
+            case RECENT_TOP_N:
+                warmUpRecent(context);
+                break;
+            case FULL_TABLE:
+                warmUpFullTable(context);
+                break;
+            case HOT_KEY_SNAPSHOT:
+                warmUpHotKeys(context);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 按排序字段倒序分页加载最近的 limit 条数据
+     */
+    protected void warmUpRecent(CacheWarmUpContext context) {
+        String orderBy = StrUtil.isEmpty(context.getOrderBy())
+                ? TableInfoHelper.getTableInfo(getEntityClass()).getKeyColumn() : context.getOrderBy();
+        QueryWrapper<ENTITY> wrapper = new QueryWrapper<>();
+        wrapper.orderByDesc(orderBy);
+
+        long remaining = context.getLimit();
+        long current = 1;
+        while (remaining > 0 && !context.isCancelled()) {
+            List<ENTITY> records = page(new Page<ENTITY>(current++, context.getChunkSize(), false), wrapper).getRecords();
+            if (records.isEmpty()) {
+                break;
+            }
+            if (records.size() > remaining) {
+                records = records.subList(0, (int) remaining);
+            }
+            warmUpChunk(records, context);
+            remaining -= records.size();
+            if (records.size() < context.getChunkSize()) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 通过游标流式读取全表，按批写入缓存
+     */
+    protected void warmUpFullTable(CacheWarmUpContext context) {
+        forEachChunk(null, context.getChunkSize(), chunk -> {
+            if (context.isCancelled()) {
+                return false;
+            }
+            warmUpChunk(chunk, context);
+            return true;
+        });
+    }
+
+    /**
+     * 按上次保存的热点 id 加载
+     */
+    protected void warmUpHotKeys(CacheWarmUpContext context) {
+        if (hotKeyTracker == null) {
+            return;
+        }
+        String prefix = cacheKeyBuilder().getPrefix();
+        hotKeyTracker.track(prefix, context.getLimit());
+        List<Serializable> ids = hotKeyTracker.load(prefix).stream()
+                .map(id -> (Serializable) id).limit(context.getLimit()).collect(Collectors.toList());
+        for (List<Serializable> partition : Lists.partition(ids, context.getChunkSize())) {
+            if (context.isCancelled()) {
+                return;
+            }
+            warmUpChunk(listByIds(partition), context);
+        }
+    }
+
+    private void warmUpChunk(List<ENTITY> chunk, CacheWarmUpContext context) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        context.acquire(chunk.size());
+        setCacheBatch(chunk, context.isTenantAware());
+        context.progress(chunk.size());
     }
 
 
@@ -240,23 +654,73 @@ public abstract class SupremeCacheServiceImpl<MAPPER extends SupremeBaseMapper<E
     }
 
     protected void delCache(Collection<? extends Serializable> idList) {
-        CacheKey[] keys = idList.stream().map(id -> cacheKeyBuilder().key(id)).toArray(CacheKey[]::new);
-        cacheOps.del(keys);
+        List<CacheKey> keys = idList.stream().map(id -> cacheKey(id)).collect(Collectors.toList());
+        delCacheKeys(keys);
     }
 
     protected void delCache(ENTITY model) {
         Object id = getId(model);
         if (id != null) {
-            CacheKey key = cacheKeyBuilder().key(id);
-            cacheOps.del(key);
+            delCacheKeys(Collections.singletonList(cacheKey(id)));
         }
     }
 
     protected void setCache(ENTITY model) {
         Object id = getId(model);
         if (id != null) {
-            CacheKey key = cacheKeyBuilder().key(id);
-            cacheOps.set(key, model);
+            CacheKey key = cacheKey(id);
+            if (cacheTransactionSynchronizer != null) {
+                cacheTransactionSynchronizer.set(key, model);
+            } else if (isBucketed()) {
+                cachePlusOps.hSet((CacheHashKey) key, model);
+            } else {
+                cacheOps.set(key, model);
+            }
+        }
+    }
+
+    /**
+     * 删除缓存，在事务中调用时推迟到事务提交后批量删除
+     */
+    private void delCacheKeys(List<CacheKey> keys) {
+        if (cacheTransactionSynchronizer != null) {
+            cacheTransactionSynchronizer.del(keys);
+        } else {
+            cacheOps.unlink(keys);
+        }
+    }
+
+    /**
+     * 批量写入缓存，redis 模式下在一个 pipeline 中完成
+     *
+     * @param models      实体
+     * @param tenantAware 是否按实体的租户拼接缓存 key(跨租户加载数据时使用)
+     */
+    protected void setCacheBatch(Collection<ENTITY> models, boolean tenantAware) {
+        Map<CacheKey, Object> map = new LinkedHashMap<>(CollHelper.initialCapacity(models.size()));
+        for (ENTITY model : models) {
+            Object id = getId(model);
+            if (id != null) {
+                map.put(tenantAware ? tenantCacheKey(model, id) : cacheKey(id), model);
+            }
+        }
+        cacheOps.mSet(map);
+    }
+
+    /**
+     * 以实体所属租户构建缓存 key
+     */
+    private CacheKey tenantCacheKey(ENTITY model, Object id) {
+        Long tenantId = model instanceof SupremeBaseEntity ? Convert.toLong(((SupremeBaseEntity<?>) model).getTenantId()) : null;
+        if (tenantId == null || tenantId.equals(TenantContextHolder.getTenantId())) {
+            return cacheKey(id);
+        }
+        TenantContext old = TenantContextHolder.getTenantContext();
+        try {
+            TenantContextHolder.setTenantContext(new TenantContext().setTenantId(tenantId));
+            return cacheKey(id);
+        } finally {
+            TenantContextHolder.setTenantContext(old);
         }
     }
 
@@ -0,0 +1,129 @@
+package club.supreme.framework.crud.utils;
+
+import club.supreme.framework.crud.injector.SupremeSqlInjector;
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.core.injector.ISqlInjector;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import com.baomidou.mybatisplus.extension.toolkit.JdbcUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionUtils;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 多行批量 SQL 帮助类
+ * <p>
+ * 一条 SQL 中绑定参数的个数受数据库(驱动)限制，多行 INSERT、CASE WHEN 批量修改等需要按 列数 × 行数 拆分成多条执行
+ *
+ * @author supreme
+ */
+@Slf4j
+public final class BatchSqlHelper {
+    /**
+     * 每条 SQL 默认最多的行数，避免 SQL 过长超过 max_allowed_packet 等限制
+     */
+    public static final int DEFAULT_MAX_ROWS = 1000;
+    /**
+     * 未知数据库时每条 SQL 最多的绑定参数个数
+     */
+    private static final int DEFAULT_MAX_PARAMETERS = 2000;
+
+    private static final Map<SqlSessionFactory, DbType> DB_TYPES = new ConcurrentHashMap<>();
+
+    private BatchSqlHelper() {
+    }
+
+    /**
+     * 一条 SQL 最多的绑定参数个数
+     * <p>
+     * MySQL 协议限制 65535 个；PostgreSQL 驱动限制 32767 个；SQL Server 限制 2100 个；SQLite 默认 999 个
+     *
+     * @param dbType 数据库类型
+     * @return 参数个数
+     */
+    public static int maxParameters(DbType dbType) {
+        if (dbType == null) {
+            return DEFAULT_MAX_PARAMETERS;
+        }
+        switch (dbType) {
+            case MYSQL:
+            case MARIADB:
+            case H2:
+                return 65535;
+            case POSTGRE_SQL:
+            case KINGBASE_ES:
+            case GAUSS:
+                return 32767;
+            case SQL_SERVER:
+            case SQL_SERVER2005:
+                return 2100 - 1;
+            case SQLITE:
+                return 999;
+            default:
+                return DEFAULT_MAX_PARAMETERS;
+        }
+    }
+
+    /**
+     * 每条 SQL 的行数
+     *
+     * @param dbType  数据库类型
+     * @param columns 每行的绑定参数个数
+     * @param maxRows 每条 SQL 最多的行数
+     * @return 行数，至少为 1
+     */
+    public static int chunkSize(DbType dbType, int columns, int maxRows) {
+        int rows = maxParameters(dbType) / Math.max(1, columns);
+        return Math.max(1, Math.min(rows, maxRows));
+    }
+
+    /**
+     * InsertBatchSomeColumn 每行插入的列数：主键 + 除 FieldFill.UPDATE 外的所有字段
+     *
+     * @param tableInfo 表信息
+     * @return 列数
+     */
+    public static int insertColumns(TableInfo tableInfo) {
+        int columns = (int) tableInfo.getFieldList().stream().filter(field -> field.getFieldFill() != FieldFill.UPDATE).count();
+        return tableInfo.havePK() ? columns + 1 : columns;
+    }
+
+    /**
+     * 数据库类型，每个 SqlSessionFactory 只识别一次
+     * <p>
+     * 使用 SupremeSqlInjector 时取注入器的数据库类型(supreme.crud.dbType)，与 upsertBatch、bulkUpdateById 生成 SQL 的方言一致；
+     * 否则根据连接的 url 识别
+     *
+     * @param sqlSessionFactory sqlSessionFactory
+     * @return 数据库类型，识别失败返回 DbType.OTHER
+     */
+    public static DbType getDbType(SqlSessionFactory sqlSessionFactory) {
+        DbType dbType = DB_TYPES.get(sqlSessionFactory);
+        if (dbType != null) {
+            return dbType;
+        }
+        ISqlInjector sqlInjector = GlobalConfigUtils.getGlobalConfig(sqlSessionFactory.getConfiguration()).getSqlInjector();
+        if (sqlInjector instanceof SupremeSqlInjector) {
+            dbType = ((SupremeSqlInjector) sqlInjector).getDbType();
+            DB_TYPES.put(sqlSessionFactory, dbType);
+            return dbType;
+        }
+        SqlSession sqlSession = SqlSessionUtils.getSqlSession(sqlSessionFactory);
+        try {
+            dbType = JdbcUtils.getDbType(sqlSession.getConnection().getMetaData().getURL());
+        } catch (SQLException e) {
+            log.warn("识别数据库类型失败", e);
+            dbType = DbType.OTHER;
+        } finally {
+            SqlSessionUtils.closeSqlSession(sqlSession, sqlSessionFactory);
+        }
+        DB_TYPES.put(sqlSessionFactory, dbType);
+        return dbType;
+    }
+}
@@ -0,0 +1,85 @@
+package club.supreme.framework.crud.batch;
+
+import club.supreme.framework.crud.service.SupremeBaseService;
+import club.supreme.framework.crud.support.Dict;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ParallelTableProcessor 生成的查询条件
+ *
+ * @author supreme
+ */
+class ParallelTableProcessorTest {
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Dict.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void userConditionIsNestedInsideKeyRange() {
+        SupremeBaseService<Dict> service = mock(SupremeBaseService.class);
+        when(service.getEntityClass()).thenReturn(Dict.class);
+        List<String> aggregates = Collections.synchronizedList(new ArrayList<>());
+        when(service.listObjs(any(), any())).thenAnswer(invocation -> {
+            QueryWrapper<Dict> wrapper = invocation.getArgument(0);
+            aggregates.add(sql(wrapper.getSqlSelect() + " WHERE " + wrapper.getSqlSegment()));
+            return Collections.singletonList(wrapper.getSqlSelect().startsWith("MIN") ? 1L : 2L);
+        });
+        List<String> chunks = Collections.synchronizedList(new ArrayList<>());
+        when(service.page(any(), any())).thenAnswer(invocation -> {
+            chunks.add(sql(invocation.<QueryWrapper<Dict>>getArgument(1).getSqlSegment()));
+            Page<Dict> page = invocation.getArgument(0);
+            return page.setRecords(Arrays.asList(new Dict().setId(1L), new Dict().setId(2L)));
+        });
+
+        long rows = new ParallelTableProcessor<>(service, "nested").setPartitions(1).setChunkSize(10)
+                .setCondition(w -> w.eq("name", "a").or().eq("sort_value", 2))
+                .process(chunk -> {
+                });
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(aggregates).hasSize(2).allSatisfy(sql -> assertThat(sql).contains("WHERE((name=?ORsort_value=?))"));
+        assertThat(chunks).singleElement().satisfies(sql -> assertThat(sql)
+                .isEqualTo("((name=?ORsort_value=?)ANDid>?ANDid<=?)ORDERBYidASC"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void noConditionQueriesKeyRangeOnly() {
+        SupremeBaseService<Dict> service = mock(SupremeBaseService.class);
+        when(service.getEntityClass()).thenReturn(Dict.class);
+        when(service.listObjs(any(), any())).thenAnswer(invocation -> Collections.singletonList(5L));
+        List<String> chunks = Collections.synchronizedList(new ArrayList<>());
+        when(service.page(any(), any())).thenAnswer(invocation -> {
+            chunks.add(sql(invocation.<QueryWrapper<Dict>>getArgument(1).getSqlSegment()));
+            return invocation.<Page<Dict>>getArgument(0).setRecords(Collections.singletonList(new Dict().setId(5L)));
+        });
+
+        new ParallelTableProcessor<>(service, "plain").setPartitions(1).process(chunk -> {
+        });
+
+        assertThat(chunks).containsExactly("(id>?ANDid<=?)ORDERBYidASC");
+    }
+
+    private static String sql(String segment) {
+        return segment.replaceAll("#\\{[^}]+}", "?").replaceAll("\\s+", "");
+    }
+}
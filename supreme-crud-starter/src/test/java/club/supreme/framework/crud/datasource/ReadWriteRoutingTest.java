@@ -0,0 +1,148 @@
+package club.supreme.framework.crud.datasource;
+
+import club.supreme.framework.crud.cache.warmup.CacheWarmUpContext;
+import club.supreme.framework.crud.service.impl.SupremeCacheServiceImpl;
+import club.supreme.framework.enums.crud.ReplicaBalanceEnumI;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.function.LongPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 读写分离的路由标记
+ *
+ * @author supreme
+ */
+class ReadWriteRoutingTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private ReadWriteRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(mock(Connection.class));
+        when(replica.getConnection()).thenAnswer(invocation -> healthyConnection());
+        routing = new ReadWriteRoutingDataSource(primary, Collections.singletonList(new ReplicaDataSource("r1", 1, replica)),
+                ReplicaBalanceEnumI.WEIGHTED, Duration.ofSeconds(5), Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        DataSourceHint.clear();
+        routing.destroy();
+    }
+
+    private static Connection healthyConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.getURL()).thenReturn("jdbc:h2:mem:replica");
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        return connection;
+    }
+
+    private static void beginReadOnlyTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    @Test
+    void readMarkIsClearedWhenQueryTakesNoConnection() throws Throwable {
+        Executor executor = mock(Executor.class);
+        Invocation invocation = new Invocation(executor, Executor.class.getMethod("query", MappedStatement.class, Object.class,
+                RowBounds.class, ResultHandler.class), new Object[]{null, null, RowBounds.DEFAULT, null});
+
+        DataSourceHint.markRead();
+        new ReadWriteRoutingInnerInterceptor().intercept(invocation);
+
+        assertThat(DataSourceHint.consumeRead()).isFalse();
+        // 遗留的标记会把下一次(如 JdbcTemplate 的写入)路由到从库
+        routing.getConnection();
+        verify(primary).getConnection();
+    }
+
+    @Test
+    void replicaConnectionMarksTransactionUntilCompletion() throws SQLException {
+        beginReadOnlyTransaction();
+
+        routing.getConnection();
+        routing.getConnection();
+
+        assertThat(DataSourceHint.isReplicaTransaction()).isTrue();
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(1);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertThat(DataSourceHint.isReplicaTransaction()).isFalse();
+    }
+
+    @Test
+    void forcedPrimaryDoesNotMarkTransaction() throws SQLException {
+        beginReadOnlyTransaction();
+
+        DataSourceHint.primary(() -> {
+            try {
+                return routing.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(DataSourceHint.isReplicaTransaction()).isFalse();
+        verify(primary).getConnection();
+    }
+
+    @Test
+    void cacheFillsReadFromPrimary() throws Exception {
+        AnnotationTransactionAttributeSource attributeSource = new AnnotationTransactionAttributeSource();
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        Method[] fills = {
+                SupremeCacheServiceImpl.class.getMethod("refreshCache"),
+                SupremeCacheServiceImpl.class.getMethod("refreshCache", LongPredicate.class),
+                SupremeCacheServiceImpl.class.getMethod("warmUpCache", CacheWarmUpContext.class)
+        };
+
+        for (Method fill : fills) {
+            // 按方法上的事务注解开启事务，事务开始时获取的连接就是回填缓存读取数据的连接
+            TransactionAttribute attribute = attributeSource.getTransactionAttribute(fill, SupremeCacheServiceImpl.class);
+            assertThat(attribute).as(fill.toString()).isNotNull();
+            TransactionStatus status = transactionManager.getTransaction(attribute);
+            assertThat(DataSourceHint.isReplicaTransaction()).as(fill.toString()).isFalse();
+            transactionManager.commit(status);
+        }
+
+        verify(primary, times(fills.length)).getConnection();
+    }
+}
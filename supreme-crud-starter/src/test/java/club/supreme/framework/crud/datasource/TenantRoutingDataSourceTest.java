@@ -0,0 +1,84 @@
+package club.supreme.framework.crud.datasource;
+
+import club.supreme.framework.constant.SupremeConstant;
+import club.supreme.framework.context.TenantContext;
+import club.supreme.framework.context.TenantContextHolder;
+import club.supreme.framework.crud.config.ReadWriteDataSourceAutoConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * TenantRoutingDataSource 的路由和包装顺序
+ *
+ * @author supreme
+ */
+class TenantRoutingDataSourceTest {
+
+    private final DataSource defaultDataSource = mock(DataSource.class);
+    private final DataSource tenantDataSource = mock(DataSource.class);
+    private final TenantDataSourceProvider provider = mock(TenantDataSourceProvider.class);
+    private TenantRoutingDataSource routing;
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.setTenantContext(null);
+        if (routing != null) {
+            routing.destroy();
+        }
+    }
+
+    private TenantRoutingDataSource routing() throws SQLException {
+        when(defaultDataSource.getConnection()).thenReturn(mock(Connection.class));
+        when(tenantDataSource.getConnection()).thenReturn(mock(Connection.class));
+        when(provider.create(1L)).thenReturn(tenantDataSource);
+        return new TenantRoutingDataSource(defaultDataSource, () -> provider, 10, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void privilegedTenantUsesDefaultDataSource() throws SQLException {
+        routing = routing();
+        TenantContextHolder.setTenantContext(new TenantContext().setTenantId(SupremeConstant.Tenant.DEFAULT_PRIVILEGED_TENANT_ID));
+
+        routing.getConnection();
+        TenantContextHolder.setTenantContext(null);
+        routing.getConnection();
+
+        verify(defaultDataSource, times(2)).getConnection();
+        assertThat(routing.getPoolCount()).isZero();
+    }
+
+    @Test
+    void tenantUsesItsOwnPool() throws SQLException {
+        routing = routing();
+        TenantContextHolder.setTenantContext(new TenantContext().setTenantId(1L));
+
+        routing.getConnection();
+
+        verify(tenantDataSource).getConnection();
+        assertThat(routing.getMetrics()).containsOnlyKeys(1L);
+    }
+
+    @Test
+    void readWriteWrapsBeforeTenantRouting() {
+        ReadWriteDataSourceAutoConfiguration.ReadWriteDataSourcePostProcessor readWrite =
+                new ReadWriteDataSourceAutoConfiguration.ReadWriteDataSourcePostProcessor();
+        TenantDataSourcePostProcessor tenant = new TenantDataSourcePostProcessor();
+
+        assertThat(readWrite.getOrder()).isLessThan(tenant.getOrder());
+        // 已经是租户路由的数据源不再包装读写分离
+        routing = new TenantRoutingDataSource(defaultDataSource, () -> provider, 10, Duration.ofMinutes(10));
+        assertThat(readWrite.postProcessAfterInitialization(routing, "dataSource")).isSameAs(routing);
+        assertThat(tenant.postProcessAfterInitialization(routing, "dataSource")).isSameAs(routing);
+    }
+}
@@ -0,0 +1,141 @@
+package club.supreme.framework.crud.handler;
+
+import club.supreme.framework.context.TenantContext;
+import club.supreme.framework.context.TenantContextHolder;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static club.supreme.framework.crud.handler.SupremeTenantLineInnerInterceptor.MARKER;
+import static club.supreme.framework.crud.handler.SupremeTenantLineInnerInterceptor.TENANT_PARAMETER;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SupremeTenantLineInnerInterceptor 的参数位置计算和租户参数绑定
+ *
+ * @author supreme
+ */
+class SupremeTenantLineInnerInterceptorTest {
+
+    private final Configuration configuration = new Configuration();
+    private final SupremeTenantLineInnerInterceptor interceptor = new SupremeTenantLineInnerInterceptor(new SupremeTenantLineHandler() {
+        @Override
+        public boolean isIgnoredTable(String tableName) {
+            return "t_area".equals(tableName);
+        }
+    });
+
+    @BeforeEach
+    void setUp() {
+        TenantContextHolder.setTenantContext(new TenantContext().setTenantId(7L));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.setTenantContext(null);
+    }
+
+    @Test
+    void quotedQuestionMarksAreNotParameters() {
+        SupremeTenantLineInnerInterceptor.Rewrite rewrite = SupremeTenantLineInnerInterceptor.Rewrite.of(
+                "SELECT * FROM t WHERE a = '?' AND b = \"?\" AND c = `?` AND d = 'it''s ?' AND e = ? AND tenant_id = " + MARKER);
+
+        assertThat(rewrite.tenantIndexes).containsExactly(1);
+        assertThat(rewrite.parameterCount).isEqualTo(2);
+        assertThat(rewrite.sql).endsWith("d = 'it''s ?' AND e = ? AND tenant_id = ?");
+    }
+
+    @Test
+    void multiRowValuesGetOneIndexPerRow() {
+        SupremeTenantLineInnerInterceptor.Rewrite rewrite = SupremeTenantLineInnerInterceptor.Rewrite.of(
+                "INSERT INTO t (a, b, tenant_id) VALUES (?, ?, " + MARKER + "), (?, ?, " + MARKER + ")");
+
+        assertThat(rewrite.tenantIndexes).containsExactly(2, 5);
+        assertThat(rewrite.parameterCount).isEqualTo(6);
+        assertThat(rewrite.sql).isEqualTo("INSERT INTO t (a, b, tenant_id) VALUES (?, ?, ?), (?, ?, ?)");
+        assertThat(rewrite.template).contains(MARKER);
+    }
+
+    @Test
+    void tenantParameterIsInsertedAtItsIndex() {
+        BoundSql boundSql = query("SELECT * FROM t_dict WHERE id IN (SELECT dict_id FROM t_item WHERE code = ?) AND name = ?", "code", "name");
+
+        assertThat(boundSql.getSql()).doesNotContain(MARKER).doesNotContain("= 7");
+        assertThat(boundSql.getAdditionalParameter(TENANT_PARAMETER)).isEqualTo(7L);
+        assertThat(properties(boundSql)).hasSize(4).containsSubsequence("code", "name");
+        assertTenantPlaceholdersMatchMappings(boundSql);
+    }
+
+    @Test
+    void ignoredTablesAreNotRewritten() {
+        BoundSql boundSql = query("SELECT * FROM t_area WHERE name = ?", "name");
+
+        assertThat(boundSql.getSql()).isEqualTo("SELECT * FROM t_area WHERE name = ?");
+        assertThat(properties(boundSql)).containsExactly("name");
+    }
+
+    @Test
+    void unknownPlaceholdersFallBackToLiteral() {
+        // SQL 中的 ? 比 ParameterMapping 多一个，无法确定租户参数的位置
+        BoundSql boundSql = query("SELECT * FROM t_dict WHERE name = ? AND code = ?", "name");
+
+        assertThat(boundSql.getSql()).doesNotContain(MARKER).contains("tenant_id = 7");
+        assertThat(properties(boundSql)).containsExactly("name");
+    }
+
+    @Test
+    void rewrittenBoundSqlIsNotRewrittenAgain() {
+        BoundSql boundSql = query("SELECT * FROM t_dict WHERE name = ?", "name");
+        String sql = boundSql.getSql();
+
+        interceptor.beforeQuery(null, statement(boundSql.getSql()), null, RowBounds.DEFAULT, null, boundSql);
+
+        assertThat(boundSql.getSql()).isEqualTo(sql);
+        assertThat(properties(boundSql)).hasSize(2);
+    }
+
+    private BoundSql query(String sql, String... properties) {
+        List<ParameterMapping> mappings = new ArrayList<>();
+        for (String property : properties) {
+            mappings.add(new ParameterMapping.Builder(configuration, property, String.class).build());
+        }
+        BoundSql boundSql = new BoundSql(configuration, sql, mappings, Collections.emptyMap());
+        interceptor.beforeQuery(null, statement(sql), null, RowBounds.DEFAULT, null, boundSql);
+        return boundSql;
+    }
+
+    private MappedStatement statement(String sql) {
+        return new MappedStatement.Builder(configuration, "test.select", new StaticSqlSource(configuration, sql), SqlCommandType.SELECT).build();
+    }
+
+    private static List<String> properties(BoundSql boundSql) {
+        return boundSql.getParameterMappings().stream().map(ParameterMapping::getProperty).collect(Collectors.toList());
+    }
+
+    /**
+     * 每个紧跟在 tenant_id = 后面的 ? 对应租户参数，其他 ? 对应原来的参数
+     */
+    private static void assertTenantPlaceholdersMatchMappings(BoundSql boundSql) {
+        String sql = boundSql.getSql();
+        List<String> properties = properties(boundSql);
+        int parameter = 0;
+        for (int i = sql.indexOf('?'); i >= 0; i = sql.indexOf('?', i + 1)) {
+            boolean tenant = sql.substring(0, i).trim().matches("(?s).*tenant_id\\s*=$");
+            String property = properties.get(parameter++);
+            assertThat(TENANT_PARAMETER.equals(property)).as("第 %d 个参数 %s", parameter, property).isEqualTo(tenant);
+        }
+        assertThat(parameter).isEqualTo(properties.size());
+    }
+}
@@ -0,0 +1,66 @@
+package club.supreme.framework.crud.injector;
+
+import club.supreme.framework.crud.injector.method.BulkUpdateById;
+import club.supreme.framework.crud.support.Dict;
+import club.supreme.framework.crud.support.DictMapper;
+import club.supreme.framework.crud.support.InjectedStatements;
+import com.baomidou.mybatisplus.annotation.DbType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * BulkUpdateById 生成的 SQL
+ *
+ * @author supreme
+ */
+class BulkUpdateByIdTest {
+
+    private static String sql(DbType dbType, String... columns) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("list", Arrays.asList(new Dict().setId(1L).setName("a"), new Dict().setId(2L).setName("b")));
+        params.put(BulkUpdateById.COLUMNS, new LinkedHashSet<>(Arrays.asList(columns)));
+        return new InjectedStatements(dbType, DictMapper.class, Dict.class).sql(BulkUpdateById.METHOD, params);
+    }
+
+    @Test
+    void caseWhenUpdatesOnlyRequestedColumns() {
+        assertThat(sql(DbType.MYSQL, "name"))
+                .isEqualTo("UPDATE t_dict SET name=CASE id WHEN ? THEN ? WHEN ? THEN ? END WHERE id IN(?,?)");
+    }
+
+    @Test
+    void caseWhenUsesTwoParametersPerColumnAndOnePerId() {
+        String sql = sql(DbType.MYSQL, "name", "sortValue");
+
+        assertThat(sql).contains("name=CASE id").contains("sort_value=CASE id").doesNotContain("created_at");
+        assertThat(sql.chars().filter(c -> c == '?').count()).isEqualTo(2L * BulkUpdateById.parametersPerRow(DbType.MYSQL, 2));
+    }
+
+    @Test
+    void postgresqlJoinsTypedValuesList() {
+        String sql = sql(DbType.POSTGRE_SQL, "name");
+
+        assertThat(sql).startsWith("UPDATE t_dict SET name=v.c0 FROM(VALUES(CAST(? AS bigint),CAST(? AS varchar)),(CAST(? AS bigint),CAST(? AS varchar)))")
+                .contains("AS v(k,c0)")
+                .endsWith("WHERE t_dict.id = v.k");
+        assertThat(sql.chars().filter(c -> c == '?').count()).isEqualTo(2L * BulkUpdateById.parametersPerRow(DbType.POSTGRE_SQL, 1));
+    }
+
+    @Test
+    void postgresqlCastsEveryValueColumn() {
+        assertThat(sql(DbType.POSTGRE_SQL, "sortValue", "updatedAt"))
+                .startsWith("UPDATE t_dict SET sort_value=v.c1,updated_at=v.c3 FROM(VALUES(CAST(? AS bigint),CAST(? AS integer),CAST(? AS timestamp))")
+                .contains("AS v(k,c1,c3)");
+    }
+
+    @Test
+    void insertOnlyColumnsAreNotUpdatable() {
+        assertThat(sql(DbType.MYSQL, "name", "createdAt")).doesNotContain("created_at");
+    }
+}
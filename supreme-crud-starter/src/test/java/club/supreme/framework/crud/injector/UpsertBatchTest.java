@@ -0,0 +1,61 @@
+package club.supreme.framework.crud.injector;
+
+import club.supreme.framework.crud.injector.method.UpsertBatch;
+import club.supreme.framework.crud.support.Dict;
+import club.supreme.framework.crud.support.DictMapper;
+import club.supreme.framework.crud.support.InjectedStatements;
+import com.baomidou.mybatisplus.annotation.DbType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UpsertBatch 生成的 SQL
+ *
+ * @author supreme
+ */
+class UpsertBatchTest {
+
+    private static final List<Dict> ROWS = Arrays.asList(new Dict().setId(1L).setName("a"), new Dict().setId(2L));
+
+    private static String sql(DbType dbType) {
+        return new InjectedStatements(dbType, DictMapper.class, Dict.class)
+                .sql(UpsertBatch.METHOD, InjectedStatements.listParam(ROWS));
+    }
+
+    @Test
+    void mysqlUsesRowAliasAndKeepsExistingValuesForNulls() {
+        String sql = sql(DbType.MYSQL);
+
+        assertThat(sql).startsWith("INSERT INTO t_dict(id,name,sort_value,tenant_id,created_at,updated_at)VALUES(?,?,?,?,?,?),(?,?,?,?,?,?)")
+                .endsWith("AS new ON DUPLICATE KEY UPDATE name=COALESCE(new.name,name),sort_value=COALESCE(new.sort_value,sort_value),"
+                        + "updated_at=COALESCE(new.updated_at,updated_at)");
+    }
+
+    @Test
+    void mariadbUsesValuesFunction() {
+        assertThat(sql(DbType.MARIADB)).doesNotContain("AS new")
+                .endsWith("ON DUPLICATE KEY UPDATE name=COALESCE(VALUES(name),name),sort_value=COALESCE(VALUES(sort_value),sort_value),"
+                        + "updated_at=COALESCE(VALUES(updated_at),updated_at)");
+    }
+
+    @Test
+    void postgresqlQualifiesExistingRow() {
+        String sql = sql(DbType.POSTGRE_SQL);
+
+        assertThat(sql).startsWith("INSERT INTO t_dict AS t(id,name,sort_value,tenant_id,created_at,updated_at)VALUES")
+                .endsWith("ON CONFLICT(id)DO UPDATE SET name=COALESCE(EXCLUDED.name,t.name),sort_value=COALESCE(EXCLUDED.sort_value,t.sort_value),"
+                        + "updated_at=COALESCE(EXCLUDED.updated_at,t.updated_at)");
+    }
+
+    @Test
+    void insertOnlyColumnsAreNeverUpdated() {
+        for (DbType dbType : new DbType[]{DbType.MYSQL, DbType.MARIADB, DbType.POSTGRE_SQL}) {
+            String update = sql(dbType).replaceAll("^.*UPDATE", "");
+            assertThat(update).doesNotContain("tenant_id=").doesNotContain("created_at=").doesNotContain("id=");
+        }
+    }
+}
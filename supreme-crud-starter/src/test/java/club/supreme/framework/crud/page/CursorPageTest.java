@@ -0,0 +1,73 @@
+package club.supreme.framework.crud.page;
+
+import club.supreme.framework.crud.support.Dict;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.OrderItem;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CursorPage 生成的 keyset 条件
+ *
+ * @author supreme
+ */
+class CursorPageTest {
+
+    private static final List<String> PROPERTIES = Arrays.asList("createdAt", "id");
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2021, 12, 1, 8, 30, 15, 123_000_000);
+
+    private static String nextCursor() {
+        CursorPage<Dict> first = new CursorPage<>(null, 2, Dict.class, PROPERTIES,
+                Arrays.asList(OrderItem.desc("created_at"), OrderItem.desc("id")));
+        first.setRecords(Arrays.asList(new Dict().setId(5L).setCreatedAt(CREATED_AT.plusDays(1)),
+                new Dict().setId(3L).setCreatedAt(CREATED_AT),
+                new Dict().setId(2L).setCreatedAt(CREATED_AT)));
+        return first.complete().getNextCursor();
+    }
+
+    private static String predicate(QueryWrapper<Dict> wrapper) {
+        return wrapper.getSqlSegment().replaceAll("#\\{[^}]+}", "?").replaceAll("\\s+", "");
+    }
+
+    @Test
+    void firstPageAddsNoCondition() {
+        CursorPage<Dict> page = new CursorPage<>(null, 2, Dict.class, PROPERTIES, Arrays.asList(OrderItem.desc("created_at"), OrderItem.desc("id")));
+
+        assertThat(page.seek(new QueryWrapper<>()).getSqlSegment()).isEmpty();
+        assertThat(page.getSize()).isEqualTo(3);
+    }
+
+    @Test
+    void completeTrimsExtraRowAndEncodesLastRow() {
+        CursorPage<Dict> page = new CursorPage<>(null, 2, Dict.class, PROPERTIES, Arrays.asList(OrderItem.desc("created_at"), OrderItem.desc("id")));
+        page.setRecords(Arrays.asList(new Dict().setId(1L), new Dict().setId(2L)));
+
+        assertThat(page.complete().getNextCursor()).isNull();
+        assertThat(page.getSize()).isEqualTo(2);
+        assertThat(nextCursor()).isNotEmpty();
+    }
+
+    @Test
+    void descendingOrderSeeksBelowCursor() {
+        CursorPage<Dict> page = new CursorPage<>(nextCursor(), 2, Dict.class, PROPERTIES,
+                Arrays.asList(OrderItem.desc("created_at"), OrderItem.desc("id")));
+
+        QueryWrapper<Dict> wrapper = page.seek(new QueryWrapper<>());
+
+        assertThat(predicate(wrapper)).isEqualTo("(((created_at<?)OR(created_at=?ANDid<?)))");
+        assertThat(wrapper.getParamNameValuePairs().values()).containsExactlyInAnyOrder(CREATED_AT, CREATED_AT, 3L);
+    }
+
+    @Test
+    void ascendingOrderSeeksAboveCursor() {
+        CursorPage<Dict> page = new CursorPage<>(nextCursor(), 2, Dict.class, PROPERTIES,
+                Arrays.asList(OrderItem.asc("created_at"), OrderItem.asc("id")));
+
+        assertThat(predicate(page.seek(new QueryWrapper<>()))).isEqualTo("(((created_at>?)OR(created_at=?ANDid>?)))");
+    }
+}
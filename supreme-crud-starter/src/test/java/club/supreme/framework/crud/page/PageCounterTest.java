@@ -0,0 +1,134 @@
+package club.supreme.framework.crud.page;
+
+import club.supreme.framework.context.TenantContext;
+import club.supreme.framework.context.TenantContextHolder;
+import club.supreme.framework.crud.datasource.DataSourceHint;
+import club.supreme.framework.enums.crud.TenantIsolateLevelEnumI;
+import club.supreme.framework.props.SupremeProperties;
+import com.baomidou.mybatisplus.annotation.DbType;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * PageCounter 的估算开关和事务中的缓存失效
+ *
+ * @author supreme
+ */
+class PageCounterTest {
+
+    private PageCounter counter;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TenantContextHolder.setTenantContext(null);
+        counter.destroy();
+    }
+
+    private static PageCounter counter(SupremeProperties.Tenant tenant, String... estimateTables) {
+        SupremeProperties.Crud.PageCount properties = new SupremeProperties.Crud.PageCount();
+        properties.getEstimateTables().addAll(Arrays.asList(estimateTables));
+        return new PageCounter(properties, tenant);
+    }
+
+    private static SupremeProperties.Tenant lineTenant(String... ignoredTables) {
+        SupremeProperties.Tenant tenant = new SupremeProperties.Tenant();
+        tenant.setEnabled(true);
+        tenant.setIsolateLevel(TenantIsolateLevelEnumI.LINE);
+        tenant.getIgnoredTables().addAll(Arrays.asList(ignoredTables));
+        return tenant;
+    }
+
+    @Test
+    void estimateIsOptInPerTable() {
+        counter = counter(new SupremeProperties.Tenant(), "T_Dict");
+
+        assertThat(counter.estimateAllowed("t_dict")).isTrue();
+        assertThat(counter.estimateAllowed("t_user")).isFalse();
+        // 不允许时不访问数据库
+        assertThat(counter.estimate(null, DbType.MYSQL, "t_user")).isNull();
+    }
+
+    @Test
+    void estimateIsRefusedForLineTenantTables() {
+        counter = counter(lineTenant("t_area"), "t_dict", "t_area");
+
+        assertThat(counter.estimateAllowed("t_dict")).isFalse();
+        assertThat(counter.estimateAllowed("t_area")).isTrue();
+    }
+
+    @Test
+    void estimateIsAllowedForDatasourceTenants() {
+        SupremeProperties.Tenant tenant = lineTenant();
+        tenant.setIsolateLevel(TenantIsolateLevelEnumI.DATASOURCE);
+        counter = counter(tenant, "t_dict");
+
+        assertThat(counter.estimateAllowed("t_dict")).isTrue();
+    }
+
+    @Test
+    void cachedCountIsPerTenant() {
+        counter = counter(new SupremeProperties.Tenant());
+        AtomicLong queries = new AtomicLong();
+
+        TenantContextHolder.setTenantContext(new TenantContext().setTenantId(1L));
+        counter.cachedCount("t_dict", null, queries::incrementAndGet);
+        counter.cachedCount("t_dict", null, queries::incrementAndGet);
+        TenantContextHolder.setTenantContext(new TenantContext().setTenantId(2L));
+        counter.cachedCount("t_dict", null, queries::incrementAndGet);
+
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void transactionRegistersOneSynchronizationForAllWrites() {
+        counter = counter(new SupremeProperties.Tenant());
+        AtomicLong queries = new AtomicLong();
+        TransactionSynchronizationManager.initSynchronization();
+
+        counter.beforeUpdate(null, statement("a", "UPDATE t_dict SET name = 1"), null);
+        counter.beforeUpdate(null, statement("b", "DELETE FROM t_dict WHERE id = 1"), null);
+        counter.beforeUpdate(null, statement("c", "INSERT INTO t_user (id) VALUES (1)"), null);
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(1);
+
+        assertThat(counter.cachedCount("t_dict", null, queries::incrementAndGet)).isEqualTo(1);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        assertThat(TransactionSynchronizationManager.getResource(counter)).isNull();
+        // 事务中缓存的总数在事务结束后失效
+        assertThat(counter.cachedCount("t_dict", null, queries::incrementAndGet)).isEqualTo(2);
+    }
+
+    @Test
+    void asyncCountSeesCallerContext() {
+        counter = counter(new SupremeProperties.Tenant());
+        TenantContextHolder.setTenantContext(new TenantContext().setTenantId(3L));
+
+        Future<Long> count = DataSourceHint.primary(() -> counter.countAsync(
+                () -> DataSourceHint.isForcePrimary() ? TenantContextHolder.getTenantId() : -1L));
+
+        assertThat(counter.await(count)).isEqualTo(3L);
+    }
+
+    private static MappedStatement statement(String id, String sql) {
+        Configuration configuration = new Configuration();
+        return new MappedStatement.Builder(configuration, id, new StaticSqlSource(configuration, sql),
+                SqlCommandType.valueOf(sql.substring(0, 6))).build();
+    }
+}
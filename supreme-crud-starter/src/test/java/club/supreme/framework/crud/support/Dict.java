@@ -0,0 +1,38 @@
+package club.supreme.framework.crud.support;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.time.LocalDateTime;
+
+/**
+ * SQL 生成测试使用的实体
+ *
+ * @author supreme
+ */
+@Data
+@Accessors(chain = true)
+@TableName("t_dict")
+public class Dict {
+
+    @TableId(value = "id", type = IdType.INPUT)
+    private Long id;
+
+    private String name;
+
+    private Integer sortValue;
+
+    @TableField(value = "tenant_id", fill = FieldFill.INSERT)
+    private Long tenantId;
+
+    @TableField(value = "created_at", fill = FieldFill.INSERT)
+    private LocalDateTime createdAt;
+
+    @TableField(value = "updated_at", fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,11 @@
+package club.supreme.framework.crud.support;
+
+import club.supreme.framework.crud.mapper.SupremeBaseMapper;
+
+/**
+ * SQL 生成测试使用的 mapper
+ *
+ * @author supreme
+ */
+public interface DictMapper extends SupremeBaseMapper<Dict> {
+}
@@ -0,0 +1,54 @@
+package club.supreme.framework.crud.support;
+
+import club.supreme.framework.crud.injector.SupremeSqlInjector;
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 不连接数据库，用 SupremeSqlInjector 为实体生成注入的 MappedStatement，并渲染出 SQL
+ *
+ * @author supreme
+ */
+public class InjectedStatements {
+
+    private final MybatisConfiguration configuration = new MybatisConfiguration();
+    private final Class<?> mapperClass;
+
+    public InjectedStatements(DbType dbType, Class<?> mapperClass, Class<?> entityClass) {
+        this.mapperClass = mapperClass;
+        MapperBuilderAssistant assistant = new MapperBuilderAssistant(configuration, mapperClass.getName());
+        assistant.setCurrentNamespace(mapperClass.getName());
+        TableInfo tableInfo = TableInfoHelper.initTableInfo(assistant, entityClass);
+        new SupremeSqlInjector(dbType).getMethodList(mapperClass, tableInfo)
+                .forEach(method -> method.inject(assistant, mapperClass, entityClass, tableInfo));
+    }
+
+    /**
+     * 渲染 SQL，参数与 mapper 方法的 @Param 一致
+     *
+     * @param method mapper 方法名
+     * @param params 参数名 -> 值
+     * @return 合并空白、去掉括号和逗号两侧空白后的 SQL
+     */
+    public String sql(String method, Map<String, Object> params) {
+        String sql = configuration.getMappedStatement(mapperClass.getName() + "." + method).getBoundSql(params).getSql();
+        return sql.replaceAll("\\s+", " ").replaceAll(" ?([(),]) ?", "$1").trim();
+    }
+
+    /**
+     * 只有一个 List 参数的 mapper 方法的参数
+     */
+    public static Map<String, Object> listParam(List<?> list) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("collection", list);
+        params.put("list", list);
+        return params;
+    }
+}
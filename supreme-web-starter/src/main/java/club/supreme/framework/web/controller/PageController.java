@@ -2,6 +2,7 @@ package club.supreme.framework.web.controller;
 
 import club.supreme.framework.crud.conditions.Wraps;
 import club.supreme.framework.crud.conditions.query.QueryWrap;
+import club.supreme.framework.crud.page.CursorPage;
 import club.supreme.framework.crud.page.PageParams;
 import cn.hutool.core.bean.BeanUtil;
 import com.baomidou.mybatisplus.core.metadata.IPage;
@@ -39,6 +40,10 @@ public interface PageController<Entity, PageQuery> extends BaseController<Entity
         // 处理查询参数，如：覆盖前端传递的 current、size、sort 等参数 以及 model 中的参数 【提供给之类重写】【无默认实现】
         handlerQueryParams(params);
 
+        if (params.isCursorMode()) {
+            return cursorQuery(params);
+        }
+
         // 构建分页参数(current、size)和排序字段等
         IPage<Entity> page = params.buildPage(getEntityClass());
         Entity model = BeanUtil.toBean(params.getModel(), getEntityClass());
@@ -46,14 +51,35 @@ public interface PageController<Entity, PageQuery> extends BaseController<Entity
         // 根据前端传递的参数，构建查询条件【提供给之类重写】【有默认实现】
         QueryWrap<Entity> wrapper = handlerWrapper(model, params);
 
-        // 执行单表分页查询
-        getBaseService().page(page, wrapper);
+        // 执行单表分页查询，按 countMode 查询总数
+        getBaseService().page(page, wrapper, params.getCountMode());
 
         // 处理查询后的分页结果， 如：调用EchoService回显字典、关联表数据等 【提供给之类重写】【无默认实现】
         handlerResult(page);
         return page;
     }
 
+    /**
+     * 执行游标分页查询
+     * <p>
+     * 不查询总数，根据游标追加 (排序字段, id) 的范围条件代替 OFFSET，翻到任意一页的代价都与第一页相同
+     *
+     * @param params 分页参数，cursor 不为null
+     * @return 游标分页信息，nextCursor 为下一页的游标
+     */
+    default IPage<Entity> cursorQuery(PageParams<PageQuery> params) {
+        CursorPage<Entity> page = params.buildCursorPage(getEntityClass());
+        Entity model = BeanUtil.toBean(params.getModel(), getEntityClass());
+
+        QueryWrap<Entity> wrapper = page.seek(handlerWrapper(model, params));
+
+        getBaseService().page(page, wrapper);
+        page.complete();
+
+        handlerResult(page);
+        return page;
+    }
+
     /**
      * 处理对象中的非空参数和扩展字段中的区间参数，可以覆盖后处理组装查询条件
      *